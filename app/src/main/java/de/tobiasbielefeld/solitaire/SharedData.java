@@ -32,6 +32,8 @@ import java.util.Locale;
 import java.util.Random;
 
 import de.tobiasbielefeld.solitaire.handler.HandlerDealCards;
+import de.tobiasbielefeld.solitaire.handler.HandlerGamePipeline;
+import de.tobiasbielefeld.solitaire.handler.HandlerRecordListRedo;
 import de.tobiasbielefeld.solitaire.handler.HandlerRecordListUndo;
 import de.tobiasbielefeld.solitaire.helper.AutoMove;
 import de.tobiasbielefeld.solitaire.helper.BackgroundMusic;
@@ -46,6 +48,7 @@ import de.tobiasbielefeld.solitaire.helper.Bitmaps;
 import de.tobiasbielefeld.solitaire.helper.CardHighlight;
 import de.tobiasbielefeld.solitaire.helper.GameLogic;
 import de.tobiasbielefeld.solitaire.helper.Hint;
+import de.tobiasbielefeld.solitaire.helper.MoveTransaction;
 import de.tobiasbielefeld.solitaire.helper.MovingCards;
 import de.tobiasbielefeld.solitaire.helper.Preferences;
 import de.tobiasbielefeld.solitaire.helper.RecordList;
@@ -59,7 +62,7 @@ import de.tobiasbielefeld.solitaire.helper.Timer;
 
 public class SharedData {
 
-    public final static int OPTION_UNDO = 1, OPTION_NO_RECORD = 2, OPTION_REVERSED_RECORD = 3;
+    public final static int OPTION_UNDO = 1, OPTION_NO_RECORD = 2, OPTION_REVERSED_RECORD = 3, OPTION_REDO = 4;
 
     //Strings
     public static String GAME = "game";
@@ -92,7 +95,10 @@ public class SharedData {
     public static HandlerTestAfterMove handlerTestAfterMove = new HandlerTestAfterMove();
     public static HandlerTestIfWon handlerTestIfWon = new HandlerTestIfWon();
     public static HandlerRecordListUndo handlerRecordListUndo = new HandlerRecordListUndo();
+    public static HandlerRecordListRedo handlerRecordListRedo = new HandlerRecordListRedo();
     public static HandlerDealCards handlerDealCards = new HandlerDealCards();
+    public static HandlerGamePipeline gamePipeline = new HandlerGamePipeline();
+    public static MoveTransaction moveTransaction = new MoveTransaction();
     public static BackgroundMusic backgroundSound = new BackgroundMusic();
     public static int activityCounter = 0;
 
@@ -109,6 +115,7 @@ public class SharedData {
         //Bitmaps
         if (!bitmaps.checkResources()) {
             bitmaps.setResources(context.getResources());
+            bitmaps.setCacheDirectory(context.getCacheDir());
         }
 
         if (lg.getGameCount()==0){
@@ -139,13 +146,18 @@ public class SharedData {
      * @param option      The option to apply
      */
     public static void moveToStack(Card card, Stack destination, int option) {
-        ArrayList<Card> cards = new ArrayList<>();
-        cards.add(card);
+        moveTransaction.begin();
 
-        ArrayList<Stack> destinations = new ArrayList<>();
-        destinations.add(destination);
+        try {
+            ArrayList<Card> cards = moveTransaction.getCardBuffer();
+            ArrayList<Stack> destinations = moveTransaction.getStackBuffer();
+            cards.add(card);
+            destinations.add(destination);
 
-        moveToStack(cards, destinations, option);
+            moveToStack(cards, destinations, option);
+        } finally {
+            moveTransaction.commit();
+        }
     }
 
     /**
@@ -166,12 +178,18 @@ public class SharedData {
      * @param option      The option to apply
      */
     public static void moveToStack(ArrayList<Card> cards, Stack destination, int option) {
-        ArrayList<Stack> destinations = new ArrayList<>();
+        moveTransaction.begin();
 
-        for (int i = 0; i < cards.size(); i++)
-            destinations.add(destination);
+        try {
+            ArrayList<Stack> destinations = moveTransaction.getStackBuffer();
 
-        moveToStack(cards, destinations, option);
+            for (int i = 0; i < cards.size(); i++)
+                destinations.add(destination);
+
+            moveToStack(cards, destinations, option);
+        } finally {
+            moveTransaction.commit();
+        }
     }
 
     public static void moveToStack(ArrayList<Card> cards, ArrayList<Stack> destinations) {
@@ -187,6 +205,9 @@ public class SharedData {
      * - move every card one by one
      * - bring the moving cards to front
      * - and start handlers to call some methods
+     * <p>
+     * Updating the views runs in the moveTransaction, so it happens only once per touched stack,
+     * or at the end of an outer transaction.
      *
      * @param cards        The cards to move
      * @param destinations The destinations of the movements
@@ -194,50 +215,70 @@ public class SharedData {
      */
     public static void moveToStack(ArrayList<Card> cards, ArrayList<Stack> destinations, int option) {
 
-        if (option == OPTION_UNDO) {
-            scores.undo(cards, destinations);
-        } else if (option == 0) {
-            scores.move(cards, destinations);
-            recordList.add(cards);
-        } else if (option == OPTION_REVERSED_RECORD) {
-            //reverse the cards and add the reversed list to the record
-            ArrayList<Card> cardsReversed = new ArrayList<>();
+        moveTransaction.begin();
+
+        try {
+            if (option == OPTION_UNDO) {
+                scores.undo(cards, destinations);
+            } else if (option == 0) {
+                scores.move(cards, destinations);
+
+                if (moveTransaction.testAndSetRecorded()) {
+                    ArrayList<Stack> origins = moveTransaction.getStackBuffer();
+
+                    for (int i = 0; i < cards.size(); i++) {
+                        origins.add(cards.get(i).getStack());
+                    }
+
+                    recordList.addToLastEntry(cards, origins);
+                } else {
+                    recordList.add(cards);
+                }
+            } else if (option == OPTION_REDO) {
+                scores.move(cards, destinations);                                                   //the cards are still in the record list
+            } else if (option == OPTION_REVERSED_RECORD) {
+                //reverse the cards and add the reversed list to the record
+                ArrayList<Card> cardsReversed = moveTransaction.getCardBuffer();
+
+                for (int i = 0; i < cards.size(); i++) {
+                    cardsReversed.add(cards.get(cards.size() - 1 - i));
+                }
+
+                recordList.add(cardsReversed);
+                scores.move(cards, destinations);
+            }
+            //else if (option == OPTION_NO_RECORD), do nothing
 
             for (int i = 0; i < cards.size(); i++) {
-                cardsReversed.add(cards.get(cards.size() - 1 - i));
+                if (cards.get(i).getStack() == destinations.get(i)) {                               //this means to flip a card
+                    cards.get(i).flip();
+                }
             }
 
-            recordList.add(cardsReversed);
-            scores.move(cards, destinations);
-        }
-        //else if (option == OPTION_NO_RECORD), do nothing
+            for (int i = 0; i < cards.size(); i++) {
+                Card card = cards.get(i);
+                Stack origin = card.getStack();
 
+                if (origin != destinations.get(i)) {
+                    if (origin != null) {
+                        origin.removeCard(card, false);
+                        moveTransaction.touch(origin);
+                    }
 
-        for (int i = 0; i < cards.size(); i++) {
-            if (cards.get(i).getStack() == destinations.get(i)) {                                     //this means to flip a card
-                cards.get(i).flip();
-            }
-        }
+                    destinations.get(i).addCard(card, false);
+                }
 
-        for (int i = 0; i < cards.size(); i++) {
-            if (cards.get(i).getStack() != destinations.get(i)) {
-                cards.get(i).removeFromCurrentStack();
-                destinations.get(i).addCard(cards.get(i),false);
+                moveTransaction.touch(destinations.get(i));
+                moveTransaction.addMovedCard(card);
             }
-        }
-
-        for (Stack stack : destinations){
-            stack.updateSpacing();
-        }
-
-        for (Card card : cards) {
-            card.view.bringToFront();
+        } finally {
+            moveTransaction.commit();
         }
 
         //following stuff in handlers, because they should wait until possible card movements are over.
         if (option == 0) {
-            handlerTestAfterMove.sendEmptyMessageDelayed(0, 100);
-            handlerTestIfWon.sendEmptyMessageDelayed(0, 200);
+            gamePipeline.add(handlerTestAfterMove);
+            gamePipeline.add(handlerTestIfWon);
         }
     }
 
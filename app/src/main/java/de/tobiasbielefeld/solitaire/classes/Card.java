@@ -20,10 +20,13 @@ package de.tobiasbielefeld.solitaire.classes;
 
 import android.graphics.Bitmap;
 import android.graphics.PointF;
+import android.graphics.Rect;
 
-import java.util.ArrayList;
+import java.io.IOException;
 import java.util.List;
 
+import de.tobiasbielefeld.solitaire.helper.SaveFile;
+
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 
 /**
@@ -34,8 +37,9 @@ import static de.tobiasbielefeld.solitaire.SharedData.*;
 public class Card {
 
     public static int width, height;                                                                //width and height calculated in relation of the screen dimensions in Main activity
-    public static Bitmap background;
-    private static Bitmap[] drawables = new Bitmap[52];
+    private static Bitmap frontAtlas, backAtlas;                                                    //the decoded bitmap files, shared by all cards
+    private static Rect[] frontSources = new Rect[52];                                              //regions of the card fronts in the file
+    private static Rect backSource = new Rect();                                                    //region of the card background in the file
     public CustomImageView view;                                                                    //the image view of the card, for easier code not private
     private int color;                                                                              //1=clubs 2=hearts 3=Spades 4=diamonds
     private int value;                                                                              //1=ace 2,3,4,5,6,7,8,9,10, 11=joker 12=queen 13=king
@@ -43,6 +47,14 @@ public class Card {
     private int id;                                                                                 //internal id
     private boolean isUp;                                                                           //indicates if the card is placed upwards or backwards
     private PointF oldLocation = new PointF();                                                      //old location so cards can be moved back if they can't placed on a new stack
+    private SpriteDrawable front = new SpriteDrawable();                                            //draws the front region of the shared bitmap file
+    private SpriteDrawable back = new SpriteDrawable();                                             //draws the background region of the shared bitmap file
+
+    static {
+        for (int i = 0; i < frontSources.length; i++) {
+            frontSources[i] = new Rect();
+        }
+    }
 
     /**
      * Sets id, color and value. The cards are initialized at game start with a for loop.
@@ -61,18 +73,19 @@ public class Card {
 
     /**
      * Sets the card drawables according to set preferences. Each card theme has one drawable file
-     * with 52 cards in it. These will be loaded in bitmaps and applied to the cards. The bitmap array
-     * has the same order like the cards array. If the fourColor theme is enabled, Clubs and Diamonds
-     * use another row in the bitmap file.
+     * with 52 cards in it. The cards draw their region of this file, no bitmaps are copied. The
+     * region array has the same order like the cards array. If the fourColor theme is enabled, Clubs
+     * and Diamonds use another row in the bitmap file.
      */
     public static void updateCardDrawableChoice() {
         boolean fourColors = prefs.getSavedFourColorMode();
+        frontAtlas = bitmaps.getCardFrontAtlas();
 
         for (int i = 0; i < 13; i++) {
-            drawables[i] = bitmaps.getCardFront(i, fourColors ? 1 : 0);
-            drawables[13 + i] = bitmaps.getCardFront(i, 2);
-            drawables[26 + i] = bitmaps.getCardFront(i, 3);
-            drawables[39 + i] = bitmaps.getCardFront(i, fourColors ? 5 : 4);
+            bitmaps.getCardFrontSource(i, fourColors ? 1 : 0, frontSources[i]);
+            bitmaps.getCardFrontSource(i, 2, frontSources[13 + i]);
+            bitmaps.getCardFrontSource(i, 3, frontSources[26 + i]);
+            bitmaps.getCardFrontSource(i, fourColors ? 5 : 4, frontSources[39 + i]);
         }
 
         if (cards == null) {
@@ -92,7 +105,8 @@ public class Card {
     public static void updateCardBackgroundChoice() {
         int positionX = prefs.getSavedCardBackground();
         int positionY = prefs.getSavedCardBackgroundColor();
-        background = bitmaps.getCardBack(positionX, positionY);
+        backAtlas = bitmaps.getCardBackAtlas();
+        bitmaps.getCardBackSource(positionX, positionY, backSource);
 
         if (cards == null) {
             return;
@@ -106,19 +120,46 @@ public class Card {
     }
 
     /**
-     * Save the card direction (up/down) as a string list.
+     * Save the card directions (up/down) in the save file, one bit per card.
      */
-    public static void save() {
-        List<Integer> list = new ArrayList<>(cards.length);
+    public static void save(SaveFile file) {
+        file.writeInt(cards.length);
 
-        for (Card card : cards)
-            list.add(card.isUp ? 1 : 0);
+        for (int i = 0; i < cards.length; i += 8) {
+            int bits = 0;
 
-        prefs.saveCards(list);
+            for (int j = 0; j < 8 && i + j < cards.length; j++) {
+                if (cards[i + j].isUp)
+                    bits |= 1 << j;
+            }
+
+            file.writeByte(bits);
+        }
     }
 
     /**
-     * Load the card direction (up/down) from a string list and applies the data.
+     * Load the card directions (up/down) from the save file and applies the data.
+     */
+    public static void load(SaveFile file) throws IOException {
+        if (file.readInt() != cards.length) {
+            throw new IOException("Wrong number of cards in save file");
+        }
+
+        for (int i = 0; i < cards.length; i += 8) {
+            int bits = file.readByte();
+
+            for (int j = 0; j < 8 && i + j < cards.length; j++) {
+                if ((bits & (1 << j)) != 0)
+                    cards[i + j].flipUp();
+                else
+                    cards[i + j].flipDown();
+            }
+        }
+    }
+
+    /**
+     * Load the card direction (up/down) from the old string list in the shared preferences. Only
+     * used to convert games saved before the save file existed.
      */
     public static void load() {
         List<Integer> list = prefs.getSavedCards();
@@ -136,14 +177,28 @@ public class Card {
      * color and value.
      */
     public void setCardFront() {
-        view.setImageBitmap(drawables[(color - 1) * 13 + value - 1]);
+        front.setSprite(frontAtlas, frontSources[(color - 1) * 13 + value - 1]);
+        showSprite(front);
     }
 
     /**
      * Sets the card background, there is only one background for all cards.
      */
     public void setCardBack() {
-        view.setImageBitmap(background);
+        back.setSprite(backAtlas, backSource);
+        showSprite(back);
+    }
+
+    /*
+     * The image view only reads the size of a drawable when it is set, so set it again if the
+     * region changed while it was shown (the card theme could use another size)
+     */
+    private void showSprite(SpriteDrawable sprite) {
+        if (view.getDrawable() == sprite) {
+            view.setImageDrawable(null);
+        }
+
+        view.setImageDrawable(sprite);
     }
 
     /**
@@ -173,6 +228,7 @@ public class Card {
      * @param pY The y-coordinate of the destination
      */
     public void setLocationWithoutMovement(float pX, float pY) {
+        animate.stopMovement(this);
         view.bringToFront();
         view.setX(pX);
         view.setY(pY);
@@ -199,7 +255,7 @@ public class Card {
      * Sets the direction to up and updates the drawable.
      */
     public void flipUp() {
-        isUp = true;
+        applyDirection(true);
         setCardFront();
     }
 
@@ -207,7 +263,7 @@ public class Card {
      * Sets the direction to down and updates the drawable.
      */
     public void flipDown() {
-        isUp = false;
+        applyDirection(false);
         setCardBack();
     }
 
@@ -228,12 +284,12 @@ public class Card {
      */
     public void flipWithAnim() {
         if (isUp()) {
-            isUp = false;
+            applyDirection(false);
             //sounds.playSound(Sounds.names.CARD_FLIP_BACK);
             scores.undo(this, getStack());
             animate.flipCard(this, false);
         } else {
-            isUp = true;
+            applyDirection(true);
             //sounds.playSound(Sounds.names.CARD_FLIP);
             scores.move(this, getStack());
             recordList.addFlip(this);
@@ -331,4 +387,17 @@ public class Card {
     public Card getCardBelow(){
         return getIndexOnStack() == 0 ? this : stack.getCard(getIndexOnStack()-1);
     }
+
+    /**
+     * Sets the direction also on the board and tells the stack, that its cached data has to be
+     * calculated again.
+     */
+    private void applyDirection(boolean up) {
+        isUp = up;
+        currentGame.getBoard().setUp(id, up);
+
+        if (stack != null) {
+            stack.setDirty();
+        }
+    }
 }
\ No newline at end of file
@@ -38,6 +38,20 @@ public class CardAndStack {
         this.stackID = stackID;
     }
 
+    /**
+     * Reuses this object for another card and stack, so frequent callers like the touch input
+     * don't need to create new objects.
+     *
+     * @param card  The new card
+     * @param stack The new stack
+     * @return This object, for convenience
+     */
+    public CardAndStack set(Card card, Stack stack) {
+        cardID = card.getId();
+        stackID = stack.getId();
+        return this;
+    }
+
     public int getCardId() {
         return cardID;
     }
@@ -19,6 +19,9 @@
 package de.tobiasbielefeld.solitaire.classes;
 
 import android.content.Context;
+import android.view.animation.Animation;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
 
 /**
  * Custom image view to prevent bugs. Setting an animation listener to the translate anim to move
@@ -36,12 +39,15 @@ import android.content.Context;
  * There is also another problem: In very rare cases, where card is moved to multiple locations
  * (first to stack x, then to stack y, then...) in a single loop, the location of the image view
  * isn't updated properly. My solution is to do the calculation part first and THEN move the image views.
+ *
+ * Card movements don't use view animations anymore (see CardAnimator), the animating state is
+ * still used for the fade animations of the hints. Changes of it are reported to Animate, which
+ * counts the animating card views.
  */
 
 public class CustomImageView extends android.support.v7.widget.AppCompatImageView {
 
-    private boolean animating, moveAtEnd;
-    private float destX, destY;
+    private boolean animating;
 
     private boolean isCard, isStack;
 
@@ -68,43 +74,42 @@ public class CustomImageView extends android.support.v7.widget.AppCompatImageVie
         }
     }
 
+    /*
+     * Mark the view as animating right away, not only when the animation is first drawn. Else
+     * there is a short time between two chained animations where nothing seems to animate.
+     */
+    @Override
+    public void startAnimation(Animation animation) {
+        setAnimating(true);
+        super.startAnimation(animation);
+    }
+
     @Override
     protected void onAnimationStart() {
         super.onAnimationStart();
-        animating = true;
+        setAnimating(true);
     }
 
-    /**
-     * ends the animation. If a destination is set, also move it there
-     */
     @Override
     protected void onAnimationEnd() {
         super.onAnimationEnd();
-        animating = false;
+        setAnimating(false);
+    }
 
-        if (moveAtEnd) {
-            moveAtEnd = false;
-            clearAnimation();
-            setX(destX);
-            setY(destY);
+    private void setAnimating(boolean value) {
+        if (animating == value) {
+            return;
         }
-    }
 
-    /**
-     * Sets a destination to apply at the end of a animation. Only used for the Translate Anim of
-     * card movements
-     *
-     * @param pX The X-coordinate of the destination
-     * @param pY The X-coordinate of the destination
-     */
-    public void setDestination(float pX, float pY) {
-        moveAtEnd = true;
-        destX = pX;
-        destY = pY;
+        animating = value;
+
+        if (isCard && animate != null) {
+            animate.onViewAnimationChanged(value);
+        }
     }
 
     public void stopAnim() {
-        animating = false;
+        setAnimating(false);
         clearAnimation();
     }
 
@@ -0,0 +1,86 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.classes;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.ColorFilter;
+import android.graphics.Paint;
+import android.graphics.PixelFormat;
+import android.graphics.Rect;
+import android.graphics.drawable.Drawable;
+
+/**
+ * Draws a single region of a bigger bitmap file, like one card of a card theme. The bitmap file is
+ * only referenced, so all cards share the same decoded file and changing the theme only updates
+ * the region and the bitmap reference.
+ */
+
+public class SpriteDrawable extends Drawable {
+
+    private Bitmap atlas;
+    private Rect source = new Rect();
+    private Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+
+    /**
+     * Sets the bitmap file and the region of it to draw.
+     *
+     * @param atlas  The decoded bitmap file
+     * @param source The region of the file, it is copied
+     */
+    public void setSprite(Bitmap atlas, Rect source) {
+        this.atlas = atlas;
+        this.source.set(source);
+        invalidateSelf();
+    }
+
+    @Override
+    public void draw(Canvas canvas) {
+        if (atlas != null) {
+            canvas.drawBitmap(atlas, source, getBounds(), paint);
+        }
+    }
+
+    @Override
+    public int getIntrinsicWidth() {
+        return source.width();
+    }
+
+    @Override
+    public int getIntrinsicHeight() {
+        return source.height();
+    }
+
+    @Override
+    public void setAlpha(int alpha) {
+        paint.setAlpha(alpha);
+        invalidateSelf();
+    }
+
+    @Override
+    public void setColorFilter(ColorFilter colorFilter) {
+        paint.setColorFilter(colorFilter);
+        invalidateSelf();
+    }
+
+    @Override
+    public int getOpacity() {
+        return PixelFormat.TRANSLUCENT;
+    }
+}
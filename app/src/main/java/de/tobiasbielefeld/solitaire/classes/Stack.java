@@ -23,7 +23,12 @@ import android.graphics.PointF;
 import android.graphics.RectF;
 import android.widget.RelativeLayout;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Arrays;
+
+import de.tobiasbielefeld.solitaire.engine.Rules;
+import de.tobiasbielefeld.solitaire.helper.SaveFile;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 
@@ -46,6 +51,11 @@ public class Stack {
     private ArrowDirection arrowDirection;
     private float spacingMax;
 
+    //data calculated from the cards, it is only calculated again after the stack changed
+    private boolean isDirty = true;
+    private int firstUpCardPos;
+    private int[] sequenceStarts = new int[4];                                                      //for every mode of the Rules class, -1 if not calculated yet
+
     public Stack(int id) {                                                                          //Constructor: set id
         this.id = id;
     }
@@ -76,6 +86,8 @@ public class Stack {
      */
     public void reset() {                                                                           //removes all cards
         currentCards.clear();
+        currentGame.getBoard().clearStack(id);
+        setDirty();
     }
 
     /**
@@ -90,6 +102,8 @@ public class Stack {
     public void addCard(Card card, boolean shouldUpdate) {
         card.setStack(this);
         currentCards.add(card);
+        currentGame.getBoard().addCard(id, card.getId());
+        setDirty();
 
         if (shouldUpdate) {
             updateSpacing();
@@ -108,9 +122,24 @@ public class Stack {
      * @param card The card to remove
      */
     public void removeCard(Card card) {
+        removeCard(card, true);
+    }
+
+    /**
+     * Removes a card from this stack.
+     *
+     * @param card         The card to remove
+     * @param shouldUpdate tells if the stack should update its spacing. Use false if you take
+     *                     care of it at another place, like moveToStack() does
+     */
+    public void removeCard(Card card, boolean shouldUpdate) {
         currentCards.remove(currentCards.indexOf(card));
-        updateSpacing();
+        currentGame.getBoard().removeCard(card.getId());
+        setDirty();
 
+        if (shouldUpdate) {
+            updateSpacing();
+        }
     }
 
     /**
@@ -212,19 +241,33 @@ public class Stack {
     }
 
     /**
-     * Save which cards are currently on this stack as a string list.
+     * Save which cards are currently on this stack in the save file.
      */
-    public void save() {
-        ArrayList<Integer> list = new ArrayList<>();
+    public void save(SaveFile file) {
+        file.writeInt(currentCards.size());
 
         for (Card card : currentCards)
-            list.add(card.getId());
+            file.writeInt(card.getId());
+    }
 
-        prefs.saveStacks(list,id);
+    /**
+     * Loads the cards which are on this stack from the save file and move the cards to this stack.
+     */
+    public void load(SaveFile file) throws IOException {
+        reset();
+
+        int size = file.readInt();
+
+        for (int i = 0; i < size; i++) {
+            addCard(cards[file.readInt()],false);
+        }
+
+        updateSpacing();
     }
 
     /**
-     * Loads the cards which are on this stack from a string list and move the cards to this stack.
+     * Loads the cards which are on this stack from the old string list in the shared preferences.
+     * Only used to convert games saved before the save file existed.
      */
     public void load() {
         reset();
@@ -437,11 +480,9 @@ public class Stack {
      * @return the first card which is faced up
      */
     public Card getFirstUpCard() {
-        for (Card card : currentCards)
-            if (card.isUp())
-                return card;
+        int pos = getFirstUpCardPos();
 
-        return null;
+        return pos == -1 ? null : currentCards.get(pos);
     }
 
     /**
@@ -449,12 +490,41 @@ public class Stack {
      * faced up.
      */
     public int getFirstUpCardPos() {
-        for (int i = 0; i < currentCards.size(); i++) {
-            if (currentCards.get(i).isUp())
-                return i;
+        updateCache();
+
+        return firstUpCardPos;
+    }
+
+    /**
+     * Returns the lowest index, from which on every card up to the top is in the right order.
+     * Used for testCardsUpToTop(), every start position from this index on is valid.
+     *
+     * @param mode The mode for the card colors, one of the constants of the Rules class
+     * @return The index, it is the index of the top card if the cards below aren't in order
+     */
+    public int getSequenceStart(int mode) {
+        updateCache();
+
+        if (sequenceStarts[mode] == -1) {
+            sequenceStarts[mode] = Rules.getSequenceStart(currentGame.getBoard(), id, mode);
         }
 
-        return -1;
+        return sequenceStarts[mode];
+    }
+
+    /**
+     * Marks the cached data as outdated. Called when a card is added, removed or flipped.
+     */
+    public void setDirty() {
+        isDirty = true;
+    }
+
+    private void updateCache() {
+        if (isDirty) {
+            firstUpCardPos = currentGame.getBoard().getFirstUpCardPos(id);
+            Arrays.fill(sequenceStarts, -1);
+            isDirty = false;
+        }
     }
 
     /**
@@ -576,26 +646,58 @@ public class Stack {
      * Gets the rectangle enclosing the stack with all current cards on it. Used to determinate if
      * moving cards are intersecting this stack.
      *
-     * @return The rectangle of the stack
+     * @param rect The rectangle to save the result in
      */
-    public RectF getRect() {
+    public void getRect(RectF rect) {
 
         if (isEmpty()) {
-            return new RectF(view.getX(), view.getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+            rect.set(view.getX(), view.getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+            return;
         }
 
         switch (spacingDirection) {
             case NONE:
             default:
-                return new RectF(view.getX(), view.getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+                rect.set(view.getX(), view.getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+                break;
             case DOWN:
-                return new RectF(view.getX(), view.getY(), view.getX() + view.getWidth(), getTopCard().getY() + view.getHeight());
+                rect.set(view.getX(), view.getY(), view.getX() + view.getWidth(), getTopCard().getY() + view.getHeight());
+                break;
             case UP:
-                return new RectF(view.getX(), getTopCard().getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+                rect.set(view.getX(), getTopCard().getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+                break;
             case LEFT:
-                return new RectF(getTopCard().getX(), view.getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+                rect.set(getTopCard().getX(), view.getY(), view.getX() + view.getWidth(), view.getY() + view.getHeight());
+                break;
             case RIGHT:
-                return new RectF(view.getX(), view.getY(), getTopCard().getX() + view.getWidth(), view.getY() + view.getHeight());
+                rect.set(view.getX(), view.getY(), getTopCard().getX() + view.getWidth(), view.getY() + view.getHeight());
+                break;
+        }
+    }
+
+    /**
+     * Gets the biggest rectangle the stack can cover: The cards are spaced between the stack
+     * position and the spacing maximum, so getRect(RectF) always lies inside of it. Used for the stack
+     * grid, which only needs to be updated when the layout changes.
+     *
+     * @param rect The rectangle to save the result in
+     */
+    public void getMaxRect(RectF rect) {
+        float width = Card.width, height = Card.height;
+
+        switch (spacingDirection) {
+            case NONE:
+            default:
+                rect.set(view.getX(), view.getY(), view.getX() + width, view.getY() + height);
+                break;
+            case DOWN:
+            case UP:
+                rect.set(view.getX(), min(view.getY(), spacingMax), view.getX() + width, max(view.getY(), spacingMax) + height);
+                break;
+            case LEFT:
+            case RIGHT:
+                rect.set(min(view.getX(), spacingMax), view.getY(), max(view.getX(), spacingMax) + width, view.getY() + height);
+                break;
         }
     }
 
@@ -693,6 +795,9 @@ public class Stack {
 
         newCardPreviousStack.currentCards.set(newCardPreviousIndexOnStack,oldCard);
         oldCard.setStack(newCardPreviousStack);
+        currentGame.getBoard().exchangeCards(oldCard.getId(), newCard.getId());
+        newCardPreviousStack.setDirty();
+        setDirty();
 
         if (newCardPreviousDirection){
             oldCard.flipUp();
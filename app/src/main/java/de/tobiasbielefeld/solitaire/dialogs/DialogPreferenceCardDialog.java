@@ -20,7 +20,6 @@ package de.tobiasbielefeld.solitaire.dialogs;
 
 import android.content.Context;
 import android.content.DialogInterface;
-import android.graphics.Bitmap;
 import android.preference.DialogPreference;
 import android.util.AttributeSet;
 import android.view.View;
@@ -68,7 +67,7 @@ public class DialogPreferenceCardDialog extends DialogPreference implements View
         for (int i = 0; i < NUMBER_OF_CARD_THEMES; i++) {
             linearLayouts[i].setOnClickListener(this);
             ImageView imageView = (ImageView) linearLayouts[i].getChildAt(0);
-            imageView.setImageBitmap(bitmaps.getCardPreview(i, row));
+            bitmaps.loadCardPreview(i, row, imageView);
         }
 
         super.onBindDialogView(view);
@@ -129,7 +128,6 @@ public class DialogPreferenceCardDialog extends DialogPreference implements View
      */
     public void updateSummary() {
         String text;
-        Bitmap cardPreview;
         int row = prefs.getSavedFourColorMode() ? 1 : 0;
         int selectedTheme = prefs.getSavedCardTheme();
 
@@ -161,9 +159,7 @@ public class DialogPreferenceCardDialog extends DialogPreference implements View
                 break;
         }
 
-        cardPreview = bitmaps.getCardPreview2(selectedTheme - 1, row);
-
-        image.setImageBitmap(cardPreview);
+        bitmaps.loadCardPreview2(selectedTheme - 1, row, image);
         setSummary(text);
     }
 }
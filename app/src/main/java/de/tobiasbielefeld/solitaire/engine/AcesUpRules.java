@@ -0,0 +1,80 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Aces Up. Stacks 0-3 are the tableau, 4 the foundation and 5 the main stack.
+ */
+
+public class AcesUpRules extends Rules {
+
+    public AcesUpRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(6);
+        setMainStackIDs(5);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID < 4 && board.isEmpty(stackID)) {
+            return true;
+        } else if (stackID == getMainStackID() || board.getValue(cardID) == 1) {
+            return false;
+        } else if (stackID == 4) {
+            for (int i = 0; i < 4; i++) {
+                if (board.isEmpty(i) || i == board.getStackOf(cardID)) {
+                    continue;
+                }
+
+                int cardOnStack = board.getTopCard(i);
+
+                if (board.getColor(cardOnStack) == board.getColor(cardID)
+                        && (board.getValue(cardOnStack) > board.getValue(cardID) || board.getValue(cardOnStack) == 1)) {
+                    return true;
+                }
+            }
+        }
+
+        return false;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        return board.isTopCard(cardID) && board.getStackOf(cardID) != 4;
+    }
+
+    public boolean winTest(Board board) {
+        if (!board.isEmpty(getMainStackID())) {
+            return false;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            if (board.getSize(i) != 1 || board.getValue(board.getTopCard(i)) != 1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    public void dealCards(Board board) {
+        for (int i = 0; i < 4; i++) {
+            dealTo(board, i);
+            board.setUp(board.getCard(i, 0), true);
+        }
+    }
+}
@@ -0,0 +1,304 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+import java.util.Arrays;
+
+/**
+ * Android free model of the game board. Cards are encoded as their id (the position in the
+ * cards array), stacks as their id (the position in the stacks array). Every stack is a
+ * primitive int array, so boards can be copied and tested without creating any objects.
+ * <p>
+ * The Card and Stack classes keep their board in sync, so the rules of the current game can
+ * be tested on it. Solvers and benchmarks can create their own boards with Rules.createBoard().
+ */
+
+public class Board {
+
+    private final int[][] stackCards;                                                               //the card ids on each stack, from bottom to top
+    private final int[] stackSizes;                                                                 //number of cards on each stack
+    private final int[] cardStacks;                                                                 //stack id of each card, -1 if it isn't on a stack
+    private final int[] cardIndices;                                                                //index of each card on its stack
+    private final boolean[] cardsUp;                                                                //direction of each card
+    private final int[] cardColors;                                                                 //1=clubs 2=hearts 3=Spades 4=diamonds
+    private final int[] cardValues;                                                                 //1=ace ... 13=king
+    private int modificationCount = 0;                                                              //changes with every change of the board
+
+    /**
+     * Creates an empty board. The card families are set to the default order.
+     *
+     * @param numberOfCards  The number of cards used by the game
+     * @param numberOfStacks The number of stacks used by the game
+     */
+    public Board(int numberOfCards, int numberOfStacks) {
+        stackCards = new int[numberOfStacks][numberOfCards];
+        stackSizes = new int[numberOfStacks];
+        cardStacks = new int[numberOfCards];
+        cardIndices = new int[numberOfCards];
+        cardsUp = new boolean[numberOfCards];
+        cardColors = new int[numberOfCards];
+        cardValues = new int[numberOfCards];
+
+        Arrays.fill(cardStacks, -1);
+
+        for (int i = 0; i < numberOfCards; i++) {
+            cardValues[i] = (i % 13) + 1;
+        }
+
+        setCardFamilies(new int[]{1, 2, 3, 4});
+    }
+
+    /**
+     * Creates a copy of the given board.
+     *
+     * @param other The board to copy
+     */
+    public Board(Board other) {
+        this(other.getNumberOfCards(), other.getNumberOfStacks());
+        copyFrom(other);
+    }
+
+    /**
+     * Copies the complete state of another board with the same dimensions into this one.
+     *
+     * @param other The board to copy
+     */
+    public void copyFrom(Board other) {
+        for (int i = 0; i < stackSizes.length; i++) {
+            System.arraycopy(other.stackCards[i], 0, stackCards[i], 0, other.stackSizes[i]);
+        }
+
+        System.arraycopy(other.stackSizes, 0, stackSizes, 0, stackSizes.length);
+        System.arraycopy(other.cardStacks, 0, cardStacks, 0, cardStacks.length);
+        System.arraycopy(other.cardIndices, 0, cardIndices, 0, cardIndices.length);
+        System.arraycopy(other.cardsUp, 0, cardsUp, 0, cardsUp.length);
+        System.arraycopy(other.cardColors, 0, cardColors, 0, cardColors.length);
+        modificationCount++;
+    }
+
+    /**
+     * Sets the card families like Game.setCardFamilies(). The order is repeated for every deck.
+     *
+     * @param order The families of the four suits, values from 1 to 4
+     */
+    public void setCardFamilies(int[] order) {
+        for (int i = 0; i < cardColors.length; i++) {
+            cardColors[i] = order[(i % 52) / 13];
+        }
+
+        modificationCount++;
+    }
+
+    /**
+     * Removes every card from every stack.
+     */
+    public void reset() {
+        Arrays.fill(stackSizes, 0);
+        Arrays.fill(cardStacks, -1);
+        modificationCount++;
+    }
+
+    /**
+     * Removes every card from the given stack.
+     *
+     * @param stackID The stack to clear
+     */
+    public void clearStack(int stackID) {
+        for (int i = 0; i < stackSizes[stackID]; i++) {
+            cardStacks[stackCards[stackID][i]] = -1;
+        }
+
+        stackSizes[stackID] = 0;
+        modificationCount++;
+    }
+
+    /**
+     * Puts a card on top of a stack. If the card is currently on another stack, it will be
+     * removed from there first.
+     *
+     * @param stackID The destination stack
+     * @param cardID  The card to add
+     */
+    public void addCard(int stackID, int cardID) {
+        if (cardStacks[cardID] != -1) {
+            removeCard(cardID);
+        }
+
+        cardStacks[cardID] = stackID;
+        cardIndices[cardID] = stackSizes[stackID];
+        stackCards[stackID][stackSizes[stackID]++] = cardID;
+        modificationCount++;
+    }
+
+    /**
+     * Removes a card from its stack. Cards above it will move one position down.
+     *
+     * @param cardID The card to remove
+     */
+    public void removeCard(int cardID) {
+        int stackID = cardStacks[cardID];
+
+        if (stackID == -1) {
+            return;
+        }
+
+        int[] onStack = stackCards[stackID];
+        int size = --stackSizes[stackID];
+
+        for (int i = cardIndices[cardID]; i < size; i++) {
+            onStack[i] = onStack[i + 1];
+            cardIndices[onStack[i]] = i;
+        }
+
+        cardStacks[cardID] = -1;
+        modificationCount++;
+    }
+
+    /**
+     * Moves the given card and every card above it to the destination, the order stays the same.
+     *
+     * @param cardID        The lowest card of the movement
+     * @param destinationID The destination stack
+     */
+    public void moveCards(int cardID, int destinationID) {
+        int originID = cardStacks[cardID];
+        int start = cardIndices[cardID];
+        int size = stackSizes[originID];
+
+        for (int i = start; i < size; i++) {
+            int card = stackCards[originID][i];
+            cardStacks[card] = destinationID;
+            cardIndices[card] = stackSizes[destinationID];
+            stackCards[destinationID][stackSizes[destinationID]++] = card;
+        }
+
+        stackSizes[originID] = start;
+        modificationCount++;
+    }
+
+    /**
+     * Exchanges the positions of two cards, like Stack.exchangeCard(). The directions of the
+     * cards are not changed here.
+     *
+     * @param cardID1 The first card
+     * @param cardID2 The second card
+     */
+    public void exchangeCards(int cardID1, int cardID2) {
+        int stack1 = cardStacks[cardID1], index1 = cardIndices[cardID1];
+        int stack2 = cardStacks[cardID2], index2 = cardIndices[cardID2];
+
+        stackCards[stack1][index1] = cardID2;
+        stackCards[stack2][index2] = cardID1;
+
+        cardStacks[cardID1] = stack2;
+        cardIndices[cardID1] = index2;
+        cardStacks[cardID2] = stack1;
+        cardIndices[cardID2] = index1;
+        modificationCount++;
+    }
+
+    public int getNumberOfCards() {
+        return cardStacks.length;
+    }
+
+    public int getNumberOfStacks() {
+        return stackSizes.length;
+    }
+
+    public int getColor(int cardID) {
+        return cardColors[cardID];
+    }
+
+    public int getValue(int cardID) {
+        return cardValues[cardID];
+    }
+
+    public boolean isUp(int cardID) {
+        return cardsUp[cardID];
+    }
+
+    public void setUp(int cardID, boolean up) {
+        cardsUp[cardID] = up;
+        modificationCount++;
+    }
+
+    /**
+     * Returns a number which is changed by every change of the board, so results calculated from
+     * the board can be cached until it changes again.
+     */
+    public int getModificationCount() {
+        return modificationCount;
+    }
+
+    public int getStackOf(int cardID) {
+        return cardStacks[cardID];
+    }
+
+    public int getIndexOnStack(int cardID) {
+        return cardIndices[cardID];
+    }
+
+    public boolean isTopCard(int cardID) {
+        return cardIndices[cardID] == stackSizes[cardStacks[cardID]] - 1;
+    }
+
+    public int getSize(int stackID) {
+        return stackSizes[stackID];
+    }
+
+    public boolean isEmpty(int stackID) {
+        return stackSizes[stackID] == 0;
+    }
+
+    public int getCard(int stackID, int index) {
+        return stackCards[stackID][index];
+    }
+
+    /**
+     * Returns the card on the top of the stack
+     *
+     * @param stackID The stack to use
+     * @return The card id if the stack isn't empty
+     * @throws ArrayIndexOutOfBoundsException If the stack is empty
+     */
+    public int getTopCard(int stackID) throws ArrayIndexOutOfBoundsException {
+        if (stackSizes[stackID] == 0) {
+            throw new ArrayIndexOutOfBoundsException("Empty Stack, check with isEmpty() before!");
+        }
+
+        return stackCards[stackID][stackSizes[stackID] - 1];
+    }
+
+    public int getCardFromTop(int stackID, int index) {
+        return stackCards[stackID][stackSizes[stackID] - 1 - index];
+    }
+
+    /**
+     * @return The position of the first card which is faced up. -1 if no card is faced up.
+     */
+    public int getFirstUpCardPos(int stackID) {
+        for (int i = 0; i < stackSizes[stackID]; i++) {
+            if (cardsUp[stackCards[stackID][i]]) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+}
@@ -0,0 +1,78 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Calculation. Stacks 0-3 are the tableau, 4-7 the foundations, 8 the discard stack
+ * and 9 the main stack.
+ */
+
+public class CalculationRules extends Rules {
+
+    public CalculationRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(10);
+        setDiscardStackIDs(8);
+        setMainStackIDs(9);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID < 4) {
+            return board.getStackOf(cardID) == getDiscardStackID();
+        } else if (stackID < 8 && !board.isEmpty(stackID) && board.getValue(board.getTopCard(stackID)) != 13) {
+            int requestedDistance = stackID - 3;
+            int stackCardValue = board.getValue(board.getTopCard(stackID));
+            int cardToMoveValue = board.getValue(cardID) < stackCardValue ? 13 + board.getValue(cardID) : board.getValue(cardID);
+
+            return cardToMoveValue - stackCardValue == requestedDistance;
+        }
+
+        return false;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        int stackID = board.getStackOf(cardID);
+
+        return stackID < 4 && board.isTopCard(cardID) || stackID == getDiscardStackID();
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 4, 7, 13);
+    }
+
+    public void dealCards(Board board) {
+        int mainStackID = getMainStackID();
+
+        //deal cards to foundation: search an ace for the first stack, a two for the second and so on
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < board.getSize(mainStackID); j++) {
+                int cardID = board.getCard(mainStackID, j);
+
+                if (board.getValue(cardID) == i + 1) {
+                    moveToStack(board, cardID, 4 + i);
+                    board.setUp(cardID, true);
+                    break;
+                }
+            }
+        }
+
+        //card to trash
+        dealTo(board, getDiscardStackID());
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Canfield.
+ */
+
+public class CanfieldRules extends Rules {
+
+    private int startCardValue;
+    private boolean drawThree;
+    private int sizeOfReserve = 13;
+
+    public CanfieldRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(13);
+        setDiscardStackIDs(9, 10, 11);
+        setMainStackIDs(12);
+    }
+
+    /**
+     * Sets the value of the first card on the foundations. Dealing sets it automatically.
+     */
+    public void setStartCardValue(int value) {
+        startCardValue = value;
+    }
+
+    public int getStartCardValue() {
+        return startCardValue;
+    }
+
+    public void setDrawThree(boolean value) {
+        drawThree = value;
+    }
+
+    public void setSizeOfReserve(int size) {
+        sizeOfReserve = size;
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID == 4) {
+            return false;
+        } else if (stackID < 4) {
+            return canCardBePlaced(board, stackID, cardID, ALTERNATING_COLOR, DESCENDING, true);
+        } else if (stackID < 9 && movingCount < 2) {
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == startCardValue;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, SAME_FAMILY, ASCENDING, true);
+            }
+        }
+
+        return false;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        int stackID = board.getStackOf(cardID);
+
+        return !(((stackID == 9 || stackID == 10) && !board.isEmpty(11))
+                || (stackID == 9 && !board.isEmpty(10)));
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 5, 8, 13);
+    }
+
+    public void dealCards(Board board) {
+        //one card to the foundation, its value is the start value of every foundation
+        dealTo(board, 5);
+        board.setUp(board.getTopCard(5), true);
+        startCardValue = board.getValue(board.getTopCard(5));
+
+        //deal cards to trash according to the draw option
+        if (drawThree) {
+            for (int i = 0; i < 3; i++) {
+                dealTo(board, 9 + i);
+            }
+        } else if (!board.isEmpty(getMainStackID())) {
+            dealTo(board, 11);
+        }
+
+        //one card to every tableau stack
+        for (int i = 0; i < 4; i++) {
+            dealTo(board, i);
+            board.setUp(board.getTopCard(i), true);
+        }
+
+        //and the reserve
+        for (int i = 0; i < sizeOfReserve; i++) {
+            dealTo(board, 4);
+        }
+
+        flipTopCardUp(board, 4);
+    }
+}
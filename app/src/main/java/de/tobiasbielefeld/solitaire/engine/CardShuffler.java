@@ -0,0 +1,135 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+import java.util.Random;
+
+/**
+ * Shuffles and mixes cards on int card ids. Used by GameLogic to shuffle a new deal and by
+ * Game to mix the cards on the table, but also usable without Android.
+ */
+
+public class CardShuffler {
+
+    /**
+     * Randomizes a given card order. If true randomisation isn't enabled, it tries to avoid
+     * that two following cards have the same value or color.
+     *
+     * @param cardIDs           The card ids to shuffle
+     * @param board             Board used to get the values and colors of the cards
+     * @param random            The random generator to use
+     * @param trueRandomisation True to use a plain Fisher-Yates shuffle
+     */
+    public static void randomize(int[] cardIDs, Board board, Random random, boolean trueRandomisation) {
+        int index;
+        int dummy;
+        int counter;
+
+        //swap first card outside the loop
+        index = random.nextInt(cardIDs.length);
+        dummy = cardIDs[cardIDs.length - 1];
+        cardIDs[cardIDs.length - 1] = cardIDs[index];
+        cardIDs[index] = dummy;
+
+        for (int i = cardIDs.length - 2; i > 0; i--) {
+            if (trueRandomisation) {
+                index = random.nextInt(i + 1);
+            } else {
+                //choose a new card as long the chosen card is too similar to the previous card in the array
+                //(same value or color) also limit the loop to max 10 iterations to avoid infinite loops
+                counter = 0;
+
+                do {
+                    index = random.nextInt(i + 1);
+                    counter++;
+                }
+                while ((board.getValue(cardIDs[index]) == board.getValue(cardIDs[i + 1])
+                        || board.getColor(cardIDs[index]) == board.getColor(cardIDs[i + 1])) && counter < 10);
+            }
+
+            dummy = cardIDs[i];
+            cardIDs[i] = cardIDs[index];
+            cardIDs[index] = dummy;
+        }
+    }
+
+    /**
+     * Mixes the given cards by exchanging their places on the board. A bit like Fisher-Yate
+     * Shuffle, but the iterating array doesn't change. Exchanged cards also exchange their
+     * direction.
+     *
+     * @param board             The board to mix the cards on
+     * @param cardsToMix        The ids of the cards to mix
+     * @param count             How many entries of cardsToMix are used
+     * @param random            The random generator to use
+     * @param trueRandomisation True to not test if exchanged cards are too similar
+     * @param exchanges         If not null, every exchanged pair is saved here, so it can be
+     *                          repeated on the stacks. Needs a length of at least 2 * count
+     */
+    public static void mixCards(Board board, int[] cardsToMix, int count, Random random, boolean trueRandomisation, int[] exchanges) {
+        int cardToChange;
+        int counter;
+
+        for (int i = count - 1; i >= 0; i--) {
+            int card = cardsToMix[i];
+
+            if (trueRandomisation) {
+                cardToChange = cardsToMix[random.nextInt(i + 1)];
+            } else {
+                //choose a new card as long the chosen card is too similar to the previous and following card in the array
+                //(same value or color) also limit the loop to max 10 iterations to avoid infinite loops
+                counter = 0;
+
+                do {
+                    cardToChange = cardsToMix[random.nextInt(i + 1)];
+                    counter++;
+                }
+                while ((isSimilarToNeighbour(board, cardToChange, card, -1) || isSimilarToNeighbour(board, cardToChange, card, 1))
+                        && counter < 10);
+            }
+
+            boolean cardToChangeUp = board.isUp(cardToChange);
+            board.setUp(cardToChange, board.isUp(card));
+            board.setUp(card, cardToChangeUp);
+            board.exchangeCards(cardToChange, card);
+
+            if (exchanges != null) {
+                exchanges[2 * (count - 1 - i)] = cardToChange;
+                exchanges[2 * (count - 1 - i) + 1] = card;
+            }
+        }
+    }
+
+    /**
+     * Tests if the card below (offset -1) or on top (offset 1) of a card has the same value or
+     * color as another card. Returns false if there is no such neighbour.
+     */
+    private static boolean isSimilarToNeighbour(Board board, int cardID, int otherCardID, int offset) {
+        int stackID = board.getStackOf(cardID);
+        int index = board.getIndexOnStack(cardID) + offset;
+
+        if (stackID == -1 || index < 0 || index >= board.getSize(stackID)) {
+            return false;
+        }
+
+        int neighbour = board.getCard(stackID, index);
+
+        return board.getValue(neighbour) == board.getValue(otherCardID) || board.getColor(neighbour) == board.getColor(otherCardID);
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Forty&Eight.
+ */
+
+public class FortyEightRules extends Rules {
+
+    public FortyEightRules() {
+        setNumberOfDecks(2);
+        setNumberOfStacks(18);
+        setDiscardStackIDs(16);
+        setMainStackIDs(17);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID < 8) {
+            //if there are as many cards moving as free stacks, and one of the free stacks was chosen, don't move
+            int moving = board.getSize(board.getStackOf(cardID)) - board.getIndexOnStack(cardID);
+
+            return moving <= getPowerMoveCount(board, board.isEmpty(stackID))
+                    && canCardBePlaced(board, stackID, cardID, SAME_FAMILY, DESCENDING);
+        } else if (stackID < 16 && movingCount < 2) {
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == 1;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, SAME_FAMILY, ASCENDING);
+            }
+        }
+
+        return false;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        int stackID = board.getStackOf(cardID);
+        int index = board.getIndexOnStack(cardID);
+        int startPos = Math.max(board.getSize(stackID) - getPowerMoveCount(board, false), index);
+
+        return index >= startPos && testCardsUpToTop(board, stackID, startPos, SAME_FAMILY);
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 8, 15, 13);
+    }
+
+    public void dealCards(Board board) {
+        dealTo(board, getDiscardStackID());
+
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 4; j++) {
+                dealTo(board, i);
+                board.setUp(board.getCard(i, j), true);
+            }
+        }
+    }
+
+    /**
+     * Returns how many cards can be moved at once with the current empty tableau stacks.
+     */
+    public int getPowerMoveCount(Board board, boolean movingToEmptyStack) {
+        return getPowerMoveCount(board, 0, 8, -1, 0, movingToEmptyStack);
+    }
+}
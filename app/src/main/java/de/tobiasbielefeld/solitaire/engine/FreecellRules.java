@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Freecell. Stacks 0-7 are the tableau, 8-11 the free cells and 12-15 the foundations.
+ */
+
+public class FreecellRules extends Rules {
+
+    public FreecellRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(16);
+        setDealFromID(0);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID < 8) {
+            //if there are as many cards moving as free stacks, and one of the free stacks was chosen, don't move
+            int moving = board.getSize(board.getStackOf(cardID)) - board.getIndexOnStack(cardID);
+
+            return moving <= getPowerMoveCount(board, board.isEmpty(stackID))
+                    && canCardBePlaced(board, stackID, cardID, ALTERNATING_COLOR, DESCENDING);
+        } else if (stackID < 12) {
+            return movingCount < 2 && board.isEmpty(stackID);
+        } else if (movingCount < 2 && stackID < 16) {
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == 1;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, SAME_FAMILY, ASCENDING);
+            }
+        }
+
+        return false;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        /*
+         *  normally the player can only move one card at once, but he can also put cards to free
+         *  cells and replace them on a new stack. To make this easier, the player can move more
+         *  cards at once, if they are in the right order and if there are enough free cells
+         */
+        int stackID = board.getStackOf(cardID);
+        int index = board.getIndexOnStack(cardID);
+        int startPos = Math.max(board.getSize(stackID) - getPowerMoveCount(board, false), index);
+
+        return index >= startPos && testCardsUpToTop(board, stackID, startPos, ALTERNATING_COLOR);
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 12, 15, 13);
+    }
+
+    public void dealCards(Board board) {
+        flipAllCardsUp(board);
+
+        for (int i = 1; i < 8; i++) {
+            for (int j = 0; j < 7; j++) {
+                if (!(i >= 4 && j == 6)) {
+                    dealTo(board, i);
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns how many cards can be moved at once with the current free cells and tableau stacks.
+     */
+    public int getPowerMoveCount(Board board, boolean movingToEmptyStack) {
+        return getPowerMoveCount(board, 0, 8, 8, 4, movingToEmptyStack);
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Golf. Stacks 0-6 are the tableau, 7 the discard stack and 8 the main stack.
+ */
+
+public class GolfRules extends Rules {
+
+    private boolean cyclic;
+
+    public GolfRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(9);
+        setDiscardStackIDs(7);
+        setMainStackIDs(8);
+    }
+
+    /**
+     * Allow kings on aces and aces on kings.
+     */
+    public void setCyclic(boolean value) {
+        cyclic = value;
+    }
+
+    public boolean isCyclic() {
+        return cyclic;
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        /*
+         * only allowed stack is the discard stack.
+         * then check the settings: if cyclic moves are set to true, check if the cards are an ace and a king, if so return true
+         * or the cards values difference is 1 or -1
+         */
+        if (stackID != getDiscardStackID() || board.isEmpty(stackID)) {
+            return false;
+        }
+
+        int value = board.getValue(cardID);
+        int topValue = board.getValue(board.getTopCard(stackID));
+
+        return (cyclic && (value == 13 && topValue == 1 || value == 1 && topValue == 13))
+                || value == topValue + 1 || value == topValue - 1;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        return board.getStackOf(cardID) < 7 && board.isTopCard(cardID);
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 0, 6, 0);
+    }
+
+    public void dealCards(Board board) {
+        dealTo(board, getDiscardStackID());
+
+        for (int i = 0; i < 7; i++) {
+            for (int j = 0; j < 5; j++) {
+                dealTo(board, i);
+                board.setUp(board.getCard(i, j), true);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Grandfathers Clock. Stacks 0-7 are the tableau, 8-19 the foundations arranged like a
+ * clock and stack 20 is the invisible deal stack in the middle of it.
+ */
+
+public class GrandfathersClockRules extends Rules {
+
+    //the value and family of the first card on each foundation
+    private static final int[] FOUNDATION_CARD_ORDER = {7, 8, 9, 10, 11, 6, 12, 5, 4, 3, 2, 13};
+    private static final int[] FOUNDATION_FAMILY_ORDER = {2, 3, 0, 1, 2, 1, 3, 0, 3, 2, 1, 0};
+
+    public GrandfathersClockRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(21);
+        setDealFromID(20);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        //there is a invisible deal stack in the middle of the clock, which shouldn't be used for the movement
+        if (board.getStackOf(cardID) > 7 || stackID == getDealStackID()) {
+            return false;
+        }
+
+        if (stackID <= 7) {
+            //if there are as many cards moving as free stacks, and one of the free stacks was chosen, don't move
+            int moving = board.getSize(board.getStackOf(cardID)) - board.getIndexOnStack(cardID);
+
+            return moving <= getPowerMoveCount(board, board.isEmpty(stackID))
+                    && canCardBePlaced(board, stackID, cardID, DOESNT_MATTER, DESCENDING);
+        } else {
+            return movingCount < 2 && canCardBePlaced(board, stackID, cardID, SAME_FAMILY, ASCENDING, true);
+        }
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        int stackID = board.getStackOf(cardID);
+        int index = board.getIndexOnStack(cardID);
+        int startPos = Math.max(board.getSize(stackID) - getPowerMoveCount(board, false), index);
+
+        return index >= startPos && testCardsUpToTop(board, stackID, startPos, DOESNT_MATTER);
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 0, 7, 0);
+    }
+
+    public void dealCards(Board board) {
+        flipAllCardsUp(board);
+
+        //the first card of every foundation is always the same
+        for (int i = 0; i < 12; i++) {
+            moveToStack(board, FOUNDATION_FAMILY_ORDER[i] * 13 + FOUNDATION_CARD_ORDER[i] - 1, 8 + i);
+        }
+
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 5; j++) {
+                dealTo(board, i);
+            }
+        }
+    }
+
+    /**
+     * Returns how many cards can be moved at once with the current empty tableau stacks.
+     */
+    public int getPowerMoveCount(Board board, boolean movingToEmptyStack) {
+        return getPowerMoveCount(board, 0, 8, -1, 0, movingToEmptyStack);
+    }
+}
@@ -0,0 +1,66 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Gypsy.
+ */
+
+public class GypsyRules extends Rules {
+
+    public GypsyRules() {
+        setNumberOfDecks(2);
+        setNumberOfStacks(17);
+        setMainStackIDs(16);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID < 8) {
+            return canCardBePlaced(board, stackID, cardID, ALTERNATING_COLOR, DESCENDING);
+        } else if (stackID < 16 && movingCount < 2) {
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == 1;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, SAME_FAMILY, ASCENDING);
+            }
+        } else {
+            return false;
+        }
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        return testCardsUpToTop(board, board.getStackOf(cardID), board.getIndexOnStack(cardID), ALTERNATING_COLOR);
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 8, 15, 13);
+    }
+
+    public void dealCards(Board board) {
+        for (int i = 0; i < 8; i++) {
+            for (int j = 0; j < 3; j++) {
+                dealTo(board, i);
+
+                if (j > 0) {
+                    board.setUp(board.getCard(i, j), true);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Klondike, also used by Vegas.
+ */
+
+public class KlondikeRules extends Rules {
+
+    private boolean drawThree;
+
+    public KlondikeRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(15);
+        setDiscardStackIDs(11, 12, 13);
+        setMainStackIDs(14);
+    }
+
+    /**
+     * Sets the draw mode used when dealing, true to deal three cards to the discard stacks.
+     */
+    public void setDrawThree(boolean value) {
+        drawThree = value;
+    }
+
+    public boolean isDrawThree() {
+        return drawThree;
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID < 7) {
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == 13;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, ALTERNATING_COLOR, DESCENDING);
+            }
+        } else if (stackID < 11 && movingCount < 2) {
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == 1;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, SAME_FAMILY, ASCENDING);
+            }
+        }
+
+        return false;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        //don't move cards from the discard stacks if there is a card on top of them
+        int stackID = board.getStackOf(cardID);
+
+        return !(((stackID == 11 || stackID == 12) && !board.isEmpty(13))
+                || (stackID == 11 && !board.isEmpty(12)));
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 7, 10, 13);
+    }
+
+    public void dealCards(Board board) {
+        //deal cards to trash according to the draw option
+        if (drawThree) {
+            for (int i = 0; i < 3; i++) {
+                dealTo(board, 11 + i);
+            }
+        } else {
+            dealTo(board, 13);
+        }
+
+        //and move cards to the tableau
+        for (int i = 0; i <= 6; i++) {
+            for (int j = 0; j < i + 1; j++) {
+                dealTo(board, i);
+            }
+
+            board.setUp(board.getCard(i, i), true);
+        }
+    }
+}
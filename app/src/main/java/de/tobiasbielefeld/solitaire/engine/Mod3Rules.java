@@ -0,0 +1,89 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Mod3. Stacks 0-23 are the three foundation rows, 24-31 the tableau, 32 the discard
+ * stack for the aces and 33 the main stack.
+ */
+
+public class Mod3Rules extends Rules {
+
+    public Mod3Rules() {
+        setNumberOfDecks(2);
+        setNumberOfStacks(34);
+        setDiscardStackIDs(32);
+        setMainStackIDs(33);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        int value = board.getValue(cardID);
+
+        if (value == 1 && stackID == getDiscardStackID()) {
+            return true;
+        }
+
+        if (board.isEmpty(stackID)) {
+            if (stackID < 8) {
+                return value == 2;
+            } else if (stackID < 16) {
+                return value == 3;
+            } else if (stackID < 24) {
+                return value == 4;
+            } else {
+                return stackID < 32;
+            }
+        } else {
+            int topCard = board.getTopCard(stackID);
+
+            return stackID < 24 && validOrder(board, stackID) && value == board.getValue(topCard) + 3
+                    && board.getColor(cardID) == board.getColor(topCard);
+        }
+    }
+
+    /**
+     * Tests if the first card of a foundation stack is the right one for its row.
+     */
+    public boolean validOrder(Board board, int stackID) {
+        int firstValue = board.getValue(board.getCard(stackID, 0));
+
+        if (stackID < 8) {
+            return firstValue == 2;
+        } else if (stackID < 16) {
+            return firstValue == 3;
+        } else {
+            return firstValue == 4;
+        }
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        return board.isTopCard(cardID) && board.getStackOf(cardID) != getDiscardStackID();
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 24, 31, 0) && board.isEmpty(getMainStackID());
+    }
+
+    public void dealCards(Board board) {
+        for (int i = 0; i < 32; i++) {
+            dealTo(board, i);
+            board.setUp(board.getCard(i, 0), true);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+import java.util.Arrays;
+
+/**
+ * Reusable list of moves, stored in primitive arrays. A move is a card id and the id of the
+ * destination stack, the card is moved together with every card above it. All moves of one card
+ * have to be added after each other, so they can also be looked up by the card.
+ */
+
+public class MoveList {
+
+    private int[] moveCards = new int[64];
+    private int[] moveDestinations = new int[64];
+    private int size = 0;
+
+    private int[] cardFirstMoves;                                                                   //index of the first move of each card
+    private int[] cardMoveCounts;                                                                   //number of moves of each card
+
+    /**
+     * Creates an empty list.
+     *
+     * @param numberOfCards The number of cards of the game, card ids have to be lower
+     */
+    public MoveList(int numberOfCards) {
+        cardFirstMoves = new int[numberOfCards];
+        cardMoveCounts = new int[numberOfCards];
+    }
+
+    public void clear() {
+        size = 0;
+        Arrays.fill(cardMoveCounts, 0);
+    }
+
+    /**
+     * Adds a move at the end of the list.
+     *
+     * @param cardID  The card to move
+     * @param stackID The destination of the card
+     */
+    public void add(int cardID, int stackID) {
+        if (size == moveCards.length) {
+            moveCards = Arrays.copyOf(moveCards, size * 2);
+            moveDestinations = Arrays.copyOf(moveDestinations, size * 2);
+        }
+
+        if (cardMoveCounts[cardID] == 0) {
+            cardFirstMoves[cardID] = size;
+        }
+
+        moveCards[size] = cardID;
+        moveDestinations[size] = stackID;
+        cardMoveCounts[cardID]++;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    public int getCard(int index) {
+        return moveCards[index];
+    }
+
+    public int getDestination(int index) {
+        return moveDestinations[index];
+    }
+
+    /**
+     * Returns how many moves the given card has, use it with getDestinationOf(cardID, index).
+     */
+    public int getMoveCount(int cardID) {
+        return cardMoveCounts[cardID];
+    }
+
+    /**
+     * Returns a destination of the given card.
+     *
+     * @param cardID The card to use
+     * @param index  The index of the move, from 0 to getMoveCount(cardID) - 1
+     * @return The id of the destination stack
+     */
+    public int getDestinationOf(int cardID, int index) {
+        return moveDestinations[cardFirstMoves[cardID] + index];
+    }
+
+    /**
+     * Tests if the list contains the move of the card to the stack.
+     */
+    public boolean contains(int cardID, int stackID) {
+        for (int i = 0; i < cardMoveCounts[cardID]; i++) {
+            if (moveDestinations[cardFirstMoves[cardID] + i] == stackID) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
@@ -0,0 +1,121 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Pyramid. Stacks 0-27 are the pyramid, 28 the stack for the removed cards, 29 and 30
+ * the discard stacks (30 is also the deal stack) and 31 the main stack.
+ */
+
+public class PyramidRules extends Rules {
+
+    //contains which stack is above another stack, the second covering stack is the next id
+    private static final int[] STACK_ABOVE_ID = new int[21];
+    private boolean easyDifficulty = true;
+
+    static {
+        int index = 0;
+
+        for (int i = 0; i < 6; i++) {
+            for (int j = 0; j < i + 1; j++) {
+                STACK_ABOVE_ID[index++] = ((i + 1) * (i + 2)) / 2 + j;
+            }
+        }
+    }
+
+    public PyramidRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(32);
+        setDiscardStackIDs(29, 30);
+        setMainStackIDs(31);
+        setDealFromID(30);
+    }
+
+    /**
+     * On the easy difficulty the game is won once the pyramid is empty, on the hard one the
+     * discard stacks also have to be empty.
+     */
+    public void setEasyDifficulty(boolean value) {
+        easyDifficulty = value;
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID == 31) {
+            return false;
+        }
+
+        if (stackID == 28 && board.getValue(cardID) == 13) {
+            return true;
+        }
+
+        if (stackID != 28 && !board.isEmpty(stackID) && stackIsFree(board, stackID)
+                && board.getValue(cardID) + board.getValue(board.getTopCard(stackID)) == 13) {
+            return true;
+        }
+
+        return board.getStackOf(cardID) == getDealStackID() && stackID == getDiscardStackID();
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        int stackID = board.getStackOf(cardID);
+
+        if (stackID == 28) {
+            return false;
+        }
+
+        return stackID == getDiscardStackID() || stackIsFree(board, stackID);
+    }
+
+    public boolean winTest(Board board) {
+        if (!allStacksHaveSize(board, 0, 27, 0)) {
+            return false;
+        }
+
+        return easyDifficulty || board.isEmpty(29) && board.isEmpty(30);
+    }
+
+    public void dealCards(Board board) {
+        flipAllCardsUp(board);
+
+        for (int i = 0; i < 28; i++) {
+            dealTo(board, i);
+        }
+
+        dealTo(board, getDiscardStackID());
+    }
+
+    /**
+     * Tests if no other card covers the given stack.
+     */
+    public boolean stackIsFree(Board board, int stackID) {
+        if (stackID > 20) {
+            return true;
+        }
+
+        return board.isEmpty(STACK_ABOVE_ID[stackID]) && board.isEmpty(STACK_ABOVE_ID[stackID] + 1);
+    }
+
+    /**
+     * Returns the first of the two stacks covering the given one, the second one is the next id.
+     * Stacks of the last row and the other stacks aren't covered and return -1.
+     */
+    public static int getStackAboveID(int stackID) {
+        return stackID < STACK_ABOVE_ID.length ? STACK_ABOVE_ID[stackID] : -1;
+    }
+}
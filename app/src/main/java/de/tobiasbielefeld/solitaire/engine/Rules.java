@@ -0,0 +1,399 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Android free rules of a game. Every game class has a Rules class here, which contains the
+ * actual rule checks on a Board. The game classes delegate to it, so the same rules can be used
+ * on a plain JVM, for example by solvers, benchmarks or for simulating lots of deals.
+ * <p>
+ * Cards and stacks are given as their ids, the stack ids are the same as in the game classes.
+ * The rules don't read the preferences, games have to apply their options with the setters.
+ * <p>
+ * The hint and auto complete searches (hintTest(), autoCompletePhaseOne() and Two()) aren't part
+ * of the rules. They stay in the game classes, because they depend on the cards the hint already
+ * showed and on the animations of the game. They use the rules through cardTest() and
+ * testCardsUpToTop(), solvers search their own moves on the Board.
+ */
+
+public abstract class Rules {
+
+    //modes for the card order, like the testMode enums in Game
+    public static final int SAME_COLOR = 0, ALTERNATING_COLOR = 1, DOESNT_MATTER = 2, SAME_FAMILY = 3;
+    //directions for the card order, like the testMode3 enum in Game
+    public static final int ASCENDING = 0, DESCENDING = 1;
+
+    private int numberOfDecks = 1;
+    private int numberOfStacks;
+    private int dealFromID = -1;
+    private int[] mainStackIDs = new int[]{-1};
+    private int[] discardStackIDs = new int[]{-1};
+    private int[] cardFamilies = new int[]{1, 2, 3, 4};
+
+    /**
+     * Tests a card if it can be placed on the given stack.
+     *
+     * @param board       The board to test on
+     * @param stackID     The destination of the card
+     * @param cardID      The card to test
+     * @param movingCount How many cards are currently moved by the player. Hints and other
+     *                    automatic movements use 0
+     * @return True if it can placed, false otherwise
+     */
+    public abstract boolean cardTest(Board board, int stackID, int cardID, int movingCount);
+
+    /**
+     * Tests if the card can be added to the movement to place on another stack.
+     *
+     * @param board  The board to test on
+     * @param cardID The card to test
+     * @return True if it can be added, false otherwise
+     */
+    public abstract boolean addCardToMovementTest(Board board, int cardID);
+
+    /**
+     * Tests if the game is won on the given board.
+     *
+     * @param board The board to test
+     * @return True if won, false otherwise
+     */
+    public abstract boolean winTest(Board board);
+
+    /**
+     * Deals the initial layout of cards, exactly like dealCards() of the game. Every card has to
+     * be placed on the deal stack before, use prepareDeal() for that.
+     *
+     * @param board The board to deal on
+     */
+    public abstract void dealCards(Board board);
+
+    /**
+     * Creates an empty board with the dimensions and card families of this game.
+     *
+     * @return The new board
+     */
+    public Board createBoard() {
+        Board board = new Board(52 * numberOfDecks, numberOfStacks);
+        board.setCardFamilies(cardFamilies);
+        return board;
+    }
+
+    /**
+     * Puts every card faced down on the deal stack, like GameLogic.redeal() does. The last card
+     * of the order will be the top card.
+     *
+     * @param board The board to use
+     * @param order The card ids in the shuffled order
+     */
+    public void prepareDeal(Board board, int[] order) {
+        board.reset();
+
+        for (int cardID : order) {
+            board.addCard(dealFromID, cardID);
+            board.setUp(cardID, false);
+        }
+    }
+
+    /**
+     * Moves a single card to a stack. Like Stack.addCard(), cards on main stacks will be
+     * flipped down and cards on discard stacks flipped up.
+     *
+     * @param board   The board to use
+     * @param cardID  The card to move
+     * @param stackID The destination stack
+     */
+    protected void moveToStack(Board board, int cardID, int stackID) {
+        board.addCard(stackID, cardID);
+
+        if (mainStacksContain(stackID)) {
+            board.setUp(cardID, false);
+        } else if (discardStacksContain(stackID)) {
+            board.setUp(cardID, true);
+        }
+    }
+
+    /**
+     * Moves the top card of the deal stack to the given stack.
+     *
+     * @param board   The board to use
+     * @param stackID The destination stack
+     */
+    protected void dealTo(Board board, int stackID) {
+        moveToStack(board, board.getTopCard(dealFromID), stackID);
+    }
+
+    /**
+     * Flips the top card of the stack up, if there is one.
+     */
+    protected void flipTopCardUp(Board board, int stackID) {
+        if (!board.isEmpty(stackID)) {
+            board.setUp(board.getTopCard(stackID), true);
+        }
+    }
+
+    protected void flipAllCardsUp(Board board) {
+        for (int i = 0; i < board.getNumberOfCards(); i++) {
+            board.setUp(i, true);
+        }
+    }
+
+    /**
+     * Little method to test if a given card can be placed on the given stack.
+     *
+     * @param board     The board to test on
+     * @param stackID   The destination stack
+     * @param cardID    The card to move
+     * @param mode      Which color the cards should have
+     * @param direction which direction the cards are played
+     * @param wrap      set to true if an ace can be placed on a king (ascending) or vice versa(descending)
+     * @return true if the card can be placed on the stack, false otherwise
+     */
+    public static boolean canCardBePlaced(Board board, int stackID, int cardID, int mode, int direction, boolean wrap) {
+        if (board.isEmpty(stackID)) {
+            return true;
+        }
+
+        int topCard = board.getTopCard(stackID);
+        int topValue = board.getValue(topCard);
+        int topColor = board.getColor(topCard);
+        int value = board.getValue(cardID);
+        int color = board.getColor(cardID);
+        boolean colorMatches;
+
+        switch (mode) {
+            case SAME_COLOR:
+                colorMatches = topColor % 2 == color % 2;
+                break;
+            case ALTERNATING_COLOR:
+                colorMatches = topColor % 2 != color % 2;
+                break;
+            case SAME_FAMILY:
+                colorMatches = topColor == color;
+                break;
+            case DOESNT_MATTER:
+            default:
+                colorMatches = true;
+                break;
+        }
+
+        if (direction == DESCENDING) {   //example move a 8 on top of a 9
+            return colorMatches && (topValue == value + 1 || (wrap && topValue == 1 && value == 13));
+        } else if (mode == DOESNT_MATTER) {
+            //kept like the original implementation in Game, which wraps like the descending direction here
+            return topValue == value - 1 || (wrap && topValue == 1 && value == 13);
+        } else {                        //example move a 9 on top of a 8
+            return colorMatches && (topValue == value - 1 || (wrap && topValue == 13 && value == 1));
+        }
+    }
+
+    public static boolean canCardBePlaced(Board board, int stackID, int cardID, int mode, int direction) {
+        return canCardBePlaced(board, stackID, cardID, mode, direction, false);
+    }
+
+    /**
+     * tests card from startPos to stack top if the cards are in the right order
+     * (For example, first a red 10, then a black 9, then a red 8 and so on)
+     *
+     * @param board    The board to test on
+     * @param stackID  The stack to test
+     * @param startPos The start index of the cards to test
+     * @param mode     Shows which order the colors should have
+     * @return True if the cards are in the correct order, false otherwise
+     */
+    public static boolean testCardsUpToTop(Board board, int stackID, int startPos, int mode) {
+        for (int i = startPos; i < board.getSize(stackID) - 1; i++) {
+            if (!isInOrder(board, board.getCard(stackID, i), board.getCard(stackID, i + 1), mode)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Searches the lowest index, from which on the cards up to the top are in the right order.
+     * So testCardsUpToTop() returns true for every start position from this index on.
+     *
+     * @param board   The board to test on
+     * @param stackID The stack to test
+     * @param mode    Shows which order the colors should have
+     * @return The index, it is the index of the top card if the cards below aren't in order
+     */
+    public static int getSequenceStart(Board board, int stackID, int mode) {
+        int index = board.getSize(stackID) - 1;
+
+        while (index > 0 && isInOrder(board, board.getCard(stackID, index - 1), board.getCard(stackID, index), mode)) {
+            index--;
+        }
+
+        return Math.max(index, 0);
+    }
+
+    /**
+     * Tests if the upper card can lie on the bottom card in a sequence: both faced up, the value
+     * one lower and the colors matching the mode.
+     */
+    private static boolean isInOrder(Board board, int bottomCard, int upperCard, int mode) {
+        if (!board.isUp(bottomCard) || !board.isUp(upperCard)) {
+            return false;
+        }
+
+        if (board.getValue(bottomCard) != board.getValue(upperCard) + 1) {
+            return false;
+        }
+
+        int bottomColor = board.getColor(bottomCard);
+        int upperColor = board.getColor(upperCard);
+
+        switch (mode) {
+            case ALTERNATING_COLOR:     //eg. black on red
+                return bottomColor % 2 != upperColor % 2;
+            case SAME_COLOR:            //eg. black on black
+                return bottomColor % 2 == upperColor % 2;
+            case SAME_FAMILY:           //eg spades on spades
+                return bottomColor == upperColor;
+            default:
+                return true;
+        }
+    }
+
+    /**
+     * Counts how many cards can be moved at once, using free cells and empty tableau stacks.
+     * Thanks to matejx for providing this formula.
+     *
+     * @param board              The board to test on
+     * @param firstTableauID     First tableau stack to count empty stacks
+     * @param tableauCount       Number of tableau stacks
+     * @param firstCellID        First free cell, -1 if the game has no free cells
+     * @param cellCount          Number of free cells
+     * @param movingToEmptyStack True if the destination is an empty tableau stack
+     * @return The maximum number of cards
+     */
+    protected static int getPowerMoveCount(Board board, int firstTableauID, int tableauCount, int firstCellID, int cellCount, boolean movingToEmptyStack) {
+        int numberOfFreeCells = 0;
+        int numberOfFreeTableauStacks = 0;
+
+        for (int i = firstCellID; i < firstCellID + cellCount; i++) {
+            if (board.isEmpty(i)) {
+                numberOfFreeCells++;
+            }
+        }
+
+        for (int i = firstTableauID; i < firstTableauID + tableauCount; i++) {
+            if (board.isEmpty(i)) {
+                numberOfFreeTableauStacks++;
+            }
+        }
+
+        if (movingToEmptyStack && numberOfFreeTableauStacks > 0) {
+            numberOfFreeTableauStacks--;
+        }
+
+        return (numberOfFreeCells + 1) * (1 << numberOfFreeTableauStacks);
+    }
+
+    protected boolean allStacksHaveSize(Board board, int firstID, int lastID, int size) {
+        for (int i = firstID; i <= lastID; i++) {
+            if (board.getSize(i) != size) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected void setNumberOfDecks(int number) {
+        numberOfDecks = number;
+    }
+
+    protected void setNumberOfStacks(int number) {
+        numberOfStacks = number;
+    }
+
+    /**
+     * Sets the given stack ids as the main stacks, also sets the first one as the dealing stack.
+     */
+    protected void setMainStackIDs(int... IDs) {
+        mainStackIDs = IDs;
+        dealFromID = IDs[0];
+    }
+
+    protected void setDiscardStackIDs(int... IDs) {
+        discardStackIDs = IDs;
+    }
+
+    protected void setDealFromID(int id) {
+        dealFromID = id;
+    }
+
+    protected void disableMainStack() {
+        mainStackIDs = new int[]{-1};
+    }
+
+    /**
+     * Sets the card families, the same way as Game.setCardFamilies(). Values go from 1 to 4
+     */
+    public void setCardFamilies(int[] order) {
+        cardFamilies = order;
+    }
+
+    public int[] getCardFamilies() {
+        return cardFamilies;
+    }
+
+    public int getNumberOfDecks() {
+        return numberOfDecks;
+    }
+
+    public int getNumberOfStacks() {
+        return numberOfStacks;
+    }
+
+    public int getDealStackID() {
+        return dealFromID;
+    }
+
+    public int getMainStackID() {
+        return mainStackIDs[0];
+    }
+
+    public int getDiscardStackID() {
+        return discardStackIDs[0];
+    }
+
+    public boolean mainStacksContain(int ID) {
+        for (int stackID : mainStackIDs) {
+            if (stackID == ID) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    public boolean discardStacksContain(int ID) {
+        for (int stackID : discardStackIDs) {
+            if (stackID == ID) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+}
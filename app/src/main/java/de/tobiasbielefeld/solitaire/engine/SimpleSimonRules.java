@@ -0,0 +1,55 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Simple Simon. Nearly like Spider, but with one deck and four foundations.
+ */
+
+public class SimpleSimonRules extends SpiderRules {
+
+    public SimpleSimonRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(14);
+        setDealFromID(0);
+        disableMainStack();
+    }
+
+    @Override
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 10, 13, 13);
+    }
+
+    @Override
+    public void dealCards(Board board) {
+        flipAllCardsUp(board);
+
+        for (int i = 1; i < 7; i++) {
+            for (int j = 0; j < 1 + i; j++) {
+                dealTo(board, i);
+            }
+        }
+
+        for (int i = 0; i < 3; i++) {
+            for (int j = 0; j < 8; j++) {
+                dealTo(board, 7 + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Spider. Stacks 0-9 are the tableau, 10-17 the foundations and 18-22 the main stacks.
+ */
+
+public class SpiderRules extends Rules {
+
+    private int numberOfSuits = 4;
+
+    public SpiderRules() {
+        setNumberOfDecks(2);
+        setNumberOfStacks(23);
+        setMainStackIDs(18, 19, 20, 21, 22);
+    }
+
+    /**
+     * Sets the difficulty as the number of used suits (1, 2 or 4) and updates the card families.
+     */
+    public void setNumberOfSuits(int number) {
+        numberOfSuits = number;
+
+        switch (number) {
+            case 1:
+                setCardFamilies(new int[]{3, 3, 3, 3});
+                break;
+            case 2:
+                setCardFamilies(new int[]{2, 3, 2, 3});
+                break;
+            case 4:
+                setCardFamilies(new int[]{1, 2, 3, 4});
+                break;
+        }
+    }
+
+    public int getNumberOfSuits() {
+        return numberOfSuits;
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        return stackID < 10 && canCardBePlaced(board, stackID, cardID, DOESNT_MATTER, DESCENDING);
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        //do not accept cards from foundation and test if the cards are in the right order.
+        int stackID = board.getStackOf(cardID);
+
+        return stackID < 10 && testCardsUpToTop(board, stackID, board.getIndexOnStack(cardID), SAME_FAMILY);
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 10, 17, 13);
+    }
+
+    public void dealCards(Board board) {
+        for (int i = 0; i < 10; i++) {
+            for (int j = 0; j < 5; j++) {
+                dealTo(board, i);
+            }
+
+            if (i < 4) {
+                dealTo(board, i);
+            }
+
+            flipTopCardUp(board, i);
+        }
+
+        //the remaining cards are split on the main stacks, the first one keeps its ten cards
+        for (int i = 1; i < 5; i++) {
+            for (int j = 0; j < 10; j++) {
+                dealTo(board, 18 + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of TriPeaks. Stacks 0-27 are the three peaks, 28 the discard stack and 29 the main stack.
+ */
+
+public class TriPeaksRules extends Rules {
+
+    //contains which stack is above another stack. So STACK_ABOVE_ID[0]=3 means, that above stack
+    //with index 0 are the stacks with index 3 and 3+1
+    private static final int[] STACK_ABOVE_ID = {3, 5, 7, 9, 10, 12, 13, 15, 16, 18, 19, 20, 21, 22, 23, 24, 25, 26};
+
+    public TriPeaksRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(30);
+        setDiscardStackIDs(28);
+        setMainStackIDs(29);
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID != getDiscardStackID() || board.isEmpty(stackID)) {
+            return false;
+        }
+
+        int value = board.getValue(cardID);
+        int topValue = board.getValue(board.getTopCard(stackID));
+
+        return value == 13 && topValue == 1 || value == 1 && topValue == 13
+                || value == topValue + 1 || value == topValue - 1;
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        return board.getStackOf(cardID) != getDiscardStackID();
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 0, 27, 0);
+    }
+
+    public void dealCards(Board board) {
+        for (int i = 0; i < 28; i++) {
+            dealTo(board, i);
+
+            if (i > 17) {
+                board.setUp(board.getTopCard(i), true);
+            }
+        }
+
+        dealTo(board, getDiscardStackID());
+    }
+
+    /**
+     * Tests if no other card covers the given tableau stack.
+     */
+    public boolean stackIsFree(Board board, int stackID) {
+        if (stackID > 17) {
+            return true;
+        }
+
+        return board.isEmpty(STACK_ABOVE_ID[stackID]) && board.isEmpty(STACK_ABOVE_ID[stackID] + 1);
+    }
+
+    /**
+     * Returns the first of the two stacks covering the given one, the second one is the next id.
+     * Stacks of the last row aren't covered and return -1.
+     */
+    public static int getStackAboveID(int stackID) {
+        return stackID < STACK_ABOVE_ID.length ? STACK_ABOVE_ID[stackID] : -1;
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+/**
+ * Rules of Yukon, with the default or the russian rules.
+ */
+
+public class YukonRules extends Rules {
+
+    private boolean russianRules;
+
+    public YukonRules() {
+        setNumberOfDecks(1);
+        setNumberOfStacks(11);
+        setDealFromID(0);
+    }
+
+    /**
+     * Use the russian rules (cards on the tableau in the same family) instead of alternating colors.
+     */
+    public void setRussianRules(boolean value) {
+        russianRules = value;
+    }
+
+    public boolean cardTest(Board board, int stackID, int cardID, int movingCount) {
+        if (stackID < 7) {                                                                          //tableau
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == 13;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, russianRules ? SAME_FAMILY : ALTERNATING_COLOR, DESCENDING);
+            }
+        } else if (movingCount < 2) {                                                               //foundation
+            if (board.isEmpty(stackID)) {
+                return board.getValue(cardID) == 1;
+            } else {
+                return canCardBePlaced(board, stackID, cardID, SAME_FAMILY, ASCENDING);
+            }
+        } else {
+            return false;
+        }
+    }
+
+    public boolean addCardToMovementTest(Board board, int cardID) {
+        //yukon is simple in this way: you can move every card
+        return true;
+    }
+
+    public boolean winTest(Board board) {
+        return allStacksHaveSize(board, 7, 10, 13);
+    }
+
+    public void dealCards(Board board) {
+        for (int i = 1; i <= 6; i++) {
+            for (int j = 0; j < 5 + i; j++) {
+                dealTo(board, i);
+
+                if (j >= i) {
+                    board.setUp(board.getTopCard(i), true);
+                }
+            }
+        }
+
+        flipTopCardUp(board, getDealStackID());
+    }
+}
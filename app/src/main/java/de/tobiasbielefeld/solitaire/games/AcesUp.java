@@ -26,6 +26,11 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.AcesUpRules;
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.helper.HintSearch;
+import de.tobiasbielefeld.solitaire.solver.AcesUpSolver;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 
@@ -35,6 +40,22 @@ import static de.tobiasbielefeld.solitaire.SharedData.*;
 
 public class AcesUp extends Game {
 
+    private AcesUpRules acesUpRules = new AcesUpRules();
+
+    //searches the moves to the best outcome of the current board
+    private HintSearch<AcesUpSolver> hintSearch = new HintSearch<AcesUpSolver>() {
+        @Override
+        protected AcesUpSolver createSolver() {
+            return new AcesUpSolver();
+        }
+
+        @Override
+        protected int[] rankMoves(AcesUpSolver solver, Board board) {
+            solver.solve(board);
+            return solver.getSolution();
+        }
+    };
+
     public AcesUp() {
         setNumberOfDecks(1);
         setNumberOfStacks(6);
@@ -42,6 +63,7 @@ public class AcesUp extends Game {
         setTableauStackIDs(0,1,2,3);
         setFoundationStackIDs(4);
         setMainStackIDs(5);
+        setRules(acesUpRules);
 
         setMixingCardsTestMode(null);
         setDirections(1, 1, 1, 1, 0, 0);
@@ -68,20 +90,6 @@ public class AcesUp extends Game {
     }
 
 
-    public boolean winTest() {
-        if (!getMainStack().isEmpty()) {
-            return false;
-        }
-
-        for (int i = 0; i < 4; i++) {
-            if (stacks[i].getSize() != 1 || stacks[i].getTopCard().getValue() != 1) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     public void dealCards() {
 
         for (int i = 0; i < 4; i++) {
@@ -90,6 +98,16 @@ public class AcesUp extends Game {
         }
     }
 
+    @Override
+    public Solver createSolver() {
+        return new AcesUpSolver();
+    }
+
+    @Override
+    public boolean hasSolvableIndicator() {
+        return true;
+    }
+
     public int onMainStackTouch() {
         if (getMainStack().isEmpty()) {
             return 0;
@@ -109,30 +127,37 @@ public class AcesUp extends Game {
         return 1;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        if (stack.getId() < 4 && stack.isEmpty()) {
-            return true;
-        } else if (stack.getId() == getMainStack().getId() || card.getValue() == 1) {
-            return false;
-        } else if (stack.getId() == 4) {
-            for (int i = 0; i < 4; i++) {
-                if (stacks[i].isEmpty() || i == card.getStack().getId()) {
-                    continue;
-                }
+    /**
+     * Searches the best solution of the current board with the solver, before the hints start.
+     */
+    @Override
+    public boolean prepareHints(Runnable onReady) {
+        return hintSearch.prepare(onReady);
+    }
 
-                Card cardOnStack = stacks[i].getTopCard();
+    /**
+     * Shows the next move of the best solution first, dealing is shown with the top card of the
+     * main stack. It isn't a card movement, so it must never be returned by hintTest().
+     */
+    @Override
+    public CardAndStack rankedHintTest() {
+        int[] hintMoves = hintSearch.getMoves();
+
+        if (hintMoves != null && hintMoves.length > 0) {
+            int move = hintMoves[0];
 
-                if (cardOnStack.getColor() == card.getColor() && (cardOnStack.getValue() > card.getValue() || cardOnStack.getValue() == 1)) {
-                    return true;
+            if (Solver.isCardMove(move)) {
+                Card card = cards[Solver.getCardOf(move)];
+
+                if (!hint.hasVisited(card)) {
+                    return new CardAndStack(card, stacks[Solver.getDestinationOf(move)]);
                 }
+            } else if (!getMainStack().isEmpty() && !hint.hasVisited(getMainStack().getTopCard())) {
+                return new CardAndStack(getMainStack().getTopCard(), stacks[0]);
             }
         }
 
-        return false;
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        return card.isTopCard() && card.getStack() != stacks[4];
+        return hintTest();
     }
 
     public CardAndStack hintTest() {
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.CalculationRules;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 
@@ -35,6 +36,8 @@ import static de.tobiasbielefeld.solitaire.SharedData.*;
 
 public class Calculation extends Game {
 
+    private CalculationRules calculationRules = new CalculationRules();
+
     public Calculation() {
         setNumberOfDecks(1);
         setNumberOfStacks(10);
@@ -43,6 +46,7 @@ public class Calculation extends Game {
         setFoundationStackIDs(4,5,6,7);
         setDiscardStackIDs(8);
         setMainStackIDs(9);
+        setRules(calculationRules);
 
         setMixingCardsTestMode(null);
         prefs.saveCalculationAlternativeModeOld();
@@ -107,16 +111,6 @@ public class Calculation extends Game {
         }
     }
 
-    public boolean winTest() {
-        for (int i = 0; i < 4; i++) {
-            if (stacks[4+i].currentCards.size()!=13){
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     public void dealCards() {
         prefs.saveCalculationAlternativeModeOld();
         gameLogic.showOrHideRecycles();
@@ -189,26 +183,6 @@ public class Calculation extends Game {
         return 1;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        if (stack.getId() < 4) {
-            return card.getStack() == getDiscardStack();
-        } else if (stack.getId() <8 && stack.getTopCard().getValue()!=13) {
-            int requestedDistance = stack.getId()-3;
-            int stackCardValue = stack.getTopCard().getValue();
-            int cardToMoveValue = card.getValue() < stackCardValue ? 13 + card.getValue() : card.getValue();
-
-            if (cardToMoveValue - stackCardValue == requestedDistance){
-                return true;
-            }
-        }
-
-        return false;
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        return card.getStackId()<4 && card.isTopCard() || card.getStack()==getDiscardStack();
-    }
-
     @Override
     public void testAfterMove() {
         if (getDiscardStack().isEmpty() && !getMainStack().isEmpty()){
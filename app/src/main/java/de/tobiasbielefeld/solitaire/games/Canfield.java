@@ -27,6 +27,9 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.CanfieldRules;
+import de.tobiasbielefeld.solitaire.solver.CanfieldSolver;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -43,6 +46,7 @@ import static de.tobiasbielefeld.solitaire.games.Game.testMode3.*;
 public class Canfield extends Game {
 
     private int startCardValue;
+    private CanfieldRules canfieldRules = new CanfieldRules();
 
     public Canfield() {
         setNumberOfDecks(1);
@@ -52,6 +56,7 @@ public class Canfield extends Game {
         setFoundationStackIDs(5,6,7,8);
         setDiscardStackIDs(9,10,11);
         setMainStackIDs(12);
+        setRules(canfieldRules);
 
         setMixingCardsTestMode(testMode.ALTERNATING_COLOR);
     }
@@ -64,6 +69,7 @@ public class Canfield extends Game {
     @Override
     public void load() {
         startCardValue = prefs.getSavedStartCardValueCanfield();
+        canfieldRules.setStartCardValue(startCardValue);
     }
 
     public void setStacks(RelativeLayout layoutGame, boolean isLandscape, Context context) {
@@ -112,17 +118,6 @@ public class Canfield extends Game {
         setFoundationBackgrounds();
     }
 
-    public boolean winTest() {
-        //if the foundation stacks aren't full, not won. Else won
-        for (int i = 5; i <= 8; i++) {
-            if (stacks[i].getSize() != 13) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     private void setFoundationBackgrounds() {
         Bitmap bitmap;
 
@@ -183,6 +178,9 @@ public class Canfield extends Game {
         moveToStack(getMainStack().getTopCard(), stacks[5], OPTION_NO_RECORD);
         stacks[5].getTopCard().flipUp();
         startCardValue = stacks[5].getTopCard().getValue();
+        canfieldRules.setStartCardValue(startCardValue);
+        canfieldRules.setDrawThree(prefs.getSavedCanfieldDrawModeOld().equals("3"));
+        canfieldRules.setSizeOfReserve(prefs.getSavedCanfieldSizeOfReserve());
         setFoundationBackgrounds();
 
         //deal cards to trash according to the draw option
@@ -213,6 +211,11 @@ public class Canfield extends Game {
         stacks[4].flipTopCardUp();
     }
 
+    @Override
+    public Solver createSolver() {
+        return new CanfieldSolver(prefs.getSavedCanfieldDrawMode().equals("3"), prefs.getSavedCanfieldSizeOfReserve());
+    }
+
     public int onMainStackTouch() {
         if (getMainStack().getSize() > 0) {
             if (prefs.getSavedCanfieldDrawModeOld().equals("3")) {
@@ -349,32 +352,6 @@ public class Canfield extends Game {
         return stacks[4].isEmpty();
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        if (stack.getId() == 4) {
-            return false;
-        }
-
-        if (stack.getId() < 4) {
-            return canCardBePlaced(stack, card, ALTERNATING_COLOR, DESCENDING, true);
-        } else if (stack.getId() < 9 && movingCards.hasSingleCard()) {
-            if (stack.isEmpty()) {
-                return card.getValue() == startCardValue;
-            } else {
-                return canCardBePlaced(stack, card, SAME_FAMILY, ASCENDING, true);
-            }
-        } else {
-            return false;
-        }
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        //don't move cards from the discard stacks if there is a card on top of them
-        //for example: if touched a card on stack 11 (first discard stack) but there is a card
-        //on stack 12 (second discard stack) don't move if.
-        return !(((card.getStackId() == 9 || card.getStackId() == 10) && !stacks[11].isEmpty())
-                || (card.getStackId() == 9 && !stacks[10].isEmpty()));
-    }
-
     public CardAndStack hintTest() {
         Card card;
 
@@ -395,7 +372,7 @@ public class Canfield extends Game {
                         continue;
                     }
 
-                    if (card.test(stacks[j])) {
+                    if (canMove(card, stacks[j])) {
                         return new CardAndStack(card, stacks[j]);
                     }
                 }
@@ -406,7 +383,7 @@ public class Canfield extends Game {
 
             if (!hint.hasVisited(card)) {
                 for (int j = 5; j <= 8; j++) {
-                    if (card.test(stacks[j])) {
+                    if (canMove(card, stacks[j])) {
                         return new CardAndStack(card, stacks[j]);
                     }
                 }
@@ -422,13 +399,13 @@ public class Canfield extends Game {
 
             if (stacks[9 + i].getSize() > 0 && !hint.hasVisited(stacks[9 + i].getTopCard())) {
                 for (int j = 5; j <= 8; j++) {
-                    if (stacks[9 + i].getTopCard().test(stacks[j])) {
+                    if (canMove(stacks[9 + i].getTopCard(), stacks[j])) {
                         return new CardAndStack(stacks[9 + i].getTopCard(), stacks[j]);
                     }
                 }
 
                 for (int j = 0; j <= 3; j++) {
-                    if (stacks[9 + i].getTopCard().test(stacks[j])) {
+                    if (canMove(stacks[9 + i].getTopCard(), stacks[j])) {
                         return new CardAndStack(stacks[9 + i].getTopCard(), stacks[j]);
                     }
                 }
@@ -443,7 +420,7 @@ public class Canfield extends Game {
         //foundation stacks
         if (card.isTopCard() && !(card.getStackId() >= 5 && card.getStackId() <= 8)) {
             for (int j = 5; j < 9; j++) {
-                if (card.getStackId() != j && card.test(stacks[j])) {
+                if (card.getStackId() != j && canMove(card, stacks[j])) {
                     return stacks[j];
                 }
             }
@@ -460,14 +437,14 @@ public class Canfield extends Game {
                 continue;
             }
 
-            if (card.test(stacks[j])) {
+            if (canMove(card, stacks[j])) {
                 return stacks[j];
             }
         }
 
         //empty tableau stacks
         for (int j = 0; j < 4; j++) {
-            if (card.getStackId() != j && stacks[j].isEmpty() && card.test(stacks[j])) {
+            if (card.getStackId() != j && stacks[j].isEmpty() && canMove(card, stacks[j])) {
                 return stacks[j];
             }
         }
@@ -487,7 +464,7 @@ public class Canfield extends Game {
             for (int j = 0; j <= 4; j++) {
                 Stack origin = stacks[j];
 
-                if (origin.getSize() > 0 && origin.getTopCard().test(destination)) {
+                if (origin.getSize() > 0 && canMove(origin.getTopCard(), destination)) {
                     return new CardAndStack(origin.getTopCard(), destination);
                 }
             }
@@ -98,6 +98,12 @@ public class DummyGame extends Game {
         //every family is the same color, so I use this:
         setCardFamilies(1, 1, 1, 1);
 
+        //the actual rules of the games are written in the engine package, without using any
+        //Android classes. Create a new Rules class there and set it here with setRules(new DummyRules());
+        //then winTest(), cardTest() and addCardToMovementGameTest() don't need to be overridden,
+        //because the Game class uses the rules for them. This dummy game overrides them instead,
+        //so you can see how they work
+
         //you can set up how the cards on a stack are stacked. With an offset to the right, down and so on
         //Put an int array with values for each stack that should getHighScore a direction
         //int value at array pos 0 will be assigned to stack[0] and so on
@@ -333,6 +339,8 @@ public class DummyGame extends Game {
      * If no card can be found, return null at the end of the method, so the hint will stop.
      *
      * Use hint.hasVisited(card) to getHighScore if the card has been visited, so it won't result in an endless loop
+     * Use canMove(card, stack) instead of card.test(stack), it looks the move up in the legal moves of the board,
+     * which are only generated once after every movement
      */
     public CardAndStack hintTest() {
         //Short example from Klondike
@@ -350,7 +358,7 @@ public class DummyGame extends Game {
 
             if (!hint.hasVisited(card)) {                                                           //if this card hasn't been visited
                 for (int j = 7; j <= 10; j++) {                                                     //loop through every foundation stack as destination
-                    if (card.test(stacks[j])) {                                                     //then test
+                    if (canMove(card, stacks[j])) {                                                //then test
 
                         return new CardAndStack(card, stacks[j]);
                     }
@@ -417,7 +425,7 @@ public class DummyGame extends Game {
             for (int j = 0; j <= 6; j++) {                                                          //tableau fields
                 Stack origin = stacks[j];                                                           //getHighScore the origin for more visibility
 
-                if (origin.getSize() > 0 && origin.getTopCard().test(destination)) {                //test if there are still cards on it and if the card test is successful
+                if (origin.getSize() > 0 && canMove(origin.getTopCard(), destination)) {           //test if there are still cards on it and if the card test is successful
                     return new CardAndStack(origin.getTopCard(), destination);                      //and return
                 }
             }
@@ -491,7 +499,7 @@ public class DummyGame extends Game {
         //foundation stacks
         if (card.isTopCard()) {
             for (int j = 7; j < 11; j++) {
-                if (card.test(stacks[j]))
+                if (canMove(card, stacks[j]))
                     return stacks[j];
             }
         }
@@ -505,14 +513,14 @@ public class DummyGame extends Game {
             if (card.getValue() == 13 && card.isFirstCard() && card.getStackId() <= 6)
                 continue;
 
-            if (card.test(stacks[j])) {
+            if (canMove(card, stacks[j])) {
                 return stacks[j];
             }
         }
 
         //empty tableau stacks
         for (int j = 0; j < 7; j++) {
-            if (stacks[j].isEmpty() && card.test(stacks[j]))
+            if (stacks[j].isEmpty() && canMove(card, stacks[j]))
                 return stacks[j];
         }
 
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.FortyEightRules;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.helper.Preferences.*;
@@ -39,6 +40,8 @@ import static de.tobiasbielefeld.solitaire.games.Game.testMode3.*;
 
 public class FortyEight extends Game {
 
+    private FortyEightRules fortyEightRules = new FortyEightRules();
+
     public FortyEight() {
         setNumberOfDecks(2);
         setNumberOfStacks(18);
@@ -47,6 +50,7 @@ public class FortyEight extends Game {
         setFoundationStackIDs(8,9,10,11,12,13,14,15);
         setDiscardStackIDs(16);
         setMainStackIDs(17);
+        setRules(fortyEightRules);
 
         setMixingCardsTestMode(testMode.SAME_FAMILY);
         setNumberOfRecycles(PREF_KEY_FORTYEIGHT_NUMBER_OF_RECYCLES,DEFAULT_FORTYEIGHT_NUMBER_OF_RECYCLES);
@@ -83,16 +87,6 @@ public class FortyEight extends Game {
 
     }
 
-    public boolean winTest() {
-        for (int i = 0; i < 8; i++) {
-            if (stacks[8 + i].getSize() != 13) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     public void dealCards() {
         moveToStack(getDealStack().getTopCard(), getDiscardStack(), OPTION_NO_RECORD);
 
@@ -126,31 +120,6 @@ public class FortyEight extends Game {
     }
 
 
-    public boolean cardTest(Stack stack, Card card) {
-        if (stack.getId() < 8) {
-            //if there are as many cards moving as free stacks, and one of the free stacks was chosen, don't move
-            int movingCards = card.getStack().getSize() - card.getIndexOnStack();
-
-            return movingCards <= getPowerMoveCount(stack.isEmpty()) && canCardBePlaced(stack, card, SAME_FAMILY, DESCENDING);
-        } else if (stack.getId() < 16 && movingCards.hasSingleCard()) {
-            if (stack.isEmpty()) {
-                return card.getValue() == 1;
-            } else {
-                return canCardBePlaced(stack, card, SAME_FAMILY, ASCENDING);
-            }
-        }
-
-        return false;
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        Stack sourceStack = card.getStack();
-
-        int startPos = max(sourceStack.getSize() - getPowerMoveCount(false), card.getStack().getIndexOfCard(card));
-
-        return card.getStack().getIndexOfCard(card) >= startPos && testCardsUpToTop(sourceStack, startPos, SAME_FAMILY);
-    }
-
     public CardAndStack hintTest() {
 
         for (int i = 0; i < 8; i++) {
@@ -172,7 +141,7 @@ public class FortyEight extends Game {
 
                 if (cardToMove.isTopCard()) {
                     for (int k = 8; k < 16; k++) {
-                        if (cardToMove.test(stacks[k])) {
+                        if (canMove(cardToMove, stacks[k])) {
                             return new CardAndStack(cardToMove, stacks[k]);
                         }
                     }
@@ -188,7 +157,7 @@ public class FortyEight extends Game {
                         continue;
                     }
 
-                    if (cardToMove.test(destStack)) {
+                    if (canMove(cardToMove, destStack)) {
                         if (sameCardOnOtherStack(cardToMove, destStack, SAME_VALUE_AND_FAMILY)) {
                             continue;
                         }
@@ -310,19 +279,6 @@ public class FortyEight extends Game {
     }
 
     private int getPowerMoveCount(boolean movingToEmptyStack){
-        //thanks to matejx for providing this formula
-        int numberOfFreeTableauStacks = 0;
-
-        for (int i=0;i<8;i++){
-            if (stacks[i].isEmpty()){
-                numberOfFreeTableauStacks++;
-            }
-        }
-
-        if (movingToEmptyStack && numberOfFreeTableauStacks>0){
-            numberOfFreeTableauStacks --;
-        }
-
-        return (1<<numberOfFreeTableauStacks);
+        return fortyEightRules.getPowerMoveCount(getBoard(), movingToEmptyStack);
     }
 }
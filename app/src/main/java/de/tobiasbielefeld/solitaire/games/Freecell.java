@@ -26,6 +26,9 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.FreecellRules;
+import de.tobiasbielefeld.solitaire.solver.FreecellSolver;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -38,6 +41,8 @@ import static de.tobiasbielefeld.solitaire.games.Game.testMode3.*;
 
 public class Freecell extends Game {
 
+    private FreecellRules freecellRules = new FreecellRules();
+
     public Freecell() {
         setNumberOfDecks(1);
         setNumberOfStacks(16);  //one extra stack only for dealing cards
@@ -45,6 +50,7 @@ public class Freecell extends Game {
         setTableauStackIDs(0,1,2,3,4,5,6,7,8,9,10,11);
         setFoundationStackIDs(12,13,14,15);
         setDealFromID(0);
+        setRules(freecellRules);
 
         setMixingCardsTestMode(testMode.ALTERNATING_COLOR);
         setDirections(1, 1, 1, 1, 1, 1, 1, 1, 0, 0, 0, 0);
@@ -74,17 +80,6 @@ public class Freecell extends Game {
         }
     }
 
-    public boolean winTest() {
-        //won if the foundation stacks are full
-        for (int i = 12; i <= 15; i++) {
-            if (stacks[i].getSize() != 13) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     public void dealCards() {
         //flip every card up then move them to the tableau
         flipAllCardsUp();
@@ -106,42 +101,19 @@ public class Freecell extends Game {
         }
     }
 
-    public int onMainStackTouch() {
-        //no main stack, so empty
-        return 0;
+    @Override
+    public Solver createSolver() {
+        return new FreecellSolver();
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        if (stack.getId() < 8) {
-            //if there are as many cards moving as free stacks, and one of the free stacks was choosen, dont move
-            int movingCards = card.getStack().getSize() - card.getIndexOnStack();
-
-            return movingCards <= getPowerMoveCount(stack.isEmpty()) && canCardBePlaced(stack, card, ALTERNATING_COLOR, DESCENDING);
-
-        } else if (stack.getId() < 12) {
-            return movingCards.hasSingleCard() && stack.isEmpty();
-        } else if (movingCards.hasSingleCard() && stack.getId() < 16) {
-            if (stack.isEmpty()) {
-                return card.getValue() == 1;
-            } else {
-                return canCardBePlaced(stack, card, SAME_FAMILY, ASCENDING);
-            }
-        }
-
-        return false;
+    @Override
+    public boolean hasSolvableIndicator() {
+        return true;
     }
 
-    public boolean addCardToMovementGameTest(Card card) {
-        /*
-         *  normally the player can only move one card at once, but he can also put cards to free
-         *  cells and replace them on a new stack. To make this easier, the player can move more
-         *  cards at once, if they are in the right order and if there are enough free cells
-         */
-        Stack sourceStack = card.getStack();
-
-        int startPos = max(sourceStack.getSize() - getPowerMoveCount(false), card.getStack().getIndexOfCard(card));
-
-        return card.getStack().getIndexOfCard(card) >= startPos && testCardsUpToTop(sourceStack, startPos, ALTERNATING_COLOR);
+    public int onMainStackTouch() {
+        //no main stack, so empty
+        return 0;
     }
 
     public CardAndStack hintTest() {
@@ -166,7 +138,7 @@ public class Freecell extends Game {
 
                 if (cardToMove.getValue() == 1 && cardToMove.isTopCard()) {
                     for (int k = 12; k < 16; k++) {
-                        if (cardToMove.test(stacks[k])) {
+                        if (canMove(cardToMove, stacks[k])) {
                             return new CardAndStack(cardToMove, stacks[k]);
                         }
                     }
@@ -183,7 +155,7 @@ public class Freecell extends Game {
                         continue;
                     }
 
-                    if (cardToMove.test(destStack)) {
+                    if (canMove(cardToMove, destStack)) {
                         if (sameCardOnOtherStack(cardToMove, destStack, SAME_VALUE_AND_COLOR)) {
                             continue;
                         }
@@ -202,7 +174,7 @@ public class Freecell extends Game {
         //first foundation
         if (card.isTopCard()) {
             for (int k = 12; k < 16; k++) {
-                if (card.test(stacks[k])) {
+                if (canMove(card, stacks[k])) {
                     return stacks[k];
                 }
             }
@@ -210,14 +182,14 @@ public class Freecell extends Game {
 
         //then non empty tableau fields
         for (int k = 0; k < 8; k++) {
-            if (card.test(stacks[k]) && !stacks[k].isEmpty() && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR)) {
+            if (canMove(card, stacks[k]) && !stacks[k].isEmpty() && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR)) {
                 return stacks[k];
             }
         }
 
         //then all empty tableau fields
         for (int k = 0; k < 8; k++) {
-            if (card.test(stacks[k]) && stacks[k].isEmpty() && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR)) {
+            if (canMove(card, stacks[k]) && stacks[k].isEmpty() && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR)) {
                 return stacks[k];
             }
         }
@@ -225,7 +197,7 @@ public class Freecell extends Game {
         //and empty cells
         if (card.isTopCard()) {
             for (int k = 8; k < 12; k++) {
-                if (card.test(stacks[k]) && stacks[k].isEmpty() && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR)) {
+                if (canMove(card, stacks[k]) && stacks[k].isEmpty() && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR)) {
                     return stacks[k];
                 }
             }
@@ -256,7 +228,7 @@ public class Freecell extends Game {
             for (int j = 12; j < 16; j++) {
                 Stack destination = stacks[j];
 
-                if (origin.getTopCard().test(destination)) {
+                if (canMove(origin.getTopCard(), destination)) {
                     return new CardAndStack(origin.getTopCard(), destination);
                 }
             }
@@ -283,26 +255,6 @@ public class Freecell extends Game {
     }
 
     private int getPowerMoveCount(boolean movingToEmptyStack){
-        //thanks to matejx for providing this formula
-        int numberOfFreeCells = 0;
-        int numberOfFreeTableauStacks = 0;
-
-        for (int i=8;i<12;i++){
-            if (stacks[i].isEmpty()){
-                numberOfFreeCells++;
-            }
-        }
-
-        for (int i=0;i<8;i++){
-            if (stacks[i].isEmpty()){
-                numberOfFreeTableauStacks++;
-            }
-        }
-
-        if (movingToEmptyStack && numberOfFreeTableauStacks>0){
-            numberOfFreeTableauStacks --;
-        }
-
-        return (numberOfFreeCells+1)*(1<<numberOfFreeTableauStacks);
+        return freecellRules.getPowerMoveCount(getBoard(), movingToEmptyStack);
     }
 }
@@ -28,13 +28,17 @@ import android.widget.RelativeLayout;
 import android.widget.TextView;
 
 import java.util.ArrayList;
-import java.util.Random;
 
 import de.tobiasbielefeld.solitaire.R;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.CardShuffler;
+import de.tobiasbielefeld.solitaire.engine.MoveList;
+import de.tobiasbielefeld.solitaire.engine.Rules;
 import de.tobiasbielefeld.solitaire.helper.Sounds;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 import de.tobiasbielefeld.solitaire.ui.GameManager;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
@@ -71,6 +75,14 @@ public abstract class Game {
     private int undoCosts = 25;
     protected ArrayList<TextView> textViews = new ArrayList<>();
     private testMode mixCardsTestMode = testMode.DOESNT_MATTER;
+    private Rules rules;
+    private Board board;
+    private MoveList legalMoves;
+    private int legalMovesModification = -1;                                                        //modification count of the board, when the moves were generated
+    private boolean legalMovesIgnoreDirections;
+    private boolean legalMovesEverywhere;                                                           //the developer option can be changed while playing
+    private int numberOfCards;
+    private int numberOfStacks;
 
     // some methods used by other classes
 
@@ -80,41 +92,23 @@ public abstract class Game {
      * foundation, or complete sequences.
      */
     public void mixCards(){
-        Random random = getPrng();
-        ArrayList<Card> cardsToMix = new ArrayList<>();
-        int counter;
-        Card cardToChange;
+        int[] cardsToMix = new int[cards.length];
+        int count = 0;
 
         //getHighScore the cards to mix
         for (Card card : cards){
             if (!excludeCardFromMixing(card)){
-                cardsToMix.add(card);
+                cardsToMix[count++] = card.getId();
             }
         }
 
-        //exchange cards. A bit like Fisher-Yate Shuffle, but the iterating array doesn't change.
-        for (int i = cardsToMix.size() -1 ; i>=0;i--){
+        //mix the cards on a copy of the board, then exchange the same cards on the stacks
+        int[] exchanges = new int[2 * count];
+        CardShuffler.mixCards(new Board(board), cardsToMix, count, getPrng(), prefs.getSavedUseTrueRandomisation(), exchanges);
 
-            if (prefs.getSavedUseTrueRandomisation()){
-                cardToChange = cardsToMix.get(random.nextInt(i+1));
-            } else {
-                //choose a new card as long the chosen card is too similar to the previous and following card in the array
-                //(same value or color) also limit the loop to max 10 iterations to avoid infinite loops
-                counter = 0;
-
-                do {
-                    cardToChange = cardsToMix.get(random.nextInt(i+1));
-                    counter++;
-                }
-                while ( //the card below cardToChange shouldn't be too similar (but only if there is a card below)
-                        (!cardToChange.isFirstCard() && (cardToChange.getCardBelow().getValue() == cardsToMix.get(i).getValue() || cardToChange.getCardBelow().getColor() == cardsToMix.get(i).getColor())
-                        //the card on top cardToChange shouldn't be too similar (but only if there is a card on top)
-                        || !cardToChange.isTopCard() &&      (cardToChange.getCardOnTop().getValue() == cardsToMix.get(i).getValue() || cardToChange.getCardOnTop().getColor() == cardsToMix.get(i).getColor()))
-                        //and the loop shouldn't take too long
-                        && counter < 10);
-            }
-
-            cardToChange.getStack().exchangeCard(cardToChange,cardsToMix.get(i));
+        for (int i = 0; i < count; i++) {
+            Card cardToChange = cards[exchanges[2 * i]];
+            cardToChange.getStack().exchangeCard(cardToChange, cards[exchanges[2 * i + 1]]);
         }
 
         sounds.playSound(Sounds.names.DEAL_CARDS);
@@ -126,10 +120,21 @@ public abstract class Game {
 
         //delete the record list, otherwise undoing movements would result in strange behavior
         recordList.reset();
-        handlerTestAfterMove.sendEmptyMessageDelayed(0,200);
+        gamePipeline.add(handlerTestAfterMove);
     }
 
     public void dealNewGame(){
+        //all the single card movements of the deal only need one layout at the end
+        moveTransaction.begin();
+
+        try {
+            dealNewGameInTransaction();
+        } finally {
+            moveTransaction.commit();
+        }
+    }
+
+    private void dealNewGameInTransaction(){
         dealCards();
 
         switch (prefs.getDeveloperOptionDealCorrectSequences()){
@@ -239,6 +244,49 @@ public abstract class Game {
         return cardAndStack;
     }
 
+    /**
+     * Returns every legal move of the current board: Each card together with every stack it can
+     * be placed on, the same result as card.test(stack) while moving the card and every card
+     * above it. The moves are only generated again after the board changed, so hints, double taps
+     * and the auto complete can use them without testing every stack on their own. They are also
+     * generated again if the auto complete or the developer option to move cards everywhere
+     * changed, because both change the result.
+     *
+     * @return The moves, don't change them
+     */
+    public MoveList getLegalMoves() {
+        boolean ignoreDirections = autoComplete.isRunning();
+        boolean everywhere = prefs.isDeveloperOptionMoveCardsEverywhereEnabled();
+
+        if (board.getModificationCount() != legalMovesModification || ignoreDirections != legalMovesIgnoreDirections
+                || everywhere != legalMovesEverywhere) {
+            generateLegalMoves(ignoreDirections, everywhere);
+            legalMovesModification = board.getModificationCount();
+            legalMovesIgnoreDirections = ignoreDirections;
+            legalMovesEverywhere = everywhere;
+        }
+
+        return legalMoves;
+    }
+
+    /**
+     * Tests with the legal moves of the current board, if the card can be placed on the stack.
+     *
+     * @param card        The card to test
+     * @param destination The destination stack
+     * @return True if the card (and every card above it) can be moved there
+     */
+    public boolean canMove(Card card, Stack destination) {
+        return getLegalMoves().contains(card.getId(), destination.getId());
+    }
+
+    /**
+     * Generates the legal moves again, call it if an option changed, which the rules use.
+     */
+    protected void invalidateLegalMoves() {
+        legalMovesModification = -1;
+    }
+
     //methods games must implement
 
     /**
@@ -253,11 +301,13 @@ public abstract class Game {
 
     /**
      * Tests if the currently played game is won. Called after every movement. If the game is won,
-     * the score will be saved and win animation started.
+     * the score will be saved and win animation started. Uses the rules of the game by default.
      *
      * @return True if won, false otherwise
      */
-    abstract public boolean winTest();
+    public boolean winTest() {
+        return rules.winTest(board);
+    }
 
     /**
      * Deals the initial layout of cards at game start.
@@ -265,22 +315,26 @@ public abstract class Game {
     abstract public void dealCards();
 
     /**
-     * Tests a card if it can be placed on the given stack.
+     * Tests a card if it can be placed on the given stack. Uses the rules of the game by default.
      *
      * @param stack The destination of the card
      * @param card  The card to test
      * @return True if it can placed, false otherwise
      */
-    abstract public boolean cardTest(Stack stack, Card card);
+    public boolean cardTest(Stack stack, Card card) {
+        return rules.cardTest(board, stack.getId(), card.getId(), movingCards.getSize());
+    }
 
     /**
      * Tests if the card can be added to the movement to place on another stack.
-     * Games have to implement this method.
+     * Uses the rules of the game by default.
      *
      * @param card The card to test
      * @return True if it can be added, false otherwise
      */
-    abstract public boolean addCardToMovementGameTest(Card card);
+    public boolean addCardToMovementGameTest(Card card) {
+        return rules.addCardToMovementTest(board, card.getId());
+    }
 
     /**
      * Checks every card of the game, if one can be moved as a hint.
@@ -289,6 +343,29 @@ public abstract class Game {
      */
     abstract public CardAndStack hintTest();
 
+    /**
+     * Gets the next hint to show to the player. The result is only animated and never moved, so
+     * games can override it to show the moves of their solver, like dealing new cards as the top
+     * card of the main stack. The automatic movements and the mixing dialog use hintTest(), so it
+     * has to return only card movements which can be executed.
+     *
+     * @return The card and the destination
+     */
+    public CardAndStack rankedHintTest() {
+        return hintTest();
+    }
+
+    /**
+     * Gets called when the player asks for hints. Games with a slow hint search can start it here
+     * on a worker thread and call onReady on the main thread when rankedHintTest() can be used.
+     *
+     * @param onReady Starts showing the hints
+     * @return True if onReady will be called, false to show the hints immediately
+     */
+    public boolean prepareHints(Runnable onReady) {
+        return false;
+    }
+
     /**
      * Uses the given card and the movement (given as the stack id's) to update the current score.
      * <p>
@@ -311,7 +388,14 @@ public abstract class Game {
 
     public void mainStackTouch(){
 
-        int sound = onMainStackTouch();
+        int sound;
+        moveTransaction.begin();
+
+        try {
+            sound = onMainStackTouch();
+        } finally {
+            moveTransaction.commit();
+        }
 
         switch (sound){
             case 1:     //single card moved
@@ -364,12 +448,60 @@ public abstract class Game {
     }
 
     /**
-     * This method should deal a winnable game, by starting from a winning positon and shuffling the
-     * chards to the default deal position. Per default, this method will call the random dealCards()
-     * method.
+     * Deals a winnable game. It is taken from the pool of already solved deals if possible,
+     * otherwise the solver of the game tests random card orders in the background and the first
+     * one it can win will be dealt with gameLogic.newWinnableGame().
+     *
+     * @return False if the game has no solver, so random cards have to be dealt instead
      */
-    public void dealWinnableGame(){
-        dealCards();
+    public boolean dealWinnableGame(){
+        Solver solver = createWinnableDealSolver();
+
+        if (solver == null) {
+            return false;
+        }
+
+        gameLogic.searchWinnableDeal(solver);
+        return true;
+    }
+
+    /**
+     * Refills the pool of solved deals in the background, if the game has a solver.
+     */
+    public void refillWinnableDeals(){
+        Solver solver = createWinnableDealSolver();
+
+        if (solver != null) {
+            gameLogic.refillWinnableDealPool(solver);
+        }
+    }
+
+    private Solver createWinnableDealSolver(){
+        Solver solver = createSolver();
+
+        if (solver != null) {
+            solver.setMaxRecycles(hasLimitedRecycles ? totalRecycles : -1);
+        }
+
+        return solver;
+    }
+
+    /**
+     * Creates a solver for the current settings of the game, used to deal winnable games. Read the
+     * current settings (not the "old" ones), because they will be applied on the new deal.
+     *
+     * @return The solver, or null if the game has none
+     */
+    public Solver createSolver(){
+        return null;
+    }
+
+    /**
+     * Tells if the solver of the game is fast enough to check after every move if the current game
+     * can still be won. Only then the indicator of it can be enabled.
+     */
+    public boolean hasSolvableIndicator(){
+        return false;
     }
 
     public boolean saveRecentScore(){
@@ -552,41 +684,7 @@ public abstract class Game {
      * @return True if the cards are in the correct order, false otherwise
      */
     protected boolean testCardsUpToTop(Stack stack, int startPos, testMode mode) {
-
-        for (int i = startPos; i < stack.getSize() - 1; i++) {
-            Card bottomCard = stack.getCard(i);
-            Card upperCard = stack.getCard(i + 1);
-
-            if (!bottomCard.isUp() || !upperCard.isUp()) {
-                return false;
-            }
-
-            switch (mode) {
-                case ALTERNATING_COLOR:     //eg. black on red
-                    if ((bottomCard.getColor() % 2 == upperCard.getColor() % 2) || (bottomCard.getValue() != upperCard.getValue() + 1)) {
-                        return false;
-                    }
-                    break;
-                case SAME_COLOR:            //eg. black on black
-                    if ((bottomCard.getColor() % 2 != upperCard.getColor() % 2) || (bottomCard.getValue() != upperCard.getValue() + 1)) {
-                        return false;
-                    }
-                    break;
-                case SAME_FAMILY:           //eg spades on spades
-                    if ((bottomCard.getColor() != upperCard.getColor()) || (bottomCard.getValue() != upperCard.getValue() + 1)) {
-                        return false;
-                    }
-                    break;
-                case DOESNT_MATTER:
-                    if (bottomCard.getValue() != upperCard.getValue() + 1) {
-                        return false;
-                    }
-                    break;
-            }
-
-        }
-
-        return true;
+        return startPos >= stack.getSequenceStart(toRulesMode(mode));
     }
 
     /**
@@ -697,6 +795,8 @@ public abstract class Game {
     protected void setNumberOfDecks(int number) {
         cards = new Card[52 * number];
         gameLogic.randomCards = new Card[cards.length];
+        numberOfCards = cards.length;
+        createBoard();
     }
 
     /**
@@ -706,6 +806,17 @@ public abstract class Game {
      */
     protected void setNumberOfStacks(int number) {
         stacks = new Stack[number];
+        numberOfStacks = number;
+        createBoard();
+    }
+
+    /**
+     * Sets the rules of the game, which are used for the card tests and the win test.
+     *
+     * @param rules The rules to apply
+     */
+    protected void setRules(Rules rules) {
+        this.rules = rules;
     }
 
     /**
@@ -821,6 +932,17 @@ public abstract class Game {
         }
 
         cardDrawablesOrder = new int[]{p1, p2, p3, p4};
+
+        if (board != null) {
+            board.setCardFamilies(cardDrawablesOrder);
+        }
+
+        //the colors are used by the cached sequences of the stacks
+        if (stacks != null) {
+            for (Stack stack : stacks) {
+                stack.setDirty();
+            }
+        }
     }
 
     /**
@@ -898,44 +1020,8 @@ public abstract class Game {
      * @return true if the card can be placed on the stack, false otherwise
      */
     protected boolean canCardBePlaced(Stack stack, Card card, testMode mode, testMode3 direction, boolean wrap) {
-
-        if (stack.isEmpty()) {
-            return true;
-        }
-
-        if (direction == testMode3.DESCENDING) {   //example move a 8 on top of a 9
-            switch (mode) {
-                case SAME_COLOR:
-                    return stack.getTopCard().getColor() % 2 == card.getColor() % 2 && (stack.getTopCard().getValue() == card.getValue() + 1
-                            || (wrap && stack.getTopCard().getValue() == 1 && card.getValue() == 13));
-                case ALTERNATING_COLOR:
-                    return stack.getTopCard().getColor() % 2 != card.getColor() % 2 && (stack.getTopCard().getValue() == card.getValue() + 1
-                            || (wrap && stack.getTopCard().getValue() == 1 && card.getValue() == 13));
-                case SAME_FAMILY:
-                    return stack.getTopCard().getColor() == card.getColor() && (stack.getTopCard().getValue() == card.getValue() + 1
-                            || (wrap && stack.getTopCard().getValue() == 1 && card.getValue() == 13));
-                case DOESNT_MATTER:
-                    return stack.getTopCard().getValue() == card.getValue() + 1
-                            || (wrap && stack.getTopCard().getValue() == 1 && card.getValue() == 13);
-            }
-        } else {                                //example move a 9 on top of a 8
-            switch (mode) {
-                case SAME_COLOR:
-                    return stack.getTopCard().getColor() % 2 == card.getColor() % 2 && (stack.getTopCard().getValue() == card.getValue() - 1
-                            || (wrap && stack.getTopCard().getValue() == 13 && card.getValue() == 1));
-                case ALTERNATING_COLOR:
-                    return stack.getTopCard().getColor() % 2 != card.getColor() % 2 && (stack.getTopCard().getValue() == card.getValue() - 1
-                            || (wrap && stack.getTopCard().getValue() == 13 && card.getValue() == 1));
-                case SAME_FAMILY:
-                    return stack.getTopCard().getColor() == card.getColor() && (stack.getTopCard().getValue() == card.getValue() - 1
-                            || (wrap && stack.getTopCard().getValue() == 13 && card.getValue() == 1));
-                case DOESNT_MATTER:
-                    return stack.getTopCard().getValue() == card.getValue() - 1
-                            || (wrap && stack.getTopCard().getValue() == 1 && card.getValue() == 13);
-            }
-        }
-
-        return false; //can't be reached
+        return Rules.canCardBePlaced(board, stack.getId(), card.getId(), toRulesMode(mode),
+                direction == testMode3.DESCENDING ? Rules.DESCENDING : Rules.ASCENDING, wrap);
     }
 
     public Stack getMainStack() throws ArrayIndexOutOfBoundsException {
@@ -1183,4 +1269,78 @@ public abstract class Game {
     protected void setMixingCardsTestMode(testMode mode){
         mixCardsTestMode = mode;
     }
+
+    public Rules getRules() {
+        return rules;
+    }
+
+    /**
+     * The board is the Android free copy of the current card positions. Cards and stacks keep
+     * it in sync, so the rules can be tested on it.
+     */
+    public Board getBoard() {
+        return board;
+    }
+
+    /**
+     * Creates a new board after the number of cards or stacks changed.
+     */
+    private void createBoard() {
+        if (numberOfCards > 0 && numberOfStacks > 0) {
+            board = new Board(numberOfCards, numberOfStacks);
+            board.setCardFamilies(cardDrawablesOrder);
+            legalMoves = new MoveList(numberOfCards);
+            invalidateLegalMoves();
+        }
+    }
+
+    /**
+     * Tests every card on every stack, like card.test() does. The rules are used directly
+     * instead of cardTest(), because games can remember the tested cards there. Whether a card
+     * can be picked up is left to the callers, like before.
+     *
+     * @param ignoreDirections True to allow moving faced down cards, like during the auto complete
+     * @param everywhere       True if the developer option to move cards everywhere is enabled
+     */
+    private void generateLegalMoves(boolean ignoreDirections, boolean everywhere) {
+        legalMoves.clear();
+
+        for (int i = 0; i < numberOfStacks; i++) {
+            int size = board.getSize(i);
+
+            for (int j = 0; j < size; j++) {
+                int cardID = board.getCard(i, j);
+
+                if (!ignoreDirections && !everywhere && !board.isUp(cardID)) {
+                    continue;
+                }
+
+                for (int k = 0; k < numberOfStacks; k++) {
+                    if (everywhere) {
+                        legalMoves.add(cardID, k);
+                    } else if ((ignoreDirections || board.isEmpty(k) || board.isUp(board.getTopCard(k)))
+                            && rules.cardTest(board, k, cardID, size - j)) {
+                        legalMoves.add(cardID, k);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Converts the test mode to the int constant of the rules.
+     */
+    private int toRulesMode(testMode mode) {
+        switch (mode) {
+            case SAME_COLOR:
+                return Rules.SAME_COLOR;
+            case ALTERNATING_COLOR:
+                return Rules.ALTERNATING_COLOR;
+            case SAME_FAMILY:
+                return Rules.SAME_FAMILY;
+            case DOESNT_MATTER:
+            default:
+                return Rules.DOESNT_MATTER;
+        }
+    }
 }
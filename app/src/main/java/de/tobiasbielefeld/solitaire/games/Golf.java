@@ -30,6 +30,12 @@ import de.tobiasbielefeld.solitaire.R;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.GolfRules;
+import de.tobiasbielefeld.solitaire.engine.MoveList;
+import de.tobiasbielefeld.solitaire.helper.HintSearch;
+import de.tobiasbielefeld.solitaire.solver.GolfSolver;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 import de.tobiasbielefeld.solitaire.helper.RecordList;
 import de.tobiasbielefeld.solitaire.ui.GameManager;
 
@@ -48,6 +54,21 @@ public class Golf extends Game {
 
     int runCounter; //to count how many cards are moved in one "run"
     ArrayList<Integer> savedRunRecords = new ArrayList<>();                                         //need to save the scores of recorded movements, because the class RecordList can't do that
+    private GolfRules golfRules = new GolfRules();
+
+    //searches the moves to the best outcome of the current board
+    private HintSearch<GolfSolver> hintSearch = new HintSearch<GolfSolver>() {
+        @Override
+        protected GolfSolver createSolver() {
+            return new GolfSolver(prefs.getSavedGoldCyclic());
+        }
+
+        @Override
+        protected int[] rankMoves(GolfSolver solver, Board board) {
+            solver.solve(board);
+            return solver.getSolution();
+        }
+    };
 
     public Golf() {
         setNumberOfDecks(1);
@@ -56,6 +77,7 @@ public class Golf extends Game {
         setTableauStackIDs(0,1,2,3,4,5,6);
         setDiscardStackIDs(7);
         setMainStackIDs(8);
+        setRules(golfRules);
 
         setDirections(1, 1, 1, 1, 1, 1, 1, 3);
         setSingleTapEnabled();
@@ -98,17 +120,6 @@ public class Golf extends Game {
         }
     }
 
-    public boolean winTest() {
-        //game is won if tableau is empty
-        for (int i = 0; i <= getLastTableauId(); i++) {
-            if (!stacks[i].isEmpty()) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     public void dealCards() {
         moveToStack(getMainStack().getTopCard(), getDiscardStack(), OPTION_NO_RECORD);
 
@@ -122,19 +133,55 @@ public class Golf extends Game {
 
     }
 
+    @Override
+    public Solver createSolver() {
+        return new GolfSolver(prefs.getSavedGoldCyclic());
+    }
+
+    @Override
+    public boolean hasSolvableIndicator() {
+        return true;
+    }
+
+    @Override
     public boolean cardTest(Stack stack, Card card) {
-        /*
-         * only allowed stack is the discard stack.
-         * then check the settings: if cyclic moves are set to true, check if the cards are an ace and a king, if so return true
-         * or the cards values difference is 1 or -1
-         */
-        return stack == getDiscardStack() && ((prefs.getSavedGoldCyclic()
-                && (card.getValue() == 13 && stack.getTopCard().getValue() == 1 || card.getValue() == 1 && stack.getTopCard().getValue() == 13))
-                || (card.getValue() == stack.getTopCard().getValue() + 1 || card.getValue() == stack.getTopCard().getValue() - 1));
+        applyCyclicOption();
+
+        return super.cardTest(stack, card);
+    }
+
+    @Override
+    public MoveList getLegalMoves() {
+        applyCyclicOption();
+
+        return super.getLegalMoves();
     }
 
-    public boolean addCardToMovementGameTest(Card card) {
-        return card.getStackId() < 7 && card.isTopCard();
+    /**
+     * Searches the best solution of the current board with the solver, before the hints start.
+     */
+    @Override
+    public boolean prepareHints(Runnable onReady) {
+        return hintSearch.prepare(onReady);
+    }
+
+    /**
+     * Shows the next move of the best solution first, drawing a card is shown with the top card
+     * of the main stack.
+     */
+    @Override
+    public CardAndStack rankedHintTest() {
+        int[] hintMoves = hintSearch.getMoves();
+
+        if (hintMoves != null && hintMoves.length > 0) {
+            Card card = Solver.isCardMove(hintMoves[0]) ? cards[Solver.getCardOf(hintMoves[0])] : getMainStack().getTopCard();
+
+            if (!hint.hasVisited(card)) {
+                return new CardAndStack(card, getDiscardStack());
+            }
+        }
+
+        return hintTest();
     }
 
     public CardAndStack hintTest() {
@@ -143,7 +190,7 @@ public class Golf extends Game {
                 continue;
             }
 
-            if (!hint.hasVisited(stacks[i].getTopCard()) && stacks[i].getTopCard().test(getDiscardStack())) {
+            if (!hint.hasVisited(stacks[i].getTopCard()) && canMove(stacks[i].getTopCard(), getDiscardStack())) {
                 return new CardAndStack(stacks[i].getTopCard(), getDiscardStack());
             }
         }
@@ -153,7 +200,7 @@ public class Golf extends Game {
 
     @Override
     public Stack doubleTapTest(Card card) {
-        return card.test(getDiscardStack()) ? getDiscardStack() : null;
+        return canMove(card, getDiscardStack()) ? getDiscardStack() : null;
     }
 
     public int addPointsToScore(ArrayList<Card> cards, int[] originIDs, int[] destinationIDs, boolean isUndoMovement) {
@@ -217,4 +264,16 @@ public class Golf extends Game {
     protected boolean excludeCardFromMixing(Card card){
         return false;
     }
+
+    /**
+     * The cyclic option can be changed while playing, so apply it before every test
+     */
+    private void applyCyclicOption() {
+        boolean cyclic = prefs.getSavedGoldCyclic();
+
+        if (cyclic != golfRules.isCyclic()) {
+            golfRules.setCyclic(cyclic);
+            invalidateLegalMoves();
+        }
+    }
 }
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.GrandfathersClockRules;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -39,6 +40,8 @@ import static de.tobiasbielefeld.solitaire.games.Game.testMode3.*;
 
 public class GrandfathersClock extends Game {
 
+    private GrandfathersClockRules grandfathersClockRules = new GrandfathersClockRules();
+
     //to know which card gets on a empty foundation field
     int[] foundationCardOrder = new int[]{7, 8, 9, 10, 11, 6, 12, 5, 4, 3, 2, 13};
     //which family is placed on the foundation fields
@@ -51,6 +54,7 @@ public class GrandfathersClock extends Game {
         setTableauStackIDs(0,1,2,3,4,5,7);
         setFoundationStackIDs(8,9,10,11,12,13,14,15,16,17,18,19);
         setDealFromID(20);
+        setRules(grandfathersClockRules);
         setMixingCardsTestMode(testMode.DOESNT_MATTER);
     }
 
@@ -244,30 +248,6 @@ public class GrandfathersClock extends Game {
         return 0;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        //there is a invisible deal stack in the middle of the clock, which shouldn't be used for the movement
-        if (card.getStackId() > getLastTableauId() || stack.getId() == getDealStack().getId()) {
-            return false;
-        }
-
-        if (stack.getId() <= getLastTableauId()) {
-            //if there are as many cards moving as free stacks, and one of the free stacks was chosen, don't move
-            int movingCards = card.getStack().getSize() - card.getIndexOnStack();
-
-            return movingCards <= getPowerMoveCount(stack.isEmpty()) && canCardBePlaced(stack, card, DOESNT_MATTER, DESCENDING);
-        } else {
-            return movingCards.hasSingleCard() && canCardBePlaced(stack, card, SAME_FAMILY, ASCENDING, true);
-        }
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        Stack sourceStack = card.getStack();
-
-        int startPos = max(sourceStack.getSize() - getPowerMoveCount(false), card.getStack().getIndexOfCard(card));
-
-        return card.getStack().getIndexOfCard(card) >= startPos && testCardsUpToTop(sourceStack, startPos, DOESNT_MATTER);
-    }
-
     public CardAndStack hintTest() {
         for (int i = 0; i < 8; i++) {
 
@@ -288,7 +268,7 @@ public class GrandfathersClock extends Game {
 
                 if (cardToMove.isTopCard()) {
                     for (int k = 8; k < 19; k++) {
-                        if (cardToMove.test(stacks[k])) {
+                        if (canMove(cardToMove, stacks[k])) {
                             return new CardAndStack(cardToMove, stacks[k]);
                         }
                     }
@@ -301,7 +281,7 @@ public class GrandfathersClock extends Game {
                         continue;
                     }
 
-                    if (cardToMove.test(destStack)) {
+                    if (canMove(cardToMove, destStack)) {
                         if (sameCardOnOtherStack(cardToMove, destStack, SAME_VALUE)) {
                             continue;
                         }
@@ -343,16 +323,6 @@ public class GrandfathersClock extends Game {
         return null;
     }
 
-    public boolean winTest() {
-        for (int i = 0; i < 8; i++) {
-            if (!stacks[i].isEmpty()) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     public boolean autoCompleteStartTest() {
         for (int i = 0; i < 8; i++) {
             if (!testCardsUpToTop(stacks[i], 0, DOESNT_MATTER)) {
@@ -396,19 +366,6 @@ public class GrandfathersClock extends Game {
     }
 
     private int getPowerMoveCount(boolean movingToEmptyStack){
-        //thanks to matejx for providing this formula
-        int numberOfFreeTableauStacks = 0;
-
-        for (int i=0;i<8;i++){
-            if (stacks[i].isEmpty()){
-                numberOfFreeTableauStacks++;
-            }
-        }
-
-        if (movingToEmptyStack && numberOfFreeTableauStacks>0){
-            numberOfFreeTableauStacks --;
-        }
-
-        return (1<<numberOfFreeTableauStacks);
+        return grandfathersClockRules.getPowerMoveCount(getBoard(), movingToEmptyStack);
     }
 }
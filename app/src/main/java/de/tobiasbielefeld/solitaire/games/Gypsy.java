@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.GypsyRules;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -38,6 +39,8 @@ import static de.tobiasbielefeld.solitaire.games.Game.testMode3.*;
 
 public class Gypsy extends Game {
 
+    private GypsyRules gypsyRules = new GypsyRules();
+
     public Gypsy() {
         setNumberOfDecks(2);
         setNumberOfStacks(17);
@@ -45,6 +48,7 @@ public class Gypsy extends Game {
         setTableauStackIDs(0,1,2,3,4,5,6,7);
         setFoundationStackIDs(8,9,10,11,12,13,14,15);
         setMainStackIDs(16);
+        setRules(gypsyRules);
 
         setMixingCardsTestMode(testMode.ALTERNATING_COLOR);
     }
@@ -73,15 +77,6 @@ public class Gypsy extends Game {
     }
 
 
-    public boolean winTest() {
-        for (int i = 0; i < 8; i++) {
-            if (stacks[8 + i].getSize() != 13)
-                return false;
-        }
-
-        return true;
-    }
-
     public void dealCards() {
 
         for (int i = 0; i < 8; i++) {
@@ -114,24 +109,6 @@ public class Gypsy extends Game {
         return 0;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        if (stack.getId() < 8) {
-            return canCardBePlaced(stack, card, ALTERNATING_COLOR, DESCENDING);
-        } else if (stack.getId() < 16 && movingCards.hasSingleCard()) {
-            if (stack.isEmpty()) {
-                return card.getValue() == 1;
-            } else {
-                return canCardBePlaced(stack, card, SAME_FAMILY, ASCENDING);
-            }
-        } else {
-            return false;
-        }
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        return testCardsUpToTop(card.getStack(), card.getIndexOnStack(), ALTERNATING_COLOR);
-    }
-
     public CardAndStack hintTest() {
 
         for (int i = 0; i < 8; i++) {
@@ -152,7 +129,7 @@ public class Gypsy extends Game {
                         if (i == k || destStack.isEmpty())
                             continue;
 
-                        if (cardToMove.test(destStack)) {
+                        if (canMove(cardToMove, destStack)) {
 
                             //if the card is already on the same card as on the other stack, don't return it
                             if (sameCardOnOtherStack(cardToMove, destStack, SAME_VALUE_AND_COLOR))
@@ -167,7 +144,7 @@ public class Gypsy extends Game {
                     for (int k = 0; k < 8; k++) {
                         Stack destStack = stacks[8 + k];
 
-                        if (cardToMove.test(destStack)) {
+                        if (canMove(cardToMove, destStack)) {
                             return new CardAndStack(cardToMove, destStack);
                         }
                     }
@@ -184,7 +161,7 @@ public class Gypsy extends Game {
         //foundation
         if (card.isTopCard()) {
             for (int k = 0; k < 8; k++) {
-                if (card.test(stacks[8 + k])) {
+                if (canMove(card, stacks[8 + k])) {
                     return stacks[8 + k];
                 }
             }
@@ -192,14 +169,14 @@ public class Gypsy extends Game {
 
         //non empty tableau without the same card
         for (int k = 0; k < 8; k++) {
-            if (card.test(stacks[k]) && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR) && !stacks[k].isEmpty()) {
+            if (canMove(card, stacks[k]) && !sameCardOnOtherStack(card, stacks[k], SAME_VALUE_AND_COLOR) && !stacks[k].isEmpty()) {
                 return stacks[k];
             }
         }
 
         //then empty tableau fields
         for (int k = 0; k < 8; k++) {
-            if (stacks[k].isEmpty() && card.test(stacks[k])) {
+            if (stacks[k].isEmpty() && canMove(card, stacks[k])) {
                 return stacks[k];
             }
         }
@@ -26,6 +26,9 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.KlondikeRules;
+import de.tobiasbielefeld.solitaire.solver.KlondikeSolver;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -43,6 +46,7 @@ import static de.tobiasbielefeld.solitaire.helper.Preferences.PREF_KEY_KLONDIKE_
 public class Klondike extends Game {
 
     protected int whichGame;
+    private KlondikeRules klondikeRules = new KlondikeRules();
 
     public Klondike() {
         setNumberOfDecks(1);
@@ -52,6 +56,7 @@ public class Klondike extends Game {
         setFoundationStackIDs(7,8,9,10);
         setDiscardStackIDs(11,12,13);
         setMainStackIDs(14);
+        setRules(klondikeRules);
 
         //1 stands for Klondike, 2 for Vegas
         whichGame = 1;
@@ -107,22 +112,10 @@ public class Klondike extends Game {
         }
     }
 
-    public boolean winTest() {
-        //if the foundation stacks aren't full, not won. Else won
-        for (int i = 7; i <= 10; i++) {
-            if (stacks[i].getSize() != 13) {
-                return false;
-            }
-        }
-
-        return true;
-    }
-
     public void dealCards() {
-        //dealWinnableGame();
-      
         //save the new settings, so it only takes effect on new deals
         prefs.saveKlondikeVegasDrawModeOld(whichGame);
+        klondikeRules.setDrawThree(!prefs.getSavedKlondikeVegasDrawModeOld(whichGame).equals("1"));
 
         //deal cards to trash according to the draw option
         if (prefs.getSavedKlondikeVegasDrawModeOld(whichGame).equals("1")) {
@@ -144,6 +137,13 @@ public class Klondike extends Game {
         }//*/
     }
 
+    @Override
+    public Solver createSolver() {
+        String drawMode = whichGame == 1 ? prefs.getSavedKlondikeDrawMode() : prefs.getSavedVegasDrawMode();
+
+        return new KlondikeSolver(!drawMode.equals("1"));
+    }
+
     public int onMainStackTouch() {
         boolean deal3 = prefs.getSavedKlondikeVegasDrawModeOld(whichGame).equals("3");
 
@@ -280,33 +280,6 @@ public class Klondike extends Game {
         return true;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        //move cards according to the klondike rules
-        if (stack.getId() < 7) {
-            if (stack.isEmpty()) {
-                return card.getValue() == 13;
-            } else {
-                return canCardBePlaced(stack, card, ALTERNATING_COLOR, DESCENDING);
-            }
-        } else if (stack.getId() < 11 && movingCards.hasSingleCard()) {
-            if (stack.isEmpty()) {
-                return card.getValue() == 1;
-            } else {
-                return canCardBePlaced(stack, card, SAME_FAMILY, ASCENDING);
-            }
-        } else {
-            return false;
-        }
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        //don't move cards from the discard stacks if there is a card on top of them
-        //for example: if touched a card on stack 11 (first discard stack) but there is a card
-        //on stack 12 (second discard stack) don't move if.
-        return !(((card.getStackId() == 11 || card.getStackId() == 12) && !stacks[13].isEmpty())
-                || (card.getStackId() == 11 && !stacks[12].isEmpty()));
-    }
-
     public CardAndStack hintTest() {
         Card card;
 
@@ -328,7 +301,7 @@ public class Klondike extends Game {
                         continue;
                     }
 
-                    if (card.test(stacks[j])) {
+                    if (canMove(card, stacks[j])) {
                         return new CardAndStack(card, stacks[j]);
                     }
                 }
@@ -339,7 +312,7 @@ public class Klondike extends Game {
 
             if (!hint.hasVisited(card)) {
                 for (int j = 7; j <= 10; j++) {
-                    if (card.test(stacks[j])) {
+                    if (canMove(card, stacks[j])) {
                         return new CardAndStack(card, stacks[j]);
                     }
                 }
@@ -355,7 +328,7 @@ public class Klondike extends Game {
 
             if (stacks[11 + i].getSize() > 0 && !hint.hasVisited(stacks[11 + i].getTopCard())) {
                 for (int j = 10; j >= 0; j--) {
-                    if (stacks[11 + i].getTopCard().test(stacks[j])) {
+                    if (canMove(stacks[11 + i].getTopCard(), stacks[j])) {
                         return new CardAndStack(stacks[11 + i].getTopCard(), stacks[j]);
                     }
                 }
@@ -370,7 +343,7 @@ public class Klondike extends Game {
         //foundation stacks
         if (card.isTopCard()) {
             for (int j = 7; j < 11; j++) {
-                if (card.test(stacks[j])) {
+                if (canMove(card, stacks[j])) {
                     return stacks[j];
                 }
             }
@@ -385,14 +358,14 @@ public class Klondike extends Game {
             if (card.getValue() == 13 && card.isFirstCard() && card.getStackId() <= 6)
                 continue;
 
-            if (card.test(stacks[j])) {
+            if (canMove(card, stacks[j])) {
                 return stacks[j];
             }
         }
 
         //empty tableau stacks
         for (int j = 0; j < 7; j++) {
-            if (stacks[j].isEmpty() && card.test(stacks[j]))
+            if (stacks[j].isEmpty() && canMove(card, stacks[j]))
                 return stacks[j];
         }
 
@@ -407,7 +380,7 @@ public class Klondike extends Game {
             for (int j = 0; j <= 6; j++) {
                 Stack origin = stacks[j];
 
-                if (origin.getSize() > 0 && origin.getTopCard().test(destination)) {
+                if (origin.getSize() > 0 && canMove(origin.getTopCard(), destination)) {
                     return new CardAndStack(origin.getTopCard(), destination);
                 }
             }
@@ -26,6 +26,7 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.Mod3Rules;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 
@@ -35,6 +36,8 @@ import static de.tobiasbielefeld.solitaire.SharedData.*;
 
 public class Mod3 extends Game {
 
+    private Mod3Rules mod3Rules = new Mod3Rules();
+
     public Mod3() {
         setNumberOfDecks(2);
         setNumberOfStacks(34);
@@ -42,6 +45,7 @@ public class Mod3 extends Game {
         setTableauStackIDs(0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20,21,22,23,24,25,26,27,28,29,30,31);
         setDiscardStackIDs(32);
         setMainStackIDs(33);
+        setRules(mod3Rules);
 
         setDirections(1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1, 1,
                 1, 1, 1, 1, 1, 1, 1, 1, 0);
@@ -73,15 +77,6 @@ public class Mod3 extends Game {
         stacks[33].setY(stacks[23].getY() + Card.height / 2);
     }
 
-    public boolean winTest() {
-        for (int i = 0; i < 8; i++) {
-            if (!stacks[24 + i].isEmpty())
-                return false;
-        }
-
-        return getMainStack().isEmpty();
-    }
-
     public void dealCards() {
         for (int i = 0; i < 32; i++) {
             moveToStack(getDealStack().getTopCard(), stacks[i], OPTION_NO_RECORD);
@@ -109,34 +104,8 @@ public class Mod3 extends Game {
         return 0;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        if (card.getValue() == 1 && stack == getDiscardStack())
-            return true;
-
-        if (stack.isEmpty()) {
-            if (stack.getId() < 8)
-                return card.getValue() == 2;
-            else if (stack.getId() < 16)
-                return card.getValue() == 3;
-            else if (stack.getId() < 24)
-                return card.getValue() == 4;
-            else return stack.getId() < 32;
-        } else {
-            return stack.getId() < 24 && validOrder(stack) && card.getValue() == stack.getTopCard().getValue() + 3 && card.getColor() == stack.getTopCard().getColor();
-        }
-    }
-
     private boolean validOrder(Stack stack) {
-        if (stack.getId() < 8)
-            return stack.getCard(0).getValue() == 2;
-        else if (stack.getId() < 16)
-            return stack.getCard(0).getValue() == 3;
-        else
-            return stack.getCard(0).getValue() == 4;
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        return card.isTopCard() && card.getStack() != getDiscardStack();
+        return mod3Rules.validOrder(getBoard(), stack.getId());
     }
 
     public CardAndStack hintTest() {
@@ -153,7 +122,7 @@ public class Mod3 extends Game {
                 if (i == j)
                     continue;
 
-                if (cardToTest.test(stacks[j])) {
+                if (canMove(cardToTest, stacks[j])) {
                     if (i >= 24 && j >= 24 && i < 32 && j < 32)
                         continue;
 
@@ -178,7 +147,7 @@ public class Mod3 extends Game {
 
         for (int j = 0; j <= getLastTableauId(); j++) {
 
-            if (card.test(stacks[j])) {
+            if (canMove(card, stacks[j])) {
                 if (stackID >= 24 && j >= 24 && stackID < 32 && j < 32)
                     continue;
 
@@ -190,7 +159,7 @@ public class Mod3 extends Game {
         }
 
         for (int j = 0; j <= getLastTableauId(); j++) {
-            if (card.test(stacks[j])) {
+            if (canMove(card, stacks[j])) {
                 return stacks[j];
             }
         }
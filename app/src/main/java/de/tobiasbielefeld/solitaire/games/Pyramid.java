@@ -26,6 +26,11 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.PyramidRules;
+import de.tobiasbielefeld.solitaire.helper.HintSearch;
+import de.tobiasbielefeld.solitaire.solver.PyramidSolver;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.classes.Stack.ArrowDirection.LEFT;
@@ -38,11 +43,28 @@ import static de.tobiasbielefeld.solitaire.helper.Preferences.PREF_KEY_PYRAMID_N
 
 public class Pyramid extends Game {
 
-    int[] stackAboveID = new int[28];
+    private PyramidRules pyramidRules = new PyramidRules();
 
     ArrayList<Card> cardsToMove = new ArrayList<>();
     ArrayList<Stack> origins = new ArrayList<>();
 
+    //searches the moves to the best outcome of the current board
+    private HintSearch<PyramidSolver> hintSearch = new HintSearch<PyramidSolver>() {
+        @Override
+        protected PyramidSolver createSolver() {
+            PyramidSolver solver = new PyramidSolver(prefs.getSavedPyramidDifficulty().equals("1"));
+            solver.setMaxRecycles(hasLimitedRecycles() ? getRemainingNumberOfRecycles() : -1);
+
+            return solver;
+        }
+
+        @Override
+        protected int[] rankMoves(PyramidSolver solver, Board board) {
+            solver.solve(board);
+            return solver.getSolution();
+        }
+    };
+
     public Pyramid() {
         setNumberOfDecks(1);
         setNumberOfStacks(32);
@@ -51,6 +73,7 @@ public class Pyramid extends Game {
         setDiscardStackIDs(29,30);
         setMainStackIDs(31);
         setDealFromID(30);
+        setRules(pyramidRules);
 
         //empty so all stacks have no spacing direction
         setDirections();
@@ -73,9 +96,6 @@ public class Pyramid extends Game {
             int startPosY = (isLandscape ? Card.width / 4 : Card.width / 2) + i * Card.height / 2;
 
             for (int j = 0; j < i + 1; j++) {
-
-                stackAboveID[index] = ((i + 1) * (i + 2)) / 2 + j;
-
                 stacks[index].setX(startPosX + j * (spacing + Card.width));
                 stacks[index].setY(startPosY);
                 stacks[index].view.setImageBitmap(Stack.backgroundTransparent);
@@ -98,12 +118,12 @@ public class Pyramid extends Game {
         stacks[30].setY(stacks[28].getY());
     }
 
+    @Override
     public boolean winTest() {
-        for (int i = 0; i <= getLastTableauId(); i++)
-            if (!stacks[i].isEmpty())
-                return false;
+        //the difficulty can be changed while playing, so apply it before every test
+        pyramidRules.setEasyDifficulty(prefs.getSavedPyramidDifficulty().equals("1"));
 
-        return prefs.getSavedPyramidDifficulty().equals("1") || getDiscardStack().isEmpty() && stacks[30].isEmpty();
+        return super.winTest();
     }
 
     public void dealCards() {
@@ -116,6 +136,16 @@ public class Pyramid extends Game {
         moveToStack(getDealStack().getTopCard(), getDiscardStack(), OPTION_NO_RECORD);
     }
 
+    @Override
+    public Solver createSolver() {
+        return new PyramidSolver(prefs.getSavedPyramidDifficulty().equals("1"));
+    }
+
+    @Override
+    public boolean hasSolvableIndicator() {
+        return true;
+    }
+
     public boolean testIfMainStackTouched(float X, float Y) {
         return (getDealStack().isEmpty() && getDealStack().isOnLocation(X, Y)) || getMainStack().isOnLocation(X, Y);
     }
@@ -140,14 +170,13 @@ public class Pyramid extends Game {
     }
 
 
+    @Override
     public boolean cardTest(Stack stack, Card card) {
-
-        if (stack.getId() == 31)
+        if (!super.cardTest(stack, card)) {
             return false;
+        }
 
-        if (stack.getId() == 28 && card.getValue() == 13)
-            return true;
-
+        //remember the pair of cards, so both will be moved to the removed cards stack
         if (stack.getId() != 28 && !stack.isEmpty() && stackIsFree(stack) && card.getValue() + stack.getTopCard().getValue() == 13) {
 
             cardsToMove.clear();
@@ -158,62 +187,113 @@ public class Pyramid extends Game {
 
             origins.add(stack);
             origins.add(card.getStack());
-
-            return true;
         }
 
-        return card.getStack() == getDealStack() && stack == getDiscardStack();
+        return true;
     }
 
 
-    public boolean addCardToMovementGameTest(Card card) {
-
-        if (card.getStackId() == 28)
-            return false;
+    /**
+     * Searches the best solution of the current board with the solver, before the hints start.
+     */
+    @Override
+    public boolean prepareHints(Runnable onReady) {
+        return hintSearch.prepare(onReady);
+    }
 
-        if (card.getStackId() == getDiscardStack().getId())
-            return true;
+    /**
+     * Shows the first move of the best solution, if the solver found one for the current board.
+     * The solver removes kings automatically, so they are shown before.
+     */
+    @Override
+    public CardAndStack rankedHintTest() {
+        CardAndStack kingHint = kingHintTest();
 
-        Stack currentStack = card.getStack();
+        if (kingHint != null) {
+            return kingHint;
+        }
 
-        return currentStack.getId() > 20 || stackIsFree(currentStack);
+        CardAndStack solverHint = solverHintTest();
 
+        return solverHint != null ? solverHint : hintTest();
     }
 
     public CardAndStack hintTest() {
+        CardAndStack kingHint = kingHintTest();
 
-        ArrayList<Stack> freeStacks = new ArrayList<>();
-
-        for (int i = 0; i <= getLastTableauId(); i++) {
-            if (stackIsFree(stacks[i]) && !stacks[i].isEmpty() && !hint.hasVisited(stacks[i].getTopCard()))
-                freeStacks.add(stacks[i]);
+        if (kingHint != null) {
+            return kingHint;
         }
 
-        //first discard stack
-        if (!getDiscardStack().isEmpty() && !hint.hasVisited(getDiscardStack().getTopCard()))
-            freeStacks.add(getDiscardStack());
-        //second discard stack
-        if (!stacks[30].isEmpty() && !hint.hasVisited(stacks[30].getTopCard()))
-            freeStacks.add(stacks[30]);
-
-        for (Stack stack : freeStacks) {
+        for (int i = 0; i <= 30; i++) {
+            if (!isHintCandidate(i)) {
+                continue;
+            }
 
-            if (stack.getTopCard().getValue() == 13) {
-                return new CardAndStack(stack.getTopCard(), stacks[28]);
+            for (int j = 0; j <= 30; j++) {
+                if (i != j && isHintCandidate(j) && stacks[i].getTopCard().getValue() + stacks[j].getTopCard().getValue() == 13) {
+                    return new CardAndStack(stacks[i].getTopCard(), stacks[j]);
+                }
             }
+        }
 
-            for (Stack otherStack : freeStacks) {
-                if (stack.getId() == otherStack.getId())
-                    continue;
+        return null;
+    }
 
-                if (stackIsFree(stack) && stack.getTopCard().getValue() + otherStack.getTopCard().getValue() == 13)
-                    return new CardAndStack(stack.getTopCard(), otherStack);
+    /**
+     * Kings are removed alone, so they can be shown first.
+     */
+    private CardAndStack kingHintTest() {
+        for (int i = 0; i <= 30; i++) {
+            if (isHintCandidate(i) && stacks[i].getTopCard().getValue() == 13) {
+                return new CardAndStack(stacks[i].getTopCard(), stacks[28]);
             }
         }
 
         return null;
     }
 
+    /**
+     * Returns the first move of the best solution. Pairs are shown as the first card moving to the
+     * second one, drawing a card as the top card of the deal stack moving to the discard stack and
+     * recycling the other way round. These moves are only animated, the auto move can't use them.
+     */
+    private CardAndStack solverHintTest() {
+        int[] hintMoves = hintSearch.getMoves();
+
+        if (hintMoves == null || hintMoves.length == 0) {
+            return null;
+        }
+
+        int move = hintMoves[0];
+        Card card;
+        Stack destination;
+
+        if (Solver.isCardMove(move)) {
+            card = cards[Solver.getCardOf(move)];
+            destination = cards[PyramidSolver.getSecondCardOf(move)].getStack();
+        } else if (!getDealStack().isEmpty()) {
+            card = getDealStack().getTopCard();
+            destination = getDiscardStack();
+        } else if (!getDiscardStack().isEmpty()) {
+            card = getDiscardStack().getTopCard();
+            destination = getDealStack();
+        } else {
+            return null;
+        }
+
+        return hint.hasVisited(card) ? null : new CardAndStack(card, destination);
+    }
+
+    /**
+     * Tests if the top card of a stack can be used for a hint: it has to be free and wasn't shown
+     * in the current hint yet. The stack of the removed cards and the main stack never can.
+     */
+    private boolean isHintCandidate(int stackID) {
+        return stackID != 28 && stackID != 31 && !stacks[stackID].isEmpty() && stackIsFree(stacks[stackID])
+                && !hint.hasVisited(stacks[stackID].getTopCard());
+    }
+
     @Override
     public Stack doubleTapTest(Card card) {
 
@@ -274,38 +354,33 @@ public class Pyramid extends Game {
             cardsToMove.clear();
             origins.clear();
 
-            handlerTestAfterMove.sendEmptyMessageDelayed(0, 200);
+            gamePipeline.add(handlerTestAfterMove);
 
         } else if (prefs.getSavedPyramidAutoMove()) {
-            ArrayList<Card> tempCards = new ArrayList<>();
-            ArrayList<Stack> origins = new ArrayList<>();
-
+            //the lists are empty here, so use them for the kings too
             for (int i=0;i<32;i++){
                 if (i==28){
                     continue;
                 }
 
                 if (!stacks[i].isEmpty() && stackIsFree(stacks[i]) && stacks[i].getTopCard().getValue()==13){
-                    tempCards.add(stacks[i].getTopCard());
+                    cardsToMove.add(stacks[i].getTopCard());
                     origins.add(stacks[i]);
                 }
             }
 
-            if (!tempCards.isEmpty()) {
-                recordList.addToLastEntry(tempCards, origins);
-                moveToStack(tempCards, stacks[28], OPTION_NO_RECORD);
+            if (!cardsToMove.isEmpty()) {
+                recordList.addToLastEntry(cardsToMove, origins);
+                moveToStack(cardsToMove, stacks[28], OPTION_NO_RECORD);
+
+                cardsToMove.clear();
+                origins.clear();
             }
         }
     }
 
     private boolean stackIsFree(Stack stack) {
-        if (stack.getId() > 20)
-            return true;
-
-        Stack stackAbove1 = stacks[stackAboveID[stack.getId()]];
-        Stack stackAbove2 = stacks[stackAboveID[stack.getId()] + 1];
-
-        return stackAbove1.isEmpty() && stackAbove2.isEmpty();
+        return pyramidRules.stackIsFree(getBoard(), stack.getId());
     }
 
     /*
@@ -26,6 +26,8 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.SimpleSimonRules;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -47,6 +49,7 @@ public class SimpleSimon extends Spider {
 
         //because this game inherits from Spider, I have to disable the main stack from it
         disableMainStack();
+        setRules(new SimpleSimonRules());
         setMixingCardsTestMode(testMode.DOESNT_MATTER);
     }
 
@@ -70,10 +73,6 @@ public class SimpleSimon extends Spider {
         }
     }
 
-    public boolean winTest() {
-        return (stacks[10].getSize() == 13 && stacks[11].getSize() == 13 && stacks[12].getSize() == 13 && stacks[13].getSize() == 13);
-    }
-
     public void dealCards() {
         flipAllCardsUp();
 
@@ -90,6 +89,12 @@ public class SimpleSimon extends Spider {
         }
     }
 
+    @Override
+    public Solver createSolver() {
+        //the solver from Spider doesn't work with this layout, so use random deals
+        return null;
+    }
+
     public int addPointsToScore(ArrayList<Card> cards, int[] originIDs, int[] destinationIDs, boolean isUndoMovement) {
         if (destinationIDs[0] >= 10 && destinationIDs[0] < 14) {
             return 200;
@@ -131,7 +136,7 @@ public class SimpleSimon extends Spider {
                     continue;
                 }
 
-                if (cardToMove.test(destStack)) {
+                if (canMove(cardToMove, destStack)) {
                     return new CardAndStack(cardToMove, destStack);
                 }
             }
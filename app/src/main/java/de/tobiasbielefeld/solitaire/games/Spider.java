@@ -26,6 +26,12 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.MoveList;
+import de.tobiasbielefeld.solitaire.engine.SpiderRules;
+import de.tobiasbielefeld.solitaire.helper.HintSearch;
+import de.tobiasbielefeld.solitaire.solver.Solver;
+import de.tobiasbielefeld.solitaire.solver.SpiderSolver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -39,6 +45,23 @@ import static de.tobiasbielefeld.solitaire.games.Game.testMode3.*;
 
 public class Spider extends Game {
 
+    private static final int HINT_SEARCH_NODES = 2000;
+
+    private SpiderRules spiderRules = new SpiderRules();
+
+    //ranks the moves with the best first search of the solver
+    private HintSearch<SpiderSolver> hintSearch = new HintSearch<SpiderSolver>() {
+        @Override
+        protected SpiderSolver createSolver() {
+            return new SpiderSolver(Integer.parseInt(prefs.getSavedSpiderDifficultyOld()));
+        }
+
+        @Override
+        protected int[] rankMoves(SpiderSolver solver, Board board) {
+            return solver.rankMoves(board, HINT_SEARCH_NODES);
+        }
+    };
+
     public Spider() {
         setNumberOfDecks(2);
         setNumberOfStacks(23);
@@ -46,11 +69,23 @@ public class Spider extends Game {
         setTableauStackIDs(0,1,2,3,4,5,6,7,8,9);
         setFoundationStackIDs(10,11,12,13,14,15,16,17);
         setMainStackIDs(18,19,20,21,22);
+        setRules(spiderRules);
 
         setMixingCardsTestMode(testMode.SAME_FAMILY);
     }
 
+    /**
+     * Ranks the moves with the best first search of the solver on a worker thread, the hints
+     * start when it is done. The ranking is used until the board changes.
+     */
+    @Override
+    public boolean prepareHints(Runnable onReady) {
+        return hintSearch.prepare(onReady);
+    }
+
     public CardAndStack hintTest() {
+        MoveList moves = getLegalMoves();
+
         for (int i = 0; i < 10; i++) {
             Stack sourceStack = stacks[i];
 
@@ -61,40 +96,35 @@ public class Spider extends Game {
             for (int j = sourceStack.getFirstUpCardPos(); j < sourceStack.getSize(); j++) {
                 Card cardToMove = sourceStack.getCard(j);
 
-                if (hint.hasVisited(cardToMove) || !testCardsUpToTop(sourceStack, j, SAME_FAMILY)) {
+                if (moves.getMoveCount(cardToMove.getId()) == 0 || hint.hasVisited(cardToMove) || !testCardsUpToTop(sourceStack, j, SAME_FAMILY)) {
                     continue;
                 }
 
                 Stack returnStack = null;
 
-                for (int k = 0; k < 10; k++) {
+                //only the destinations where the card can be placed
+                for (int m = 0; m < moves.getMoveCount(cardToMove.getId()); m++) {
+                    int k = moves.getDestinationOf(cardToMove.getId(), m);
                     Stack destStack = stacks[k];
 
-                    if (i == k || destStack.isEmpty()) {
+                    if (k >= 10 || i == k || destStack.isEmpty()) {
                         continue;
                     }
 
-                    if (cardToMove.test(destStack)) {
-                        //if the card above has the corret value, and the card on destination is not the same family as the cardToMove, don't move it
-                        if (j > 0 && sourceStack.getCard(j - 1).isUp() && sourceStack.getCard(j - 1).getValue() == cardToMove.getValue() + 1
-                                && destStack.getTopCard().getColor() != cardToMove.getColor()) {
-                            continue;
-                        }
-
-                        //if the card is already on the same card as on the other stack, don't return it
-                        if (sameCardOnOtherStack(cardToMove, destStack, SAME_VALUE_AND_FAMILY)) {
-                            continue;
-                        }
-
-                        if (cardToMove.test(destStack) && !sameCardOnOtherStack(cardToMove, destStack, SAME_VALUE_AND_FAMILY)) {
+                    //if the card above has the corret value, and the card on destination is not the same family as the cardToMove, don't move it
+                    if (j > 0 && sourceStack.getCard(j - 1).isUp() && sourceStack.getCard(j - 1).getValue() == cardToMove.getValue() + 1
+                            && destStack.getTopCard().getColor() != cardToMove.getColor()) {
+                        continue;
+                    }
 
-                            //try to prefer stacks with a top card of the same family as the moving card
-                            if (returnStack == null || (destStack.getTopCard().getColor() != returnStack.getTopCard().getColor() && destStack.getTopCard().getColor() == cardToMove.getColor())) {
-                                returnStack = destStack;
-                            }
-                        }
+                    //if the card is already on the same card as on the other stack, don't return it
+                    if (sameCardOnOtherStack(cardToMove, destStack, SAME_VALUE_AND_FAMILY)) {
+                        continue;
+                    }
 
-                        //return new CardAndStack(cardToMove, destStack);
+                    //try to prefer stacks with a top card of the same family as the moving card
+                    if (returnStack == null || (destStack.getTopCard().getColor() != returnStack.getTopCard().getColor() && destStack.getTopCard().getColor() == cardToMove.getColor())) {
+                        returnStack = destStack;
                     }
                 }
 
@@ -107,6 +137,47 @@ public class Spider extends Game {
         return null;
     }
 
+    /**
+     * Returns the best move of the solver ranking, which wasn't shown in this hint yet. Dealing new
+     * cards is shown with the top card of the main stack, moving to the first tableau stack.
+     */
+    @Override
+    public CardAndStack rankedHintTest() {
+        int[] hintMoves = hintSearch.getMoves();
+
+        if (hintMoves == null) {
+            return hintTest();
+        }
+
+        for (int move : hintMoves) {
+            Card card;
+            Stack destination;
+
+            if (Solver.isCardMove(move)) {
+                card = cards[Solver.getCardOf(move)];
+                destination = stacks[Solver.getDestinationOf(move)];
+            } else {
+                int currentMainStackID = 22;
+
+                while (currentMainStackID > 17 && stacks[currentMainStackID].isEmpty())
+                    currentMainStackID--;
+
+                if (currentMainStackID < 18) {
+                    continue;
+                }
+
+                card = stacks[currentMainStackID].getTopCard();
+                destination = stacks[0];
+            }
+
+            if (!hint.hasVisited(card)) {
+                return new CardAndStack(card, destination);
+            }
+        }
+
+        return null;
+    }
+
     public Stack doubleTapTest(Card card) {
         Card cardBelow = null;
 
@@ -127,7 +198,7 @@ public class Spider extends Game {
                 continue;
             }
 
-            if (card.test(destStack) && !sameCardOnOtherStack(card, destStack, SAME_VALUE_AND_FAMILY)) {
+            if (canMove(card, destStack) && !sameCardOnOtherStack(card, destStack, SAME_VALUE_AND_FAMILY)) {
 
                 //try to prefer stacks with a top card of the same family as the moving card
                 if (returnStack == null || (destStack.getTopCard().getColor() != returnStack.getTopCard().getColor() && destStack.getTopCard().getColor() == card.getColor())) {
@@ -142,7 +213,7 @@ public class Spider extends Game {
 
         //empty stacks
         for (int k = 0; k < 10; k++) {
-            if (stacks[k].isEmpty() && card.test(stacks[k])) {
+            if (stacks[k].isEmpty() && canMove(card, stacks[k])) {
                 return stacks[k];
             }
         }
@@ -198,15 +269,6 @@ public class Spider extends Game {
         }
     }
 
-    public boolean addCardToMovementGameTest(Card card) {
-        //do not accept cards from foundation and test if the cards are in the right order.
-        return card.getStackId() < 10 && currentGame.testCardsUpToTop(card.getStack(), card.getIndexOnStack(), SAME_FAMILY);
-    }
-
-    public boolean cardTest(Stack stack, Card card) {
-        return stack.getId() < 10 && currentGame.canCardBePlaced(stack, card, DOESNT_MATTER, DESCENDING);
-    }
-
     public void setStacks(RelativeLayout layoutGame, boolean isLandscape, Context context) {
         //initialize the dimensions
         setUpCardWidth(layoutGame, isLandscape, 11, 12);
@@ -234,15 +296,6 @@ public class Spider extends Game {
         loadCards();
     }
 
-    public boolean winTest() {
-        //if every foundation stacks is full, game is won
-        for (int i = 0; i < 8; i++)
-            if (stacks[10 + i].getSize() != 13)
-                return false;
-
-        return true;
-    }
-
     public void dealCards() {
         //when starting a new game, load the difficulty preference in the "old" preference
         prefs.saveSpiderDifficultyOld();
@@ -275,6 +328,17 @@ public class Spider extends Game {
         }
     }
 
+    /**
+     * Only one suit can be solved within the budget of the winnable deal search, with two or four
+     * suits the solver doesn't find any solution. Without a solver, random deals are dealt.
+     */
+    @Override
+    public Solver createSolver() {
+        int numberOfSuits = Integer.parseInt(prefs.getSavedSpiderDifficulty());
+
+        return numberOfSuits == 1 ? new SpiderSolver(numberOfSuits) : null;
+    }
+
     public int onMainStackTouch() {
         /*
          * first getHighScore the current main stack, then deal the cards from it to the tableau.
@@ -299,7 +363,7 @@ public class Spider extends Game {
 
             moveToStack(cards, destinations, OPTION_REVERSED_RECORD);
             //test if a card family is now full
-            handlerTestAfterMove.sendEmptyMessageDelayed(0, 100);
+            gamePipeline.add(handlerTestAfterMove);
             return 1;
         }
 
@@ -339,6 +403,8 @@ public class Spider extends Game {
                 break;
         }
 
+        spiderRules.setNumberOfSuits(Integer.parseInt(prefs.getSavedSpiderDifficultyOld()));
+
         //and update the cards!
         for (Card card : cards) {
             card.setColor();
@@ -375,7 +441,7 @@ public class Spider extends Game {
                     continue;
                 }
 
-                if (cardToMove.test(destStack)) {
+                if (canMove(cardToMove, destStack)) {
                     return new CardAndStack(cardToMove, destStack);
                 }
             }
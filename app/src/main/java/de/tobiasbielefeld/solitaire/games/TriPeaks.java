@@ -30,6 +30,11 @@ import de.tobiasbielefeld.solitaire.R;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.TriPeaksRules;
+import de.tobiasbielefeld.solitaire.helper.HintSearch;
+import de.tobiasbielefeld.solitaire.solver.Solver;
+import de.tobiasbielefeld.solitaire.solver.TriPeaksSolver;
 import de.tobiasbielefeld.solitaire.helper.RecordList;
 import de.tobiasbielefeld.solitaire.ui.GameManager;
 
@@ -42,11 +47,23 @@ import static de.tobiasbielefeld.solitaire.SharedData.*;
 public class TriPeaks extends Game {
 
     static int MAX_SAVED_RUN_RECORDS;
-    //contains which stack is above another stack. So stackAboveID[0]=3 means, that above stack
-    //with index 0 are the stacks with index 3 and 3+1
-    int[] stackAboveID = new int[]{3, 5, 7, 9, 10, 12, 13, 15, 16, 18, 19, 20, 21, 22, 23, 24, 25, 26};//28
     int runCounter;                                                                                 //to count how many cards are moved in one "run"
     ArrayList<Integer> savedRunRecords = new ArrayList<>();                                         //need to save the scores of recorded movements, because the class RecordList can't do that
+    private TriPeaksRules triPeaksRules = new TriPeaksRules();
+
+    //searches the moves to the best outcome of the current board
+    private HintSearch<TriPeaksSolver> hintSearch = new HintSearch<TriPeaksSolver>() {
+        @Override
+        protected TriPeaksSolver createSolver() {
+            return new TriPeaksSolver();
+        }
+
+        @Override
+        protected int[] rankMoves(TriPeaksSolver solver, Board board) {
+            solver.solve(board);
+            return solver.getSolution();
+        }
+    };
 
     public TriPeaks() {
 
@@ -56,6 +73,7 @@ public class TriPeaks extends Game {
         setTableauStackIDs(0,1,2,3,4,5,6,7,8,9,10,11,12,13,14,15,16,17,18,19,20,21,22,23,24,25,26,27);
         setDiscardStackIDs(28);
         setMainStackIDs(29);
+        setRules(triPeaksRules);
 
         setDirections(0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0, 0);
         setSingleTapEnabled();
@@ -123,15 +141,6 @@ public class TriPeaks extends Game {
 
     }
 
-    public boolean winTest() {
-        for (int i = 0; i <= getLastTableauId(); i++) {
-            if (!stacks[i].isEmpty())
-                return false;
-        }
-
-        return true;
-    }
-
     public void dealCards() {
         for (int i = 0; i < 28; i++) {
             moveToStack(getDealStack().getTopCard(), stacks[i], OPTION_NO_RECORD);
@@ -144,6 +153,16 @@ public class TriPeaks extends Game {
         moveToStack(getDealStack().getTopCard(), getDiscardStack(), OPTION_NO_RECORD);
     }
 
+    @Override
+    public Solver createSolver() {
+        return new TriPeaksSolver();
+    }
+
+    @Override
+    public boolean hasSolvableIndicator() {
+        return true;
+    }
+
     public int onMainStackTouch() {
         if (getMainStack().getSize() > 0) {
             moveToStack(getMainStack().getTopCard(), getDiscardStack());
@@ -155,17 +174,31 @@ public class TriPeaks extends Game {
         return 0;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-        return stack == getDiscardStack() &&
-                (card.getValue() == 13 && stack.getTopCard().getValue() == 1
-                        || card.getValue() == 1 && stack.getTopCard().getValue() == 13
-                        || (card.getValue() == stack.getTopCard().getValue() + 1
-                        || card.getValue() == stack.getTopCard().getValue() - 1));
+    /**
+     * Searches the best solution of the current board with the solver, before the hints start.
+     */
+    @Override
+    public boolean prepareHints(Runnable onReady) {
+        return hintSearch.prepare(onReady);
     }
 
-    public boolean addCardToMovementGameTest(Card card) {
+    /**
+     * Shows the next move of the best solution first, drawing a card is shown with the top card
+     * of the main stack.
+     */
+    @Override
+    public CardAndStack rankedHintTest() {
+        int[] hintMoves = hintSearch.getMoves();
+
+        if (hintMoves != null && hintMoves.length > 0) {
+            Card card = Solver.isCardMove(hintMoves[0]) ? cards[Solver.getCardOf(hintMoves[0])] : getMainStack().getTopCard();
+
+            if (!hint.hasVisited(card)) {
+                return new CardAndStack(card, getDiscardStack());
+            }
+        }
 
-        return card.getStackId() != getDiscardStack().getId();
+        return hintTest();
     }
 
     public CardAndStack hintTest() {
@@ -173,7 +206,7 @@ public class TriPeaks extends Game {
             if (stacks[i].isEmpty() || !stacks[i].getTopCard().isUp())
                 continue;
 
-            if (!hint.hasVisited(stacks[i].getTopCard()) && stacks[i].getTopCard().test(getDiscardStack()))
+            if (!hint.hasVisited(stacks[i].getTopCard()) && canMove(stacks[i].getTopCard(), getDiscardStack()))
                 return new CardAndStack(stacks[i].getTopCard(), getDiscardStack());
         }
 
@@ -183,7 +216,7 @@ public class TriPeaks extends Game {
     @Override
     public Stack doubleTapTest(Card card) {
 
-        if (card.test(getDiscardStack()))
+        if (canMove(card, getDiscardStack()))
             return getDiscardStack();
 
         return null;
@@ -245,13 +278,7 @@ public class TriPeaks extends Game {
     }
 
     private boolean stackIsFree(Stack stack) {
-        if (stack.getId() > 17)
-            return true;
-
-        Stack stackAbove1 = stacks[stackAboveID[stack.getId()]];
-        Stack stackAbove2 = stacks[stackAboveID[stack.getId()] + 1];
-
-        return stackAbove1.isEmpty() && stackAbove2.isEmpty();
+        return triPeaksRules.stackIsFree(getBoard(), stack.getId());
     }
 
     private void updateLongestRun(int currentRunCount) {
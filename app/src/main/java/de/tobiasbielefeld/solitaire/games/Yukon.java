@@ -26,6 +26,9 @@ import java.util.ArrayList;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.YukonRules;
+import de.tobiasbielefeld.solitaire.solver.Solver;
+import de.tobiasbielefeld.solitaire.solver.YukonSolver;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 import static de.tobiasbielefeld.solitaire.games.Game.testMode.*;
@@ -38,6 +41,8 @@ import static de.tobiasbielefeld.solitaire.games.Game.testMode3.*;
 
 public class Yukon extends Game {
 
+    private YukonRules yukonRules = new YukonRules();
+
     public Yukon() {
         setNumberOfDecks(1);
         setNumberOfStacks(11);
@@ -45,6 +50,12 @@ public class Yukon extends Game {
         setTableauStackIDs(0,1,2,3,4,5,6);
         setFoundationStackIDs(7,8,9,10);
         setDealFromID(0);
+        setRules(yukonRules);
+    }
+
+    @Override
+    public void load() {
+        yukonRules.setRussianRules(!prefs.getSavedYukonRulesOld().equals("default"));
     }
 
     public void setStacks(RelativeLayout layoutGame, boolean isLandscape, Context context) {
@@ -71,21 +82,13 @@ public class Yukon extends Game {
         }
     }
 
-    public boolean winTest() {
-        //won if foundation stacks are full
-        for (int i = 7; i < 11; i++)
-            if (stacks[i].getSize() != 13)
-                return false;
-
-        return true;
-    }
-
     public void dealCards() {
         /*
          * because there is no main stack, use the stack from getDealStack()
          */
 
         prefs.saveYukonRulesOld();
+        yukonRules.setRussianRules(!prefs.getSavedYukonRulesOld().equals("default"));
 
         for (int i = 1; i <= 6; i++) {
             for (int j = 0; j < 5 + i; j++) {
@@ -100,42 +103,16 @@ public class Yukon extends Game {
         getDealStack().flipTopCardUp();
     }
 
+    @Override
+    public Solver createSolver() {
+        return new YukonSolver(!prefs.getSavedYukonRules().equals("default"));
+    }
+
     public int onMainStackTouch() {
         //no main stack, so empty
         return 0;
     }
 
-    public boolean cardTest(Stack stack, Card card) {
-
-        if (stack.getId() < 7) {                                                                    //tableau
-            if (stack.isEmpty()) {
-                return card.getValue() == 13;
-            } else {
-                return checkRules(stack, card) && (stack.getTopCard().getValue() == card.getValue() + 1);
-            }
-        } else if (movingCards.hasSingleCard()) {                                                     //foundation
-            if (stack.isEmpty()) {
-                return card.getValue() == 1;
-            } else {
-                return canCardBePlaced(stack, card, SAME_FAMILY, ASCENDING);
-            }
-        } else {
-            return false;
-        }
-    }
-
-    boolean checkRules(Stack stack, Card card) {
-        boolean defaultRules = prefs.getSavedYukonRulesOld().equals("default");
-
-        return canCardBePlaced(stack, card, defaultRules ? ALTERNATING_COLOR : SAME_FAMILY, DESCENDING);
-
-    }
-
-    public boolean addCardToMovementGameTest(Card card) {
-        //yukon is simple in this way: you can move every card
-        return true;
-    }
-
     public CardAndStack hintTest() {
         for (int i = 0; i < 7; i++) {
             Stack sourceStack = stacks[i];
@@ -152,7 +129,7 @@ public class Yukon extends Game {
                     if (j >= 7 && !cardToMove.isTopCard())
                         continue;
 
-                    if (cardToMove.isUp() && !hint.hasVisited(cardToMove) && cardToMove.test(otherStack)) {
+                    if (cardToMove.isUp() && !hint.hasVisited(cardToMove) && canMove(cardToMove, otherStack)) {
                         //don't move if it's an ace and not a top card and also not if the stack id is below 7
                         //so only move single aces to the foundation stacks
                         if (cardToMove.getValue() == 1 && j < 7)
@@ -179,7 +156,7 @@ public class Yukon extends Game {
         //then foundation stacks
         if (card.isTopCard()) {
             for (int j = 7; j <= 10; j++) {
-                if (card.getStackId() != j && card.test(stacks[j])) {
+                if (card.getStackId() != j && canMove(card, stacks[j])) {
                     return stacks[j];
                 }
             }
@@ -188,7 +165,7 @@ public class Yukon extends Game {
         //tableau fields first
         for (int j = 0; j < 7; j++) {
 
-            if (!stacks[j].isEmpty() && card.getStackId() != j && card.test(stacks[j]) && !sameCardOnOtherStack(card, stacks[j], SAME_VALUE_AND_COLOR)) {
+            if (!stacks[j].isEmpty() && card.getStackId() != j && canMove(card, stacks[j]) && !sameCardOnOtherStack(card, stacks[j], SAME_VALUE_AND_COLOR)) {
                 return stacks[j];
             }
         }
@@ -198,7 +175,7 @@ public class Yukon extends Game {
             if (card.getValue() == 13 && card.isFirstCard() && stacks[k].isEmpty())
                 continue;
 
-            if (stacks[k].isEmpty() && card.test(stacks[k])) {
+            if (stacks[k].isEmpty() && canMove(card, stacks[k])) {
                 return stacks[k];
             }
         }
@@ -229,7 +206,7 @@ public class Yukon extends Game {
             for (int j = 7; j < 11; j++) {
                 Stack destination = stacks[j];
 
-                if (origin.getTopCard().test(destination))
+                if (canMove(origin.getTopCard(), destination))
                     return new CardAndStack(origin.getTopCard(), destination);
             }
         }
@@ -41,7 +41,9 @@ public class HandlerAfterWon extends Handler {
     public void handleMessage(Message msg) {
         super.handleMessage(msg);
 
-        if (animate.cardIsAnimating() || gm.isActivityPaused())
+        if (animate.cardIsAnimating())
+            animate.sendWhenIdle(this);
+        else if (gm.isActivityPaused())
             animate.handlerAfterWon.sendEmptyMessageDelayed(0, 100);
         else {
             if (phase == 2) {
@@ -48,12 +48,12 @@ public class HandlerAutoComplete extends Handler {
 
         //if the phase is 1 (moving on the tableau) wait until the moving animation is over
         if (animate.cardIsAnimating() && phase == 1) {
-            autoComplete.handlerAutoComplete.sendEmptyMessageDelayed(0, currentTime);
+            animate.sendWhenIdle(this);
         }
         //if the auto complete is finished, wait until the movement of the cards stop and then show the win animation
         else if (isFinished) {
             if (animate.cardIsAnimating()) {
-                autoComplete.handlerAutoComplete.sendEmptyMessageDelayed(0, currentTime);
+                animate.sendWhenIdle(this);
             } else {
                 autoComplete.reset();
                 gameLogic.testIfWon();
@@ -71,7 +71,7 @@ public class HandlerAutoComplete extends Handler {
                     autoComplete.handlerAutoComplete.sendEmptyMessageDelayed(0, 0);
                 } else {
                     isFinished = true;
-                    autoComplete.handlerAutoComplete.sendEmptyMessageDelayed(0, START_TIME);
+                    autoComplete.handlerAutoComplete.sendEmptyMessage(0);
                 }
             } else {
                 //if phase 1, move the card and every card above it
@@ -98,9 +98,14 @@ public class HandlerAutoComplete extends Handler {
                     card.setLocation(destination.getX(),destination.getY());
                 }
 
-                currentTime = max(currentTime - DELTA_TIME, MIN_TIME);
-                //start the next handler in some milliseconds
-                autoComplete.handlerAutoComplete.sendEmptyMessageDelayed(0, currentTime);
+                //in phase 1 the next call waits until the movement is over. In phase 2 the cards
+                //move at the same time, so start the next one in some milliseconds
+                if (phase == 1) {
+                    autoComplete.handlerAutoComplete.sendEmptyMessage(0);
+                } else {
+                    currentTime = max(currentTime - DELTA_TIME, MIN_TIME);
+                    autoComplete.handlerAutoComplete.sendEmptyMessageDelayed(0, currentTime);
+                }
             }
         }
     }
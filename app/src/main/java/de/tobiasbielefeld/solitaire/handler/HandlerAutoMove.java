@@ -39,9 +39,6 @@ import static de.tobiasbielefeld.solitaire.SharedData.showToast;
 
 public class HandlerAutoMove extends Handler {
 
-    private final static int DELTA_TIME = 100;
-    private final static int DELTA_TIME_SHORT = 20;
-
     private boolean testAfterMove = false;
     private boolean movedFirstCard = false;
 
@@ -56,13 +53,13 @@ public class HandlerAutoMove extends Handler {
 
         // wait until the moving animation is over
         if (animate.cardIsAnimating()) {
-            autoMove.handlerAutoMove.sendEmptyMessageDelayed(0, DELTA_TIME_SHORT);
+            animate.sendWhenIdle(this);
         }
         //call the test after move method after every auto movement
         else if (testAfterMove) {
             currentGame.testAfterMove();
             testAfterMove = false;
-            autoMove.handlerAutoMove.sendEmptyMessageDelayed(0, DELTA_TIME_SHORT);
+            autoMove.handlerAutoMove.sendEmptyMessage(0);
             // else do the movement
         } else if (autoMove.isRunning()) {
 
@@ -81,8 +78,8 @@ public class HandlerAutoMove extends Handler {
 
                 testAfterMove = true;
 
-                //start the next handler in some milliseconds
-                autoMove.handlerAutoMove.sendEmptyMessageDelayed(0, DELTA_TIME);
+                //the next call waits until the movement is over
+                autoMove.handlerAutoMove.sendEmptyMessage(0);
             } else {
                 if (!movedFirstCard) {
                     showToast(gm.getString(R.string.dialog_no_movement_possible),gm);
@@ -26,9 +26,9 @@ public class HandlerDealCards extends Handler {
             prefs.setDealingCards(false);
             currentGame.dealNewGame();
             sounds.playSound(Sounds.names.DEAL_CARDS);
-            handlerTestAfterMove.sendEmptyMessageDelayed(0,100);
+            gamePipeline.add(handlerTestAfterMove);
         } else {
-            handlerDealCards.sendEmptyMessageDelayed(0,100);
+            animate.sendWhenIdle(this);
         }
     }
 }
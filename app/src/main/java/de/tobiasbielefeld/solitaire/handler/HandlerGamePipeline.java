@@ -0,0 +1,96 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.handler;
+
+import android.os.Handler;
+import android.os.Message;
+
+import java.util.ArrayDeque;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Runs the steps after a movement, like testAfterMove() and testIfWon(), one after another. A step
+ * is one of the other handlers. It is started as soon as the card animations of the step before
+ * are over, instead of sending it with a fixed delay. A step which is already waiting in the
+ * queue isn't added a second time.
+ */
+
+public class HandlerGamePipeline extends Handler {
+
+    private ArrayDeque<Handler> steps = new ArrayDeque<>();
+    private boolean scheduled;
+
+    /**
+     * Adds a step to the queue.
+     *
+     * @param step The handler to call, it gets an empty message
+     */
+    public void add(Handler step) {
+        if (!steps.contains(step)) {
+            steps.add(step);
+        }
+
+        schedule();
+    }
+
+    /**
+     * Removes all waiting steps, used when a game is loaded or started.
+     */
+    public void clear() {
+        steps.clear();
+        removeMessages(0);
+
+        if (animate != null) {
+            animate.removeWaitingHandler(this);
+        }
+
+        scheduled = false;
+    }
+
+    public void handleMessage(Message msg) {
+        super.handleMessage(msg);
+        scheduled = false;
+
+        if (steps.isEmpty()) {
+            return;
+        }
+
+        if (animate.cardIsAnimating()) {
+            scheduled = true;
+            animate.sendWhenIdle(this);
+            return;
+        }
+
+        //run the step directly, so its animations are already running when the next step is tested
+        Handler step = steps.poll();
+        step.dispatchMessage(Message.obtain(step));
+
+        if (!steps.isEmpty()) {
+            schedule();
+        }
+    }
+
+    private void schedule() {
+        if (!scheduled) {
+            scheduled = true;
+            sendEmptyMessage(0);
+        }
+    }
+}
@@ -49,7 +49,7 @@ public class HandlerHint extends Handler {
             CardAndStack cardAndStack;
 
             if (!animate.cardIsAnimating()) {
-                cardAndStack = currentGame.hintTest();
+                cardAndStack = currentGame.rankedHintTest();
 
                 if (cardAndStack == null) {
                     if (!showedFirstHint){
@@ -22,11 +22,11 @@ public class HandlerRecordListUndo extends Handler {
         if (!animate.cardIsAnimating()) {
             if (recordList.hasMoreToUndo()){
                 recordList.undoMore();
-                handlerRecordListUndo.sendEmptyMessageDelayed(0,100);
+                handlerRecordListUndo.sendEmptyMessage(0);
             }
 
         } else {
-            handlerRecordListUndo.sendEmptyMessageDelayed(0,100);
+            animate.sendWhenIdle(this);
         }
 
 
@@ -32,11 +32,11 @@ public class HandlerTestAfterMove extends Handler {
         super.handleMessage(msg);
 
         if (animate.cardIsAnimating()) {
-            handlerTestAfterMove.sendEmptyMessageDelayed(0, 100);
+            animate.sendWhenIdle(this);
         }
         else {
             currentGame.testAfterMove();
-            handlerTestIfWon.sendEmptyMessageDelayed(0, 200);
+            gamePipeline.add(handlerTestIfWon);
 
             if (!autoComplete.isRunning() && !gameLogic.hasWon())  {
                 gameLogic.checkForAutoCompleteButton();
@@ -32,7 +32,7 @@ public class HandlerTestIfWon extends Handler {
         super.handleMessage(msg);
 
         if (animate.cardIsAnimating()) {
-            handlerTestIfWon.sendEmptyMessageDelayed(0, 100);
+            animate.sendWhenIdle(this);
         }
         else {
             gameLogic.testIfWon();
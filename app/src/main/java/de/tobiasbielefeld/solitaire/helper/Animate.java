@@ -22,17 +22,17 @@ import android.animation.Animator;
 import android.animation.AnimatorInflater;
 import android.animation.AnimatorSet;
 import android.graphics.PointF;
+import android.os.Handler;
 import android.util.Log;
 import android.view.View;
 import android.view.animation.Animation;
 import android.view.animation.AnimationUtils;
-import android.view.animation.TranslateAnimation;
 
+import java.util.ArrayList;
 import java.util.Random;
 
 import de.tobiasbielefeld.solitaire.R;
 import de.tobiasbielefeld.solitaire.classes.Card;
-import de.tobiasbielefeld.solitaire.classes.CustomImageView;
 import de.tobiasbielefeld.solitaire.classes.Stack;
 import de.tobiasbielefeld.solitaire.handler.HandlerAfterWon;
 import de.tobiasbielefeld.solitaire.ui.GameManager;
@@ -42,7 +42,7 @@ import static de.tobiasbielefeld.solitaire.SharedData.*;
 /**
  * class for all card animations. Like moving cards and fading them out and in for hints.
  * The win animation is split up in two parts: First move every card to the middle of the screen,
- * then move them out the screen borders
+ * then move them out the screen borders. The card movements are done by the CardAnimator.
  */
 
 public class Animate {
@@ -50,9 +50,13 @@ public class Animate {
     public HandlerAfterWon handlerAfterWon;
     private GameManager gm;
     private float speedFactor;
+    private CardAnimator cardAnimator;
+    private int numberOfAnimatingViews;                                                             //card views with a running view animation (the hint fades)
+    private ArrayList<Handler> waitingHandlers = new ArrayList<>();
 
     public Animate(GameManager gm) {
         this.gm = gm;
+        cardAnimator = new CardAnimator(this);
         handlerAfterWon = new HandlerAfterWon(gm);
         speedFactor = prefs.getSavedMovementSpeed();
     }
@@ -150,32 +154,21 @@ public class Animate {
         float dist_x = pointAtStack.x - card.getX();
         float dist_y = pointAtStack.y - card.getY();
         int distance = (int) Math.sqrt((double) ((dist_x * dist_x) + (dist_y * dist_y)));
-
-        TranslateAnimation animation = new TranslateAnimation(0, dist_x, 0, dist_y);
+        long duration;
 
         try {
-            animation.setDuration((long) (distance * 100 / Card.width / speedFactor));
+            duration = (long) (distance * 100 / Card.width / speedFactor);
         } catch (ArithmeticException e) {
-            animation.setDuration(100);
+            duration = 100;
             Log.e("Animate moveCard()", e.toString());
         }
 
-        animation.setAnimationListener(new Animation.AnimationListener() {
-            public void onAnimationStart(Animation animation) {
-            }
-
-            public void onAnimationEnd(Animation animation) {
-                PointF pointAtStack = destination.getPosition(offset);
-                card.view.setX(pointAtStack.x);
-                card.view.setY(pointAtStack.y);
+        cardAnimator.move(card, pointAtStack.x, pointAtStack.y, duration, new Runnable() {
+            @Override
+            public void run() {
                 hideCard(card);
             }
-
-            public void onAnimationRepeat(Animation animation) {
-            }
         });
-
-        card.view.startAnimation(animation);
     }
 
     /**
@@ -236,68 +229,123 @@ public class Animate {
      * @param pY   Y-coordinate of the destination
      */
     public void moveCardSlow(final Card card, final float pX, final float pY) {
-        final CustomImageView view = card.view;
-        int distance = (int) Math.sqrt(Math.pow(pX - view.getX(), 2) + Math.pow(pY - view.getY(), 2));
-
-        TranslateAnimation animation = new TranslateAnimation(0, pX - view.getX(), 0, pY - view.getY());
+        int distance = (int) Math.sqrt(Math.pow(pX - card.getX(), 2) + Math.pow(pY - card.getY(), 2));
+        long duration;
 
         try {
-            animation.setDuration((long) (distance * 100 / Card.width));
+            duration = (long) (distance * 100 / Card.width);
         } catch (ArithmeticException e) {
-            animation.setDuration(200);
+            duration = 200;
             Log.e("Animate moveCard()", e.toString());
         }
 
-        animation.setFillEnabled(true);
-
-        view.setDestination(pX, pY);
-        view.startAnimation(animation);
+        cardAnimator.move(card, pX, pY, duration, null);
     }
 
     /**
-     * Moves a card to a new destination. FillEnabled is necessary, or else flickering will occur.
-     * The location is updated when the animation finishes, which happens in the onAnimationEnd()
-     * method of the custom image view.
+     * Moves a card to a new destination. The location of the view is updated on every frame by
+     * the card animator.
      *
      * @param card The card to move
      * @param pX   X-coordinate of the destination
      * @param pY   Y-coordinate of the destination
      */
     public void moveCard(final Card card, final float pX, final float pY) {
-        final CustomImageView view = card.view;
-        int distance = (int) Math.sqrt(Math.pow(pX - view.getX(), 2) + Math.pow(pY - view.getY(), 2));
-
-        TranslateAnimation animation = new TranslateAnimation(0, pX - view.getX(), 0, pY - view.getY());
+        int distance = (int) Math.sqrt(Math.pow(pX - card.getX(), 2) + Math.pow(pY - card.getY(), 2));
+        long duration;
 
         //there were some reports about an exception here, so simply set duration with a fixed value
         //if the exception occurs
         try {
-            animation.setDuration((long) (distance * 100 / Card.width / speedFactor));
+            duration = (long) (distance * 100 / Card.width / speedFactor);
         } catch (ArithmeticException e) {
-            animation.setDuration(100);
+            duration = 100;
             Log.e("Animate moveCard()", e.toString());
         }
 
-        animation.setFillEnabled(true);
+        cardAnimator.move(card, pX, pY, duration, null);
+    }
 
-        view.setDestination(pX, pY);
-        view.startAnimation(animation);
+    /**
+     * Stops the movement of a card, used when it is placed somewhere without an animation.
+     *
+     * @param card The card to stop
+     */
+    public void stopMovement(Card card) {
+        cardAnimator.cancel(card);
     }
 
+    /*
+     * The movements are counted by the card animator, the fade animations of the hints are still
+     * view animations and counted by the card views
+     */
     public boolean cardIsAnimating() {
-        for (Card card : cards) {
-            if (card.view.isAnimating()) {
-                return true;
-            }
+        return cardAnimator.isRunning() || numberOfAnimatingViews > 0;
+    }
+
+    /**
+     * Called by the card views when their view animation starts or ends.
+     *
+     * @param started True if the animation started, false if it ended
+     */
+    public void onViewAnimationChanged(boolean started) {
+        if (started) {
+            numberOfAnimatingViews++;
+        } else {
+            numberOfAnimatingViews = max(numberOfAnimatingViews - 1, 0);
+            notifyIfIdle();
+        }
+    }
+
+    /**
+     * Sends an empty message to the handler as soon as no card is animating anymore, instead of
+     * letting the handler test it again and again. If nothing is animating, it is sent directly.
+     *
+     * @param handler The handler to wake up
+     */
+    public void sendWhenIdle(Handler handler) {
+        if (!cardIsAnimating()) {
+            handler.sendEmptyMessage(0);
+        } else if (!waitingHandlers.contains(handler)) {
+            waitingHandlers.add(handler);
+        }
+    }
+
+    /**
+     * Removes a handler which waits for the animations to end, so it won't be woken up.
+     *
+     * @param handler The handler to remove
+     */
+    public void removeWaitingHandler(Handler handler) {
+        waitingHandlers.remove(handler);
+    }
+
+    /*
+     * Wakes up the waiting handlers, if all animations are over
+     */
+    void notifyIfIdle() {
+        if (waitingHandlers.isEmpty() || cardIsAnimating()) {
+            return;
         }
 
-        return false;
+        for (Handler handler : waitingHandlers) {
+            handler.sendEmptyMessage(0);
+        }
+
+        waitingHandlers.clear();
     }
 
     public void reset() {
+        cardAnimator.finishAll();
+
         for (Card card : cards) {
             card.view.stopAnim();
         }
+
+        numberOfAnimatingViews = 0;
+
+        //the waiting handlers belong to the old deal, don't wake them up on the new one
+        waitingHandlers.clear();
     }
 
     /**
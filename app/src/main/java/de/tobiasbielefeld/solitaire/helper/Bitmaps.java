@@ -24,13 +24,29 @@ import android.graphics.BitmapFactory;
 import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
+import android.graphics.Rect;
 import android.graphics.Typeface;
+import android.graphics.drawable.Drawable;
+import android.graphics.drawable.GradientDrawable;
+import android.os.AsyncTask;
+import android.support.v4.util.AtomicFile;
+import android.support.v4.util.LruCache;
 import android.text.Layout;
 import android.text.StaticLayout;
 import android.text.TextPaint;
 import android.util.Log;
+import android.widget.ImageView;
 
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.Executor;
+import java.util.concurrent.Executors;
+
+import de.tobiasbielefeld.solitaire.BuildConfig;
 import de.tobiasbielefeld.solitaire.R;
+import de.tobiasbielefeld.solitaire.classes.Card;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 
@@ -38,17 +54,41 @@ import static de.tobiasbielefeld.solitaire.SharedData.*;
  * Here is the code to load the individual pictures from the bitmaps located in drawables-nodpi.
  * The bitmaps will first be decoded and the width/height of each individual card of the packets
  * will be set.
+ * <p>
+ * The menu entries and the card theme previews are created in the background and saved in a cache
+ * with a limited size. Until they are ready, the image views show an empty placeholder with the
+ * size of the picture. The menu entries are also saved as files in the cache directory, so they are
+ * only drawn once for each language and screen density.
  */
 
 public class Bitmaps {
 
+    private static final int TYPE_MENU = 0;
+    private static final int TYPE_CARD_PREVIEW = 1;
+    private static final int TYPE_CARD_PREVIEW_2 = 2;
+    private static final String[] CACHE_KEY_PREFIXES = {"menu", "cardPreview", "cardPreview2"};
+
+    private static final String MENU_DIRECTORY = "menu";
+    private static final String MENU_FILE_ENDING = ".png";
+
+    private static final Executor executor = Executors.newSingleThreadExecutor();
+
     int menuWidth, menuHeight, stackBackgroundWidth, stackBackgroundHeight,
             cardBackWidth, cardBackHeight, cardFrontWidth, cardFrontHeight,
-            cardPreviewWidth, cardPreviewHeight, cardPreview2Width, cardPreview2Height;
+            cardPreviewWidth, cardPreviewHeight, cardPreview2Width, cardPreview2Height,
+            cardBackSampleSize, cardFrontSampleSize;
     private Resources res;
-    private Bitmap menu, menuText, stackBackground, cardBack, cardFront, cardPreview, cardPreview2;
-    private Bitmap[] menuBitMaps;
+    private Bitmap menu, menuText, stackBackground, cardBack, cardFront, cardPreview;
     private int savedCardTheme;
+    private int[][] placeholderSizes = new int[CACHE_KEY_PREFIXES.length][];
+    private File menuDirectory;
+
+    private LruCache<String, Bitmap> cache = new LruCache<String, Bitmap>(getCacheSize()) {
+        @Override
+        protected int sizeOf(String key, Bitmap bitmap) {
+            return bitmap.getRowBytes() * bitmap.getHeight();
+        }
+    };
 
     public boolean checkResources() {
         return res != null;
@@ -58,21 +98,189 @@ public class Bitmaps {
         this.res = res;
     }
 
+    public void setCacheDirectory(File directory) {
+        menuDirectory = new File(directory, MENU_DIRECTORY);
+    }
+
     /**
-     * Gets the menu previews
+     * Shows the menu preview of a game in the image view. If it isn't in the cache, it is created
+     * in the background and a placeholder is shown until then.
      *
      * @param index The position of the game, as in the order the user set up in the settings
-     * @return a single bitmap
+     * @param view  The image view to show the preview in
      */
-    public Bitmap getMenu(int index) {
-        Bitmap bitmap;
+    public void loadMenu(int index, ImageView view) {
+        load(TYPE_MENU, index, 0, view);
+    }
 
-        if (menuBitMaps == null){
-            menuBitMaps = new Bitmap[lg.getGameCount()];
-        } else if (menuBitMaps[index]!=null){
-            return menuBitMaps[index];
+    /**
+     * Shows the preview of a card theme in the image view, like loadMenu().
+     *
+     * @param posX X-coordinate of the preview in the file
+     * @param posY Y-coordinate of the preview in the file
+     * @param view The image view to show the preview in
+     */
+    public void loadCardPreview(int posX, int posY, ImageView view) {
+        load(TYPE_CARD_PREVIEW, posX, posY, view);
+    }
+
+    /**
+     * Shows the King-image of a card theme in the image view, like loadMenu().
+     *
+     * @param posX X-coordinate of the preview in the file
+     * @param posY Y-coordinate of the preview in the file
+     * @param view The image view to show the preview in
+     */
+    public void loadCardPreview2(int posX, int posY, ImageView view) {
+        load(TYPE_CARD_PREVIEW_2, posX, posY, view);
+    }
+
+    /*
+     * Shows the cached bitmap, or starts creating it. The key is saved as the tag of the view,
+     * so a view which got another picture in the meantime isn't overwritten.
+     */
+    private void load(int type, int posX, int posY, ImageView view) {
+        String key = CACHE_KEY_PREFIXES[type] + "_" + posX + "_" + posY;
+        Bitmap bitmap = cache.get(key);
+
+        view.setTag(key);
+
+        if (bitmap != null) {
+            view.setImageBitmap(bitmap);
+        } else {
+            view.setImageDrawable(getPlaceholder(type));
+            new LoadTask(this, type, posX, posY, key, view).executeOnExecutor(executor);
+        }
+    }
+
+    /*
+     * Creates the bitmap of the given type. Called from the background thread.
+     */
+    private Bitmap create(int type, int posX, int posY) {
+        switch (type) {
+            case TYPE_MENU: default:
+                return loadMenuFromFile(posX);
+            case TYPE_CARD_PREVIEW:
+                return createCardPreview(posX, posY);
+            case TYPE_CARD_PREVIEW_2:
+                return createCardPreview2(posX, posY);
+        }
+    }
+
+    /*
+     * An empty drawable with the size of the bitmap, so the layout doesn't change when the bitmap
+     * is shown. The sizes are read from the file headers, without decoding the files.
+     */
+    private Drawable getPlaceholder(int type) {
+        if (placeholderSizes[type] == null) {
+            BitmapFactory.Options options;
+
+            switch (type) {
+                case TYPE_MENU: default:
+                    options = decodeBounds(R.drawable.backgrounds_menu);
+                    int textHeight = decodeBounds(R.drawable.backgrounds_menu_text).outHeight;
+                    placeholderSizes[type] = new int[]{options.outWidth / 6, options.outHeight / 3 + textHeight};
+                    break;
+                case TYPE_CARD_PREVIEW:
+                    options = decodeBounds(R.drawable.card_previews);
+                    placeholderSizes[type] = new int[]{options.outWidth / 8, options.outHeight / 2};
+                    break;
+                case TYPE_CARD_PREVIEW_2:
+                    options = decodeBounds(R.drawable.card_previews);
+                    placeholderSizes[type] = new int[]{options.outWidth / 16, options.outHeight / 2};
+                    break;
+            }
         }
 
+        GradientDrawable placeholder = new GradientDrawable();
+        placeholder.setColor(Color.TRANSPARENT);
+        placeholder.setSize(placeholderSizes[type][0], placeholderSizes[type][1]);
+
+        return placeholder;
+    }
+
+    /*
+     * Uses an eighth of the available memory for the cache, in kilobytes.
+     */
+    private static int getCacheSize() {
+        return (int) (Runtime.getRuntime().maxMemory() / 1024 / 8);
+    }
+
+    /*
+     * Loads the menu preview from the cache directory. If there is no file for the current language
+     * and density, it is created and saved.
+     */
+    private Bitmap loadMenuFromFile(int index) {
+        File file = null;
+
+        if (menuDirectory != null) {
+            file = new File(menuDirectory, getMenuFileName(index));
+
+            if (file.exists()) {
+                Bitmap bitmap = BitmapFactory.decodeFile(file.getPath());
+
+                if (bitmap != null) {
+                    return bitmap;
+                }
+            }
+        }
+
+        Bitmap bitmap = createMenu(index);
+
+        //don't save the placeholder, so the preview is created again the next time
+        if (bitmap == null) {
+            return BitmapFactory.decodeResource(res, R.drawable.no_picture_available);
+        }
+
+        if (file != null) {
+            saveMenuToFile(file, bitmap);
+        }
+
+        return bitmap;
+    }
+
+    private void saveMenuToFile(File file, Bitmap bitmap) {
+        if (!menuDirectory.exists() && !menuDirectory.mkdirs()) {
+            return;
+        }
+
+        AtomicFile atomicFile = new AtomicFile(file);
+        FileOutputStream stream = null;
+
+        try {
+            stream = atomicFile.startWrite();
+
+            if (bitmap.compress(Bitmap.CompressFormat.PNG, 100, stream)) {
+                atomicFile.finishWrite(stream);
+            } else {
+                atomicFile.failWrite(stream);
+            }
+        } catch (IOException e) {
+            Log.e("Bitmaps.saveMenuToFile", e.toString());
+
+            if (stream != null) {
+                atomicFile.failWrite(stream);
+            }
+        }
+    }
+
+    /*
+     * The file name contains everything the picture depends on: the app version (for changed
+     * pictures or game names), the language, the screen density and the game.
+     */
+    @SuppressWarnings("deprecation")
+    private String getMenuFileName(int index) {
+        return CACHE_KEY_PREFIXES[TYPE_MENU] + "_" + BuildConfig.VERSION_CODE + "_"
+                + res.getConfiguration().locale + "_" + res.getDisplayMetrics().densityDpi + "_"
+                + index + MENU_FILE_ENDING;
+    }
+
+    /*
+     * Gets the menu previews, or null if the picture of the game can't be created
+     */
+    private synchronized Bitmap createMenu(int index) {
+        Bitmap bitmap;
+
         if (menu == null) {
             menu = BitmapFactory.decodeResource(res, R.drawable.backgrounds_menu);
             menuWidth = menu.getWidth() / 6;
@@ -95,11 +303,9 @@ public class Bitmaps {
             bitmap = putTogether(gamePicture,gameText);
         } catch (Exception e){
             Log.e("Bitmap.getMenu()","No picture for current game available\n" + e.toString());
-            bitmap = BitmapFactory.decodeResource(res, R.drawable.no_picture_available);
+            bitmap = null;
         }
 
-        menuBitMaps[index] = bitmap;
-
         return bitmap;
     }
 
@@ -191,15 +397,16 @@ public class Bitmaps {
     }
 
     /**
-     * Gets the card themes, according to the preference
+     * Gets the decoded file of the card theme, according to the preference. Only the file of the
+     * current theme is kept, the cards draw their regions of it. The file is downsampled to the
+     * current card size, so it is decoded again if the card size changes a lot.
      *
-     * @param posX X-coordinate of the card in the file
-     * @param posY Y-coordinate of the card in the file
-     * @return a single bitmap of the card
+     * @return the bitmap file of the card theme
      */
-    public Bitmap getCardFront(int posX, int posY) {
+    public Bitmap getCardFrontAtlas() {
 
-        if (cardFront == null || savedCardTheme != prefs.getSavedCardTheme()) {
+        if (cardFront == null || savedCardTheme != prefs.getSavedCardTheme()
+                || cardFrontSampleSize != getSampleSize(cardFrontWidth, cardFrontHeight)) {
 
             savedCardTheme = prefs.getSavedCardTheme();
             int resID;
@@ -232,13 +439,28 @@ public class Bitmaps {
                     break;
             }
 
-            cardFront = BitmapFactory.decodeResource(res, resID);
-            cardFrontWidth = cardFront.getWidth() / 13;
-            cardFrontHeight = cardFront.getHeight() / 6;
+            BitmapFactory.Options options = decodeBounds(resID);
+            cardFrontWidth = options.outWidth / 13;
+            cardFrontHeight = options.outHeight / 6;
+            cardFrontSampleSize = getSampleSize(cardFrontWidth, cardFrontHeight);
+
+            cardFront = null;                                                                       //release the old file before decoding the new one
+            cardFront = decodeSampled(resID, options, cardFrontSampleSize);
         }
 
-        return Bitmap.createBitmap(cardFront, posX * cardFrontWidth,
-                posY * cardFrontHeight, cardFrontWidth, cardFrontHeight);
+        return cardFront;
+    }
+
+    /**
+     * Gets the region of a card in the file of the card theme. Call getCardFrontAtlas() before,
+     * so the dimensions of the current theme are loaded.
+     *
+     * @param posX   X-coordinate of the card in the file
+     * @param posY   Y-coordinate of the card in the file
+     * @param source The rect to save the region in
+     */
+    public void getCardFrontSource(int posX, int posY, Rect source) {
+        setSource(source, posX, posY, cardFrontWidth, cardFrontHeight, cardFrontSampleSize);
     }
 
     /**
@@ -249,62 +471,196 @@ public class Bitmaps {
      * @return a single bitmap
      */
     public Bitmap getCardBack(int posX, int posY) {
+        Bitmap atlas = getCardBackAtlas();
+        Rect source = new Rect();
+        getCardBackSource(posX, posY, source);
+
+        return Bitmap.createBitmap(atlas, source.left, source.top, source.width(), source.height());
+    }
 
-        if (cardBack == null) {
-            cardBack = BitmapFactory.decodeResource(res, R.drawable.backgrounds_cards);
-            cardBackWidth = cardBack.getWidth() / 9;
-            cardBackHeight = cardBack.getHeight() / 4;
+    /**
+     * Gets the decoded file of the card backgrounds. The cards draw their region of it. Like the
+     * card themes, it is downsampled to the current card size.
+     *
+     * @return the bitmap file of the card backgrounds
+     */
+    public Bitmap getCardBackAtlas() {
+
+        if (cardBack == null || cardBackSampleSize != getSampleSize(cardBackWidth, cardBackHeight)) {
+            BitmapFactory.Options options = decodeBounds(R.drawable.backgrounds_cards);
+            cardBackWidth = options.outWidth / 9;
+            cardBackHeight = options.outHeight / 4;
+            cardBackSampleSize = getSampleSize(cardBackWidth, cardBackHeight);
+
+            cardBack = null;
+            cardBack = decodeSampled(R.drawable.backgrounds_cards, options, cardBackSampleSize);
         }
 
-        return Bitmap.createBitmap(cardBack, posX * cardBackWidth,
-                posY * cardBackHeight, cardBackWidth, cardBackHeight);
+        return cardBack;
     }
 
     /**
-     * Gets the preview of the card themes.
+     * Gets the region of a card background in the file. Call getCardBackAtlas() before, so the
+     * dimensions are loaded.
      *
-     * @param posX X-coordinate of the preview in the file
-     * @param posY Y-coordinate of the preview in the file
-     * @return a single bitmap
+     * @param posX   X-coordinate of the background in the file
+     * @param posY   Y-coordinate of the background in the file
+     * @param source The rect to save the region in
      */
-    public Bitmap getCardPreview(int posX, int posY) {
+    public void getCardBackSource(int posX, int posY, Rect source) {
+        setSource(source, posX, posY, cardBackWidth, cardBackHeight, cardBackSampleSize);
+    }
 
-        if (cardPreview == null) {
-            cardPreview = BitmapFactory.decodeResource(res, R.drawable.card_previews);
-            cardPreviewWidth = cardPreview.getWidth() / 8;
-            cardPreviewHeight = cardPreview.getHeight() / 2;
-        }
+    /*
+     * Reads only the dimensions of a bitmap file, without decoding it.
+     */
+    private BitmapFactory.Options decodeBounds(int resID) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(res, resID, options);
 
-        return Bitmap.createBitmap(cardPreview, posX * cardPreviewWidth,
-                posY * cardPreviewHeight, cardPreviewWidth, cardPreviewHeight);
+        return options;
+    }
+
+    /*
+     * Decodes a bitmap file with the given sample size. The sheets use transparent corners for
+     * the cards, so they have to keep the alpha channel (ARGB_8888).
+     */
+    private Bitmap decodeSampled(int resID, BitmapFactory.Options options, int sampleSize) {
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        options.inPreferredConfig = Bitmap.Config.ARGB_8888;
+
+        return BitmapFactory.decodeResource(res, resID, options);
     }
 
     /**
-     * Gets the card preview shown in the preference screen. It uses the same file as getCardPreview
-     * put it only returns the King-image.
+     * Calculates the biggest power of two to downsample a file, so a single image of it is still
+     * at least as big as a card on the screen. Before the card size is known, nothing is
+     * downsampled.
      *
-     * @param posX X-coordinate of the preview in the file
-     * @param posY Y-coordinate of the preview in the file
-     * @return a single bitmap
+     * @param imageWidth  The width of a single image in the file
+     * @param imageHeight The height of a single image in the file
+     * @return the sample size to use
      */
-    public Bitmap getCardPreview2(int posX, int posY) {
+    private int getSampleSize(int imageWidth, int imageHeight) {
+        int sampleSize = 1;
 
-        posX = posX * 2 + 1;
+        if (Card.width <= 0 || Card.height <= 0) {
+            return sampleSize;
+        }
 
-        if (cardPreview2 == null) {
-            cardPreview2 = BitmapFactory.decodeResource(res, R.drawable.card_previews);
-            cardPreview2Width = cardPreview2.getWidth() / 16;
-            cardPreview2Height = cardPreview2.getHeight() / 2;
+        while (imageWidth / (sampleSize * 2) >= Card.width && imageHeight / (sampleSize * 2) >= Card.height) {
+            sampleSize *= 2;
         }
 
-        return Bitmap.createBitmap(cardPreview2, posX * cardPreview2Width,
+        return sampleSize;
+    }
+
+    /*
+     * Sets the region of a single image in a downsampled file. The image size of the file isn't
+     * always divisible by the sample size, so calculate the borders and not the size.
+     */
+    private void setSource(Rect source, int posX, int posY, int width, int height, int sampleSize) {
+        source.set(posX * width / sampleSize, posY * height / sampleSize,
+                (posX + 1) * width / sampleSize, (posY + 1) * height / sampleSize);
+    }
+
+    /*
+     * Gets the preview of the card themes.
+     */
+    private synchronized Bitmap createCardPreview(int posX, int posY) {
+        loadCardPreviews();
+
+        return Bitmap.createBitmap(cardPreview, posX * cardPreviewWidth,
+                posY * cardPreviewHeight, cardPreviewWidth, cardPreviewHeight);
+    }
+
+    /*
+     * Gets the card preview shown in the preference screen. It uses the same file as
+     * createCardPreview() put it only returns the King-image.
+     */
+    private synchronized Bitmap createCardPreview2(int posX, int posY) {
+        loadCardPreviews();
+        posX = posX * 2 + 1;
+
+        return Bitmap.createBitmap(cardPreview, posX * cardPreview2Width,
                 posY * cardPreview2Height, cardPreview2Width, cardPreview2Height);
     }
 
+    private void loadCardPreviews() {
+        if (cardPreview == null) {
+            cardPreview = BitmapFactory.decodeResource(res, R.drawable.card_previews);
+            cardPreviewWidth = cardPreview.getWidth() / 8;
+            cardPreviewHeight = cardPreview.getHeight() / 2;
+            cardPreview2Width = cardPreview.getWidth() / 16;
+            cardPreview2Height = cardPreview.getHeight() / 2;
+        }
+    }
+
     /**
-     * Resets the menu preview. Used after changing the locale, so the correct new previews will be shown
+     * Resets the menu preview. Used after changing the locale, so the correct new previews will be shown.
+     * The saved files of the old language are deleted too.
      */
     public void resetMenuPreviews() {
-        menuBitMaps = null;
+        for (String key : cache.snapshot().keySet()) {
+            if (key.startsWith(CACHE_KEY_PREFIXES[TYPE_MENU] + "_")) {
+                cache.remove(key);
+            }
+        }
+
+        File[] files = menuDirectory == null ? null : menuDirectory.listFiles();
+
+        if (files != null) {
+            for (File file : files) {
+                //noinspection ResultOfMethodCallIgnored
+                file.delete();
+            }
+        }
+    }
+
+    /*
+     * Creates a bitmap in the background, saves it in the cache and shows it, if the view still
+     * waits for it.
+     */
+    private static class LoadTask extends AsyncTask<Void, Void, Bitmap> {
+
+        private Bitmaps bitmaps;
+        private int type, posX, posY;
+        private String key;
+        private WeakReference<ImageView> viewReference;
+
+        LoadTask(Bitmaps bitmaps, int type, int posX, int posY, String key, ImageView view) {
+            this.bitmaps = bitmaps;
+            this.type = type;
+            this.posX = posX;
+            this.posY = posY;
+            this.key = key;
+            viewReference = new WeakReference<>(view);
+        }
+
+        @Override
+        protected Bitmap doInBackground(Void... params) {
+            Bitmap bitmap = bitmaps.cache.get(key);
+
+            if (bitmap == null && viewReference.get() != null) {
+                bitmap = bitmaps.create(type, posX, posY);
+
+                if (bitmap != null) {                                                               //LruCache doesn't accept null
+                    bitmaps.cache.put(key, bitmap);
+                }
+            }
+
+            return bitmap;
+        }
+
+        @Override
+        protected void onPostExecute(Bitmap bitmap) {
+            ImageView view = viewReference.get();
+
+            if (bitmap != null && view != null && key.equals(view.getTag())) {
+                view.setImageBitmap(bitmap);
+            }
+        }
     }
 }
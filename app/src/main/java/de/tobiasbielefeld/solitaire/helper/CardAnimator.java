@@ -0,0 +1,242 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import android.annotation.TargetApi;
+import android.os.Build;
+import android.os.Handler;
+import android.os.SystemClock;
+import android.view.Choreographer;
+import android.view.View;
+
+import de.tobiasbielefeld.solitaire.classes.Card;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Moves the cards with one animation loop instead of a view animation for every card. The start
+ * and end positions and times of all moving cards are saved in arrays, indexed by the card id.
+ * Each frame, the positions of all moving cards are interpolated and applied with setX() and
+ * setY(). Moving cards are drawn in a hardware layer, so only the layer position changes.
+ * <p>
+ * The frames are timed by the Choreographer. It exists since Android 4.1, on older versions a
+ * handler is used instead.
+ */
+
+public class CardAnimator {
+
+    private static final long FRAME_DELAY = 16;                                                     //for the handler on old Android versions
+
+    private float[] startX = new float[0], startY = new float[0], endX = new float[0], endY = new float[0];
+    private long[] startTimes = new long[0];
+    private long[] durations = new long[0];
+    private boolean[] moving = new boolean[0];
+    private Runnable[] endActions = new Runnable[0];
+    private int numberOfMovingCards;
+    private boolean frameScheduled;
+    private Animate animate;
+
+    private Handler handler = new Handler();
+    private FrameCallback frameCallback;
+    private Runnable frameRunnable = new Runnable() {
+        @Override
+        public void run() {
+            doFrame();
+        }
+    };
+
+    public CardAnimator(Animate animate) {
+        this.animate = animate;
+
+        if (Build.VERSION.SDK_INT >= Build.VERSION_CODES.JELLY_BEAN) {
+            frameCallback = new FrameCallback(this);
+        }
+    }
+
+    /**
+     * Starts moving a card from its current position to the given destination. If the card is
+     * already moving, the new movement starts where the card currently is.
+     *
+     * @param card      The card to move
+     * @param pX        X-coordinate of the destination
+     * @param pY        Y-coordinate of the destination
+     * @param duration  The duration in milliseconds
+     * @param endAction Is run after the card arrived, can be null
+     */
+    public void move(Card card, float pX, float pY, long duration, Runnable endAction) {
+        int id = card.getId();
+        View view = card.view;
+        ensureCapacity(cards.length);
+
+        if (!moving[id]) {
+            moving[id] = true;
+            numberOfMovingCards++;
+            view.setLayerType(View.LAYER_TYPE_HARDWARE, null);
+        }
+
+        startX[id] = view.getX();
+        startY[id] = view.getY();
+        endX[id] = pX;
+        endY[id] = pY;
+        startTimes[id] = SystemClock.uptimeMillis();
+        durations[id] = duration;
+        endActions[id] = endAction;
+
+        scheduleFrame();
+    }
+
+    public boolean isRunning() {
+        return numberOfMovingCards > 0;
+    }
+
+    public boolean isMoving(Card card) {
+        int id = card.getId();
+        return id < moving.length && moving[id];
+    }
+
+    /**
+     * Stops the movement of a card. It stays where it currently is and the end action isn't run.
+     *
+     * @param card The card to stop
+     */
+    public void cancel(Card card) {
+        if (isMoving(card)) {
+            stop(card.getId());
+            animate.notifyIfIdle();
+        }
+    }
+
+    /**
+     * Stops all movements and places the cards at their destinations, without running the end
+     * actions.
+     */
+    public void finishAll() {
+        for (int i = 0; i < moving.length && numberOfMovingCards > 0; i++) {
+            if (moving[i]) {
+                cards[i].view.setX(endX[i]);
+                cards[i].view.setY(endY[i]);
+                stop(i);
+            }
+        }
+
+        animate.notifyIfIdle();
+    }
+
+    private void stop(int id) {
+        moving[id] = false;
+        endActions[id] = null;
+        numberOfMovingCards--;
+        cards[id].view.setLayerType(View.LAYER_TYPE_NONE, null);
+    }
+
+    private void scheduleFrame() {
+        if (frameScheduled) {
+            return;
+        }
+
+        frameScheduled = true;
+
+        if (frameCallback != null) {
+            frameCallback.post();
+        } else {
+            handler.postDelayed(frameRunnable, FRAME_DELAY);
+        }
+    }
+
+    /*
+     * Updates the positions of all moving cards. Cards which arrived are placed at their
+     * destination and their end action is run.
+     */
+    private void doFrame() {
+        frameScheduled = false;
+        long time = SystemClock.uptimeMillis();
+
+        for (int i = 0; i < moving.length && numberOfMovingCards > 0; i++) {
+            if (!moving[i]) {
+                continue;
+            }
+
+            View view = cards[i].view;
+            float progress = durations[i] <= 0 ? 1 : (float) (time - startTimes[i]) / durations[i];
+
+            if (progress >= 1) {
+                view.setX(endX[i]);
+                view.setY(endY[i]);
+                Runnable endAction = endActions[i];
+                stop(i);
+
+                if (endAction != null) {
+                    endAction.run();
+                }
+
+                continue;
+            }
+
+            //same curve as the AccelerateDecelerateInterpolator
+            float factor = (float) (Math.cos((progress + 1) * Math.PI) / 2.0) + 0.5f;
+            view.setX(startX[i] + (endX[i] - startX[i]) * factor);
+            view.setY(startY[i] + (endY[i] - startY[i]) * factor);
+        }
+
+        if (numberOfMovingCards > 0) {
+            scheduleFrame();
+        } else {
+            animate.notifyIfIdle();
+        }
+    }
+
+    private void ensureCapacity(int size) {
+        if (moving.length >= size) {
+            return;
+        }
+
+        finishAll();
+
+        startX = new float[size];
+        startY = new float[size];
+        endX = new float[size];
+        endY = new float[size];
+        startTimes = new long[size];
+        durations = new long[size];
+        moving = new boolean[size];
+        endActions = new Runnable[size];
+    }
+
+    /*
+     * Own class, so the Choreographer is only loaded on Android versions which have it.
+     */
+    @TargetApi(Build.VERSION_CODES.JELLY_BEAN)
+    private static class FrameCallback implements Choreographer.FrameCallback {
+
+        private CardAnimator animator;
+
+        FrameCallback(CardAnimator animator) {
+            this.animator = animator;
+        }
+
+        void post() {
+            Choreographer.getInstance().postFrameCallback(this);
+        }
+
+        @Override
+        public void doFrame(long frameTimeNanos) {
+            animator.doFrame();
+        }
+    }
+}
@@ -19,7 +19,7 @@
 package de.tobiasbielefeld.solitaire.helper;
 
 import android.view.View;
-import android.widget.RelativeLayout;
+import android.view.ViewGroup;
 
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.Stack;
@@ -51,7 +51,7 @@ public class CardHighlight {
         width = Card.width + padding;
         height = (int) (stack.getTopCard().getY() + Card.height - card.getY() + padding);
 
-        gm.highlight.setLayoutParams(new RelativeLayout.LayoutParams(width, height));
+        setSize(gm, width, height);
         gm.highlight.setX(card.getX() - padding / 2);
         gm.highlight.setY(card.getY() - padding / 2);
         gm.highlight.setVisibility(View.VISIBLE);
@@ -76,7 +76,7 @@ public class CardHighlight {
             moveStarted = true;
 
             height = (int) (card.getStack().getTopCard().getY() + Card.height - card.getY() + padding);
-            gm.highlight.setLayoutParams(new RelativeLayout.LayoutParams(width, height));
+            setSize(gm, width, height);
         }
 
         gm.highlight.setX(card.getX() - padding / 2);
@@ -86,4 +86,18 @@ public class CardHighlight {
     public void hide(GameManager gm) {
         gm.highlight.setVisibility(GONE);
     }
+
+    /**
+     * Changes the size of the existing layout params instead of creating new ones on every tap.
+     *
+     * @param width  The new width
+     * @param height The new height
+     */
+    private void setSize(GameManager gm, int width, int height) {
+        ViewGroup.LayoutParams params = gm.highlight.getLayoutParams();
+
+        params.width = width;
+        params.height = height;
+        gm.highlight.setLayoutParams(params);
+    }
 }
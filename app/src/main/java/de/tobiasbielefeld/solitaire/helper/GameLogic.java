@@ -18,14 +18,17 @@
 
 package de.tobiasbielefeld.solitaire.helper;
 
+import android.os.AsyncTask;
 import android.util.Log;
 
+import java.io.IOException;
 import java.util.ArrayList;
-import java.util.Random;
 
 import de.tobiasbielefeld.solitaire.R;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.Stack;
+import de.tobiasbielefeld.solitaire.engine.CardShuffler;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 import de.tobiasbielefeld.solitaire.ui.GameManager;
 
 import static de.tobiasbielefeld.solitaire.SharedData.*;
@@ -40,6 +43,10 @@ public class GameLogic {
     private boolean won, wonAndReloaded;                                                            //shows if the player has won, needed to know if the timer can stop, or to deal new cards on game start
     private GameManager gm;
     private boolean movedFirstCard = false;
+    private boolean loadedOldSaveData = false;                                                      //true if the game was loaded from the old shared pref lists
+    private WinnableDealSearch winnableDealSearch;
+    private WinnableDealPool winnableDealPool = new WinnableDealPool();
+    private SolvableCheck solvableCheck;
 
     public GameLogic(GameManager gm) {
         this.gm = gm;
@@ -56,24 +63,41 @@ public class GameLogic {
     }
 
     /**
-     * saves all relevant data of the current game in shared preferences, so it can be loaded
-     * when resuming the game, called in onPause() of the GameManager
+     * saves all relevant data of the current game, so it can be loaded when resuming the game,
+     * called in onPause() of the GameManager. The card positions and undo records are written
+     * to the save file, the other values to shared preferences.
      */
     public void save() {
         if (!prefs.isDeveloperOptionSavingDisabled()) {
             scores.save();
-            recordList.save();
             prefs.saveWon(won);
             prefs.saveWonAndReloaded(wonAndReloaded);
             prefs.saveMovedFirstCard(movedFirstCard);
             // Timer will be saved in onPause()
 
+            SaveFile file = new SaveFile();
+            saveRandomCards(file);
+            Card.save(file);
+            file.writeInt(stacks.length);
+
             for (Stack stack : stacks) {
-                stack.save();
+                stack.save(file);
+            }
+
+            recordList.save(file);
+
+            try {
+                file.write(gm);
+
+                //the old lists aren't needed anymore, once the save file exists
+                if (loadedOldSaveData) {
+                    prefs.deleteOldSaveData(stacks.length);
+                    loadedOldSaveData = false;
+                }
+            } catch (IOException e) {
+                Log.e(gm.getString(R.string.saving_data_failed), e.toString());
             }
 
-            Card.save();
-            saveRandomCards();
             currentGame.save();
             currentGame.saveRecycleCount();
         }
@@ -100,9 +124,11 @@ public class GameLogic {
         Card.updateCardDrawableChoice();
         Card.updateCardBackgroundChoice();
         animate.reset();
+        gamePipeline.clear();
         autoComplete.reset();
         currentGame.load();
         currentGame.loadRecycleCount(gm);
+        recordList.openJournal(gm);
         sounds.playSound(Sounds.names.DEAL_CARDS);
 
         try {
@@ -112,7 +138,14 @@ public class GameLogic {
             }  else if (wonAndReloaded && prefs.getSavedAutoStartNewGame()){        //in case the game was selected from the main menu and it was already won, start a new game
                 newGame();
             } else if (won) {                   //in case the screen orientation changes, do not immediately start a new game
-                loadRandomCards();
+                SaveFile file = SaveFile.read(gm);
+
+                if (file == null) {
+                    loadRandomCards();
+                    loadedOldSaveData = true;
+                } else {
+                    loadRandomCards(file);
+                }
 
                 for (Card card : cards) {
                     card.setLocationWithoutMovement(gm.layoutGame.getWidth(), 0);
@@ -124,24 +157,44 @@ public class GameLogic {
                 }
 
                 scores.load();
-                recordList.load();
                 timer.setCurrentTime(prefs.getSavedEndTime());
 
                 //timer will be loaded in onResume() of the game manager
 
-                Card.load();
+                SaveFile file = SaveFile.read(gm);
 
-                for (Stack stack : stacks) {
-                    stack.load();
-                }
+                if (file == null) {
+                    //game saved by an older version, convert it on the next save
+                    recordList.load();
+                    Card.load();
+
+                    for (Stack stack : stacks) {
+                        stack.load();
+                    }
+
+                    loadRandomCards();
+                    loadedOldSaveData = true;
+                } else {
+                    loadRandomCards(file);
+                    Card.load(file);
 
-                loadRandomCards();
+                    if (file.readInt() != stacks.length) {
+                        throw new IOException("Wrong number of stacks in save file");
+                    }
+
+                    for (Stack stack : stacks) {
+                        stack.load(file);
+                    }
+
+                    recordList.load(file);
+                }
 
                 checkForAutoCompleteButton();
+                checkIfSolvable();
 
                 //deal the cards again in case the app got killed while trying  before
                 if (prefs.isDealingCards()){
-                    handlerDealCards.sendEmptyMessage(0);
+                    gamePipeline.add(handlerDealCards);
                 }
             }
         } catch (Exception e) {
@@ -149,6 +202,9 @@ public class GameLogic {
             showToast(gm.getString(R.string.game_load_error),gm);
             newGame();
         }
+
+        //also after a restart of the app, the pool could have been used up before
+        refillWinnableDeals();
     }
 
     public void checkForAutoCompleteButton(){
@@ -163,11 +219,106 @@ public class GameLogic {
     public void newGame() {
         System.arraycopy(cards, 0, randomCards, 0, cards.length);
 
+        //if enabled, the game searches a winnable deal and calls newWinnableGame() afterwards
+        if (prefs.getSavedWinnableDealsOnly() && currentGame.dealWinnableGame()) {
+            return;
+        }
+
         randomize(randomCards);
 
         redeal();
     }
 
+    /**
+     * Deals a winnable game from the deal pool of the current game. If the pool is empty, the
+     * background search is told to start the game with the next deal it finds. Either way, the
+     * search keeps running afterwards to refill the pool.
+     *
+     * @param solver The solver of the current game, used if a new search has to be started
+     */
+    public void searchWinnableDeal(Solver solver) {
+        String settings = solver.getSettings();
+        int[] order = winnableDealPool.take(settings);
+
+        if (winnableDealSearch == null || !winnableDealSearch.isRunning(settings)) {
+            startWinnableDealSearch(solver);
+        }
+
+        if (order != null) {
+            newWinnableGame(order);
+        } else {
+            winnableDealSearch.waitForDeal();
+        }
+    }
+
+    /**
+     * Starts refilling the deal pool of the current game in the background, if the player only
+     * wants winnable deals. Called when a game is loaded and when the game manager resumes, so
+     * the pool doesn't stay empty until the next new game.
+     */
+    public void refillWinnableDeals() {
+        if (prefs.getSavedWinnableDealsOnly()) {
+            currentGame.refillWinnableDeals();
+        }
+    }
+
+    /**
+     * Starts the background search for the deal pool, unless the pool is already full, the last
+     * refill found nothing a short time ago, or a search with the same settings is running.
+     *
+     * @param solver The solver of the current game
+     */
+    public void refillWinnableDealPool(Solver solver) {
+        String settings = solver.getSettings();
+
+        if (!winnableDealPool.needsRefill(settings)
+                || (winnableDealSearch != null && winnableDealSearch.isRunning(settings))) {
+            return;
+        }
+
+        startWinnableDealSearch(solver);
+    }
+
+    private void startWinnableDealSearch(Solver solver) {
+        if (winnableDealSearch != null) {
+            winnableDealSearch.stop();
+        }
+
+        //don't use the serial executor, it would block the background music
+        winnableDealSearch = new WinnableDealSearch(solver, winnableDealPool);
+        winnableDealSearch.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    /**
+     * Stops refilling the deal pool, for example when the game gets paused. A search a new game
+     * is waiting for keeps running.
+     */
+    public void stopWinnableDealSearch() {
+        if (winnableDealSearch != null && !winnableDealSearch.isWaiting()) {
+            winnableDealSearch.stop();
+            winnableDealSearch = null;
+        }
+    }
+
+    /**
+     * Deals the cards in the order found by the winnable deal search or taken from the pool.
+     *
+     * @param order The card ids in the order for the deal stack, or null if no winnable deal was
+     *              found in time. Then random cards will be dealt
+     */
+    public void newWinnableGame(int[] order) {
+        if (order == null) {
+            showToast(gm.getString(R.string.game_no_winnable_deal_found), gm);
+            randomize(randomCards);
+        } else {
+            for (int i = 0; i < order.length; i++) {
+                randomCards[i] = cards[order[i]];
+            }
+        }
+
+        redeal();
+    }
+
     /**
      * starts a new game, but with the same deal.
      */
@@ -181,6 +332,7 @@ public class GameLogic {
 
         currentGame.reset(gm);
         animate.reset();
+        gamePipeline.clear();
         scores.reset();
         movingCards.reset();
         recordList.reset();
@@ -216,7 +368,7 @@ public class GameLogic {
         prefs.setDealingCards(true);
 
         //and finally deal the cards from the game!
-        handlerDealCards.sendEmptyMessage(0);
+        gamePipeline.add(handlerDealCards);
     }
 
     /**
@@ -236,6 +388,41 @@ public class GameLogic {
             won = true;
             currentGame.onGameEnd();
         }
+
+        checkIfSolvable();
+    }
+
+    /**
+     * Starts a background check if the current game can still be won, if the player enabled
+     * the indicator and the game supports it. A running check is stopped before.
+     */
+    public void checkIfSolvable() {
+        stopSolvableCheck();
+
+        Solver solver = null;
+
+        if (!won && prefs.getSavedShowSolvableIndicator() && currentGame.hasSolvableIndicator()) {
+            solver = currentGame.createSolver();
+        }
+
+        if (solver == null) {
+            gm.hideSolvableIndicator();
+            return;
+        }
+
+        //only the remaining recycles can be used in the current game
+        solver.setMaxRecycles(currentGame.hasLimitedRecycles() ? currentGame.getRemainingNumberOfRecycles() : -1);
+
+        gm.showSolvableIndicator(null, -1);
+        solvableCheck = new SolvableCheck(gm, solver);
+        solvableCheck.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+    }
+
+    public void stopSolvableCheck() {
+        if (solvableCheck != null) {
+            solvableCheck.stop();
+            solvableCheck = null;
+        }
     }
 
     /**
@@ -244,36 +431,16 @@ public class GameLogic {
      * @param array The array to randomize
      */
     private void randomize(Card[] array) {
-        int index;
-        Card dummy;
-        Random random = getPrng();
-
-        int counter;
-
-        //swap first card outside the loop
-        index = random.nextInt(array.length);
-        dummy = array[array.length-1];
-        array[array.length-1] = array[index];
-        array[index] = dummy;
+        int[] cardIDs = new int[array.length];
 
-        for (int i = array.length - 2; i > 0; i--) {
-            if (prefs.getSavedUseTrueRandomisation()){
-                index = random.nextInt(i+1);
-            } else {
-                //choose a new card as long the chosen card is too similar to the previous card in the array
-                //(same value or color) also limit the loop to max 10 iterations to avoid infinite loops
-                counter = 0;
+        for (int i = 0; i < array.length; i++) {
+            cardIDs[i] = array[i].getId();
+        }
 
-                do {
-                    index = random.nextInt(i + 1);
-                    counter++;
-                }
-                while ((array[index].getValue() == array[i + 1].getValue() || array[index].getColor() == array[i + 1].getColor()) && counter < 10);
-            }
+        CardShuffler.randomize(cardIDs, currentGame.getBoard(), getPrng(), prefs.getSavedUseTrueRandomisation());
 
-            dummy = array[i];
-            array[i] = array[index];
-            array[index] = dummy;
+        for (int i = 0; i < array.length; i++) {
+            array[i] = cards[cardIDs[i]];
         }
     }
 
@@ -288,6 +455,7 @@ public class GameLogic {
             }
         }
 
+        gm.updateStackGrid();
         gm.updateLimitedRecyclesCounter();
         currentGame.mirrorTextViews(gm.layoutGame);
 
@@ -333,13 +501,20 @@ public class GameLogic {
         prefs.saveNumberOfPlayedGames(0);
     }
 
-    private void saveRandomCards() {
-        ArrayList<Integer> list = new ArrayList<>();
+    private void saveRandomCards(SaveFile file) {
+        file.writeInt(randomCards.length);
 
         for (Card card : randomCards)
-            list.add(card.getId());
+            file.writeInt(card.getId());
+    }
 
-        prefs.saveRandomCards(list);
+    private void loadRandomCards(SaveFile file) throws IOException {
+        if (file.readInt() != randomCards.length) {
+            throw new IOException("Wrong number of cards in save file");
+        }
+
+        for (int i = 0; i < randomCards.length; i++)
+            randomCards[i] = cards[file.readInt()];
     }
 
     private void loadRandomCards() {
@@ -363,11 +538,17 @@ public class GameLogic {
 
     /**
      * Tests if movements shouldn't be allowed. For example. If a hint is currently shown, don't
-     * accept input, or otherwise something will go wrong
+     * accept input, or otherwise something will go wrong. Also while a new game waits for a
+     * winnable deal, the old cards will be dealt again in a moment
      *
      * @return True if no movement is allowed, false otherwise
      */
     public boolean stopConditions() {
-        return (autoComplete.isRunning() || animate.cardIsAnimating() || hint.isWorking() || recordList.isWorking() || autoMove.isRunning());
+        return (autoComplete.isRunning() || animate.cardIsAnimating() || hint.isWorking() || recordList.isWorking() || autoMove.isRunning()
+                || isWaitingForWinnableDeal());
+    }
+
+    private boolean isWaitingForWinnableDeal() {
+        return winnableDealSearch != null && winnableDealSearch.isWaiting();
     }
 }
\ No newline at end of file
@@ -42,12 +42,21 @@ public class Hint {
     private int counter = 0;                                                                        //counter to know how many hints were shown
     private Card[] visited = new Card[MAX_NUMBER_OF_HINTS];                                         //array for already shown cards in hint
 
+    private Runnable startHints = new Runnable() {
+        @Override
+        public void run() {
+            handlerHint.sendEmptyMessage(0);
+        }
+    };
+
     public Hint(GameManager gm){
         handlerHint = new HandlerHint(gm);
     }
 
     public void showHint() {
-        handlerHint.sendEmptyMessage(0);
+        if (!currentGame.prepareHints(startHints)) {
+            handlerHint.sendEmptyMessage(0);
+        }
     }
 
     /**
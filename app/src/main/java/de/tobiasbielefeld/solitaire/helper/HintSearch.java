@@ -0,0 +1,118 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import android.os.AsyncTask;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.games.Game;
+import de.tobiasbielefeld.solitaire.solver.Solver;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Ranks the moves for the hints of a game with its solver on a worker thread. The board is copied
+ * when the search starts, the result is only used until the board changes. Games keep one
+ * instance, call prepare() in prepareHints() and use getMoves() in rankedHintTest(). The moves
+ * can contain dealing or recycling, so they must not be used in hintTest().
+ *
+ * @param <S> The solver class of the game
+ */
+
+public abstract class HintSearch<S extends Solver> {
+
+    private Search search;
+    private int[] moves;
+    private int modification = -1;
+
+    /**
+     * Creates the solver for a new search, gets called on the main thread, so the preferences of
+     * the current game can be used.
+     */
+    protected abstract S createSolver();
+
+    /**
+     * Runs the solver on the copy of the board, gets called on a worker thread.
+     *
+     * @return The moves in the encoding of the solver, the best one first
+     */
+    protected abstract int[] rankMoves(S solver, Board board);
+
+    /**
+     * Starts a new search, if there is no result for the current board yet.
+     *
+     * @param onReady Gets called on the main thread when the search is done
+     * @return True if onReady will be called, false if getMoves() can be used immediately
+     */
+    public boolean prepare(Runnable onReady) {
+        if (getMoves() != null) {
+            return false;
+        }
+
+        //a running search will call onReady when it's done
+        if (search == null) {
+            search = new Search(onReady);
+            search.executeOnExecutor(AsyncTask.THREAD_POOL_EXECUTOR);
+        }
+
+        return true;
+    }
+
+    /**
+     * @return The ranked moves, or null if there is no result for the current board
+     */
+    public int[] getMoves() {
+        return modification == currentGame.getBoard().getModificationCount() ? moves : null;
+    }
+
+    private class Search extends AsyncTask<Void, Void, int[]> {
+
+        private Runnable onReady;
+        private Game game = currentGame;
+        private Board board = new Board(currentGame.getBoard());
+        private int boardModification = currentGame.getBoard().getModificationCount();
+        private S solver = createSolver();
+
+        Search(Runnable onReady) {
+            this.onReady = onReady;
+        }
+
+        @Override
+        protected int[] doInBackground(Void... params) {
+            return rankMoves(solver, board);
+        }
+
+        @Override
+        protected void onPostExecute(int[] result) {
+            search = null;
+
+            //the player could have left the game in the meantime
+            if (currentGame != game) {
+                return;
+            }
+
+            if (boardModification == game.getBoard().getModificationCount()) {
+                moves = result;
+                modification = boardModification;
+            }
+
+            onReady.run();
+        }
+    }
+}
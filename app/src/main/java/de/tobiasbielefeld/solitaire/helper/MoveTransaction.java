@@ -0,0 +1,159 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import java.util.ArrayList;
+
+import de.tobiasbielefeld.solitaire.classes.Card;
+import de.tobiasbielefeld.solitaire.classes.Stack;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Collects the card movements of moveToStack() calls, so many of them (eg. while dealing cards)
+ * only need one layout. The cards change their stacks immediately, so the games can still look
+ * at the stacks between the calls. Only updating the spacings and bringing the cards to the front
+ * waits until the transaction is committed, then it runs once per touched stack.
+ * <p>
+ * Every moveToStack() call opens its own transaction, so single calls behave like before. Use
+ * begin() and commit() around a loop of calls to combine them. Transactions can be nested, only
+ * the outermost commit() updates the views. Normal movements (option 0) inside of one transaction
+ * are saved as one entry in the record list.
+ * <p>
+ * Every nesting level also has its own card and stack list, which moveToStack() uses instead of
+ * creating new lists. A moveToStack() call inside of another one uses the lists of a deeper
+ * level, so it can't overwrite the lists of the outer call.
+ */
+
+public class MoveTransaction {
+
+    private int depth;
+    private boolean recorded;                                                                       //if there is already a record entry of this transaction
+    private boolean[] touched = new boolean[0];
+    private ArrayList<Stack> touchedStacks = new ArrayList<>();
+    private ArrayList<Card> movedCards = new ArrayList<>();
+    private ArrayList<ArrayList<Card>> cardBuffers = new ArrayList<>();                             //one list per nesting level
+    private ArrayList<ArrayList<Stack>> stackBuffers = new ArrayList<>();
+
+    /**
+     * Starts a transaction, or nests into an already running one.
+     */
+    public void begin() {
+        depth++;
+    }
+
+    /**
+     * Ends the transaction. If it is the outermost one, update the spacing of every touched stack
+     * and bring the moved cards to the front, in the order they were moved.
+     */
+    public void commit() {
+        if (depth == 0) {
+            return;
+        }
+
+        if (depth <= cardBuffers.size()) {
+            cardBuffers.get(depth - 1).clear();
+            stackBuffers.get(depth - 1).clear();
+        }
+
+        if (--depth > 0) {
+            return;
+        }
+
+        for (int i = 0; i < touchedStacks.size(); i++) {
+            Stack stack = touchedStacks.get(i);
+            touched[stack.getId()] = false;
+            stack.updateSpacing();
+        }
+
+        for (int i = 0; i < movedCards.size(); i++) {
+            movedCards.get(i).view.bringToFront();
+        }
+
+        touchedStacks.clear();
+        movedCards.clear();
+        recorded = false;
+    }
+
+    /**
+     * Marks a stack to update its spacing at the end of the transaction.
+     *
+     * @param stack The stack to update
+     */
+    public void touch(Stack stack) {
+        if (touched.length != stacks.length) {
+            touched = new boolean[stacks.length];
+        }
+
+        if (!touched[stack.getId()]) {
+            touched[stack.getId()] = true;
+            touchedStacks.add(stack);
+        }
+    }
+
+    /**
+     * Adds a card which will be brought to the front at the end of the transaction.
+     *
+     * @param card The moved card
+     */
+    public void addMovedCard(Card card) {
+        movedCards.add(card);
+    }
+
+    /**
+     * Returns the card list of the current nesting level. It is empty when the level begins and
+     * gets cleared when it is committed. Only call it between begin() and commit().
+     *
+     * @return The card list
+     */
+    public ArrayList<Card> getCardBuffer() {
+        createBuffers();
+        return cardBuffers.get(depth - 1);
+    }
+
+    /**
+     * Returns the stack list of the current nesting level. It is empty when the level begins and
+     * gets cleared when it is committed. Only call it between begin() and commit().
+     *
+     * @return The stack list
+     */
+    public ArrayList<Stack> getStackBuffer() {
+        createBuffers();
+        return stackBuffers.get(depth - 1);
+    }
+
+    private void createBuffers() {
+        while (cardBuffers.size() < depth) {
+            cardBuffers.add(new ArrayList<Card>());
+            stackBuffers.add(new ArrayList<Stack>());
+        }
+    }
+
+    /**
+     * Tells if there is already a record list entry of this transaction. The first call returns
+     * false, every further call true, until the transaction is committed.
+     *
+     * @return True if the movement should be added to the last entry
+     */
+    public boolean testAndSetRecorded() {
+        boolean result = recorded;
+        recorded = true;
+        return result;
+    }
+}
@@ -69,9 +69,9 @@ public class MovingCards {
      * @param Y Y-coordinate of the destination
      */
     public void move(float X, float Y) {
-        for (Card card : currentCards) {
-            card.setLocationWithoutMovement(X - offsetX, (Y - offsetY)
-                    + currentCards.indexOf(card) * Stack.defaultSpacing / 2);
+        for (int i = 0; i < currentCards.size(); i++) {                                             //no iterator, this runs on every touch event
+            currentCards.get(i).setLocationWithoutMovement(X - offsetX, (Y - offsetY)
+                    + i * Stack.defaultSpacing / 2);
         }
     }
 
@@ -120,8 +120,8 @@ public class MovingCards {
      * return the cards to the old location, in case the movement to the new stack isn't working
      */
     public void returnToPos() {
-        for (Card card : currentCards)
-            card.returnToOldLocation();
+        for (int i = 0; i < currentCards.size(); i++)
+            currentCards.get(i).returnToOldLocation();
 
         currentCards.clear();
     }
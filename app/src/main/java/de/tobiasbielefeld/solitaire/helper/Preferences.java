@@ -54,6 +54,11 @@ public class Preferences {
     public static String PREF_KEY_GAME_NUMBER_OF_WON_GAMES;
     public static String PREF_KEY_GAME_NUMBER_OF_PLAYED_GAMES;
     public static String PREF_KEY_GAME_RANDOM_CARDS;
+    public static String PREF_KEY_GAME_WINNABLE_DEAL;
+    public static String PREF_KEY_GAME_WINNABLE_DEALS_SIZE;
+    public static String PREF_KEY_GAME_WINNABLE_DEALS_SETTINGS;
+    public static String PREF_KEY_GAME_WINNABLE_DEALS_FAILED_REFILLS;
+    public static String PREF_KEY_GAME_WINNABLE_DEALS_NEXT_REFILL;
     public static String PREF_KEY_GAME_FIRST_RUN;
     public static String PREF_KEY_GAME_MOVED_FIRST_CARD;
     public static String PREF_KEY_RECORD_LIST_ENTRY;
@@ -137,6 +142,8 @@ public class Preferences {
     public static String PREF_KEY_DEVELOPER_OPTION_PLAY_EVERY_CARD;
     public static String PREF_KEY_DEVELOPER_OPTION_INSTANT_WIN;
     public static String PREF_KEY_USE_TRUE_RANDOMISATION;
+    public static String PREF_KEY_WINNABLE_DEALS_ONLY;
+    public static String PREF_KEY_SHOW_SOLVABLE_INDICATOR;
     public static String PREF_KEY_DEVELOPER_OPTION_NO_SAVING;
     public static String PREF_KEY_DEVELOPER_OPTION_DEAL_CORRECT_SEQUENCES;
     public static String PREF_KEY_MAX_NUMBER_UNDOS;
@@ -219,6 +226,8 @@ public class Preferences {
     public static boolean DEFAULT_DEVELOPER_OPTION_INSTANT_WIN;
     public static boolean DEFAULT_DEVELOPER_OPTION_NO_SAVING;
     public static boolean DEFAULT_USE_TRUE_RANDOMISATION;
+    public static boolean DEFAULT_WINNABLE_DEALS_ONLY;
+    public static boolean DEFAULT_SHOW_SOLVABLE_INDICATOR;
 
     public Preferences(Context context){
         loadStrings(context.getResources());
@@ -321,6 +330,8 @@ public class Preferences {
         PREF_KEY_SINGLE_TAP_ALL_GAMES = res.getString(R.string.pref_key_single_tap_all_games);
         PREF_KEY_CANFIELD_SIZE_OF_RESERVE = res.getString(R.string.pref_key_canfield_size_of_reserve);
         PREF_KEY_USE_TRUE_RANDOMISATION = res.getString(R.string.pref_key_use_true_randomisation);
+        PREF_KEY_WINNABLE_DEALS_ONLY = res.getString(R.string.pref_key_winnable_deals_only);
+        PREF_KEY_SHOW_SOLVABLE_INDICATOR = res.getString(R.string.pref_key_show_solvable_indicator);
         PREF_KEY_MAX_NUMBER_UNDOS = res.getString(R.string.pref_key_max_number_undos);
         PREF_KEY_TOTAL_TIME_PLAYED = res.getString(R.string.pref_key_total_time_played);
         PREF_KEY_TOTAL_NUMBER_UNDOS = res.getString(R.string.pref_key_total_number_undos);
@@ -337,6 +348,11 @@ public class Preferences {
         PREF_KEY_GAME_NUMBER_OF_WON_GAMES = res.getString(R.string.game_number_of_won_games);
         PREF_KEY_GAME_NUMBER_OF_PLAYED_GAMES = res.getString(R.string.game_number_of_played_games);
         PREF_KEY_GAME_RANDOM_CARDS = res.getString(R.string.game_random_cards);
+        PREF_KEY_GAME_WINNABLE_DEAL = res.getString(R.string.game_winnable_deal);
+        PREF_KEY_GAME_WINNABLE_DEALS_SIZE = res.getString(R.string.game_winnable_deals_size);
+        PREF_KEY_GAME_WINNABLE_DEALS_SETTINGS = res.getString(R.string.game_winnable_deals_settings);
+        PREF_KEY_GAME_WINNABLE_DEALS_FAILED_REFILLS = res.getString(R.string.game_winnable_deals_failed_refills);
+        PREF_KEY_GAME_WINNABLE_DEALS_NEXT_REFILL = res.getString(R.string.game_winnable_deals_next_refill);
         PREF_KEY_GAME_FIRST_RUN = res.getString(R.string.game_first_run);
         PREF_KEY_GAME_MOVED_FIRST_CARD = res.getString(R.string.game_moved_first_card);
         PREF_KEY_GAME_LAYOUT_MARGINS_PORTRAIT = res.getString(R.string.pref_key_game_layout_margins_portrait);
@@ -415,6 +431,8 @@ public class Preferences {
         DEFAULT_DEVELOPER_OPTION_INSTANT_WIN = res.getBoolean(R.bool.default_developer_option_instant_win);
         DEFAULT_DEVELOPER_OPTION_DEAL_CORRECT_SEQUENCES = res.getString(R.string.default_developer_option_deal_correct_sequences);
         DEFAULT_USE_TRUE_RANDOMISATION = res.getBoolean(R.bool.default_use_true_randomisation);
+        DEFAULT_WINNABLE_DEALS_ONLY = res.getBoolean(R.bool.default_winnable_deals_only);
+        DEFAULT_SHOW_SOLVABLE_INDICATOR = res.getBoolean(R.bool.default_show_solvable_indicator);
         DEFAULT_CARD_BACKGROUND = res.getInteger(R.integer.default_card_background);
         DEFAULT_GAME_LAYOUT_MARGINS_PORTRAIT = res.getInteger(R.integer.default_game_layout_margins_portrait);
         DEFAULT_GAME_LAYOUT_MARGINS_LANDSCAPE = res.getInteger(R.integer.default_game_layout_margins_landscape);
@@ -674,6 +692,22 @@ public class Preferences {
         return savedGameData.getInt(PREF_KEY_RECORD_LIST_ENTRIES_SIZE, -1);
     }
 
+    public int getSavedWinnableDealsSize(){
+        return savedGameData.getInt(PREF_KEY_GAME_WINNABLE_DEALS_SIZE, 0);
+    }
+
+    public String getSavedWinnableDealsSettings(){
+        return savedGameData.getString(PREF_KEY_GAME_WINNABLE_DEALS_SETTINGS, "");
+    }
+
+    public int getSavedWinnableDealsFailedRefills(){
+        return savedGameData.getInt(PREF_KEY_GAME_WINNABLE_DEALS_FAILED_REFILLS, 0);
+    }
+
+    public long getSavedWinnableDealsNextRefill(){
+        return savedGameData.getLong(PREF_KEY_GAME_WINNABLE_DEALS_NEXT_REFILL, 0);
+    }
+
     public int getSavedFlipCardId(String pos){
         return savedGameData.getInt(PREF_KEY_RECORD_LIST_ENTRY + pos + PREF_KEY_FLIP_CARD, -1);
     }
@@ -731,6 +765,10 @@ public class Preferences {
         return getIntList(PREF_KEY_GAME_RANDOM_CARDS);
     }
 
+    public ArrayList<Integer> getSavedWinnableDeal(int pos){
+        return getIntList(PREF_KEY_GAME_WINNABLE_DEAL + pos);
+    }
+
     public ArrayList<Integer> getSavedRecordListCards(String pos){
         return getIntList(PREF_KEY_RECORD_LIST_ENTRY + pos + PREF_KEY_CARD);
     }
@@ -849,8 +887,20 @@ public class Preferences {
         savedGameData.edit().putInt(PREF_KEY_GAME_NUMBER_OF_PLAYED_GAMES,value).apply();
     }
 
-    public void saveRecordListEntriesSize(int value){
-        savedGameData.edit().putInt(PREF_KEY_RECORD_LIST_ENTRIES_SIZE,value).apply();
+    public void saveWinnableDealsSize(int value){
+        savedGameData.edit().putInt(PREF_KEY_GAME_WINNABLE_DEALS_SIZE,value).apply();
+    }
+
+    public void saveWinnableDealsSettings(String value){
+        savedGameData.edit().putString(PREF_KEY_GAME_WINNABLE_DEALS_SETTINGS,value).apply();
+    }
+
+    public void saveWinnableDealsFailedRefills(int value){
+        savedGameData.edit().putInt(PREF_KEY_GAME_WINNABLE_DEALS_FAILED_REFILLS,value).apply();
+    }
+
+    public void saveWinnableDealsNextRefill(long value){
+        savedGameData.edit().putLong(PREF_KEY_GAME_WINNABLE_DEALS_NEXT_REFILL,value).apply();
     }
 
     public void saveFirstRun(boolean value){
@@ -873,32 +923,37 @@ public class Preferences {
         savedGameData.edit().putBoolean(PREF_KEY_GAME_MOVED_FIRST_CARD,value).apply();
     }
 
-    public void saveCards(List<Integer> list){
-        putIntList(PREF_KEY_CARDS,list);
+    public void saveWinnableDeal(ArrayList<Integer> list, int pos){
+        putIntList(PREF_KEY_GAME_WINNABLE_DEAL + pos,list);
     }
 
-    public void saveStacks(ArrayList<Integer> list, int id){
-        putIntList(PREF_KEY_STACK + id,list);
-    }
-
-    public void saveRandomCards(ArrayList<Integer> list){
-        putIntList(PREF_KEY_GAME_RANDOM_CARDS,list);
-    }
+    /**
+     * Removes the lists of cards, stacks and undo records which older versions saved for the
+     * current game. They were replaced by the SaveFile.
+     *
+     * @param numberOfStacks The number of stacks of the current game
+     */
+    public void deleteOldSaveData(int numberOfStacks){
+        SharedPreferences.Editor editor = savedGameData.edit();
+        int entries = getSavedRecordListEntriesSize();
 
-    public void saveRecordListCards(ArrayList<Integer> list, String pos){
-        putIntList(PREF_KEY_RECORD_LIST_ENTRY + pos + PREF_KEY_CARD,list);
-    }
+        for (int i = 0; i < entries; i++) {
+            String pos = PREF_KEY_RECORD_LIST_ENTRY + i;
 
-    public void saveRecordListOrigins(ArrayList<Integer> list, String pos){
-        putIntList(PREF_KEY_RECORD_LIST_ENTRY + pos + PREF_KEY_ORIGIN,list);
-    }
+            editor.remove(pos + PREF_KEY_CARD);
+            editor.remove(pos + PREF_KEY_ORIGIN);
+            editor.remove(pos + PREF_KEY_ORDER);
+            editor.remove(pos + PREF_KEY_FLIP_CARD);
+        }
 
-    public void saveRecordListOrders(ArrayList<Integer> list, String pos){
-        putIntList(PREF_KEY_RECORD_LIST_ENTRY + pos + PREF_KEY_ORDER,list);
-    }
+        for (int i = 0; i < numberOfStacks; i++) {
+            editor.remove(PREF_KEY_STACK + i);
+        }
 
-    public void saveRecordListFlipCards(ArrayList<Integer> list, String pos){
-        putIntList(PREF_KEY_RECORD_LIST_ENTRY + pos + PREF_KEY_FLIP_CARD,list);
+        editor.remove(PREF_KEY_RECORD_LIST_ENTRIES_SIZE);
+        editor.remove(PREF_KEY_CARDS);
+        editor.remove(PREF_KEY_GAME_RANDOM_CARDS);
+        editor.apply();
     }
 
     /* getters for shared data */
@@ -1167,6 +1222,14 @@ public class Preferences {
         return savedSharedData.getBoolean(PREF_KEY_USE_TRUE_RANDOMISATION, DEFAULT_USE_TRUE_RANDOMISATION);
     }
 
+    public boolean getSavedWinnableDealsOnly(){
+        return savedSharedData.getBoolean(PREF_KEY_WINNABLE_DEALS_ONLY, DEFAULT_WINNABLE_DEALS_ONLY);
+    }
+
+    public boolean getSavedShowSolvableIndicator(){
+        return savedSharedData.getBoolean(PREF_KEY_SHOW_SOLVABLE_INDICATOR, DEFAULT_SHOW_SOLVABLE_INDICATOR);
+    }
+
     public boolean getShowDialogNewGame(){
         return savedSharedData.getBoolean(PREF_KEY_SHOW_DIALOG_NEW_GAME, DEFAULT_SHOW_DIALOG_NEW_GAME);
     }
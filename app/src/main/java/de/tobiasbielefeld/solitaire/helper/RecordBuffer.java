@@ -0,0 +1,353 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+/**
+ * Storage of the undo records, without any Android classes, so it can also be used in the
+ * benchmarks. The entries are stored in a ring buffer with room for a fixed number of entries, so
+ * the oldest one can be dropped without moving the others. The cards of all entries are stored
+ * in a second ring buffer of "slots" (parallel arrays for card id, origin id, move order and a
+ * flip bit), every entry uses a continuous range of it. So recording and undoing doesn't create
+ * any objects.
+ * <p>
+ * Entries are addressed by their index, 0 is the oldest one. Undone entries aren't deleted, they
+ * follow directly after the other entries and can be redone, until a new entry is started.
+ */
+
+public class RecordBuffer {
+
+    //ring buffer of the entries, they contain the position of their first slot and the slot count
+    private int[] entryStarts;
+    private int[] entrySizes;
+    private int firstEntry = 0;
+    private int numberOfEntries = 0;
+    private int numberOfRedoEntries = 0;                                                            //undone entries, they follow the last entry
+
+    //ring buffer of the slots, the length is always a power of two
+    private int[] slotCards = new int[256];
+    private byte[] slotOrigins = new byte[256];
+    private int[] slotOrders = new int[256];
+    private boolean[] slotFlips = new boolean[256];                                                 //true: the card gets flipped on undo instead of moved
+    private byte[] slotDestinations = new byte[256];                                                //set on undo, where the card gets moved on redo
+    private int firstSlot = 0;
+    private int numberOfSlots = 0;
+    private int numberOfRedoSlots = 0;
+
+    private int removedEntries = 0;                                                                 //since the last call of resetRemovedEntries()
+
+    /**
+     * @param capacity How many entries can be stored, at least 1
+     */
+    public RecordBuffer(int capacity) {
+        entryStarts = new int[capacity];
+        entrySizes = new int[capacity];
+    }
+
+    /**
+     * Changes how many entries can be stored. The undone entries are deleted, and if there are
+     * too many entries for the new capacity, the oldest ones.
+     *
+     * @param capacity The new capacity, at least 1
+     * @return The number of deleted entries, including the undone ones
+     */
+    public int setCapacity(int capacity) {
+        if (capacity == entryStarts.length) {
+            return 0;
+        }
+
+        int deleted = numberOfRedoEntries;
+        clearRedo();
+
+        while (numberOfEntries > capacity) {
+            removeFirstEntry();
+            deleted++;
+        }
+
+        int[] newStarts = new int[capacity];
+        int[] newSizes = new int[capacity];
+
+        for (int i = 0; i < numberOfEntries; i++) {
+            int entry = getEntry(i);
+            newStarts[i] = entryStarts[entry];
+            newSizes[i] = entrySizes[entry];
+        }
+
+        entryStarts = newStarts;
+        entrySizes = newSizes;
+        firstEntry = 0;
+
+        return deleted;
+    }
+
+    /**
+     * Starts a new empty entry at the end. The undone entries are deleted, and if the capacity is
+     * reached, the oldest entry.
+     */
+    public void startEntry() {
+        clearRedo();
+
+        if (numberOfEntries == entryStarts.length) {
+            removeFirstEntry();
+        }
+
+        int entry = getEntry(numberOfEntries);
+        entryStarts[entry] = (firstSlot + numberOfSlots) & (slotCards.length - 1);
+        entrySizes[entry] = 0;
+        numberOfEntries++;
+    }
+
+    /**
+     * Adds a card to the last entry.
+     *
+     * @param cardID  The id of the card
+     * @param stackID The id of the origin stack, not used for flip cards
+     * @param order   The move order of the card, lower orders are moved back first
+     * @param flip    True if the card gets flipped instead of moved
+     */
+    public void addSlot(int cardID, int stackID, int order, boolean flip) {
+        if (numberOfSlots == slotCards.length) {
+            growSlots();
+        }
+
+        int slot = (firstSlot + numberOfSlots) & (slotCards.length - 1);
+        slotCards[slot] = cardID;
+        slotOrigins[slot] = (byte) stackID;
+        slotOrders[slot] = order;
+        slotFlips[slot] = flip;
+
+        numberOfSlots++;
+        entrySizes[getEntry(numberOfEntries - 1)]++;
+    }
+
+    /**
+     * Gets called before cards are added in front of the last entry: The move order of every
+     * current card will be increased by 1, so the new cards with order 0 will be moved first.
+     * If there is no entry, a new one is started.
+     */
+    public void prepareAddingInFront() {
+        clearRedo();
+
+        if (numberOfEntries == 0) {
+            startEntry();
+            return;
+        }
+
+        int entry = getEntry(numberOfEntries - 1);
+
+        for (int i = 0; i < entrySizes[entry]; i++) {
+            slotOrders[getSlot(entry, i)]++;
+        }
+    }
+
+    public void removeLastEntry() {
+        numberOfSlots -= entrySizes[getEntry(numberOfEntries - 1)];
+        numberOfEntries--;
+        removedEntries++;
+    }
+
+    /**
+     * Moves the last entry behind the boundary to the undone entries, after it was undone.
+     */
+    public void moveLastEntryToRedo() {
+        int entry = getEntry(numberOfEntries - 1);
+        numberOfSlots -= entrySizes[entry];
+        numberOfEntries--;
+        numberOfRedoSlots += entrySizes[entry];
+        numberOfRedoEntries++;
+        removedEntries++;
+    }
+
+    /**
+     * Moves the first undone entry back to the entries, after it was redone.
+     */
+    public void moveRedoEntryBack() {
+        int entry = getEntry(numberOfEntries);
+        numberOfRedoSlots -= entrySizes[entry];
+        numberOfRedoEntries--;
+        numberOfSlots += entrySizes[entry];
+        numberOfEntries++;
+        removedEntries++;
+    }
+
+    /**
+     * Deletes the undone entries, because a new movement makes them invalid.
+     */
+    public void clearRedo() {
+        removedEntries += numberOfRedoEntries;
+        numberOfRedoEntries = 0;
+        numberOfRedoSlots = 0;
+    }
+
+    public void clear() {
+        firstEntry = 0;
+        numberOfEntries = 0;
+        numberOfRedoEntries = 0;
+        firstSlot = 0;
+        numberOfSlots = 0;
+        numberOfRedoSlots = 0;
+        removedEntries = 0;
+    }
+
+    /**
+     * Returns the lowest move order of the cards of an entry, which is higher than the given one.
+     *
+     * @param index      The index of the entry
+     * @param movedOrder Cards with this move order or lower were already moved back, use -1 at first
+     * @return The move order, or -1 if every card was moved back
+     */
+    public int getNextMoveOrder(int index, int movedOrder) {
+        int entry = getEntry(index);
+        int minMoveOrder = -1;
+
+        for (int i = 0; i < entrySizes[entry]; i++) {
+            int slot = getSlot(entry, i);
+
+            if (!slotFlips[slot] && slotOrders[slot] > movedOrder
+                    && (minMoveOrder == -1 || slotOrders[slot] < minMoveOrder)) {
+                minMoveOrder = slotOrders[slot];
+            }
+        }
+
+        return minMoveOrder;
+    }
+
+    /**
+     * Returns the highest move order of the cards of an entry, which is lower than the given one.
+     *
+     * @param index      The index of the entry
+     * @param movedOrder Cards with this move order or higher were already moved again, use
+     *                   Integer.MAX_VALUE at first
+     * @return The move order, or -1 if every card was moved
+     */
+    public int getNextRedoOrder(int index, int movedOrder) {
+        int entry = getEntry(index);
+        int maxMoveOrder = -1;
+
+        for (int i = 0; i < entrySizes[entry]; i++) {
+            int slot = getSlot(entry, i);
+
+            if (!slotFlips[slot] && slotOrders[slot] < movedOrder && slotOrders[slot] > maxMoveOrder) {
+                maxMoveOrder = slotOrders[slot];
+            }
+        }
+
+        return maxMoveOrder;
+    }
+
+    public int getNumberOfEntries() {
+        return numberOfEntries;
+    }
+
+    public int getNumberOfRedoEntries() {
+        return numberOfRedoEntries;
+    }
+
+    /**
+     * @return How many entries were deleted or moved between the entries and the undone entries,
+     * since the last call of resetRemovedEntries()
+     */
+    public int getRemovedEntries() {
+        return removedEntries;
+    }
+
+    public void resetRemovedEntries() {
+        removedEntries = 0;
+    }
+
+    public int getSize(int index) {
+        return entrySizes[getEntry(index)];
+    }
+
+    public int getCard(int index, int position) {
+        return slotCards[getSlot(getEntry(index), position)];
+    }
+
+    public int getOrigin(int index, int position) {
+        return slotOrigins[getSlot(getEntry(index), position)];
+    }
+
+    public int getOrder(int index, int position) {
+        return slotOrders[getSlot(getEntry(index), position)];
+    }
+
+    public boolean isFlip(int index, int position) {
+        return slotFlips[getSlot(getEntry(index), position)];
+    }
+
+    public int getDestination(int index, int position) {
+        return slotDestinations[getSlot(getEntry(index), position)];
+    }
+
+    public void setDestination(int index, int position, int stackID) {
+        slotDestinations[getSlot(getEntry(index), position)] = (byte) stackID;
+    }
+
+    private void removeFirstEntry() {
+        firstSlot = (firstSlot + entrySizes[firstEntry]) & (slotCards.length - 1);
+        numberOfSlots -= entrySizes[firstEntry];
+        firstEntry = (firstEntry + 1) % entryStarts.length;
+        numberOfEntries--;
+        removedEntries++;
+    }
+
+    /**
+     * Doubles the size of the slot ring buffer. The slots are copied in order, so the first slot
+     * is at position 0 afterwards.
+     */
+    private void growSlots() {
+        int length = slotCards.length;
+        int[] newCards = new int[length * 2];
+        byte[] newOrigins = new byte[length * 2];
+        int[] newOrders = new int[length * 2];
+        boolean[] newFlips = new boolean[length * 2];
+        byte[] newDestinations = new byte[length * 2];
+
+        for (int i = 0; i < numberOfSlots + numberOfRedoSlots; i++) {
+            int slot = (firstSlot + i) & (length - 1);
+            newCards[i] = slotCards[slot];
+            newOrigins[i] = slotOrigins[slot];
+            newOrders[i] = slotOrders[slot];
+            newFlips[i] = slotFlips[slot];
+            newDestinations[i] = slotDestinations[slot];
+        }
+
+        int start = 0;
+
+        for (int i = 0; i < numberOfEntries + numberOfRedoEntries; i++) {
+            int entry = getEntry(i);
+            entryStarts[entry] = start;
+            start += entrySizes[entry];
+        }
+
+        slotCards = newCards;
+        slotOrigins = newOrigins;
+        slotOrders = newOrders;
+        slotFlips = newFlips;
+        slotDestinations = newDestinations;
+        firstSlot = 0;
+    }
+
+    private int getEntry(int index) {
+        return (firstEntry + index) % entryStarts.length;
+    }
+
+    private int getSlot(int entry, int position) {
+        return (entryStarts[entry] + position) & (slotCards.length - 1);
+    }
+}
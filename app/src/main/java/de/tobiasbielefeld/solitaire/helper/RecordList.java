@@ -18,6 +18,9 @@
 
 package de.tobiasbielefeld.solitaire.helper;
 
+import android.content.Context;
+
+import java.io.IOException;
 import java.util.ArrayList;
 
 import de.tobiasbielefeld.solitaire.classes.Card;
@@ -27,19 +30,44 @@ import de.tobiasbielefeld.solitaire.ui.GameManager;
 import static de.tobiasbielefeld.solitaire.SharedData.*;
 
 /**
- * Manages the records, so the player can undo movements. for that it has an entry subclass
- * which has a variable amount of cards, so multiple cards can be undo at once
+ * Manages the records, so the player can undo movements. Every entry has a variable amount of
+ * cards, so multiple cards can be undo at once.
+ * The entries are stored in a RecordBuffer with room for maxRecords entries, so recording and
+ * undoing doesn't create any objects.
+ * Every change is also appended to the undo journal, so saving the game doesn't need to write
+ * every entry again.
+ * Undone entries aren't deleted, they stay in the ring buffers directly after the other entries
+ * and can be redone, until a new movement is recorded.
  */
 
 public class RecordList {
 
+    //record types of the undo journal
+    private static final int JOURNAL_ENTRY = 1, JOURNAL_ADD_IN_FRONT = 2, JOURNAL_FLIP = 3, JOURNAL_REMOVE_LAST = 4,
+            JOURNAL_UNDO = 5, JOURNAL_REDO = 6;
+
     public static int maxRecords;
-    private ArrayList<Entry> entries = new ArrayList<>();
 
+    private RecordBuffer buffer;
+
+    //state of the running undo or redo movement
     private boolean isWorking = false;
+    private boolean isRedoing = false;
+    private GameManager gm;
+    private boolean alreadyDecremented = false;
+    private boolean alreadyIncremented = false;
+    private int undoneOrder = -1;                                                                   //cards with this move order or lower were already moved back
+    private int redoneOrder = Integer.MAX_VALUE;                                                    //cards with this move order or higher were already moved again
+    private ArrayList<Card> undoCards = new ArrayList<>();
+    private ArrayList<Stack> undoOrigins = new ArrayList<>();
+
+    private UndoJournal journal = new UndoJournal();
+    private SaveFile record = new SaveFile(64);                                                     //reused for every journal record
+    private boolean replaying = false;                                                              //true while loading the journal, so nothing is appended
 
     public void reset() {                                                                                  //delete the content on reset
-        entries.clear();
+        buffer.clear();
+        compactJournal();
     }
 
 
@@ -54,11 +82,13 @@ public class RecordList {
      * @param cards The card list to add
      */
     public void add(ArrayList<Card> cards) {
-        if (entries.size() >= maxRecords) {
-            entries.remove(0);
+        buffer.startEntry();
+
+        for (int i = 0; i < cards.size(); i++) {
+            buffer.addSlot(cards.get(i).getId(), cards.get(i).getStackId(), 0, false);
         }
 
-        entries.add(new Entry(cards));
+        appendLastEntry();
     }
 
     /**
@@ -69,11 +99,13 @@ public class RecordList {
      * @param origin Other stack as origin, where the cards can be returned to
      */
     public void add(ArrayList<Card> cards, Stack origin) {
-        if (entries.size() >= maxRecords) {
-            entries.remove(0);
+        buffer.startEntry();
+
+        for (int i = 0; i < cards.size(); i++) {
+            buffer.addSlot(cards.get(i).getId(), origin.getId(), 0, false);
         }
 
-        entries.add(new Entry(cards, origin));
+        appendLastEntry();
     }
 
 
@@ -86,11 +118,13 @@ public class RecordList {
      * @param origins Other stacks as origin, where the cards can be returned to
      */
     public void add(ArrayList<Card> cards, ArrayList<Stack> origins) {
-        if (entries.size() >= maxRecords) {
-            entries.remove(0);
+        buffer.startEntry();
+
+        for (int i = 0; i < cards.size(); i++) {
+            buffer.addSlot(cards.get(i).getId(), origins.get(i).getId(), 0, false);
         }
 
-        entries.add(new Entry(cards, origins));
+        appendLastEntry();
     }
 
     /**
@@ -101,10 +135,23 @@ public class RecordList {
      * @param origins Origin stacks of these cards
      */
     public void addToLastEntry(ArrayList<Card> cards, ArrayList<Stack> origins) {
-        if (entries.size() == 0) {
-            entries.add(new Entry(cards, origins));
-        } else {
-            entries.get(entries.size() - 1).addInFront(cards, origins);
+        buffer.prepareAddingInFront();
+
+        for (int i = 0; i < cards.size(); i++) {
+            buffer.addSlot(cards.get(i).getId(), origins.get(i).getId(), 0, false);
+        }
+
+        if (!replaying) {
+            record.clear();
+            record.writeByte(JOURNAL_ADD_IN_FRONT);
+            record.writeInt(cards.size());
+
+            for (int i = 0; i < cards.size(); i++) {
+                record.writeInt(cards.get(i).getId());
+                record.writeByte(origins.get(i).getId());
+            }
+
+            journal.append(record);
         }
     }
 
@@ -116,13 +163,17 @@ public class RecordList {
      * @param origin Origin stack of these cards
      */
     public void addToLastEntry(Card card, Stack origin) {
-        ArrayList<Card> cards = new ArrayList<>();
-        ArrayList<Stack> origins = new ArrayList<>();
-
-        cards.add(card);
-        origins.add(origin);
-
-        addToLastEntry(cards,origins);
+        buffer.prepareAddingInFront();
+        buffer.addSlot(card.getId(), origin.getId(), 0, false);
+
+        if (!replaying) {
+            record.clear();
+            record.writeByte(JOURNAL_ADD_IN_FRONT);
+            record.writeInt(1);
+            record.writeInt(card.getId());
+            record.writeByte(origin.getId());
+            journal.append(record);
+        }
     }
 
     /**
@@ -130,7 +181,7 @@ public class RecordList {
      * from the current score
      */
     public void undo(GameManager gm) {
-        if (!entries.isEmpty()) {
+        if (buffer.getNumberOfEntries() > 0 && !isWorking) {
             isWorking = true;
             sounds.playSound(Sounds.names.CARD_RETURN);
 
@@ -138,19 +189,129 @@ public class RecordList {
                 scores.update(-currentGame.getUndoCosts());
             }
 
-            entries.get(entries.size() - 1).undo(gm);
+            this.gm = gm;
+            alreadyDecremented = false;
+            undoneOrder = -1;
+
+            int entry = buffer.getNumberOfEntries() - 1;
+
+            for (int i = 0; i < buffer.getSize(entry); i++) {
+                if (buffer.isFlip(entry, i)) {
+                    cards[buffer.getCard(entry, i)].flipWithAnim();
+                }
+            }
+
+            handlerRecordListUndo.sendEmptyMessageDelayed(0,0);
 
             int amount = prefs.getSavedTotalNumberUndos() + 1;
             prefs.saveTotalNumberUndos(amount);
         }
     }
 
+    /**
+     * This contains the actual card movements. It will undo the movements of the cards
+     * with the lowest move order, which weren't moved back yet.
+     *
+     * This method is called from a handler. With each call, the next order will be used, until
+     * all cards are back. So the movements are tiered.
+     */
     public void undoMore() {
-        if (!entries.isEmpty()) {
-            entries.get(entries.size() - 1).undoMore();
+        if (buffer.getNumberOfEntries() == 0) {
+            return;
+        }
+
+        int entry = buffer.getNumberOfEntries() - 1;
+
+        //Check if the movement resulted in a increment of the redeal counter, if so, revert it
+        if (currentGame.hasLimitedRecycles() && !alreadyDecremented) {
+            for (int i = 0; i < buffer.getSize(entry); i++) {
+                if (!buffer.isFlip(entry, i) && cards[buffer.getCard(entry, i)].getStack() == currentGame.getDealStack()
+                        && currentGame.discardStacksContain(buffer.getOrigin(entry, i))) {
+                    currentGame.decrementRecycleCounter(gm);
+                    alreadyDecremented = true;
+                    break;
+                }
+            }
+        }
+
+        int minMoveOrder = buffer.getNextMoveOrder(entry, undoneOrder);
+
+        undoCards.clear();
+        undoOrigins.clear();
+
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (!buffer.isFlip(entry, i) && buffer.getOrder(entry, i) == minMoveOrder) {
+                Card card = cards[buffer.getCard(entry, i)];
+
+                buffer.setDestination(entry, i, card.getStackId());
+                undoCards.add(card);
+                undoOrigins.add(stacks[buffer.getOrigin(entry, i)]);
+            }
+        }
+
+        moveToStack(undoCards, undoOrigins, OPTION_UNDO);
+        undoneOrder = minMoveOrder;
+    }
+
+    /**
+     * Repeats the last undone record. The cards are moved back to the stacks they were on before
+     * the undo, without testing the game rules again.
+     */
+    public void redo(GameManager gm) {
+        if (buffer.getNumberOfRedoEntries() > 0 && !isWorking) {
+            isWorking = true;
+            isRedoing = true;
+            sounds.playSound(Sounds.names.CARD_SET);
+
+            this.gm = gm;
+            alreadyIncremented = false;
+            redoneOrder = Integer.MAX_VALUE;
+
+            handlerRecordListRedo.sendEmptyMessageDelayed(0,0);
         }
     }
 
+    /**
+     * This contains the actual card movements of a redo. It moves the cards with the highest
+     * move order, which weren't moved yet, so the movements are repeated in the original order.
+     *
+     * This method is called from a handler, like undoMore().
+     */
+    public void redoMore() {
+        if (buffer.getNumberOfRedoEntries() == 0) {
+            return;
+        }
+
+        int entry = buffer.getNumberOfEntries();
+
+        //Check if the movement was a redeal, if so, increment the redeal counter again
+        if (currentGame.hasLimitedRecycles() && !alreadyIncremented) {
+            for (int i = 0; i < buffer.getSize(entry); i++) {
+                if (!buffer.isFlip(entry, i) && buffer.getDestination(entry, i) == currentGame.getDealStack().getId()
+                        && currentGame.discardStacksContain(buffer.getOrigin(entry, i))) {
+                    currentGame.incrementRecycleCounter(gm);
+                    alreadyIncremented = true;
+                    break;
+                }
+            }
+        }
+
+        int maxMoveOrder = buffer.getNextRedoOrder(entry, redoneOrder);
+
+        undoCards.clear();
+        undoOrigins.clear();
+
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (!buffer.isFlip(entry, i) && buffer.getOrder(entry, i) == maxMoveOrder) {
+                undoCards.add(cards[buffer.getCard(entry, i)]);
+                undoOrigins.add(stacks[buffer.getDestination(entry, i)]);
+            }
+        }
+
+        moveToStack(undoCards, undoOrigins, OPTION_REDO);
+        redoneOrder = maxMoveOrder;
+    }
+
     /**
      * a flip card will be added to the last entry.
      * so it can be flipped down in a undo
@@ -159,48 +320,129 @@ public class RecordList {
      */
     public void addFlip(Card card) {
 
-        if (entries.size() > 0)
-            entries.get(entries.size() - 1).addFlip(card);
+        if (buffer.getNumberOfEntries() > 0 && !isRedoing) {                                        //flips of a redo are already in the entry
+            buffer.clearRedo();
+            buffer.addSlot(card.getId(), 0, 0, true);
+
+            if (!replaying) {
+                record.clear();
+                record.writeByte(JOURNAL_FLIP);
+                record.writeInt(card.getId());
+                journal.append(record);
+            }
+        }
+    }
+
+    /**
+     * Uses the undo journal of the current game, call it before loading or resetting the records.
+     */
+    public void openJournal(Context context) {
+        journal.open(context);
+    }
+
+    /**
+     * Saves the position of the undo journal in the save file. The entries itself are already in
+     * the journal.
+     */
+    public void save(SaveFile file) {
+        if (journal.hasFailed()) {
+            compactJournal();
+        }
+
+        file.writeInt(journal.getGeneration());
+        file.writeInt(journal.getLength());
     }
 
     /**
-     * Saves every entry
+     * load the saved entries: Replays the undo journal up to the position stored in the save
+     * file. Files of version 1 contain the entries itself, they are moved to the journal.
      */
-    public void save() {
-        prefs.saveRecordListEntriesSize(entries.size());
+    public void load(SaveFile file) throws IOException {
+        buffer.clear();
+
+        if (file.getVersion() < 2) {
+            int size = file.readInt();
+
+            for (int i = 0; i < size; i++) {
+                readEntry(file);
+            }
+
+            compactJournal();
+            return;
+        }
+
+        int generation = file.readInt();
+        int length = file.readInt();
+        SaveFile records = journal.read(generation, length);
 
-        for (int i = 0; i < entries.size(); i++) {
-            entries.get(i).save(Integer.toString(i));
+        if (records != null) {
+            replaying = true;
+
+            try {
+                replayJournal(records);
+            } finally {
+                replaying = false;
+            }
+        }
+
+        //remove records which were appended after the game was saved
+        if (records == null || journal.getLength() != length) {
+            compactJournal();
         }
     }
 
     /**
-     * load the saved entries. Calling the Entry constructor with a string will load
-     * its content from the shared Pref
+     * load the entries saved in the shared Pref by older versions. Only used to convert old games.
      */
     public void load() {
-        reset();
+        buffer.clear();
 
         for (int i = 0; i < prefs.getSavedRecordListEntriesSize(); i++) {
-            entries.add(new Entry(Integer.toString(i)));
+            String pos = Integer.toString(i);
+            ArrayList<Integer> cardList = prefs.getSavedRecordListCards(pos);
+            ArrayList<Integer> originList = prefs.getSavedRecordListOrigins(pos);
+            ArrayList<Integer> orderList = prefs.getSavedRecordListOrders(pos);
+
+            buffer.startEntry();
+
+            for (int j = 0; j < cardList.size(); j++) {
+                buffer.addSlot(cardList.get(j), originList.get(j), orderList.size() > j ? orderList.get(j) : 0, false);
+            }
+
+            //compatibility to older way of saving: changed from one possible flip card to multiple
+            try { //new way
+                ArrayList<Integer> flipCardList = prefs.getSavedRecordListFlipCards(pos);
+
+                for (Integer id : flipCardList) {
+                    buffer.addSlot(id, 0, 0, true);
+                }
+            } catch (Exception e) { //old way
+                int flipCardID = prefs.getSavedFlipCardId(pos);
+
+                if (flipCardID > 0)
+                    buffer.addSlot(flipCardID, 0, 0, true);
+            }
         }
+
+        compactJournal();
     }
 
     public void deleteLast() {
-        if (entries.size() > 0) {
-            entries.remove(entries.size() - 1);
+        if (buffer.getNumberOfEntries() > 0) {
+            buffer.clearRedo();
+            removeLastEntry();
         }
     }
 
     public boolean hasMoreToUndo(){
-        if (entries.isEmpty()){
+        if (buffer.getNumberOfEntries() == 0){
             return false;
         }
 
-        if (entries.get(entries.size()-1).hasMoreToDo()){
+        if (buffer.getNextMoveOrder(buffer.getNumberOfEntries() - 1, undoneOrder) >= 0){
             return true;
         } else {
-            entries.remove(entries.size() - 1);
+            moveLastEntryToRedo();
             isWorking = false;
 
             //check if the undo movement makes autocomplete undoable
@@ -213,229 +455,263 @@ public class RecordList {
         }
     }
 
-    public boolean isWorking(){
-        return isWorking;
-    }
-
-    private class Entry {
-        private ArrayList<Integer> moveOrder = new ArrayList<>();
-        private ArrayList<Card> currentCards = new ArrayList<>();
-        private ArrayList<Stack> currentOrigins = new ArrayList<>();
-        private ArrayList<Card> flipCards = new ArrayList<>();
-
-        private GameManager gm;
-        private boolean alreadyDecremented = false;
-
-        /**
-         * This constructor is used to load saved entries.
-         *
-         * @param pos The index of the saved entry to load
-         */
-        Entry(String pos) {
-            ArrayList<Integer> cardList = prefs.getSavedRecordListCards(pos);
-            ArrayList<Integer> originList = prefs.getSavedRecordListOrigins(pos);
-            ArrayList<Integer> orderList = prefs.getSavedRecordListOrders(pos);
+    public boolean hasMoreToRedo(){
+        if (buffer.getNumberOfRedoEntries() == 0){
+            return false;
+        }
 
-            for (int i = 0; i < cardList.size(); i++) {
-                currentCards.add(cards[cardList.get(i)]);
-                currentOrigins.add(stacks[originList.get(i)]);
+        int entry = buffer.getNumberOfEntries();
 
-                if (orderList.size()>i){
-                    moveOrder.add(orderList.get(i));
-                } else {
-                    moveOrder.add(0);
+        if (buffer.getNextRedoOrder(entry, redoneOrder) >= 0){
+            return true;
+        } else {
+            for (int i = 0; i < buffer.getSize(entry); i++) {
+                if (buffer.isFlip(entry, i)) {
+                    cards[buffer.getCard(entry, i)].flipWithAnim();
                 }
             }
 
-            //compatibility to older way of saving: changed from one possible flip card to multiple
-            try { //new way
-                ArrayList<Integer> flipCardList = prefs.getSavedRecordListFlipCards(pos);
-
-                for (Integer i : flipCardList) {
-                    flipCards.add(cards[i]);
-                }
-            } catch (Exception e) { //old way
-                int flipCardID = prefs.getSavedFlipCardId(pos);
+            moveRedoEntryBack();
+            isWorking = false;
+            isRedoing = false;
 
-                if (flipCardID > 0)
-                    addFlip(cards[flipCardID]);
-            }
+            gameLogic.checkForAutoCompleteButton();
+            currentGame.afterUndo();
+            gamePipeline.add(handlerTestIfWon);
+            return false;
         }
+    }
+
+    public boolean isWorking(){
+        return isWorking;
+    }
+
+    public void setMaxRecords(){
+        maxRecords = prefs.getSavedMaxNumberUndos();
+
+        int capacity = max(maxRecords, 1);
 
-        /**
-         * Create a new entry with the given cards. Origins will be the current card positions
-         *
-         * @param cards The cards to add
-         */
-        Entry(ArrayList<Card> cards) {
-            currentCards.addAll(cards);
+        if (buffer == null) {
+            buffer = new RecordBuffer(capacity);
+        } else if (buffer.setCapacity(capacity) > 0) {
+            compactJournal();
+        }
+    }
 
-            for (Card card : cards) {
-                currentOrigins.add(card.getStack());
-                moveOrder.add(0);
+    /**
+     * Appends the last entry to the journal. The journal gets compacted, once it contains more
+     * deleted entries than the maximum number of records.
+     */
+    private void appendLastEntry() {
+        if (!replaying) {
+            record.clear();
+            record.writeByte(JOURNAL_ENTRY);
+            writeEntry(record, buffer.getNumberOfEntries() - 1);
+            journal.append(record);
+
+            if (buffer.getRemovedEntries() > maxRecords) {
+                compactJournal();
             }
         }
+    }
 
-        /**
-         * Create a new entry with the given cards. Origin will be applied for all cards
-         *
-         * @param cards  The cards to add
-         * @param origin The origin of the cards
-         */
-        Entry(ArrayList<Card> cards, Stack origin) {
-            currentCards.addAll(cards);
+    /**
+     * Writes an entry in the save file or a journal record: the cards with their origin and move
+     * order, then the flip cards. readEntry() loads it again.
+     */
+    private void writeEntry(SaveFile file, int entry) {
+        int flipCount = 0;
 
-            for (int i = 0; i < currentCards.size(); i++) {
-                currentOrigins.add(origin);
-                moveOrder.add(0);
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (buffer.isFlip(entry, i)) {
+                flipCount++;
             }
         }
 
-        /**
-         * Create a new entry with the given cards and origins
-         *
-         * @param cards   The cards to add
-         * @param origins The orgins of the cards
-         */
-        Entry(ArrayList<Card> cards, ArrayList<Stack> origins) {
-            currentCards.addAll(cards);
-            currentOrigins.addAll(origins);
+        file.writeInt(buffer.getSize(entry) - flipCount);
 
-            for (int i = 0; i < currentCards.size(); i++) {
-                moveOrder.add(0);
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (!buffer.isFlip(entry, i)) {
+                file.writeInt(buffer.getCard(entry, i));
+                file.writeByte(buffer.getOrigin(entry, i));
+                file.writeInt(buffer.getOrder(entry, i));
             }
         }
 
-        /**
-         * Saves the current entry in the shared pref. It needs to save the IDS of the cards and the
-         * size of the array lists. Loading happens in one of the constructors
-         *
-         * @param pos The index of this entry in the array list
-         */
-        void save(String pos) {
-            ArrayList<Integer> listCards = new ArrayList<>();
-            ArrayList<Integer> listFlipCards = new ArrayList<>();
-            ArrayList<Integer> listOrigins = new ArrayList<>();
-
-            for (int i = 0; i < currentCards.size(); i++) {
-                listCards.add(currentCards.get(i).getId());
-                listOrigins.add(currentOrigins.get(i).getId());
+        file.writeInt(flipCount);
+
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (buffer.isFlip(entry, i)) {
+                file.writeInt(buffer.getCard(entry, i));
             }
+        }
+    }
 
-            prefs.saveRecordListCards(listCards,pos);
-            prefs.saveRecordListOrigins(listOrigins,pos);
-            prefs.saveRecordListOrders(moveOrder,pos);
+    /**
+     * Reads an entry written by writeEntry() and adds it at the end.
+     */
+    private void readEntry(SaveFile file) throws IOException {
+        buffer.startEntry();
 
-            for (Card card : flipCards) {
-                listFlipCards.add(card.getId());
-            }
+        int size = file.readInt();
 
-            prefs.saveRecordListFlipCards(listFlipCards,pos);
+        //getting the ids from the arrays makes sure a broken file can't add invalid ids
+        for (int i = 0; i < size; i++) {
+            int cardID = file.readInt();
+            int stackID = file.readByte();
+            buffer.addSlot(cards[cardID].getId(), stacks[stackID].getId(), file.readInt(), false);
         }
 
+        size = file.readInt();
 
-        /**
-         * Undos the latest entry.
-         */
-        void undo(GameManager gm) {
-            this.gm = gm;
-            alreadyDecremented = false;
+        for (int i = 0; i < size; i++) {
+            buffer.addSlot(cards[file.readInt()].getId(), 0, 0, true);
+        }
+    }
 
-            for (Card card : flipCards) {
-                card.flipWithAnim();
-            }
+    /**
+     * Writes the destinations of the moved cards of an undone entry, in the same order as the
+     * cards in writeEntry(). readDestinations() loads them again.
+     */
+    private void writeDestinations(SaveFile file, int entry) {
+        int size = 0;
 
-            handlerRecordListUndo.sendEmptyMessageDelayed(0,0);
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (!buffer.isFlip(entry, i)) {
+                size++;
+            }
         }
 
-        /**
-         * This contains the actual card movements. It will undo the movements of the cards
-         * with the lowest move order and remove them from the list.
-         *
-         * This method is called from a handler. With each call, the lowest order will be used, until
-         * all cards are away. So the movements are tiered.
-         */
-        void undoMore() {
-            //Check if the movement resulted in a increment of the redeal counter, if so, revert it
-            if (currentGame.hasLimitedRecycles() && !alreadyDecremented)  {
-                ArrayList<Stack> discardStacks = currentGame.getDiscardStacks();
-
-                for (int i=0;i<currentCards.size();i++){
-
-                    if (currentCards.get(i).getStack() == currentGame.getDealStack() && discardStacks.contains(currentOrigins.get(i))) {
-                        currentGame.decrementRecycleCounter(gm);
-                        alreadyDecremented = true;
-                        break;
-                    }
-                }
-            }
+        file.writeInt(size);
 
-            ArrayList<Card> cardsWorkCopy = new ArrayList<>();
-            ArrayList<Stack> originsWorkCopy = new ArrayList<>();
-            ArrayList<Integer> moveOrderWorkCopy = new ArrayList<>();
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (!buffer.isFlip(entry, i)) {
+                file.writeByte(buffer.getDestination(entry, i));
+            }
+        }
+    }
 
-            int minMoveOrder = min(moveOrder);
+    private void readDestinations(SaveFile file, int entry) throws IOException {
+        int size = file.readInt();
 
-            for (int i =0;i<currentCards.size();i++){
-                if (moveOrder.get(i) == minMoveOrder) {
-                    cardsWorkCopy.add(currentCards.get(i));
-                    originsWorkCopy.add(currentOrigins.get(i));
-                    moveOrderWorkCopy.add(moveOrder.get(i));
+        for (int i = 0; i < buffer.getSize(entry); i++) {
+            if (!buffer.isFlip(entry, i)) {
+                if (size-- == 0) {
+                    throw new IOException("Missing redo destinations");
                 }
+
+                buffer.setDestination(entry, i, stacks[file.readByte()].getId());
             }
+        }
+    }
+
+    /**
+     * Applies the records of the undo journal in the same way they were added.
+     *
+     * @param records The records to apply
+     * @throws IOException If a record is broken
+     */
+    private void replayJournal(SaveFile records) throws IOException {
+        while (records.hasMore()) {
+            switch (records.readByte()) {
+                case JOURNAL_ENTRY:
+                    readEntry(records);
+                    break;
+                case JOURNAL_ADD_IN_FRONT:
+                    buffer.prepareAddingInFront();
+
+                    int size = records.readInt();
+
+                    for (int i = 0; i < size; i++) {
+                        int cardID = records.readInt();
+                        int stackID = records.readByte();
+                        buffer.addSlot(cards[cardID].getId(), stacks[stackID].getId(), 0, false);
+                    }
+                    break;
+                case JOURNAL_FLIP:
+                    addFlip(cards[records.readInt()]);
+                    break;
+                case JOURNAL_REMOVE_LAST:
+                    deleteLast();
+                    break;
+                case JOURNAL_UNDO:
+                    if (buffer.getNumberOfEntries() == 0) {
+                        throw new IOException("Nothing to undo in undo journal");
+                    }
 
-            moveToStack(cardsWorkCopy,originsWorkCopy, OPTION_UNDO);
+                    readDestinations(records, buffer.getNumberOfEntries() - 1);
+                    moveLastEntryToRedo();
+                    break;
+                case JOURNAL_REDO:
+                    if (buffer.getNumberOfRedoEntries() == 0) {
+                        throw new IOException("Nothing to redo in undo journal");
+                    }
 
-            for (int i=0;i<cardsWorkCopy.size();i++){
-                currentCards.remove(cardsWorkCopy.get(i));
-                currentOrigins.remove(originsWorkCopy.get(i));
-                moveOrder.remove(moveOrderWorkCopy.get(i));
+                    moveRedoEntryBack();
+                    break;
+                default:
+                    throw new IOException("Unknown undo journal record");
             }
         }
+    }
 
-        /**
-         * Adds cards in front of this entry. The move order of every current card will be increased
-         * by 1 and the new cards get the order 0.
-         *
-         * @param cards  The cards to add
-         * @param stacks The origins of the cards to add
-         */
-        void addInFront(ArrayList<Card> cards, ArrayList<Stack> stacks) {
-            ArrayList<Card> tempCards = currentCards;
-            ArrayList<Stack> tempOrigins = currentOrigins;
-            ArrayList<Integer> tempMoveOrders = moveOrder;
-
-            currentCards = new ArrayList<>(cards);
-            currentOrigins = new ArrayList<>(stacks);
-            moveOrder = new ArrayList<>();
-
-            for (int i=0;i<currentCards.size();i++){
-                moveOrder.add(0);
-            }
+    /**
+     * Writes a new undo journal, which only contains the current entries. The undone entries are
+     * written as normal entries, followed by undo records to restore them, the last one first.
+     */
+    private void compactJournal() {
+        SaveFile records = new SaveFile(1024);
+        int numberOfEntries = buffer.getNumberOfEntries();
+        int numberOfRedoEntries = buffer.getNumberOfRedoEntries();
+
+        for (int i = 0; i < numberOfEntries + numberOfRedoEntries; i++) {
+            records.writeByte(JOURNAL_ENTRY);
+            writeEntry(records, i);
+        }
 
-            //Check for each card, if it is already in the entry
-            for (int i = 0; i < tempCards.size(); i++) {
-                currentCards.add(tempCards.get(i));
-                currentOrigins.add(tempOrigins.get(i));
-                moveOrder.add(tempMoveOrders.get(i)+1);                                         //increment the orders by one
-            }
+        for (int i = numberOfEntries + numberOfRedoEntries - 1; i >= numberOfEntries; i--) {
+            records.writeByte(JOURNAL_UNDO);
+            writeDestinations(records, i);
         }
 
+        journal.rewrite(records);
+        buffer.resetRemovedEntries();
+    }
+
+    private void removeLastEntry() {
+        buffer.removeLastEntry();
 
-        void addFlip(Card card) {                                                                   //add a card to flip
-            flipCards.add(card);
+        if (!replaying) {
+            record.clear();
+            record.writeByte(JOURNAL_REMOVE_LAST);
+            journal.append(record);
         }
+    }
 
-        boolean hasMoreToDo(){
-            return currentCards.size()!=0;
+    /**
+     * Moves the last entry behind the boundary to the undone entries, after it was undone.
+     */
+    private void moveLastEntryToRedo() {
+        buffer.moveLastEntryToRedo();
+
+        if (!replaying) {
+            record.clear();
+            record.writeByte(JOURNAL_UNDO);
+            writeDestinations(record, buffer.getNumberOfEntries());
+            journal.append(record);
         }
     }
 
-    public void setMaxRecords(){
-        maxRecords = prefs.getSavedMaxNumberUndos();
+    /**
+     * Moves the first undone entry back to the entries, after it was redone.
+     */
+    private void moveRedoEntryBack() {
+        buffer.moveRedoEntryBack();
 
-        while (entries.size() > maxRecords) {
-            entries.remove(0);
+        if (!replaying) {
+            record.clear();
+            record.writeByte(JOURNAL_REDO);
+            journal.append(record);
         }
     }
 }
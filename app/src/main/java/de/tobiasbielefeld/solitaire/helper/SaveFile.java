@@ -0,0 +1,230 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import android.content.Context;
+import android.support.v4.util.AtomicFile;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Binary snapshot of the card positions of a game: the deal, the card directions, the stacks and
+ * the position in the undo journal. It replaces the comma separated lists which were saved in
+ * the shared preferences before. Numbers are stored as varints (most card ids only need one byte) and the
+ * whole file is written in one pass and loaded with a single read.
+ *
+ * The file starts with a magic number and the format version. If the format changes, increment
+ * VERSION and use getVersion() while reading to convert older files.
+ *
+ * Version history:
+ * 1: undo records stored in this file
+ * 2: undo records moved to the UndoJournal, only its generation and length are stored here
+ */
+
+public class SaveFile {
+
+    private static final int MAGIC = 0x534f4c49;                                                    //"SOLI"
+    public static final int VERSION = 2;
+    private static final String FILE_ENDING = ".save";
+
+    private byte[] data;
+    private int size;                                                                               //number of used bytes
+    private int position = 0;                                                                       //current reading position
+    private int version = VERSION;
+
+    /**
+     * Creates an empty save file for writing.
+     */
+    public SaveFile() {
+        data = new byte[1024];
+        writeFixedInt(MAGIC);
+        writeByte(VERSION);
+    }
+
+    /**
+     * Creates an empty buffer without the file header, used for the records of the UndoJournal.
+     */
+    SaveFile(int capacity) {
+        data = new byte[capacity];
+    }
+
+    /**
+     * Creates a reader for data without the file header.
+     *
+     * @param data     The data to read
+     * @param position The position to start reading
+     * @param size     The number of bytes which can be read
+     */
+    SaveFile(byte[] data, int position, int size) {
+        this.data = data;
+        this.position = position;
+        this.size = size;
+    }
+
+    private SaveFile(byte[] data) throws IOException {
+        this.data = data;
+        size = data.length;
+
+        if (readFixedInt() != MAGIC) {
+            throw new IOException("Not a save file");
+        }
+
+        version = readByte();
+
+        if (version > VERSION) {
+            throw new IOException("Save file version " + version + " is too new");
+        }
+    }
+
+    /**
+     * Reads the save file of the current game.
+     *
+     * @param context Used to get the file directory
+     * @return The save file, or null if it doesn't exist yet
+     * @throws IOException If the file couldn't be read or isn't a valid save file
+     */
+    public static SaveFile read(Context context) throws IOException {
+        AtomicFile file = getFile(context);
+
+        try {
+            return new SaveFile(file.readFully());
+        } catch (FileNotFoundException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Writes the content to the save file of the current game. The old file is only replaced
+     * after everything was written, so a killed process can't leave a broken file.
+     *
+     * @param context Used to get the file directory
+     * @throws IOException If writing fails, the old file will be kept
+     */
+    public void write(Context context) throws IOException {
+        AtomicFile file = getFile(context);
+        FileOutputStream stream = file.startWrite();
+
+        try {
+            writeTo(stream);
+            file.finishWrite(stream);
+        } catch (IOException e) {
+            file.failWrite(stream);
+            throw e;
+        }
+    }
+
+    public int getVersion() {
+        return version;
+    }
+
+    boolean hasMore() {
+        return position < size;
+    }
+
+    int getSize() {
+        return size;
+    }
+
+    int getPosition() {
+        return position;
+    }
+
+    void clear() {
+        size = 0;
+        position = 0;
+    }
+
+    void writeTo(OutputStream stream) throws IOException {
+        stream.write(data, 0, size);
+    }
+
+    /**
+     * Writes a number as varint: 7 bits per byte, the highest bit shows if more bytes follow.
+     */
+    public void writeInt(int value) {
+        while ((value & ~0x7f) != 0) {
+            writeByte((value & 0x7f) | 0x80);
+            value >>>= 7;
+        }
+
+        writeByte(value);
+    }
+
+    public void writeByte(int value) {
+        if (size == data.length) {
+            byte[] newData = new byte[data.length * 2];
+            System.arraycopy(data, 0, newData, 0, size);
+            data = newData;
+        }
+
+        data[size++] = (byte) value;
+    }
+
+    /**
+     * Reads a number written by writeInt().
+     */
+    public int readInt() throws IOException {
+        int value = 0;
+
+        for (int shift = 0; shift < 35; shift += 7) {
+            int b = readByte();
+            value |= (b & 0x7f) << shift;
+
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+
+        throw new IOException("Malformed varint at byte " + position);
+    }
+
+    public int readByte() throws IOException {
+        if (position >= size) {
+            throw new IOException("Unexpected end of save file");
+        }
+
+        return data[position++] & 0xff;
+    }
+
+    void writeFixedInt(int value) {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            writeByte(value >>> shift);
+        }
+    }
+
+    int readFixedInt() throws IOException {
+        int value = 0;
+
+        for (int i = 0; i < 4; i++) {
+            value = (value << 8) | readByte();
+        }
+
+        return value;
+    }
+
+    private static AtomicFile getFile(Context context) {
+        return new AtomicFile(new File(context.getFilesDir(), lg.getSharedPrefName() + FILE_ENDING));
+    }
+}
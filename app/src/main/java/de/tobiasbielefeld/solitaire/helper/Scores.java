@@ -19,6 +19,7 @@
 package de.tobiasbielefeld.solitaire.helper;
 
 import java.util.ArrayList;
+import java.util.Arrays;
 
 import de.tobiasbielefeld.solitaire.R;
 import de.tobiasbielefeld.solitaire.classes.Card;
@@ -43,6 +44,13 @@ public class Scores {
     private long savedRecentScores[][] = new long[MAX_SAVED_SCORES][3];                                   //array to hold the saved scores with score and time
     private GameManager gm;
 
+    //reused for every movement, so moving cards doesn't create objects. The games use the length
+    //of the id arrays, so there is one pair of arrays for every number of moved cards
+    private ArrayList<Card> singleCard = new ArrayList<>();
+    private ArrayList<Stack> singleStack = new ArrayList<>();
+    private int[][] originBuffers = new int[0][];
+    private int[][] destinationBuffers = new int[0][];
+
     public Scores(GameManager gm) {
         this.gm = gm;
     }
@@ -55,12 +63,15 @@ public class Scores {
      * @param stack The destination of the movement
      */
     public void move(Card card, Stack stack) {
-        ArrayList<Card> cardArray = new ArrayList<>();
-        cardArray.add(card);
-        ArrayList<Stack> stackArray = new ArrayList<>();
-        stackArray.add(stack);
-
-        move(cardArray, stackArray);
+        singleCard.add(card);
+        singleStack.add(stack);
+
+        try {
+            move(singleCard, singleStack);
+        } finally {
+            singleCard.clear();
+            singleStack.clear();
+        }
     }
 
     /**
@@ -71,8 +82,8 @@ public class Scores {
      * @param stacks The destinations of the movement
      */
     public void move(ArrayList<Card> cards, ArrayList<Stack> stacks) {
-        int[] originIDs = new int[cards.size()];
-        int[] destinationIDs = new int[stacks.size()];
+        int[] originIDs = getOriginBuffer(cards.size());
+        int[] destinationIDs = getDestinationBuffer(stacks.size());
 
         for (int i = 0; i < originIDs.length; i++) {
             originIDs[i] = cards.get(i).getStackId();
@@ -92,12 +103,15 @@ public class Scores {
      * @param stack The destination of the movement
      */
     public void undo(Card card, Stack stack) {
-        ArrayList<Card> cardArray = new ArrayList<>();
-        cardArray.add(card);
-        ArrayList<Stack> stackArray = new ArrayList<>();
-        stackArray.add(stack);
-
-        undo(cardArray, stackArray);
+        singleCard.add(card);
+        singleStack.add(stack);
+
+        try {
+            undo(singleCard, singleStack);
+        } finally {
+            singleCard.clear();
+            singleStack.clear();
+        }
     }
 
     /**
@@ -108,8 +122,8 @@ public class Scores {
      * @param stacks The destinations of the movement
      */
     public void undo(ArrayList<Card> cards, ArrayList<Stack> stacks) {
-        int[] originIDs = new int[cards.size()];
-        int[] destinationIDs = new int[stacks.size()];
+        int[] originIDs = getOriginBuffer(cards.size());
+        int[] destinationIDs = getDestinationBuffer(stacks.size());
 
         for (int i = 0; i < originIDs.length; i++) {
             originIDs[i] = cards.get(i).getStackId();
@@ -121,6 +135,30 @@ public class Scores {
         update(points);
     }
 
+    private int[] getOriginBuffer(int length) {
+        if (originBuffers.length <= length) {
+            originBuffers = Arrays.copyOf(originBuffers, length + 1);
+        }
+
+        if (originBuffers[length] == null) {
+            originBuffers[length] = new int[length];
+        }
+
+        return originBuffers[length];
+    }
+
+    private int[] getDestinationBuffer(int length) {
+        if (destinationBuffers.length <= length) {
+            destinationBuffers = Arrays.copyOf(destinationBuffers, length + 1);
+        }
+
+        if (destinationBuffers[length] == null) {
+            destinationBuffers[length] = new int[length];
+        }
+
+        return destinationBuffers[length];
+    }
+
     /**
      * Updates the current score, but only if the game hasn't been won.
      *
@@ -0,0 +1,76 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import android.os.AsyncTask;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.games.Game;
+import de.tobiasbielefeld.solitaire.solver.Solver;
+import de.tobiasbielefeld.solitaire.ui.GameManager;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Tests in the background if the current game can still be won, the result is shown by
+ * gm.showSolvableIndicator(). The board is copied when the check starts, so the player can
+ * continue playing. A new move stops the old check and starts a new one.
+ */
+
+public class SolvableCheck extends AsyncTask<Void, Void, Solver.result> {
+
+    private static final long TIME_LIMIT = 2000;
+    private static final int MAX_NODES = 500000;
+
+    private Solver solver;
+    private Board board;
+    private Game game;
+    private GameManager gm;
+
+    public SolvableCheck(GameManager gm, Solver solver) {
+        this.gm = gm;
+        this.solver = solver;
+        board = new Board(currentGame.getBoard());
+        game = currentGame;
+
+        solver.setTimeLimit(TIME_LIMIT);
+        solver.setMaxNodes(MAX_NODES);
+    }
+
+    @Override
+    protected Solver.result doInBackground(Void... params) {
+        return solver.solve(board);
+    }
+
+    @Override
+    protected void onPostExecute(Solver.result result) {
+        //the player could have left the game in the meantime
+        if (currentGame == game) {
+            gm.showSolvableIndicator(result, solver.getBestScore());
+        }
+    }
+
+    /**
+     * Stops the check, without showing a result.
+     */
+    public void stop() {
+        cancel(false);
+        solver.cancel();
+    }
+}
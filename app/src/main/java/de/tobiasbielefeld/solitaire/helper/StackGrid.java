@@ -0,0 +1,165 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import android.graphics.RectF;
+
+import java.util.Arrays;
+
+import de.tobiasbielefeld.solitaire.classes.Card;
+import de.tobiasbielefeld.solitaire.classes.Stack;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Uniform grid over the game layout to find the stacks a card could be dropped on. Every cell has
+ * the size of a card and lists the stacks whose biggest possible rectangle (Stack.getMaxRect())
+ * touches it, so a released card only needs to be tested against the stacks of up to four cells.
+ * The lists are saved in two arrays: cellStart[i] is the position of the list of cell i in
+ * cellStacks, it ends at cellStart[i+1].
+ * <p>
+ * The grid only depends on the stack positions and spacing borders, so it has to be rebuilt after
+ * the layout was set up or the stacks got mirrored.
+ */
+
+public class StackGrid {
+
+    private float cellWidth = 1, cellHeight = 1;
+    private int columns, rows;
+    private int[] cellStart = new int[1];
+    private int[] cellStacks = new int[0];
+    private int[] visited = new int[0];                                                             //per stack, to test every stack only once per search
+    private int visitStamp;
+
+    private RectF cardRect = new RectF();
+    private RectF stackRect = new RectF();
+
+    /**
+     * Rebuilds the grid for the current stacks.
+     *
+     * @param width  The width of the game layout
+     * @param height The height of the game layout
+     */
+    public void rebuild(float width, float height) {
+        cellWidth = Card.width > 0 ? Card.width : max(width, 1);
+        cellHeight = Card.height > 0 ? Card.height : max(height, 1);
+        columns = max((int) Math.ceil(width / cellWidth), 1);
+        rows = max((int) Math.ceil(height / cellHeight), 1);
+
+        int numberOfCells = columns * rows;
+        int[] counts = new int[numberOfCells + 1];
+
+        //first count the stacks of every cell, then fill the lists
+        for (Stack stack : stacks) {
+            stack.getMaxRect(stackRect);
+
+            for (int y = getRow(stackRect.top); y <= getRow(stackRect.bottom); y++) {
+                for (int x = getColumn(stackRect.left); x <= getColumn(stackRect.right); x++) {
+                    counts[y * columns + x + 1]++;
+                }
+            }
+        }
+
+        for (int i = 0; i < numberOfCells; i++) {
+            counts[i + 1] += counts[i];
+        }
+
+        cellStart = counts.clone();
+        cellStacks = new int[counts[numberOfCells]];
+
+        for (Stack stack : stacks) {
+            stack.getMaxRect(stackRect);
+
+            for (int y = getRow(stackRect.top); y <= getRow(stackRect.bottom); y++) {
+                for (int x = getColumn(stackRect.left); x <= getColumn(stackRect.right); x++) {
+                    cellStacks[counts[y * columns + x]++] = stack.getId();
+                }
+            }
+        }
+
+        if (visited.length != stacks.length) {
+            visited = new int[stacks.length];
+            visitStamp = 0;
+        }
+    }
+
+    /**
+     * Gets the stack where the card overlaps most and where the card could be placed. If several
+     * stacks have the same overlap, the one with the lowest id is used.
+     *
+     * @param card The card to test
+     * @return The found stack, or null if there is none
+     */
+    public Stack getIntersectingStack(Card card) {
+        cardRect.set(card.getX(), card.getY(), card.getX() + card.view.getWidth(), card.getY() + card.view.getHeight());
+
+        Stack returnStack = null;
+        float overlapArea = 0;
+
+        if (++visitStamp == Integer.MAX_VALUE) {
+            visitStamp = 1;
+            Arrays.fill(visited, 0);
+        }
+
+        for (int y = getRow(cardRect.top); y <= getRow(cardRect.bottom); y++) {
+            for (int x = getColumn(cardRect.left); x <= getColumn(cardRect.right); x++) {
+                int cell = y * columns + x;
+
+                for (int i = cellStart[cell]; i < cellStart[cell + 1]; i++) {
+                    int id = cellStacks[i];
+
+                    if (visited[id] == visitStamp) {
+                        continue;
+                    }
+
+                    visited[id] = visitStamp;
+                    Stack stack = stacks[id];
+
+                    if (card.getStack() == stack) {
+                        continue;
+                    }
+
+                    stack.getRect(stackRect);
+
+                    if (RectF.intersects(cardRect, stackRect)) {
+                        float overlapX = max(0, min(cardRect.right, stackRect.right) - max(cardRect.left, stackRect.left));
+                        float overlapY = max(0, min(cardRect.bottom, stackRect.bottom) - max(cardRect.top, stackRect.top));
+                        float area = overlapX * overlapY;
+
+                        if ((area > overlapArea || (area == overlapArea && returnStack != null && id < returnStack.getId()))
+                                && card.test(stack)) {
+                            overlapArea = area;
+                            returnStack = stack;
+                        }
+                    }
+                }
+            }
+        }
+
+        return returnStack;
+    }
+
+    private int getColumn(float x) {
+        return min(max((int) (x / cellWidth), 0), columns - 1);
+    }
+
+    private int getRow(float y) {
+        return min(max((int) (y / cellHeight), 0), rows - 1);
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import android.content.Context;
+import android.support.v4.util.AtomicFile;
+import android.util.Log;
+
+import java.io.File;
+import java.io.FileNotFoundException;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Append-only file for the undo records of the current game. Every change of the record list is
+ * appended as a small record, so saving a game doesn't need to write the whole list again. The
+ * save file stores the generation and length of the journal when it was written. On loading, only
+ * the records up to that length are used, so the undo records always fit to the saved cards, even
+ * if the app got killed after more records were appended.
+ *
+ * Rewriting the journal (on a new game or when too many records aren't needed anymore) starts a
+ * new generation.
+ */
+
+class UndoJournal {
+
+    private static final int MAGIC = 0x554e444f;                                                    //"UNDO"
+    private static final int VERSION = 1;
+    private static final String FILE_ENDING = ".undo";
+
+    private AtomicFile file;
+    private FileOutputStream stream;
+    private int generation = 0;
+    private int length = 0;                                                                         //the number of bytes in the file
+    private boolean failed = false;
+
+    /**
+     * Uses the journal file of the current game. Call read() or rewrite() before appending.
+     * The generation of an existing file is read, so a rewrite never reuses it.
+     */
+    void open(Context context) {
+        close();
+        file = new AtomicFile(new File(context.getFilesDir(), lg.getSharedPrefName() + FILE_ENDING));
+        generation = 0;
+        length = 0;
+        failed = false;
+
+        read(-1, 0);                                                                                //only reads the generation
+    }
+
+    /**
+     * Reads the records of the journal.
+     *
+     * @param generation The generation stored in the save file
+     * @param length     The length of the journal stored in the save file
+     * @return A reader for the records up to the given length, or null if the journal doesn't
+     * fit to the save file. In that case, rewrite() has to be called before appending
+     */
+    SaveFile read(int generation, int length) {
+        if (file == null) {
+            return null;
+        }
+
+        close();
+
+        try {
+            byte[] data = file.readFully();
+            SaveFile header = new SaveFile(data, 0, data.length);
+
+            if (header.readFixedInt() != MAGIC || header.readByte() > VERSION) {
+                return null;
+            }
+
+            this.generation = header.readInt();
+            this.length = data.length;
+            int headerLength = header.getPosition();
+
+            if (this.generation != generation || data.length < length || length < headerLength) {
+                return null;
+            }
+
+            return new SaveFile(data, headerLength, length);
+        } catch (FileNotFoundException e) {
+            return null;
+        } catch (IOException e) {
+            Log.e("UndoJournal.read()", e.toString());
+            return null;
+        }
+    }
+
+    /**
+     * Appends a record at the end of the journal.
+     */
+    void append(SaveFile record) {
+        if (file == null || failed) {
+            return;
+        }
+
+        try {
+            if (stream == null) {
+                stream = new FileOutputStream(file.getBaseFile(), true);
+            }
+
+            record.writeTo(stream);
+            length += record.getSize();
+        } catch (IOException e) {
+            Log.e("UndoJournal.append()", e.toString());
+            failed = true;
+        }
+    }
+
+    /**
+     * Replaces the journal with a new generation, which only contains the given records.
+     *
+     * @param records The records of the new journal, can be empty
+     */
+    void rewrite(SaveFile records) {
+        if (file == null) {
+            return;
+        }
+
+        close();
+
+        SaveFile content = new SaveFile(records.getSize() + 16);
+        content.writeFixedInt(MAGIC);
+        content.writeByte(VERSION);
+        content.writeInt(generation + 1);
+
+        FileOutputStream output = null;
+
+        try {
+            output = file.startWrite();
+            content.writeTo(output);
+            records.writeTo(output);
+            file.finishWrite(output);
+
+            generation++;
+            length = content.getSize() + records.getSize();
+            failed = false;
+        } catch (IOException e) {
+            Log.e("UndoJournal.rewrite()", e.toString());
+            file.failWrite(output);
+            failed = true;
+        }
+    }
+
+    /**
+     * @return True if appending failed, so the journal has to be rewritten to be usable again
+     */
+    boolean hasFailed() {
+        return failed;
+    }
+
+    int getGeneration() {
+        return generation;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    private void close() {
+        if (stream != null) {
+            try {
+                stream.close();
+            } catch (IOException e) {
+                Log.e("UndoJournal.close()", e.toString());
+            }
+
+            stream = null;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import java.util.ArrayList;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Stores a few winnable deals of the current game in its shared preferences, so new games can
+ * be dealt without waiting for the solver. Every deal is saved as the card order of the deal
+ * stack, like the random cards in the SaveFile. The pool belongs to the settings of the solver
+ * which found the deals, if they change (for example the draw mode), the stored deals are thrown
+ * away. If a refill doesn't find any deal, the next one is delayed, doubling the delay after
+ * every failed refill, so a game with rare winnable deals doesn't search again on every resume.
+ */
+
+public class WinnableDealPool {
+
+    public static final int SIZE = 3;
+    private static final long REFILL_DELAY = 60000;                                                 //after the first failed refill
+    private static final int MAX_DELAY_DOUBLINGS = 10;
+
+    /**
+     * Takes the next deal out of the pool.
+     *
+     * @param settings The settings of the solver for the new game
+     * @return The card order of the deal, or null if the pool is empty
+     */
+    public int[] take(String settings) {
+        int size = getSize(settings);
+
+        if (size == 0) {
+            return null;
+        }
+
+        //take the last deal, so the others don't need to be moved
+        ArrayList<Integer> list = prefs.getSavedWinnableDeal(size - 1);
+        int[] order = new int[list.size()];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = list.get(i);
+        }
+
+        prefs.saveWinnableDealsSize(size - 1);
+        return order;
+    }
+
+    /**
+     * Adds a deal to the pool, if it isn't full yet.
+     *
+     * @param settings The settings of the solver which found the deal
+     * @param order    The card order of the deal
+     */
+    public void add(String settings, int[] order) {
+        int size = getSize(settings);
+
+        if (size >= SIZE) {
+            return;
+        }
+
+        ArrayList<Integer> list = new ArrayList<>();
+
+        for (int id : order) {
+            list.add(id);
+        }
+
+        prefs.saveWinnableDeal(list, size);
+        prefs.saveWinnableDealsSize(size + 1);
+    }
+
+    public boolean isFull(String settings) {
+        return getSize(settings) >= SIZE;
+    }
+
+    /**
+     * Tests if the pool should be refilled in the background: it isn't full, and the delay after
+     * the last failed refill has passed.
+     *
+     * @param settings The settings of the solver for the refill
+     */
+    public boolean needsRefill(String settings) {
+        return !isFull(settings) && System.currentTimeMillis() >= prefs.getSavedWinnableDealsNextRefill();
+    }
+
+    /**
+     * Called when a refill search ends without being stopped, to delay the next one if nothing
+     * was found.
+     *
+     * @param settings   The settings of the solver which searched
+     * @param foundDeals The number of deals found by the search
+     */
+    public void refillEnded(String settings, int foundDeals) {
+        getSize(settings);
+
+        if (foundDeals > 0) {
+            prefs.saveWinnableDealsFailedRefills(0);
+            prefs.saveWinnableDealsNextRefill(0);
+        } else {
+            int failedRefills = prefs.getSavedWinnableDealsFailedRefills();
+            long delay = REFILL_DELAY << Math.min(failedRefills, MAX_DELAY_DOUBLINGS);
+
+            prefs.saveWinnableDealsFailedRefills(failedRefills + 1);
+            prefs.saveWinnableDealsNextRefill(System.currentTimeMillis() + delay);
+        }
+    }
+
+    /**
+     * Returns the number of stored deals. If they were found with other settings, they can't be
+     * used anymore, so the pool is cleared, together with the delay of failed refills.
+     */
+    private int getSize(String settings) {
+        if (!prefs.getSavedWinnableDealsSettings().equals(settings)) {
+            prefs.saveWinnableDealsSettings(settings);
+            prefs.saveWinnableDealsSize(0);
+            prefs.saveWinnableDealsFailedRefills(0);
+            prefs.saveWinnableDealsNextRefill(0);
+            return 0;
+        }
+
+        return prefs.getSavedWinnableDealsSize();
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.helper;
+
+import android.os.AsyncTask;
+
+import java.util.Random;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.CardShuffler;
+import de.tobiasbielefeld.solitaire.games.Game;
+import de.tobiasbielefeld.solitaire.solver.Solver;
+
+import static de.tobiasbielefeld.solitaire.SharedData.*;
+
+/**
+ * Searches winnable deals in the background: Random card orders are dealt and tested by the
+ * solver of the game. Found deals fill up the deal pool of the game, while the player plays.
+ * If a new game waits for a deal, the next found one is given to gameLogic.newWinnableGame()
+ * instead, or null if nothing was found in time. A search which ends without finding a deal
+ * delays the next refill of the pool.
+ */
+
+public class WinnableDealSearch extends AsyncTask<Void, int[], Void> {
+
+    private static final long TIME_LIMIT = 5000;                                                    //for a waiting game
+    private static final long TIME_LIMIT_REFILL = 30000;                                            //for the whole search
+    private static final long TIME_LIMIT_PER_DEAL = 1000;
+    private static final int MAX_NODES_PER_DEAL = 200000;
+    private static final int[] NO_DEAL = new int[0];
+
+    private Solver solver;
+    private WinnableDealPool pool;
+    private String settings;
+    private Game game;
+    private boolean trueRandomisation;
+    private int foundDeals = 0;
+    private volatile long waitingSince = 0;                                                         //0 if no game waits for a deal
+
+    public WinnableDealSearch(Solver solver, WinnableDealPool pool) {
+        this.solver = solver;
+        this.pool = pool;
+        settings = solver.getSettings();
+        game = currentGame;
+        trueRandomisation = prefs.getSavedUseTrueRandomisation();
+
+        solver.setTimeLimit(TIME_LIMIT_PER_DEAL);
+        solver.setMaxNodes(MAX_NODES_PER_DEAL);
+    }
+
+    @Override
+    protected Void doInBackground(Void... params) {
+        Board board = solver.getRules().createBoard();
+        Random random = getPrng();
+        int[] order = new int[board.getNumberOfCards()];
+        long endTime = System.currentTimeMillis() + TIME_LIMIT_REFILL;
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        while (!isCancelled()) {
+            long time = System.currentTimeMillis();
+            long waitingTime = waitingSince;
+
+            if (waitingTime != 0 && time > waitingTime + TIME_LIMIT) {
+                waitingSince = 0;
+                publishProgress(NO_DEAL);
+            } else if (waitingTime == 0 && time > endTime) {
+                break;
+            }
+
+            CardShuffler.randomize(order, board, random, trueRandomisation);
+
+            if (solver.solveDeal(order) == Solver.result.SOLVED) {
+                publishProgress(order.clone());
+            }
+        }
+
+        return null;
+    }
+
+    @Override
+    protected void onProgressUpdate(int[]... orders) {
+        //the player could have left the game in the meantime
+        if (currentGame != game) {
+            stop();
+            return;
+        }
+
+        int[] order = orders[0];
+
+        if (order == NO_DEAL) {
+            gameLogic.newWinnableGame(null);
+        } else if (waitingSince != 0) {
+            waitingSince = 0;
+            foundDeals++;
+            gameLogic.newWinnableGame(order);
+        } else {
+            foundDeals++;
+            pool.add(settings, order);
+        }
+
+        if (waitingSince == 0 && pool.isFull(settings)) {
+            stop();
+        }
+    }
+
+    @Override
+    protected void onPostExecute(Void result) {
+        if (currentGame == game) {
+            pool.refillEnded(settings, foundDeals);
+        }
+    }
+
+    /**
+     * Lets the next found deal start a new game, instead of adding it to the pool.
+     */
+    public void waitForDeal() {
+        waitingSince = System.currentTimeMillis();
+    }
+
+    public boolean isWaiting() {
+        return waitingSince != 0;
+    }
+
+    /**
+     * Tests if the search still runs and uses the given solver settings.
+     */
+    public boolean isRunning(String settings) {
+        return !isCancelled() && getStatus() != Status.FINISHED && this.settings.equals(settings);
+    }
+
+    /**
+     * Stops the search, without dealing anything.
+     */
+    public void stop() {
+        cancel(false);
+        solver.cancel();
+    }
+}
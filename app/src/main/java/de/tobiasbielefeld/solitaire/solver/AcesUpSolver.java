@@ -0,0 +1,394 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import de.tobiasbielefeld.solitaire.engine.AcesUpRules;
+import de.tobiasbielefeld.solitaire.engine.Board;
+
+/**
+ * Solver for Aces Up. Cards can be moved to an empty stack, so the order on the tableau stacks
+ * isn't fixed, but a state is still small: the four columns of card ids and the number of drawn
+ * cards. The search applies the moves on the columns and takes them back afterwards, instead of
+ * copying boards. The memo of searched states uses a hash of the columns, which is updated with
+ * every move: each card has a random key for every column and height.
+ * <p>
+ * A card is discarded at once, if no lower card of its family (without the ace) is left. Then it
+ * can't help to discard another card anymore, so keeping it can't lead to a better outcome.
+ */
+
+public class AcesUpSolver extends Solver {
+
+    private static final int FOUNDATION = 4, STOCK = 5;
+    private static final int MAX_HEIGHT = 53;
+    private static final long[][][] CARD_KEYS = new long[52][4][MAX_HEIGHT];
+    private static final long[] POINTER_KEYS = new long[53];
+
+    private final TranspositionTable table = new TranspositionTable(1 << 20);
+    private final int[][] columns = new int[4][MAX_HEIGHT];
+    private final int[] sizes = new int[4];
+    private final int[] values = new int[52];
+    private final int[] families = new int[52];
+    private final int[] familyValues = new int[5];                                                  //bit mask of the values still in play
+    private final int[] stock = new int[52];
+    private int stockSize;
+    private int pointer;
+    private int discarded;
+    private long hash;
+
+    private int[][] moves = new int[0][];
+    private int[] moveCounts = new int[0];
+    private int[] moveIndices = new int[0];
+    private int[] sources = new int[0];                                                             //of the last move of each depth, see applyMove()
+
+    private int[] bestLine = new int[0];
+    private int bestLineLength;
+
+    static {
+        Random random = new Random(52);
+
+        for (long[][] cardKeys : CARD_KEYS) {
+            for (long[] columnKeys : cardKeys) {
+                for (int i = 0; i < columnKeys.length; i++) {
+                    columnKeys[i] = random.nextLong();
+                }
+            }
+        }
+
+        for (int i = 0; i < POINTER_KEYS.length; i++) {
+            POINTER_KEYS[i] = random.nextLong();
+        }
+    }
+
+    public AcesUpSolver() {
+        super(new AcesUpRules());
+    }
+
+    @Override
+    public result solve(Board start) {
+        long deadline = startSearch();
+        int depth = 0;
+
+        read(start);
+        bestScore = -1;
+        bestLineLength = 0;
+        table.clear();
+        prepareDepth(0);
+
+        while (depth >= 0) {
+            //first visit of this state: test it and generate the moves
+            if (moveCounts[depth] == -1) {
+                if (isWon()) {
+                    saveBestLine(depth);
+                    bestScore = WON;
+                    return result.SOLVED;
+                }
+
+                if (!table.add(hash ^ POINTER_KEYS[pointer])) {
+                    depth = goBack(depth);
+                    continue;
+                }
+
+                if (countNode(deadline)) {
+                    bestScore = -1;
+                    return result.UNKNOWN;
+                }
+
+                if (discarded > bestScore) {
+                    saveBestLine(depth);
+                    bestScore = discarded;
+                }
+
+                moveCounts[depth] = generateMoves(moves[depth]);
+            }
+
+            if (moveIndices[depth] == moveCounts[depth]) {
+                depth = goBack(depth);
+                continue;
+            }
+
+            sources[depth] = applyMove(moves[depth][moveIndices[depth]++]);
+            prepareDepth(++depth);
+        }
+
+        return result.NOT_SOLVABLE;
+    }
+
+    @Override
+    public int[] getSolution() {
+        return Arrays.copyOf(bestLine, bestLineLength);
+    }
+
+    /**
+     * Copies the tableau, the main stack and the discarded cards of the board into the columns.
+     */
+    private void read(Board board) {
+        hash = 0;
+        pointer = 0;
+        discarded = board.getSize(FOUNDATION);
+        Arrays.fill(familyValues, 0);
+
+        for (int i = 0; i < 52; i++) {
+            values[i] = board.getValue(i);
+            families[i] = board.getColor(i);
+
+            if (board.getStackOf(i) != FOUNDATION) {
+                familyValues[families[i]] |= 1 << values[i];
+            }
+        }
+
+        for (int i = 0; i < 4; i++) {
+            sizes[i] = 0;
+
+            for (int j = 0; j < board.getSize(i); j++) {
+                push(i, board.getCard(i, j));
+            }
+        }
+
+        //the top card of the main stack is drawn first
+        stockSize = board.getSize(STOCK);
+
+        for (int i = 0; i < stockSize; i++) {
+            stock[i] = board.getCard(STOCK, stockSize - 1 - i);
+        }
+    }
+
+    /**
+     * Generates the moves like the game allows them: first discard cards, then move cards to
+     * empty stacks (aces at first), and finally draw new cards. If a card can be discarded safely,
+     * it is the only move.
+     */
+    private int generateMoves(int[] moves) {
+        int count = 0;
+
+        for (int i = 0; i < 4; i++) {
+            if (canBeDiscarded(i)) {
+                int cardID = getTopCard(i);
+
+                if (isSafeToDiscard(cardID)) {
+                    moves[0] = cardMove(cardID, FOUNDATION);
+                    return 1;
+                }
+
+                count = addMove(moves, count, cardMove(cardID, FOUNDATION));
+            }
+        }
+
+        //moving the only card of a stack to another empty stack doesn't change anything
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 4; i++) {
+                if (sizes[i] < 2 || (values[getTopCard(i)] == 1) != (pass == 0)) {
+                    continue;
+                }
+
+                for (int j = 0; j < 4; j++) {
+                    if (sizes[j] == 0) {
+                        count = addMove(moves, count, cardMove(getTopCard(i), j));
+                    }
+                }
+            }
+        }
+
+        if (pointer < stockSize) {
+            count = addMove(moves, count, DRAW);
+        }
+
+        return count;
+    }
+
+    /**
+     * Applies a move on the columns.
+     *
+     * @return The column the card came from, or the number of drawn cards, to take the move back
+     */
+    private int applyMove(int move) {
+        if (move == DRAW) {
+            int count = 0;
+
+            //one card on every tableau stack, like onMainStackTouch() of the game
+            while (count < 4 && pointer < stockSize) {
+                push(count++, stock[pointer++]);
+            }
+
+            return count;
+        }
+
+        int cardID = getCardOf(move);
+        int source = findColumn(cardID);
+
+        pop(source);
+
+        if (getDestinationOf(move) == FOUNDATION) {
+            familyValues[families[cardID]] &= ~(1 << values[cardID]);
+            discarded++;
+        } else {
+            push(getDestinationOf(move), cardID);
+        }
+
+        return source;
+    }
+
+    private void undoMove(int move, int source) {
+        if (move == DRAW) {
+            for (int i = source - 1; i >= 0; i--) {
+                pop(i);
+                pointer--;
+            }
+
+            return;
+        }
+
+        int cardID = getCardOf(move);
+
+        if (getDestinationOf(move) == FOUNDATION) {
+            familyValues[families[cardID]] |= 1 << values[cardID];
+            discarded--;
+        } else {
+            pop(getDestinationOf(move));
+        }
+
+        push(source, cardID);
+    }
+
+    /**
+     * Leaves the given depth and takes back the move which led to it.
+     *
+     * @return The new depth
+     */
+    private int goBack(int depth) {
+        depth--;
+
+        if (depth >= 0) {
+            undoMove(moves[depth][moveIndices[depth] - 1], sources[depth]);
+        }
+
+        return depth;
+    }
+
+    /**
+     * The top card can be discarded, if another stack has a higher card of the same family on
+     * top, or its ace. Aces are never discarded.
+     */
+    private boolean canBeDiscarded(int column) {
+        if (sizes[column] == 0 || values[getTopCard(column)] == 1) {
+            return false;
+        }
+
+        int cardID = getTopCard(column);
+
+        for (int i = 0; i < 4; i++) {
+            if (i == column || sizes[i] == 0) {
+                continue;
+            }
+
+            int cardOnStack = getTopCard(i);
+
+            if (families[cardOnStack] == families[cardID]
+                    && (values[cardOnStack] > values[cardID] || values[cardOnStack] == 1)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    /**
+     * Every card which is still in play, except the ace, can only be discarded by a higher card of
+     * its family. So the lowest one isn't needed anymore.
+     */
+    private boolean isSafeToDiscard(int cardID) {
+        int lowerValues = ((1 << values[cardID]) - 1) & ~(1 << 1);
+
+        return (familyValues[families[cardID]] & lowerValues) == 0;
+    }
+
+    private boolean isWon() {
+        if (pointer < stockSize) {
+            return false;
+        }
+
+        for (int i = 0; i < 4; i++) {
+            if (sizes[i] != 1 || values[columns[i][0]] != 1) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    private int findColumn(int cardID) {
+        for (int i = 0; i < 4; i++) {
+            if (sizes[i] > 0 && getTopCard(i) == cardID) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    private int getTopCard(int column) {
+        return columns[column][sizes[column] - 1];
+    }
+
+    private void push(int column, int cardID) {
+        hash ^= CARD_KEYS[cardID][column][sizes[column]];
+        columns[column][sizes[column]++] = cardID;
+    }
+
+    private void pop(int column) {
+        int cardID = columns[column][--sizes[column]];
+        hash ^= CARD_KEYS[cardID][column][sizes[column]];
+    }
+
+    private void saveBestLine(int depth) {
+        if (bestLine.length < depth) {
+            bestLine = new int[Math.max(depth, bestLine.length * 2)];
+        }
+
+        for (int i = 0; i < depth; i++) {
+            bestLine[i] = moves[i][moveIndices[i] - 1];
+        }
+
+        bestLineLength = depth;
+    }
+
+    /**
+     * Resets the search stack at the given depth, the arrays grow if needed.
+     */
+    private void prepareDepth(int depth) {
+        if (moves.length <= depth) {
+            int length = Math.max(depth + 1, moves.length * 2);
+            int oldLength = moves.length;
+
+            moves = Arrays.copyOf(moves, length);
+            moveCounts = Arrays.copyOf(moveCounts, length);
+            moveIndices = Arrays.copyOf(moveIndices, length);
+            sources = Arrays.copyOf(sources, length);
+
+            for (int i = oldLength; i < length; i++) {
+                moves[i] = new int[MAX_MOVES];
+            }
+        }
+
+        moveCounts[depth] = -1;
+        moveIndices[depth] = 0;
+    }
+}
@@ -0,0 +1,368 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.Rules;
+
+/**
+ * Base class of the solvers which search on the board itself. It runs a depth first search over
+ * copies of the board, the games only generate and apply the moves. Already visited states are
+ * skipped with a transposition table, so cycles (like recycling the main stack) end. A hash
+ * collision can only hide a solution, but never create a wrong one.
+ */
+
+public abstract class BoardSolver extends Solver {
+
+    protected static final long HASH_START = 0xcbf29ce484222325L;
+
+    private final TranspositionTable table;
+    private final ArrayList<Board> boards = new ArrayList<>();
+    private final ArrayList<int[]> moves = new ArrayList<>();
+    private int[] moveCounts = new int[0];
+    private int[] moveIndices = new int[0];
+    private int[] recycleCounts = new int[0];
+
+    private int maxDepth = 500;
+    private int[] bestLine = new int[0];
+    private int bestLineLength;
+
+    /**
+     * Creates a new solver.
+     *
+     * @param rules         The rules used for dealing and testing the moves. Don't share them
+     *                      with a running game
+     * @param tableCapacity The number of states the transposition table can store
+     */
+    protected BoardSolver(Rules rules, int tableCapacity) {
+        super(rules);
+        table = new TranspositionTable(tableCapacity);
+    }
+
+    /**
+     * Generates every useful move of the given board, the most promising first.
+     *
+     * @param board The board to search moves on
+     * @param moves The array to store the moves in, has MAX_MOVES entries
+     * @return The number of moves stored
+     */
+    protected abstract int generateMoves(Board board, int[] moves);
+
+    /**
+     * Applies a move which was generated before, including every automatic movement the game
+     * would do afterwards (like flipping cards up).
+     *
+     * @param board The board to apply the move on
+     * @param move  The move to apply
+     */
+    protected abstract void applyMove(Board board, int move);
+
+    /**
+     * Gets called on the dealt board before the search starts. Games can use it to bring the
+     * board in a simpler form, which still allows the same moves.
+     *
+     * @param board The dealt board
+     */
+    protected void prepare(Board board) {
+    }
+
+    /**
+     * Tests if a board is won. Games can override it to stop earlier, if the rest of the game
+     * can always be won.
+     */
+    protected boolean isWon(Board board) {
+        return getRules().winTest(board);
+    }
+
+    /**
+     * Rates a board which isn't won, like the number of removed cards. The search remembers the
+     * moves to the board with the highest score, which are the best moves if the game can't be
+     * won. The score has to be lower than WON.
+     */
+    protected int getScore(Board board) {
+        return 0;
+    }
+
+    /**
+     * Calculates a 64 bit hash of the board, including the order and direction of every card.
+     * Games can override it to ignore differences which don't matter for solving.
+     */
+    protected long hash(Board board) {
+        long hash = HASH_START;
+
+        for (int i = 0; i < board.getNumberOfStacks(); i++) {
+            hash = hashStack(hash, board, i);
+        }
+
+        return finishHash(hash);
+    }
+
+    /**
+     * Adds the cards of a stack to a hash, use HASH_START for the first stack.
+     */
+    protected static long hashStack(long hash, Board board, int stackID) {
+        for (int i = 0; i < board.getSize(stackID); i++) {
+            int cardID = board.getCard(stackID, i);
+
+            hash = hashValue(hash, board.isUp(cardID) ? cardID + 128 : cardID);
+        }
+
+        return hashValue(hash, 0xff);                                                               //separates the stacks
+    }
+
+    protected static long hashValue(long hash, int value) {
+        return (hash ^ value) * 0x100000001b3L;
+    }
+
+    /**
+     * Last step of the hash functions: adds the used recycles (if they are limited) and spreads
+     * the bits, so similar boards get different slots in the transposition table.
+     */
+    protected long finishHash(long hash) {
+        if (hasLimitedRecycles()) {
+            hash = hashValue(hash, recycles);
+        }
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+
+        return hash;
+    }
+
+    @Override
+    public result solve(Board start) {
+        long deadline = startSearch();
+        boolean depthLimitReached = false;
+        int depth = 0;
+
+        bestScore = -1;
+        bestLineLength = 0;
+        table.clear();
+
+        getBoard(0, start).copyFrom(start);
+        prepare(getBoard(0, start));
+        recycleCounts[0] = 0;
+        moveCounts[0] = -1;
+
+        while (depth >= 0) {
+            Board board = boards.get(depth);
+            recycles = recycleCounts[depth];
+
+            //first visit of this board: test it and generate the moves
+            if (moveCounts[depth] == -1) {
+                if (isWon(board)) {
+                    saveBestLine(depth);
+                    bestScore = WON;
+                    return result.SOLVED;
+                }
+
+                if (countNode(deadline)) {
+                    bestScore = -1;
+                    return result.UNKNOWN;
+                }
+
+                if (!table.add(hash(board))) {
+                    depth--;
+                    continue;
+                }
+
+                int score = getScore(board);
+
+                if (score > bestScore) {
+                    saveBestLine(depth);
+                    bestScore = score;
+                }
+
+                if (depth == maxDepth) {
+                    depthLimitReached = true;
+                    depth--;
+                    continue;
+                }
+
+                moveCounts[depth] = generateMoves(board, moves.get(depth));
+                moveIndices[depth] = 0;
+            }
+
+            if (moveIndices[depth] == moveCounts[depth]) {
+                depth--;
+                continue;
+            }
+
+            //apply the next move on a copy of the board
+            Board next = getBoard(depth + 1, board);
+            next.copyFrom(board);
+            applyMove(next, moves.get(depth)[moveIndices[depth]++]);
+
+            depth++;
+            recycleCounts[depth] = recycles;
+            moveCounts[depth] = -1;
+        }
+
+        if (depthLimitReached || table.hasOverflowed()) {
+            bestScore = -1;
+            return result.UNKNOWN;
+        }
+
+        return result.NOT_SOLVABLE;
+    }
+
+    @Override
+    public int[] getSolution() {
+        return Arrays.copyOf(bestLine, bestLineLength);
+    }
+
+    /**
+     * Sets how many moves a solution can have at most.
+     */
+    public void setMaxDepth(int depth) {
+        maxDepth = depth;
+    }
+
+    /**
+     * Flips the top cards of the given stacks up, like the games do after a movement.
+     */
+    protected static void flipTopCardsUp(Board board, int firstID, int lastID) {
+        for (int i = firstID; i <= lastID; i++) {
+            if (!board.isEmpty(i)) {
+                board.setUp(board.getTopCard(i), true);
+            }
+        }
+    }
+
+    /**
+     * Returns the first empty stack of the given range, -1 if there is none.
+     */
+    protected static int firstEmptyStack(Board board, int firstID, int lastID) {
+        for (int i = firstID; i <= lastID; i++) {
+            if (board.isEmpty(i)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Returns the first stack of the given range which accepts the card as a single card.
+     *
+     * @return The stack id, -1 if no stack accepts the card
+     */
+    protected int findStack(Board board, int cardID, int firstID, int lastID) {
+        for (int i = firstID; i <= lastID; i++) {
+            if (getRules().cardTest(board, i, cardID, 1)) {
+                return i;
+            }
+        }
+
+        return -1;
+    }
+
+    /**
+     * Moves the top card of the stack to the foundations, if it is safe to do so.
+     *
+     * @return True if the card was moved, false otherwise
+     */
+    protected boolean moveSafelyToFoundation(Board board, int stackID, int firstID, int lastID) {
+        if (board.isEmpty(stackID)) {
+            return false;
+        }
+
+        int cardID = board.getTopCard(stackID);
+        int foundationID = findStack(board, cardID, firstID, lastID);
+
+        if (foundationID == -1 || !isSafeFoundationMove(board, cardID, firstID, lastID)) {
+            return false;
+        }
+
+        board.addCard(foundationID, cardID);
+        return true;
+    }
+
+    /**
+     * Tests if a card can be moved to the foundation without losing a possible solution, in
+     * games which build down on the tableau in alternating colors: Every card which could be
+     * placed on it has to be on the foundations already.
+     *
+     * @param board   The board to test on
+     * @param cardID  The card to test
+     * @param firstID The first foundation stack
+     * @param lastID  The last foundation stack
+     * @return True if it is safe to move the card, false otherwise
+     */
+    protected boolean isSafeFoundationMove(Board board, int cardID, int firstID, int lastID) {
+        int value = board.getValue(cardID);
+        int color = board.getColor(cardID) % 2;
+        int oppositeFoundations = 0;
+        int minValue = 13;
+
+        if (value <= 2) {
+            return true;
+        }
+
+        for (int i = firstID; i <= lastID; i++) {
+            if (!board.isEmpty(i) && board.getColor(board.getTopCard(i)) % 2 != color) {
+                oppositeFoundations++;
+                minValue = Math.min(minValue, board.getValue(board.getTopCard(i)));
+            }
+        }
+
+        return oppositeFoundations == 2 && minValue >= value - 1;
+    }
+
+    /**
+     * Stores the moves which lead to the board of the given depth as the best line.
+     */
+    private void saveBestLine(int depth) {
+        if (bestLine.length < depth) {
+            bestLine = new int[Math.max(depth, bestLine.length * 2)];
+        }
+
+        for (int i = 0; i < depth; i++) {
+            bestLine[i] = moves.get(i)[moveIndices[i] - 1];
+        }
+
+        bestLineLength = depth;
+    }
+
+    /**
+     * Returns the board of the given depth, the arrays of the search grow if needed.
+     */
+    private Board getBoard(int depth, Board template) {
+        while (boards.size() <= depth) {
+            boards.add(new Board(template.getNumberOfCards(), template.getNumberOfStacks()));
+            moves.add(new int[MAX_MOVES]);
+        }
+
+        if (moveCounts.length <= depth) {
+            int length = Math.min(maxDepth + 1, Math.max(depth + 1, moveCounts.length * 2));
+
+            moveCounts = Arrays.copyOf(moveCounts, length);
+            moveIndices = Arrays.copyOf(moveIndices, length);
+            recycleCounts = Arrays.copyOf(recycleCounts, length);
+        }
+
+        return boards.get(depth);
+    }
+}
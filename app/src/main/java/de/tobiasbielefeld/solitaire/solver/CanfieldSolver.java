@@ -0,0 +1,142 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.CanfieldRules;
+
+/**
+ * Solver for Canfield. Like in the Klondike solver, the three discard stacks are merged into the
+ * first one. Empty tableau stacks are filled from the reserve, like the game does it.
+ */
+
+public class CanfieldSolver extends BoardSolver {
+
+    private static final int RESERVE = 4, WASTE = 9, STOCK = 12;
+    private static final int[] SINGLE_CARD_SOURCES = {RESERVE, WASTE};
+    private static final int[] TOP_CARD_SOURCES = {0, 1, 2, 3, RESERVE, WASTE};
+
+    private final int drawCount;
+
+    /**
+     * @param drawThree     True if three cards are drawn from the main stack at once
+     * @param sizeOfReserve The number of cards on the reserve stack
+     */
+    public CanfieldSolver(boolean drawThree, int sizeOfReserve) {
+        super(new CanfieldRules(), 1 << 18);
+
+        ((CanfieldRules) getRules()).setDrawThree(drawThree);
+        ((CanfieldRules) getRules()).setSizeOfReserve(sizeOfReserve);
+        drawCount = drawThree ? 3 : 1;
+        addSetting(drawCount);
+        addSetting(sizeOfReserve);
+    }
+
+    @Override
+    protected void prepare(Board board) {
+        for (int i = WASTE + 1; i <= WASTE + 2; i++) {
+            if (!board.isEmpty(i)) {
+                board.moveCards(board.getCard(i, 0), WASTE);
+            }
+        }
+    }
+
+    protected int generateMoves(Board board, int[] moves) {
+        int count = 0;
+        int foundationID;
+
+        //first to the foundations
+        for (int i : TOP_CARD_SOURCES) {
+            if (!board.isEmpty(i) && (foundationID = findStack(board, board.getTopCard(i), 5, 8)) != -1) {
+                count = addMove(moves, count, cardMove(board.getTopCard(i), foundationID));
+            }
+        }
+
+        //then from the reserve and the waste to the tableau
+        for (int i : SINGLE_CARD_SOURCES) {
+            if (board.isEmpty(i)) {
+                continue;
+            }
+
+            for (int k = 0; k < 4; k++) {
+                if (getRules().cardTest(board, k, board.getTopCard(i), 1)) {
+                    count = addMove(moves, count, cardMove(board.getTopCard(i), k));
+                }
+            }
+        }
+
+        //then whole stacks on the tableau, or parts of them to free a card for the foundation
+        for (int i = 0; i < 4; i++) {
+            for (int j = 0; j < board.getSize(i); j++) {
+                int cardID = board.getCard(i, j);
+
+                if (j > 0 && findStack(board, board.getCard(i, j - 1), 5, 8) == -1) {
+                    continue;
+                }
+
+                for (int k = 0; k < 4; k++) {
+                    if (k != i && !(j == 0 && board.isEmpty(k))
+                            && getRules().cardTest(board, k, cardID, board.getSize(i) - j)) {
+                        count = addMove(moves, count, cardMove(cardID, k));
+                    }
+                }
+            }
+        }
+
+        //and finally use the main stack
+        if (!board.isEmpty(STOCK)) {
+            count = addMove(moves, count, DRAW);
+        } else if (!board.isEmpty(WASTE) && canRecycle()) {
+            count = addMove(moves, count, RECYCLE);
+        }
+
+        return count;
+    }
+
+    protected void applyMove(Board board, int move) {
+        if (move == DRAW) {
+            for (int i = 0; i < drawCount && !board.isEmpty(STOCK); i++) {
+                int cardID = board.getTopCard(STOCK);
+
+                board.addCard(WASTE, cardID);
+                board.setUp(cardID, true);
+            }
+        } else if (move == RECYCLE) {
+            while (!board.isEmpty(WASTE)) {
+                int cardID = board.getTopCard(WASTE);
+
+                board.addCard(STOCK, cardID);
+                board.setUp(cardID, false);
+            }
+
+            recycles++;
+        } else {
+            board.moveCards(getCardOf(move), getDestinationOf(move));
+        }
+
+        //fill empty tableau stacks from the reserve, like testAfterMove() of the game
+        for (int i = 0; i < 4; i++) {
+            if (board.isEmpty(i) && !board.isEmpty(RESERVE)) {
+                board.addCard(i, board.getTopCard(RESERVE));
+            }
+        }
+
+        flipTopCardsUp(board, RESERVE, RESERVE);
+    }
+}
@@ -0,0 +1,237 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import java.util.Arrays;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.FreecellRules;
+import de.tobiasbielefeld.solitaire.engine.Rules;
+
+/**
+ * Solver for Freecell. Sequences are moved at once as far as the power move count allows it,
+ * like the player can do it in the game.
+ * <p>
+ * Boards which only differ in the order of the free cells or of the tableau stacks can be won
+ * the same way, so the hash ignores these orders: It uses Zobrist keys for every card and
+ * position, the keys of the free cells and of every (mixed) tableau stack are just added up.
+ * The foundations don't need to be hashed, they contain every other card.
+ * <p>
+ * The moves are tried in the order of the boards they lead to, rated by evaluate(). With this
+ * most deals are solved after a few thousand boards, fast enough to check after every move of
+ * the player if the game can still be won.
+ * <p>
+ * The solver isn't optimal: it returns the first solution it finds, not the shortest one, and
+ * the move generation skips some moves (like splitting sequences without a use). So
+ * NOT_SOLVABLE only means that no solution was found.
+ */
+
+public class FreecellSolver extends BoardSolver {
+
+    private static final int NUMBER_OF_CARDS = 52;
+    private static final long[][] TABLEAU_KEYS = new long[NUMBER_OF_CARDS][NUMBER_OF_CARDS];        //for each card and index on a tableau stack
+    private static final long[] CELL_KEYS = new long[NUMBER_OF_CARDS];
+
+    static {
+        long seed = 0x9e3779b97f4a7c15L;
+
+        for (int i = 0; i < NUMBER_OF_CARDS; i++) {
+            for (int j = 0; j < NUMBER_OF_CARDS; j++) {
+                TABLEAU_KEYS[i][j] = mix(seed += 0x9e3779b97f4a7c15L);
+            }
+
+            CELL_KEYS[i] = mix(seed += 0x9e3779b97f4a7c15L);
+        }
+    }
+
+    private final int[] scores = new int[MAX_MOVES];
+    private final int[] foundationValues = new int[5];                                              //value of the top card of each family on the foundations
+    private final Board scratch = new Board(NUMBER_OF_CARDS, 16);                                   //to rate the moves
+
+    public FreecellSolver() {
+        super(new FreecellRules(), 1 << 18);
+    }
+
+    @Override
+    protected long hash(Board board) {
+        long hash = 0;
+
+        for (int i = 0; i < 8; i++) {
+            long stackHash = 0;
+
+            for (int j = 0; j < board.getSize(i); j++) {
+                stackHash ^= TABLEAU_KEYS[board.getCard(i, j)][j];
+            }
+
+            //mix the stack keys, otherwise a card could change the stack without changing the hash
+            hash += board.isEmpty(i) ? 0 : mix(stackHash);
+        }
+
+        for (int i = 8; i < 12; i++) {
+            if (!board.isEmpty(i)) {
+                hash ^= CELL_KEYS[board.getTopCard(i)];
+            }
+        }
+
+        return hash;
+    }
+
+    /**
+     * Spreads the bits of a value (the finalizer of SplitMix64).
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xbf58476d1ce4e5b9L;
+        value = (value ^ (value >>> 27)) * 0x94d049bb133111ebL;
+        return value ^ (value >>> 31);
+    }
+
+    @Override
+    protected void prepare(Board board) {
+        afterMove(board);
+    }
+
+    protected int generateMoves(Board board, int[] moves) {
+        int count = 0;
+        int foundationID;
+        int emptyCell = firstEmptyStack(board, 8, 11);
+        int emptyTableau = firstEmptyStack(board, 0, 7);
+
+        //first to the foundations
+        for (int i = 0; i < 12; i++) {
+            if (!board.isEmpty(i) && (foundationID = findStack(board, board.getTopCard(i), 12, 15)) != -1) {
+                count = addMove(moves, count, cardMove(board.getTopCard(i), foundationID));
+            }
+        }
+
+        //then from the cells back to the tableau
+        for (int i = 8; i < 12; i++) {
+            if (board.isEmpty(i)) {
+                continue;
+            }
+
+            for (int k = 0; k < 8; k++) {
+                if ((!board.isEmpty(k) || k == emptyTableau) && getRules().cardTest(board, k, board.getTopCard(i), 1)) {
+                    count = addMove(moves, count, cardMove(board.getTopCard(i), k));
+                }
+            }
+        }
+
+        //then sequences on the tableau, empty stacks only get parts of other stacks
+        for (int i = 0; i < 8; i++) {
+            for (int j = board.getSize(i) - 1; j >= 0; j--) {
+                int cardID = board.getCard(i, j);
+
+                if (!getRules().addCardToMovementTest(board, cardID)) {
+                    break;
+                }
+
+                //splitting a sequence is only useful to move the card below to the foundation
+                if (j > 0 && Rules.testCardsUpToTop(board, i, j - 1, Rules.ALTERNATING_COLOR)
+                        && findStack(board, board.getCard(i, j - 1), 12, 15) == -1) {
+                    continue;
+                }
+
+                for (int k = 0; k < 8; k++) {
+                    if (k != i && (!board.isEmpty(k) || (k == emptyTableau && j > 0))
+                            && getRules().cardTest(board, k, cardID, board.getSize(i) - j)) {
+                        count = addMove(moves, count, cardMove(cardID, k));
+                    }
+                }
+            }
+        }
+
+        //and finally to a free cell
+        if (emptyCell != -1) {
+            for (int i = 0; i < 8; i++) {
+                if (!board.isEmpty(i)) {
+                    count = addMove(moves, count, cardMove(board.getTopCard(i), emptyCell));
+                }
+            }
+        }
+
+        for (int i = 0; i < count; i++) {
+            scratch.copyFrom(board);
+            applyMove(scratch, moves[i]);
+            scores[i] = evaluate(scratch);
+        }
+
+        sortMoves(moves, scores, count);
+        return count;
+    }
+
+    /**
+     * Rates a board after a move, higher is better: Cards on the foundations, few cards above the
+     * next cards the foundations need (the closer the card is to the foundation, the more it
+     * counts) and empty free cells and tableau stacks.
+     */
+    private int evaluate(Board board) {
+        int score = 0;
+
+        Arrays.fill(foundationValues, 0);
+
+        for (int i = 12; i < 16; i++) {
+            if (!board.isEmpty(i)) {
+                int cardID = board.getTopCard(i);
+                foundationValues[board.getColor(cardID)] = board.getValue(cardID);
+                score += board.getSize(i) * 100;
+            }
+        }
+
+        for (int i = 0; i < 8; i++) {
+            if (board.isEmpty(i)) {
+                score += 40;
+                continue;
+            }
+
+            for (int j = 0; j < board.getSize(i); j++) {
+                int cardID = board.getCard(i, j);
+                int distance = board.getValue(cardID) - foundationValues[board.getColor(cardID)];
+
+                if (distance <= 2) {
+                    score -= (board.getSize(i) - 1 - j) * (30 - distance * 10);
+                }
+            }
+        }
+
+        for (int i = 8; i < 12; i++) {
+            if (board.isEmpty(i)) {
+                score += 20;
+            }
+        }
+
+        return score;
+    }
+
+    protected void applyMove(Board board, int move) {
+        board.moveCards(getCardOf(move), getDestinationOf(move));
+        afterMove(board);
+    }
+
+    private void afterMove(Board board) {
+        boolean moved;
+
+        do {
+            moved = false;
+
+            for (int i = 0; i < 12; i++) {
+                moved |= moveSafelyToFoundation(board, i, 12, 15);
+            }
+        } while (moved);
+    }
+}
@@ -0,0 +1,240 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.GolfRules;
+
+/**
+ * Solver for Golf. Cards are only removed from the top of the tableau stacks, so the heights of
+ * the stacks are enough to know the remaining cards. Of the discard stack only the value of the
+ * top card matters, so a state contains the 7 heights (3 bits each, bits 0-20), the number of
+ * cards drawn from the main stack (bits 21-25) and the value of the top card of the discard
+ * stack (bits 26-29).
+ */
+
+public class GolfSolver extends StateSolver {
+
+    private static final int WASTE = 7, STOCK = 8;
+    private static final int POINTER_SHIFT = 21, WASTE_SHIFT = 26;
+    private static final int EMPTY = 15;                                                            //value of the discard stack, if it is empty
+
+    private final boolean cyclic;
+    private final int[][] tableau = new int[7][];
+    private final int[] values = new int[52];
+    private final int[] stock = new int[52];
+    private final int[][] stockValueCounts = new int[53][14];                                       //the cards of each value which can still be drawn, for each pointer
+    private final int[] valueCounts = new int[14];
+    private int stockSize;
+    private int numberOfTableauCards;
+
+    /**
+     * @param cyclic True if kings can be placed on aces and the other way round
+     */
+    public GolfSolver(boolean cyclic) {
+        super(new GolfRules(), 1 << 19);
+
+        this.cyclic = cyclic;
+        ((GolfRules) getRules()).setCyclic(cyclic);
+        addSetting(cyclic);
+    }
+
+    @Override
+    protected long encode(Board board) {
+        long state = 0;
+
+        numberOfTableauCards = 0;
+
+        for (int i = 0; i < 52; i++) {
+            values[i] = board.getValue(i);
+        }
+
+        for (int i = 0; i < WASTE; i++) {
+            int size = board.getSize(i);
+
+            tableau[i] = new int[size];
+
+            for (int j = 0; j < size; j++) {
+                tableau[i][j] = board.getCard(i, j);
+            }
+
+            numberOfTableauCards += size;
+            state |= (long) size << 3 * i;
+        }
+
+        //the top card of the main stack is the first one to draw
+        stockSize = board.getSize(STOCK);
+
+        for (int i = 0; i < stockSize; i++) {
+            stock[i] = board.getCard(STOCK, stockSize - 1 - i);
+        }
+
+        for (int i = stockSize; i >= 0; i--) {
+            for (int j = 0; j < valueCounts.length; j++) {
+                stockValueCounts[i][j] = i == stockSize ? 0 : stockValueCounts[i + 1][j];
+            }
+
+            if (i < stockSize) {
+                stockValueCounts[i][values[stock[i]]]++;
+            }
+        }
+
+        return state | (long) (board.isEmpty(WASTE) ? EMPTY : values[board.getTopCard(WASTE)]) << WASTE_SHIFT;
+    }
+
+    @Override
+    protected int generateMoves(long state, int[] moves) {
+        int count = 0;
+        int wasteValue = getWasteValue(state);
+
+        for (int i = 0; i < WASTE; i++) {
+            int height = getHeight(state, i);
+
+            if (height > 0 && wasteValue != EMPTY && fits(values[tableau[i][height - 1]], wasteValue)) {
+                count = addMove(moves, count, cardMove(tableau[i][height - 1], WASTE));
+            }
+        }
+
+        if (getPointer(state) < stockSize) {
+            count = addMove(moves, count, DRAW);
+        }
+
+        return count;
+    }
+
+    @Override
+    protected long applyMove(long state, int move) {
+        long heights = state & (1L << POINTER_SHIFT) - 1;
+        int pointer = getPointer(state);
+        int cardID = move == DRAW ? stock[pointer++] : getCardOf(move);
+
+        if (move != DRAW) {
+            //the card is the top card of one of the stacks
+            for (int i = 0; i < WASTE; i++) {
+                int height = getHeight(state, i);
+
+                if (height > 0 && tableau[i][height - 1] == cardID) {
+                    heights -= 1L << 3 * i;
+                    break;
+                }
+            }
+        }
+
+        return heights | (long) pointer << POINTER_SHIFT | (long) values[cardID] << WASTE_SHIFT;
+    }
+
+    @Override
+    protected boolean canBeWon(long state) {
+        return getScoreBound(state) == numberOfTableauCards;
+    }
+
+    /**
+     * A tableau card can't be removed anymore, if no card with a fitting value is left: in the
+     * main stack, on top of the discard stack or on the tableau, but not below the card itself.
+     * Then the cards below it stay on the tableau too, every other card counts as removable.
+     */
+    @Override
+    protected int getScoreBound(long state) {
+        int bound = numberOfTableauCards;
+        int[] counts = stockValueCounts[getPointer(state)];
+
+        System.arraycopy(counts, 0, valueCounts, 0, valueCounts.length);
+
+        if (getWasteValue(state) != EMPTY) {
+            valueCounts[getWasteValue(state)]++;
+        }
+
+        for (int i = 0; i < WASTE; i++) {
+            for (int j = 0; j < getHeight(state, i); j++) {
+                valueCounts[values[tableau[i][j]]]++;
+            }
+        }
+
+        for (int i = 0; i < WASTE; i++) {
+            int height = getHeight(state, i);
+
+            //count the cards of the stack back in from the top, the ones below don't count
+            for (int j = 0; j < height; j++) {
+                valueCounts[values[tableau[i][j]]]--;
+            }
+
+            //the cards which stay can't be fitting cards for the other stacks either
+            for (int j = height - 1; j >= 0; j--) {
+                int value = values[tableau[i][j]];
+
+                if (!hasFittingCard(value)) {
+                    bound -= j + 1;
+                    break;
+                }
+
+                valueCounts[value]++;
+            }
+        }
+
+        return bound;
+    }
+
+    @Override
+    protected boolean isWon(long state) {
+        return (state & (1L << POINTER_SHIFT) - 1) == 0;
+    }
+
+    /**
+     * The number of removed tableau cards.
+     */
+    @Override
+    protected int getScore(long state) {
+        int score = numberOfTableauCards;
+
+        for (int i = 0; i < WASTE; i++) {
+            score -= getHeight(state, i);
+        }
+
+        return score;
+    }
+
+    /**
+     * Tests with the counted values, if a card fits on the given value.
+     */
+    private boolean hasFittingCard(int value) {
+        if (value > 1 && valueCounts[value - 1] > 0 || value < 13 && valueCounts[value + 1] > 0) {
+            return true;
+        }
+
+        return cyclic && (value == 1 && valueCounts[13] > 0 || value == 13 && valueCounts[1] > 0);
+    }
+
+    private boolean fits(int value, int topValue) {
+        int difference = Math.abs(value - topValue);
+
+        return difference == 1 || cyclic && difference == 12;
+    }
+
+    private static int getHeight(long state, int stackID) {
+        return (int) (state >>> 3 * stackID) & 7;
+    }
+
+    private static int getPointer(long state) {
+        return (int) (state >>> POINTER_SHIFT) & 31;
+    }
+
+    private static int getWasteValue(long state) {
+        return (int) (state >>> WASTE_SHIFT) & 15;
+    }
+}
@@ -0,0 +1,179 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.KlondikeRules;
+
+/**
+ * Solver for Klondike and Vegas. The three discard stacks are merged into the first one, the
+ * top card stays the only playable card, so the possible moves are the same.
+ */
+
+public class KlondikeSolver extends BoardSolver {
+
+    private static final int WASTE = 11, STOCK = 14;
+
+    private final int drawCount;
+
+    /**
+     * @param drawThree True if three cards are drawn from the main stack at once
+     */
+    public KlondikeSolver(boolean drawThree) {
+        super(new KlondikeRules(), 1 << 18);
+
+        ((KlondikeRules) getRules()).setDrawThree(drawThree);
+        drawCount = drawThree ? 3 : 1;
+        addSetting(drawCount);
+    }
+
+    @Override
+    protected void prepare(Board board) {
+        for (int i = WASTE + 1; i <= WASTE + 2; i++) {
+            if (!board.isEmpty(i)) {
+                board.moveCards(board.getCard(i, 0), WASTE);
+            }
+        }
+
+        afterMove(board);
+    }
+
+    /**
+     * Once every card is faced up and the main stack is empty, the cards can always be moved to
+     * the foundations: the top cards of the tableau are the lowest ones of each stack.
+     */
+    @Override
+    protected boolean isWon(Board board) {
+        if (!board.isEmpty(STOCK) || !board.isEmpty(WASTE)) {
+            return false;
+        }
+
+        for (int i = 0; i < 7; i++) {
+            if (!board.isEmpty(i) && !board.isUp(board.getCard(i, 0))) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    protected int generateMoves(Board board, int[] moves) {
+        int count = 0;
+        int foundationID;
+
+        //first to the foundations
+        for (int i = 0; i < 7; i++) {
+            if (!board.isEmpty(i) && (foundationID = findStack(board, board.getTopCard(i), 7, 10)) != -1) {
+                count = addMove(moves, count, cardMove(board.getTopCard(i), foundationID));
+            }
+        }
+
+        if (!board.isEmpty(WASTE) && (foundationID = findStack(board, board.getTopCard(WASTE), 7, 10)) != -1) {
+            count = addMove(moves, count, cardMove(board.getTopCard(WASTE), foundationID));
+        }
+
+        //then movements on the tableau, which turn a card or help to move a card to the foundation
+        for (int i = 0; i < 7; i++) {
+            int firstUp = board.getFirstUpCardPos(i);
+
+            if (firstUp == -1) {
+                continue;
+            }
+
+            for (int j = firstUp; j < board.getSize(i); j++) {
+                int cardID = board.getCard(i, j);
+
+                if (j > 0 && board.isUp(board.getCard(i, j - 1))
+                        && findStack(board, board.getCard(i, j - 1), 7, 10) == -1) {
+                    continue;
+                }
+
+                for (int k = 0; k < 7; k++) {
+                    if (k != i && !(j == 0 && board.isEmpty(k))
+                            && getRules().cardTest(board, k, cardID, board.getSize(i) - j)) {
+                        count = addMove(moves, count, cardMove(cardID, k));
+                    }
+                }
+            }
+        }
+
+        //then from the waste
+        if (!board.isEmpty(WASTE)) {
+            int cardID = board.getTopCard(WASTE);
+
+            for (int k = 0; k < 7; k++) {
+                if (getRules().cardTest(board, k, cardID, 1)) {
+                    count = addMove(moves, count, cardMove(cardID, k));
+                }
+            }
+        }
+
+        //and finally use the main stack
+        if (!board.isEmpty(STOCK)) {
+            count = addMove(moves, count, DRAW);
+        } else if (!board.isEmpty(WASTE) && canRecycle()) {
+            count = addMove(moves, count, RECYCLE);
+        }
+
+        return count;
+    }
+
+    protected void applyMove(Board board, int move) {
+        if (move == DRAW) {
+            for (int i = 0; i < drawCount && !board.isEmpty(STOCK); i++) {
+                int cardID = board.getTopCard(STOCK);
+
+                board.addCard(WASTE, cardID);
+                board.setUp(cardID, true);
+            }
+        } else if (move == RECYCLE) {
+            while (!board.isEmpty(WASTE)) {
+                int cardID = board.getTopCard(WASTE);
+
+                board.addCard(STOCK, cardID);
+                board.setUp(cardID, false);
+            }
+
+            recycles++;
+        } else {
+            board.moveCards(getCardOf(move), getDestinationOf(move));
+        }
+
+        afterMove(board);
+    }
+
+    /**
+     * Flips the tableau cards up and moves every card to the foundations, which isn't needed
+     * on the tableau anymore.
+     */
+    private void afterMove(Board board) {
+        boolean moved;
+
+        do {
+            moved = false;
+            flipTopCardsUp(board, 0, 6);
+
+            for (int i = 0; i < 7; i++) {
+                moved |= moveSafelyToFoundation(board, i, 7, 10);
+            }
+
+            moved |= moveSafelyToFoundation(board, WASTE, 7, 10);
+        } while (moved);
+    }
+}
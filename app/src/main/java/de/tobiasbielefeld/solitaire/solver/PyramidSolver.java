@@ -0,0 +1,359 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.PyramidRules;
+
+/**
+ * Solver for Pyramid. Two free cards with the sum of 13 are removed at once, kings are removed
+ * automatically. The discard stacks are handled as one sequence (the cards of stack 29 and then
+ * the ones of stack 30), with a pointer to the top card of stack 30. Recycling keeps the order of
+ * the sequence, so a state contains:
+ * <p>
+ * - bits 0-27: the remaining cards of the pyramid
+ * - bits 28-51: the remaining cards of the sequence
+ * - bits 52-56: the pointer, every card of the sequence below belongs to stack 29
+ * - bits 57-61: the used recycles, if they are limited
+ * - bit 62: set if a card was removed since the last recycle. Recycling without removing a card
+ * would only lead back to an already searched state, so it's only possible with this bit set
+ */
+
+public class PyramidSolver extends StateSolver {
+
+    private static final int REMOVED = 28, WASTE = 29, STOCK = 30;
+    private static final long PYRAMID_MASK = (1L << 28) - 1;
+    private static final int SEQUENCE_SHIFT = 28, POINTER_SHIFT = 52, RECYCLES_SHIFT = 57;
+    private static final long SEQUENCE_MASK = (1L << 24) - 1;
+    private static final long PROGRESS = 1L << 62;
+    private static final long[] COVER_MASKS = new long[28];                                         //the stacks which have to be empty to free a stack
+    private static final long[] CONE_MASKS = new long[28];                                          //every stack which has to be removed before a stack
+
+    private final boolean easyDifficulty;
+    private final int[] cardIDs = new int[52];                                                      //pyramid cards first, then the sequence
+    private final int[] positions = new int[52];
+    private final int[] values = new int[52];
+    private final long[] valueMasks = new long[14];                                                 //the positions of the cards with each value
+    private final int[] freePositions = new int[30];
+
+    static {
+        for (int i = 0; i < 28; i++) {
+            int stackAboveID = PyramidRules.getStackAboveID(i);
+
+            COVER_MASKS[i] = stackAboveID == -1 ? 0 : 3L << stackAboveID;
+        }
+
+        //the covering stacks have higher ids, so start at the bottom row
+        for (int i = 27; i >= 0; i--) {
+            int stackAboveID = PyramidRules.getStackAboveID(i);
+
+            if (stackAboveID != -1) {
+                CONE_MASKS[i] = COVER_MASKS[i] | CONE_MASKS[stackAboveID] | CONE_MASKS[stackAboveID + 1];
+            }
+        }
+    }
+
+    /**
+     * @param easyDifficulty False if the discard stacks also have to be empty to win
+     */
+    public PyramidSolver(boolean easyDifficulty) {
+        super(new PyramidRules(), 1 << 19);
+
+        this.easyDifficulty = easyDifficulty;
+        ((PyramidRules) getRules()).setEasyDifficulty(easyDifficulty);
+        addSetting(easyDifficulty);
+    }
+
+    @Override
+    protected long encode(Board board) {
+        long state = 0;
+        int length = 0;
+
+        for (int i = 0; i < 52; i++) {
+            values[i] = board.getValue(i);
+        }
+
+        for (int i = 0; i < REMOVED; i++) {
+            if (!board.isEmpty(i)) {
+                setPosition(i, board.getTopCard(i));
+                state |= 1L << i;
+            }
+        }
+
+        for (int i = 0; i < board.getSize(WASTE); i++) {
+            setPosition(REMOVED + length++, board.getCard(WASTE, i));
+        }
+
+        int pointer = length;
+
+        for (int i = board.getSize(STOCK) - 1; i >= 0; i--) {
+            setPosition(REMOVED + length++, board.getCard(STOCK, i));
+        }
+
+        for (int i = 0; i < valueMasks.length; i++) {
+            valueMasks[i] = 0;
+        }
+
+        for (int i = 0; i < REMOVED + length; i++) {
+            if (i >= REMOVED || (state & 1L << i) != 0) {
+                valueMasks[values[cardIDs[i]]] |= 1L << i;
+            }
+        }
+
+        state |= ((1L << length) - 1) << SEQUENCE_SHIFT | (long) pointer << POINTER_SHIFT | PROGRESS;
+
+        return normalizePointer(removeKings(state));
+    }
+
+    @Override
+    protected int generateMoves(long state, int[] moves) {
+        int count = 0;
+        int numberOfFreePositions = 0;
+        int wastePosition = getWastePosition(state);
+        int stockPosition = getStockPosition(state);
+
+        for (int i = 0; i < REMOVED; i++) {
+            if ((state & 1L << i) != 0 && (state & COVER_MASKS[i]) == 0) {
+                freePositions[numberOfFreePositions++] = i;
+            }
+        }
+
+        if (wastePosition != -1) {
+            freePositions[numberOfFreePositions++] = wastePosition;
+        }
+
+        if (stockPosition != -1) {
+            freePositions[numberOfFreePositions++] = stockPosition;
+        }
+
+        //pairs of free cards, the pyramid cards come first
+        for (int i = 0; i < numberOfFreePositions; i++) {
+            int cardID1 = cardIDs[freePositions[i]];
+
+            for (int j = i + 1; j < numberOfFreePositions; j++) {
+                int cardID2 = cardIDs[freePositions[j]];
+
+                if (values[cardID1] + values[cardID2] == 13) {
+                    count = addMove(moves, count, pairMove(cardID1, cardID2));
+                }
+            }
+        }
+
+        recycles = (int) (state >>> RECYCLES_SHIFT) & 31;
+
+        if (stockPosition != -1) {
+            count = addMove(moves, count, DRAW);
+        } else if (wastePosition != -1 && (state & PROGRESS) != 0 && canRecycle()) {
+            count = addMove(moves, count, RECYCLE);
+        }
+
+        return count;
+    }
+
+    @Override
+    protected long applyMove(long state, int move) {
+        if (move == DRAW) {
+            return normalizePointer(removeKings(setPointer(state, getStockPosition(state) - REMOVED + 1)));
+        } else if (move == RECYCLE) {
+            if (hasLimitedRecycles()) {
+                state += 1L << RECYCLES_SHIFT;
+            }
+
+            return normalizePointer(removeKings(setPointer(state, 0) & ~PROGRESS));
+        }
+
+        state &= ~(1L << positions[getCardOf(move)] | 1L << positions[getSecondCardOf(move)]);
+
+        return normalizePointer(removeKings(state | PROGRESS));
+    }
+
+    /**
+     * The game can't be won anymore, if a pyramid card has no partner left.
+     */
+    @Override
+    protected boolean canBeWon(long state) {
+        for (int i = 0; i < REMOVED; i++) {
+            if ((state & 1L << i) != 0 && !hasPartner(state, i)) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    /**
+     * Every removal takes a card with a value v and one with 13 - v, so at most as many cards of
+     * each value can be removed as there are cards of the partner value. Pyramid cards which can't
+     * be removed anymore don't count, like the cards they cover.
+     */
+    @Override
+    protected int getScoreBound(long state) {
+        long stuck = 0;
+        long oldStuck;
+        int bound = getScore(state);
+
+        //stuck cards can't be partners either, so repeat until nothing changes
+        do {
+            oldStuck = stuck;
+
+            //the covering stacks have higher ids, so start at the bottom row
+            for (int i = REMOVED - 1; i >= 0; i--) {
+                if ((state & 1L << i) != 0
+                        && ((stuck & CONE_MASKS[i]) != 0 || !hasPartner(state & ~stuck, i))) {
+                    stuck |= 1L << i;
+                }
+            }
+        } while (stuck != oldStuck);
+
+        long remaining = state & ~stuck & (PYRAMID_MASK | SEQUENCE_MASK << SEQUENCE_SHIFT);
+        long counted = easyDifficulty ? PYRAMID_MASK : remaining;
+
+        bound += Long.bitCount(remaining & counted & valueMasks[13]);
+
+        for (int value = 1; value <= 6; value++) {
+            long cards = remaining & valueMasks[value];
+            long partnerCards = remaining & valueMasks[13 - value];
+            int pairs = Math.min(Long.bitCount(cards), Long.bitCount(partnerCards));
+
+            bound += Math.min(pairs, Long.bitCount(cards & counted))
+                    + Math.min(pairs, Long.bitCount(partnerCards & counted));
+        }
+
+        return bound;
+    }
+
+    /**
+     * A pyramid card can't be removed anymore, if every remaining card it could be paired with
+     * covers it, directly or indirectly. Kings don't need a partner.
+     */
+    private boolean hasPartner(long state, int position) {
+        int value = values[cardIDs[position]];
+
+        return value == 13 || (state & valueMasks[13 - value] & ~CONE_MASKS[position]) != 0;
+    }
+
+    @Override
+    protected boolean isWon(long state) {
+        if (easyDifficulty) {
+            return (state & PYRAMID_MASK) == 0;
+        }
+
+        return (state & (PYRAMID_MASK | SEQUENCE_MASK << SEQUENCE_SHIFT)) == 0;
+    }
+
+    /**
+     * The number of removed pyramid cards, on the hard difficulty every removed card counts.
+     */
+    @Override
+    protected int getScore(long state) {
+        if (easyDifficulty) {
+            return REMOVED - Long.bitCount(state & PYRAMID_MASK);
+        }
+
+        return 52 - Long.bitCount(state & (PYRAMID_MASK | SEQUENCE_MASK << SEQUENCE_SHIFT));
+    }
+
+    /**
+     * Removes every free king, like the auto move option of the game. Kings can't be paired, so
+     * removing them is always safe.
+     */
+    private long removeKings(long state) {
+        boolean moved;
+
+        do {
+            moved = false;
+
+            for (int i = 0; i < REMOVED; i++) {
+                if ((state & 1L << i) != 0 && (state & COVER_MASKS[i]) == 0 && values[cardIDs[i]] == 13) {
+                    state &= ~(1L << i);
+                    moved = true;
+                }
+            }
+
+            int wastePosition = getWastePosition(state);
+            int stockPosition = getStockPosition(state);
+
+            if (wastePosition != -1 && values[cardIDs[wastePosition]] == 13) {
+                state &= ~(1L << wastePosition);
+                moved = true;
+            }
+
+            if (stockPosition != -1 && values[cardIDs[stockPosition]] == 13) {
+                state &= ~(1L << stockPosition);
+                moved = true;
+            }
+
+            if (moved) {
+                state |= PROGRESS;
+            }
+        } while (moved);
+
+        return state;
+    }
+
+    /**
+     * Moves the pointer to the top card of stack 30, or to the end if it is empty. Pointers between
+     * the same remaining cards mean the same board, so they shouldn't lead to different states.
+     */
+    private static long normalizePointer(long state) {
+        int stockPosition = getStockPosition(state);
+
+        return setPointer(state, stockPosition == -1 ? 24 : stockPosition - REMOVED);
+    }
+
+    private void setPosition(int position, int cardID) {
+        cardIDs[position] = cardID;
+        positions[cardID] = position;
+    }
+
+    private static long setPointer(long state, int pointer) {
+        return state & ~(31L << POINTER_SHIFT) | (long) pointer << POINTER_SHIFT;
+    }
+
+    /**
+     * @return The position of the top card of stack 29, -1 if it is empty
+     */
+    private static int getWastePosition(long state) {
+        int pointer = (int) (state >>> POINTER_SHIFT) & 31;
+        long waste = state >>> SEQUENCE_SHIFT & ((1L << pointer) - 1);
+
+        return waste == 0 ? -1 : REMOVED + 63 - Long.numberOfLeadingZeros(waste);
+    }
+
+    /**
+     * @return The position of the top card of stack 30, -1 if it is empty
+     */
+    private static int getStockPosition(long state) {
+        int pointer = (int) (state >>> POINTER_SHIFT) & 31;
+        long stock = (state >>> SEQUENCE_SHIFT & SEQUENCE_MASK) >>> pointer;
+
+        return stock == 0 ? -1 : REMOVED + pointer + Long.numberOfTrailingZeros(stock);
+    }
+
+    /**
+     * @return The second card of a pair move, getCardOf() returns the first one
+     */
+    public static int getSecondCardOf(int move) {
+        return move >> 16;
+    }
+
+    private static int pairMove(int cardID1, int cardID2) {
+        return cardID2 << 16 | cardMove(cardID1, REMOVED);
+    }
+}
@@ -0,0 +1,249 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.Rules;
+
+/**
+ * Base class of the solvers, which test if a deal can be won. It contains what every search
+ * shares: the node and time budget, the game settings and the encoding of the moves, which the
+ * games use to show solutions as hints. The search itself is done by the subclasses,
+ * BoardSolver searches on copies of the board and StateSolver on positions encoded into a long.
+ * The AcesUpSolver changes its own columns and takes the moves back.
+ * <p>
+ * A search is limited by a number of nodes and a time limit, if one of them is reached the
+ * result is UNKNOWN. SOLVED is only returned if a sequence of moves reaching a won board was
+ * found.
+ * <p>
+ * Solvers use their own rules object and don't touch the preferences, so they can run on a
+ * background thread (or a plain JVM) while the player uses the game.
+ */
+
+public abstract class Solver {
+
+    public enum result {SOLVED, NOT_SOLVABLE, UNKNOWN}
+
+    /**
+     * The score of won boards, higher than every score a search can return otherwise.
+     */
+    public static final int WON = Byte.MAX_VALUE;
+
+    //special moves, card moves are encoded with cardMove()
+    protected static final int DRAW = -1, RECYCLE = -2;
+    protected static final int MAX_MOVES = 256;
+
+    private static final int TIME_CHECK_INTERVAL = 4096;
+
+    private final Rules rules;
+
+    private int maxNodes = 200000;
+    private long timeLimit = 1000;
+    private int maxRecycles = -1;
+    private volatile boolean cancelled;
+    private String settings = "";
+
+    private int nodes;
+    protected int bestScore = -1;                                                                   //of the best board of the last search
+    protected int recycles;                                                                         //recycles used to reach the current board
+
+    /**
+     * Creates a new solver.
+     *
+     * @param rules The rules used for dealing and testing the moves. Don't share them with a
+     *              running game
+     */
+    protected Solver(Rules rules) {
+        this.rules = rules;
+    }
+
+    /**
+     * Searches a sequence of moves to win the given board. The board itself isn't changed.
+     *
+     * @param start The board to solve
+     * @return The result of the search
+     */
+    public abstract result solve(Board start);
+
+    /**
+     * @return The moves of the last found solution in the encoding of the game. If no solution was
+     * found, the moves to the board with the best score
+     */
+    public abstract int[] getSolution();
+
+    /**
+     * Deals the given card order with the rules and solves it.
+     *
+     * @param order The card ids, like they would be put on the deal stack by GameLogic.redeal()
+     * @return The result of the search
+     */
+    public result solveDeal(int[] order) {
+        Board board = rules.createBoard();
+
+        rules.prepareDeal(board, order);
+        rules.dealCards(board);
+
+        return solve(board);
+    }
+
+    /**
+     * Resets the node counter and the cancel flag, call it when a new search starts.
+     *
+     * @return The time in milliseconds, when the search has to stop
+     */
+    protected long startSearch() {
+        cancelled = false;
+        nodes = 0;
+
+        return System.currentTimeMillis() + timeLimit;
+    }
+
+    /**
+     * Counts a new node of the search and tests if the search has to stop, because it reached the
+     * node limit or the time limit, or because it was cancelled.
+     *
+     * @param deadline The time returned by startSearch()
+     * @return True if the search has to stop, false otherwise
+     */
+    protected boolean countNode(long deadline) {
+        return ++nodes > maxNodes || cancelled
+                || (nodes % TIME_CHECK_INTERVAL == 0 && System.currentTimeMillis() > deadline);
+    }
+
+    /**
+     * Stops a running search, it will return UNKNOWN. Can be called from another thread.
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * @return The score of the best board which can be reached, WON if the game can be won and -1
+     * if the last search didn't finish
+     */
+    public int getBestScore() {
+        return bestScore;
+    }
+
+    public int getNumberOfNodes() {
+        return nodes;
+    }
+
+    public Rules getRules() {
+        return rules;
+    }
+
+    /**
+     * Returns a description of the game settings this solver uses, like the draw mode or the
+     * number of recycles. Deals which were solved with different settings can't be reused.
+     */
+    public String getSettings() {
+        return getClass().getSimpleName() + settings + "," + maxRecycles;
+    }
+
+    /**
+     * Adds a game setting to the description returned by getSettings(). Call it in the
+     * constructor for every option the solver depends on.
+     */
+    protected void addSetting(Object value) {
+        settings += "," + value;
+    }
+
+    /**
+     * Sets how many nodes a search can visit, before it gives up.
+     */
+    public void setMaxNodes(int number) {
+        maxNodes = number;
+    }
+
+    /**
+     * Sets how long a search can take in milliseconds, before it gives up.
+     */
+    public void setTimeLimit(long millis) {
+        timeLimit = millis;
+    }
+
+    /**
+     * Sets how often the main stack can be recycled, -1 for no limit.
+     */
+    public void setMaxRecycles(int number) {
+        maxRecycles = number;
+    }
+
+    protected boolean hasLimitedRecycles() {
+        return maxRecycles >= 0;
+    }
+
+    protected boolean canRecycle() {
+        return maxRecycles < 0 || recycles < maxRecycles;
+    }
+
+    protected static int cardMove(int cardID, int stackID) {
+        return cardID << 8 | stackID;
+    }
+
+    /**
+     * @return True if the move moves a card, false for special moves like DRAW
+     */
+    public static boolean isCardMove(int move) {
+        return move >= 0;
+    }
+
+    public static int getCardOf(int move) {
+        return (move >> 8) & 0xff;
+    }
+
+    public static int getDestinationOf(int move) {
+        return move & 0xff;
+    }
+
+    /**
+     * Adds a move to the array, if there is still space left.
+     *
+     * @return The new number of moves
+     */
+    protected static int addMove(int[] moves, int count, int move) {
+        if (count < moves.length) {
+            moves[count++] = move;
+        }
+
+        return count;
+    }
+
+    /**
+     * Sorts the moves by their score, the highest first. There are only a few moves, so a simple
+     * insertion sort is enough.
+     */
+    protected static void sortMoves(int[] moves, int[] scores, int count) {
+        for (int i = 1; i < count; i++) {
+            int move = moves[i];
+            int score = scores[i];
+            int j = i - 1;
+
+            while (j >= 0 && scores[j] < score) {
+                moves[j + 1] = moves[j];
+                scores[j + 1] = scores[j];
+                j--;
+            }
+
+            moves[j + 1] = move;
+            scores[j + 1] = score;
+        }
+    }
+}
@@ -0,0 +1,407 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import java.util.Arrays;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.SpiderRules;
+
+/**
+ * Solver for Spider. Complete families are moved to the foundations after every move, like
+ * testAfterMove() of the game does it.
+ * <p>
+ * Besides the depth first search for winnable deals, it has a best first search for the hints:
+ * rankMoves() always continues with the most promising board found so far, rated by
+ * evaluate(). Moving a whole sequence of the same family and dealing a new row from the main
+ * stacks are single moves, so every step of the search changes the board noticeably.
+ */
+
+public class SpiderSolver extends BoardSolver {
+
+    private static final int WON = Integer.MAX_VALUE;
+    private static final int DEPTH_COST = 2;                                                        //prefers shorter ways to the same rating
+    private static final int MAX_QUEUE_SIZE = 1 << 15;
+
+    private final int[] scores = new int[MAX_MOVES];
+
+    //the queue of the best first search, a heap of indices into the node arrays
+    private byte[][] nodeStates = new byte[0][];
+    private int[] nodeScores = new int[0];
+    private int[] nodeRootMoves = new int[0];
+    private int[] nodeDepths = new int[0];
+    private int[] heap = new int[0];
+    private int queueSize;
+    private TranspositionTable hintTable;
+
+    /**
+     * @param numberOfSuits The difficulty, 1, 2 or 4 suits
+     */
+    public SpiderSolver(int numberOfSuits) {
+        super(new SpiderRules(), 1 << 18);
+
+        ((SpiderRules) getRules()).setNumberOfSuits(numberOfSuits);
+        addSetting(numberOfSuits);
+        setMaxDepth(300);
+    }
+
+    protected int generateMoves(Board board, int[] moves) {
+        int count = 0;
+        int emptyTableau = firstEmptyStack(board, 0, 9);
+
+        /*
+         * Only moves which turn a card, empty a stack or build a longer sequence of the same
+         * family are used. Moving sequences around otherwise doesn't change anything.
+         */
+        for (int i = 0; i < 10; i++) {
+            if (board.isEmpty(i)) {
+                continue;
+            }
+
+            int sequenceStart = getSequenceStart(board, i);
+            int sequenceLength = board.getSize(i) - sequenceStart;
+
+            for (int j = sequenceStart; j < board.getSize(i); j++) {
+                int cardID = board.getCard(i, j);
+                int movingCount = board.getSize(i) - j;
+                boolean freesCard = j == sequenceStart && (j == 0 || !board.isUp(board.getCard(i, j - 1)));
+
+                for (int k = 0; k < 10; k++) {
+                    if (k == i || board.isEmpty(k) || !getRules().cardTest(board, k, cardID, movingCount)) {
+                        continue;
+                    }
+
+                    boolean sameFamily = board.getColor(board.getTopCard(k)) == board.getColor(cardID);
+                    int newLength = sameFamily ? movingCount + board.getSize(k) - getSequenceStart(board, k) : movingCount;
+
+                    if (freesCard || (sameFamily && newLength > sequenceLength)) {
+                        count = addMove(moves, count, cardMove(cardID, k));
+                        scores[count - 1] = newLength + (sameFamily ? 20 : 0) + (freesCard ? 40 : 0);
+                    }
+                }
+
+                if (freesCard && j > 0 && emptyTableau != -1) {
+                    count = addMove(moves, count, cardMove(cardID, emptyTableau));
+                    scores[count - 1] = 0;
+                }
+            }
+        }
+
+        sortMoves(moves, scores, count);
+
+        if (firstEmptyStack(board, 18, 22) != 18) {
+            count = addMove(moves, count, DRAW);
+        }
+
+        return count;
+    }
+
+    /**
+     * Searches the most promising moves of the given board with a best first search: The boards
+     * reached so far are kept in a queue, the one with the best rating is expanded next. Every
+     * move of the start board gets the best rating of the boards reached through it. If one of
+     * them wins the game, the search stops and this move is ranked first.
+     *
+     * Moves are encoded like in the depth first search, use isCardMove(), getCardOf() and
+     * getDestinationOf() to read them.
+     *
+     * @param start    The board to search moves on, it isn't changed
+     * @param maxNodes How many boards can be expanded at most
+     * @return The moves of the start board, the most promising first
+     */
+    public int[] rankMoves(Board start, int maxNodes) {
+        Board board = new Board(start);
+        Board child = new Board(start);
+        int[] ranking = new int[MAX_MOVES];
+        int[] moves = new int[MAX_MOVES];
+        int[] rootRatings = new int[MAX_MOVES];
+        int rootCount = generateMoves(board, ranking);
+
+        if (hintTable == null) {
+            hintTable = new TranspositionTable(MAX_QUEUE_SIZE * 2);
+        }
+
+        hintTable.clear();
+        hintTable.add(hash(board));
+        queueSize = 0;
+
+        for (int i = 0; i < rootCount; i++) {
+            child.copyFrom(board);
+            applyMove(child, ranking[i]);
+            rootRatings[i] = isWon(child) ? WON : evaluate(child) - DEPTH_COST;
+
+            if (hintTable.add(hash(child))) {
+                push(child, rootRatings[i], i, 1);
+            }
+        }
+
+        for (int expanded = 0; expanded < maxNodes && queueSize > 0; expanded++) {
+            int node = pop();
+            int rootMove = nodeRootMoves[node];
+            int depth = nodeDepths[node] + 1;
+
+            decode(nodeStates[node], board);
+
+            int count = generateMoves(board, moves);
+
+            for (int i = 0; i < count && rootRatings[rootMove] != WON; i++) {
+                child.copyFrom(board);
+                applyMove(child, moves[i]);
+
+                if (!hintTable.add(hash(child))) {
+                    continue;
+                }
+
+                if (isWon(child)) {
+                    rootRatings[rootMove] = WON;
+                    break;
+                }
+
+                int rating = evaluate(child) - depth * DEPTH_COST;
+                rootRatings[rootMove] = Math.max(rootRatings[rootMove], rating);
+                push(child, rating, rootMove, depth);
+            }
+
+            if (rootRatings[rootMove] == WON) {
+                break;
+            }
+        }
+
+        sortMoves(ranking, rootRatings, rootCount);
+        return Arrays.copyOf(ranking, rootCount);
+    }
+
+    /**
+     * Rates a board for the best first search, higher is better: Every card on the foundations,
+     * empty tableau stacks, cards lying in order on each other and the length of the movable
+     * sequence on top of each stack count, cards lying face down count against it.
+     */
+    private int evaluate(Board board) {
+        int score = 0;
+
+        for (int i = 10; i < 18; i++) {
+            score += board.getSize(i) * 20;
+        }
+
+        for (int i = 0; i < 10; i++) {
+            int size = board.getSize(i);
+
+            if (size == 0) {
+                score += 120;
+                continue;
+            }
+
+            for (int j = 0; j < size; j++) {
+                int cardID = board.getCard(i, j);
+
+                if (!board.isUp(cardID)) {
+                    score -= 25;
+                } else if (j > 0 && board.isUp(board.getCard(i, j - 1))
+                        && board.getValue(board.getCard(i, j - 1)) == board.getValue(cardID) + 1) {
+                    score += board.getColor(board.getCard(i, j - 1)) == board.getColor(cardID) ? 12 : 4;
+                }
+            }
+
+            score += (size - getSequenceStart(board, i)) * 6;
+        }
+
+        return score;
+    }
+
+    /**
+     * Adds a board to the queue of the best first search. If the queue is full, the board is
+     * dropped.
+     */
+    private void push(Board board, int score, int rootMove, int depth) {
+        if (queueSize == MAX_QUEUE_SIZE) {
+            return;
+        }
+
+        if (queueSize == heap.length) {
+            int length = Math.min(Math.max(queueSize * 2, 256), MAX_QUEUE_SIZE);
+
+            nodeStates = Arrays.copyOf(nodeStates, length);
+            nodeScores = Arrays.copyOf(nodeScores, length);
+            nodeRootMoves = Arrays.copyOf(nodeRootMoves, length);
+            nodeDepths = Arrays.copyOf(nodeDepths, length);
+            heap = Arrays.copyOf(heap, length);
+
+            for (int i = queueSize; i < length; i++) {
+                heap[i] = i;
+            }
+        }
+
+        //the slot behind the heap is always a free node
+        int node = heap[queueSize];
+        nodeStates[node] = encode(board, nodeStates[node]);
+        nodeScores[node] = score;
+        nodeRootMoves[node] = rootMove;
+        nodeDepths[node] = depth;
+
+        int index = queueSize++;
+
+        while (index > 0 && nodeScores[heap[(index - 1) / 2]] < score) {
+            heap[index] = heap[(index - 1) / 2];
+            index = (index - 1) / 2;
+        }
+
+        heap[index] = node;
+    }
+
+    /**
+     * Removes the node with the best score from the queue. Its data stays valid until the next
+     * push().
+     *
+     * @return The index of the node
+     */
+    private int pop() {
+        int node = heap[0];
+        int last = heap[--queueSize];
+        int index = 0;
+
+        while (2 * index + 1 < queueSize) {
+            int child = 2 * index + 1;
+
+            if (child + 1 < queueSize && nodeScores[heap[child + 1]] > nodeScores[heap[child]]) {
+                child++;
+            }
+
+            if (nodeScores[heap[child]] <= nodeScores[last]) {
+                break;
+            }
+
+            heap[index] = heap[child];
+            index = child;
+        }
+
+        heap[index] = last;
+        heap[queueSize] = node;                                                                     //free the node for the next push
+        return node;
+    }
+
+    /**
+     * Stores the stacks of a board in a byte array: The size of each stack followed by its cards,
+     * the highest bit of a card tells if it lies face up.
+     *
+     * @param board The board to store
+     * @param state An array to reuse, can be null
+     * @return The array containing the board
+     */
+    private static byte[] encode(Board board, byte[] state) {
+        int length = board.getNumberOfStacks() + board.getNumberOfCards();
+
+        if (state == null || state.length != length) {
+            state = new byte[length];
+        }
+
+        int position = 0;
+
+        for (int i = 0; i < board.getNumberOfStacks(); i++) {
+            state[position++] = (byte) board.getSize(i);
+
+            for (int j = 0; j < board.getSize(i); j++) {
+                int cardID = board.getCard(i, j);
+                state[position++] = (byte) (board.isUp(cardID) ? cardID | 0x80 : cardID);
+            }
+        }
+
+        return state;
+    }
+
+    private static void decode(byte[] state, Board board) {
+        int position = 0;
+
+        board.reset();
+
+        for (int i = 0; i < board.getNumberOfStacks(); i++) {
+            int size = state[position++];
+
+            for (int j = 0; j < size; j++) {
+                int value = state[position++] & 0xff;
+
+                board.addCard(i, value & 0x7f);
+                board.setUp(value & 0x7f, value >= 0x80);
+            }
+        }
+    }
+
+    protected void applyMove(Board board, int move) {
+        if (move == DRAW) {
+            int stockID = 22;
+
+            while (board.isEmpty(stockID)) {
+                stockID--;
+            }
+
+            //deal one card to every tableau stack, the top card goes to the first one
+            for (int i = 0; i < 10; i++) {
+                int cardID = board.getTopCard(stockID);
+
+                board.addCard(i, cardID);
+                board.setUp(cardID, true);
+            }
+        } else {
+            board.moveCards(getCardOf(move), getDestinationOf(move));
+        }
+
+        removeFullFamilies(board);
+        flipTopCardsUp(board, 0, 9);
+    }
+
+    /**
+     * Returns the position of the lowest card of the sequence on top of the stack.
+     */
+    private int getSequenceStart(Board board, int stackID) {
+        int index = board.getSize(stackID) - 1;
+
+        while (index > 0) {
+            int lowerCard = board.getCard(stackID, index - 1);
+            int upperCard = board.getCard(stackID, index);
+
+            if (!board.isUp(lowerCard) || board.getColor(lowerCard) != board.getColor(upperCard)
+                    || board.getValue(lowerCard) != board.getValue(upperCard) + 1) {
+                break;
+            }
+
+            index--;
+        }
+
+        return index;
+    }
+
+    /**
+     * Moves every sequence from king to ace of the same family to the foundations.
+     */
+    private void removeFullFamilies(Board board) {
+        for (int i = 0; i < 10; i++) {
+            int size = board.getSize(i);
+
+            if (size < 13 || board.getValue(board.getTopCard(i)) != 1) {
+                continue;
+            }
+
+            int cardID = board.getCard(i, size - 13);
+
+            if (board.getValue(cardID) == 13 && board.isUp(cardID)
+                    && getRules().addCardToMovementTest(board, cardID)) {
+                board.moveCards(cardID, firstEmptyStack(board, 10, 17));
+            }
+        }
+    }
+}
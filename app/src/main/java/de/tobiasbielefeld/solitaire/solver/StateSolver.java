@@ -0,0 +1,301 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import java.util.Arrays;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.Rules;
+
+/**
+ * Base class of the solvers for games, whose whole position fits into a long: Every tableau card
+ * is one bit of a mask, the main stack is a fixed sequence with a pointer to the next card. The
+ * board is only read once by encode(), the search itself works on the encoded states and doesn't
+ * copy boards.
+ * <p>
+ * A state can't come back during a game in these games, so every state is expanded once and its
+ * best reachable score is stored in a StateTable. The search doesn't stop at the first won board
+ * if no win is possible, it finds the most cards which can be cleared. The first pass skips
+ * states which can't be won anymore, if it proves that the game can't be won, a second pass
+ * searches the highest score. It only skips states whose bound can't beat the best score found
+ * so far. The results are exact, as long as the node and time limits aren't reached.
+ */
+
+public abstract class StateSolver extends Solver {
+
+    private final StateTable stateTable;
+    private long[] states = new long[0];
+    private int[][] moves = new int[0][];
+    private int[] moveCounts = new int[0];
+    private int[] moveIndices = new int[0];
+    private int[] bestScores = new int[0];
+
+    private int[] solution = new int[0];
+    private boolean pruning;                                                                        //skip states which can't be won
+    private int scoreToBeat;                                                                        //of the second pass
+    private boolean searchBestOutcome = true;                                                       //false while testing deals
+
+    /**
+     * @param rules         The rules of the game, only used to deal the cards
+     * @param tableCapacity The number of states the table of searched states can store
+     */
+    protected StateSolver(Rules rules, int tableCapacity) {
+        super(rules);
+        stateTable = new StateTable(tableCapacity);
+    }
+
+    /**
+     * Reads the board and stores everything which doesn't change during the search, like the
+     * card ids of the tableau positions and the order of the main stack.
+     *
+     * @param board The board to solve
+     * @return The state of the board, the highest bit has to be 0
+     */
+    protected abstract long encode(Board board);
+
+    /**
+     * Generates every possible move of the given state, the most promising first. The moves use
+     * the same encoding as the board based solvers, so the games can show them as hints.
+     *
+     * @param state The state to search moves on
+     * @param moves The array to store the moves in, has MAX_MOVES entries
+     * @return The number of moves stored
+     */
+    protected abstract int generateMoves(long state, int[] moves);
+
+    /**
+     * Applies a move, which was generated before, including every automatic movement.
+     *
+     * @return The new state
+     */
+    protected abstract long applyMove(long state, int move);
+
+    protected abstract boolean isWon(long state);
+
+    /**
+     * Returns the score of a state which isn't won, like the number of cleared cards. The search
+     * looks for the highest one, if the game can't be won anymore. It has to be lower than WON.
+     */
+    protected abstract int getScore(long state);
+
+    /**
+     * Tests if a state can still be won. In the first pass, states which can't are not searched
+     * further, so proving that a game can't be won ends a lot earlier.
+     */
+    protected boolean canBeWon(long state) {
+        return true;
+    }
+
+    /**
+     * Returns the highest score which could be reached from a state. It may be higher than the
+     * real one, but never lower. The closer it is, the fewer states the second pass searches.
+     */
+    protected int getScoreBound(long state) {
+        return WON;
+    }
+
+    /**
+     * Searches the best outcome of the given board: a sequence of moves to win it, or if that's not
+     * possible, to clear as many cards as possible. The board itself isn't changed.
+     *
+     * @param start The board to solve
+     * @return SOLVED if it can be won, NOT_SOLVABLE if the whole game was searched without a win
+     * and UNKNOWN if the search had to stop before. If the limits are reached while searching the
+     * highest score of a game which can't be won, it is still NOT_SOLVABLE, but the best score is
+     * -1 and the solution is the one of the first pass
+     */
+    @Override
+    public result solve(Board start) {
+        long deadline = startSearch();
+        long root = encode(start);
+        result firstResult = search(root, deadline, true, -1);
+
+        if (firstResult == result.NOT_SOLVABLE && searchBestOutcome) {
+            int firstScore = bestScore;
+            int[] firstSolution = solution;
+
+            if (search(root, deadline, false, firstScore) == result.UNKNOWN) {
+                bestScore = -1;
+                solution = firstSolution;
+            } else if (bestScore <= firstScore) {
+                //nothing better than the first pass, every other state was skipped
+                bestScore = firstScore;
+                solution = firstSolution;
+            }
+        }
+
+        return firstResult;
+    }
+
+    /**
+     * Deals only have to be tested for a win, so the second pass is skipped.
+     */
+    @Override
+    public result solveDeal(int[] order) {
+        searchBestOutcome = false;
+        result dealResult = super.solveDeal(order);
+        searchBestOutcome = true;
+
+        return dealResult;
+    }
+
+    /**
+     * Searches every state reachable from the root once, with the node and time budget left.
+     *
+     * @param pruning    True to not search states which can't be won anymore
+     * @param knownScore Without pruning, states whose bound isn't higher than this score or the
+     *                   best one found so far aren't searched
+     */
+    private result search(long root, long deadline, boolean pruning, int knownScore) {
+        int depth = 0;
+
+        this.pruning = pruning;
+        scoreToBeat = knownScore;
+        bestScore = -1;
+        solution = new int[0];
+        stateTable.clear();
+        push(0, root);
+
+        while (depth >= 0) {
+            long state = states[depth];
+            int score;
+
+            if (moveCounts[depth] == -1) {
+                //first visit of this state: use the known score or generate the moves
+                score = getKnownScore(state);
+
+                if (score == -1) {
+                    if (countNode(deadline)) {
+                        return result.UNKNOWN;
+                    }
+
+                    moveCounts[depth] = generateMoves(state, moves[depth]);
+                    bestScores[depth] = getScore(state);
+                    scoreToBeat = Math.max(scoreToBeat, bestScores[depth]);
+                    continue;
+                }
+            } else if (moveIndices[depth] < moveCounts[depth] && bestScores[depth] != WON) {
+                push(depth + 1, applyMove(state, moves[depth][moveIndices[depth]++]));
+                depth++;
+                continue;
+            } else {
+                //every move was tested
+                score = bestScores[depth];
+                stateTable.put(state, score);
+            }
+
+            depth--;
+
+            if (depth >= 0) {
+                bestScores[depth] = Math.max(bestScores[depth], score);
+            } else {
+                bestScore = score;
+            }
+        }
+
+        solution = followBestMoves(root);
+
+        return bestScore == WON ? result.SOLVED : result.NOT_SOLVABLE;
+    }
+
+    /**
+     * @return The moves to the best outcome of the last search, to win the game if it was solved
+     */
+    @Override
+    public int[] getSolution() {
+        return solution;
+    }
+
+    /**
+     * Returns the score of a state without searching it: won states, stored states and states
+     * which can't be won anymore, or can't beat the best score in the second pass.
+     *
+     * @return The score, -1 if the state has to be searched
+     */
+    private int getKnownScore(long state) {
+        if (isWon(state)) {
+            return WON;
+        }
+
+        int score = stateTable.getScore(state);
+
+        if (score == -1 && (pruning ? !canBeWon(state) : getScoreBound(state) <= scoreToBeat)) {
+            score = getScore(state);
+        }
+
+        return score;
+    }
+
+    /**
+     * Collects the moves to the best outcome: Starting at the searched state, it always takes a
+     * move to a state which still has the best score. If the table overflowed, a state may be
+     * missing, then the sequence ends earlier.
+     */
+    private int[] followBestMoves(long state) {
+        int[] nextMoves = new int[MAX_MOVES];
+        int[] sequence = new int[16];
+        int length = 0;
+
+        while (!isWon(state) && getScore(state) < bestScore) {
+            int count = generateMoves(state, nextMoves);
+            int i = 0;
+
+            while (i < count && getKnownScore(applyMove(state, nextMoves[i])) != bestScore) {
+                i++;
+            }
+
+            if (i == count) {
+                break;
+            }
+
+            if (length == sequence.length) {
+                sequence = Arrays.copyOf(sequence, length * 2);
+            }
+
+            sequence[length++] = nextMoves[i];
+            state = applyMove(state, nextMoves[i]);
+        }
+
+        return Arrays.copyOf(sequence, length);
+    }
+
+    /**
+     * Puts a state on the given depth of the search stack, the arrays grow if needed.
+     */
+    private void push(int depth, long state) {
+        if (states.length <= depth) {
+            int length = Math.max(depth + 1, states.length * 2);
+            int oldLength = moves.length;
+
+            states = Arrays.copyOf(states, length);
+            moves = Arrays.copyOf(moves, length);
+            moveCounts = Arrays.copyOf(moveCounts, length);
+            moveIndices = Arrays.copyOf(moveIndices, length);
+            bestScores = Arrays.copyOf(bestScores, length);
+
+            for (int i = oldLength; i < length; i++) {
+                moves[i] = new int[MAX_MOVES];
+            }
+        }
+
+        states[depth] = state;
+        moveCounts[depth] = -1;
+        moveIndices[depth] = 0;
+    }
+}
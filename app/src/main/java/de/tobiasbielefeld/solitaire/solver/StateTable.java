@@ -0,0 +1,136 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import java.util.Arrays;
+
+/**
+ * Stores the best score which can be reached from already searched states of the StateSolver.
+ * Like the TranspositionTable it uses primitive arrays with open addressing and a fixed size. The
+ * states itself are the keys, so there are no collisions and the stored results are exact.
+ */
+
+public class StateTable {
+
+    private static final int MAX_PROBES = 16;
+    private static final long USED = 1L << 63;                                                      //states never use the highest bit, so a key is never 0
+
+    private final long[] keys;
+    private final byte[] scores;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+    private boolean overflowed;
+
+    /**
+     * Creates a new table.
+     *
+     * @param capacity The number of slots, will be rounded up to a power of two
+     */
+    public StateTable(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+
+        keys = new long[slots];
+        scores = new byte[slots];
+        mask = slots - 1;
+        maxEntries = slots / 4 * 3;
+    }
+
+    /**
+     * Removes every entry, so a new search can be started.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        overflowed = false;
+    }
+
+    /**
+     * Stores the score of a state. If the table is full, the score isn't stored.
+     *
+     * @param state The state, the highest bit has to be 0
+     * @param score The best score which can be reached from the state, between 0 and 127
+     */
+    public void put(long state, int score) {
+        int index = find(state | USED);
+
+        if (index < 0) {
+            overflowed = true;
+            return;
+        }
+
+        if (keys[index] == 0) {
+            if (size >= maxEntries) {
+                overflowed = true;
+                return;
+            }
+
+            keys[index] = state | USED;
+            size++;
+        }
+
+        scores[index] = (byte) score;
+    }
+
+    /**
+     * @return The stored score of the state, -1 if it wasn't stored
+     */
+    public int getScore(long state) {
+        int index = find(state | USED);
+
+        return index >= 0 && keys[index] != 0 ? scores[index] : -1;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return True if a state couldn't be stored, so the search may have visited states twice
+     */
+    public boolean hasOverflowed() {
+        return overflowed;
+    }
+
+    /**
+     * Returns the slot of the key, or the empty slot where it can be stored. The states are very
+     * regular, so they are mixed before they are used as the index.
+     *
+     * @return The index of the slot, -1 if every probed slot is used by other keys
+     */
+    private int find(long key) {
+        long hash = key;
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+
+        int index = (int) hash & mask;
+
+        for (int i = 0; i < MAX_PROBES; i++) {
+            if (keys[index] == key || keys[index] == 0) {
+                return index;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        return -1;
+    }
+}
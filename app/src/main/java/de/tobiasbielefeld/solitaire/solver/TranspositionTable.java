@@ -0,0 +1,106 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import java.util.Arrays;
+
+/**
+ * Set of already visited board states, stored as 64 bit hashes in a primitive open addressing
+ * table. The size is fixed, so a search can't run out of memory. Once the table is full, new
+ * states aren't stored anymore and the table reports that it overflowed.
+ */
+
+public class TranspositionTable {
+
+    private static final int MAX_PROBES = 16;
+
+    private final long[] keys;
+    private final int mask;
+    private final int maxEntries;
+    private int size;
+    private boolean overflowed;
+
+    /**
+     * Creates a new table.
+     *
+     * @param capacity The number of slots, will be rounded up to a power of two
+     */
+    public TranspositionTable(int capacity) {
+        int slots = Integer.highestOneBit(Math.max(capacity, 16) - 1) << 1;
+
+        keys = new long[slots];
+        mask = slots - 1;
+        maxEntries = slots / 4 * 3;
+    }
+
+    /**
+     * Removes every entry, so a new search can be started.
+     */
+    public void clear() {
+        Arrays.fill(keys, 0);
+        size = 0;
+        overflowed = false;
+    }
+
+    /**
+     * Adds a state to the table.
+     *
+     * @param hash The hash of the state
+     * @return True if the state wasn't visited before, false otherwise
+     */
+    public boolean add(long hash) {
+        if (hash == 0) {                                                                            //0 marks empty slots
+            hash = 1;
+        }
+
+        int index = (int) (hash ^ (hash >>> 32)) & mask;
+
+        for (int i = 0; i < MAX_PROBES; i++) {
+            long key = keys[index];
+
+            if (key == hash) {
+                return false;
+            } else if (key == 0) {
+                if (size >= maxEntries) {
+                    break;
+                }
+
+                keys[index] = hash;
+                size++;
+                return true;
+            }
+
+            index = (index + 1) & mask;
+        }
+
+        overflowed = true;
+        return true;
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * @return True if a state couldn't be stored, so the search may have visited states twice
+     */
+    public boolean hasOverflowed() {
+        return overflowed;
+    }
+}
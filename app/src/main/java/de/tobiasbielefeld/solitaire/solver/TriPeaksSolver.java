@@ -0,0 +1,143 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.TriPeaksRules;
+
+/**
+ * Solver for TriPeaks. Only the top card of the discard stack matters for the next moves, so a
+ * state contains the remaining cards of the peaks as a mask (bits 0-27), the number of cards
+ * drawn from the main stack (bits 28-32) and the top card of the discard stack (bits 33-38).
+ */
+
+public class TriPeaksSolver extends StateSolver {
+
+    private static final int WASTE = 28, STOCK = 29;
+    private static final long PEAKS_MASK = (1L << 28) - 1;
+    private static final int POINTER_SHIFT = 28, WASTE_SHIFT = 33;
+    private static final long[] COVER_MASKS = new long[28];                                         //the stacks which have to be empty to uncover a stack
+
+    private final int[] cardIDs = new int[28];
+    private final int[] stackIDs = new int[52];
+    private final int[] values = new int[52];
+    private final int[] stock = new int[52];
+    private int stockSize;
+
+    static {
+        for (int i = 0; i < 28; i++) {
+            int stackAboveID = TriPeaksRules.getStackAboveID(i);
+
+            COVER_MASKS[i] = stackAboveID == -1 ? 0 : 3L << stackAboveID;
+        }
+    }
+
+    public TriPeaksSolver() {
+        super(new TriPeaksRules(), 1 << 19);
+    }
+
+    @Override
+    protected long encode(Board board) {
+        long state = 0;
+
+        for (int i = 0; i < 52; i++) {
+            values[i] = board.getValue(i);
+        }
+
+        for (int i = 0; i < WASTE; i++) {
+            if (!board.isEmpty(i)) {
+                cardIDs[i] = board.getTopCard(i);
+                stackIDs[cardIDs[i]] = i;
+                state |= 1L << i;
+            }
+        }
+
+        //the top card of the main stack is the first one to draw
+        stockSize = board.getSize(STOCK);
+
+        for (int i = 0; i < stockSize; i++) {
+            stock[i] = board.getCard(STOCK, stockSize - 1 - i);
+        }
+
+        return state | (long) (board.isEmpty(WASTE) ? 63 : board.getTopCard(WASTE)) << WASTE_SHIFT;
+    }
+
+    @Override
+    protected int generateMoves(long state, int[] moves) {
+        int count = 0;
+        int wasteCard = getWasteCard(state);
+
+        //start with the lower rows, these cards cover the other ones
+        for (int i = WASTE - 1; i >= 0; i--) {
+            if ((state & 1L << i) != 0 && (state & COVER_MASKS[i]) == 0
+                    && wasteCard != 63 && isNeighbour(values[cardIDs[i]], values[wasteCard])) {
+                count = addMove(moves, count, cardMove(cardIDs[i], WASTE));
+            }
+        }
+
+        if (getPointer(state) < stockSize) {
+            count = addMove(moves, count, DRAW);
+        }
+
+        return count;
+    }
+
+    @Override
+    protected long applyMove(long state, int move) {
+        long peaks = state & PEAKS_MASK;
+        int pointer = getPointer(state);
+        int wasteCard;
+
+        if (move == DRAW) {
+            wasteCard = stock[pointer++];
+        } else {
+            wasteCard = getCardOf(move);
+            peaks &= ~(1L << stackIDs[wasteCard]);
+        }
+
+        return peaks | (long) pointer << POINTER_SHIFT | (long) wasteCard << WASTE_SHIFT;
+    }
+
+    @Override
+    protected boolean isWon(long state) {
+        return (state & PEAKS_MASK) == 0;
+    }
+
+    @Override
+    protected int getScore(long state) {
+        return 28 - Long.bitCount(state & PEAKS_MASK);
+    }
+
+    private static int getPointer(long state) {
+        return (int) (state >>> POINTER_SHIFT) & 31;
+    }
+
+    private static int getWasteCard(long state) {
+        return (int) (state >>> WASTE_SHIFT) & 63;
+    }
+
+    /**
+     * Tests if the values are next to each other, kings and aces also count as neighbours.
+     */
+    private static boolean isNeighbour(int value1, int value2) {
+        int difference = Math.abs(value1 - value2);
+
+        return difference == 1 || difference == 12;
+    }
+}
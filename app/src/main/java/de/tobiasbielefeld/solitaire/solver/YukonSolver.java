@@ -0,0 +1,114 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.YukonRules;
+
+/**
+ * Solver for Yukon. Every faced up card can be moved together with the cards above it.
+ */
+
+public class YukonSolver extends BoardSolver {
+
+    private final boolean russianRules;
+
+    /**
+     * @param russianRules True to build the tableau in the same family instead of alternating colors
+     */
+    public YukonSolver(boolean russianRules) {
+        super(new YukonRules(), 1 << 18);
+
+        ((YukonRules) getRules()).setRussianRules(russianRules);
+        this.russianRules = russianRules;
+        addSetting(russianRules);
+    }
+
+    @Override
+    protected void prepare(Board board) {
+        afterMove(board);
+    }
+
+    protected int generateMoves(Board board, int[] moves) {
+        int count = 0;
+        int foundationID;
+
+        //first to the foundations
+        for (int i = 0; i < 7; i++) {
+            if (!board.isEmpty(i) && (foundationID = findStack(board, board.getTopCard(i), 7, 10)) != -1) {
+                count = addMove(moves, count, cardMove(board.getTopCard(i), foundationID));
+            }
+        }
+
+        //then movements which turn a card or empty a stack, the other ones at last
+        for (int pass = 0; pass < 2; pass++) {
+            for (int i = 0; i < 7; i++) {
+                int firstUp = board.getFirstUpCardPos(i);
+
+                if (firstUp == -1) {
+                    continue;
+                }
+
+                for (int j = firstUp; j < board.getSize(i); j++) {
+                    if ((j == firstUp) != (pass == 0)) {
+                        continue;
+                    }
+
+                    int cardID = board.getCard(i, j);
+
+                    for (int k = 0; k < 7; k++) {
+                        if (k != i && !(j == 0 && board.isEmpty(k))
+                                && getRules().cardTest(board, k, cardID, board.getSize(i) - j)) {
+                            count = addMove(moves, count, cardMove(cardID, k));
+                        }
+                    }
+                }
+            }
+        }
+
+        return count;
+    }
+
+    protected void applyMove(Board board, int move) {
+        board.moveCards(getCardOf(move), getDestinationOf(move));
+        afterMove(board);
+    }
+
+    /**
+     * With the russian rules, only a card of the same family can be placed on a card. It has to be
+     * on the foundation already, so moving a card there is always safe.
+     */
+    @Override
+    protected boolean isSafeFoundationMove(Board board, int cardID, int firstID, int lastID) {
+        return russianRules || super.isSafeFoundationMove(board, cardID, firstID, lastID);
+    }
+
+    private void afterMove(Board board) {
+        boolean moved;
+
+        do {
+            moved = false;
+            flipTopCardsUp(board, 0, 6);
+
+            for (int i = 0; i < 7; i++) {
+                moved |= moveSafelyToFoundation(board, i, 7, 10);
+            }
+        } while (moved);
+    }
+}
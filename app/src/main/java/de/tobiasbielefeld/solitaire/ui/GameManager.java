@@ -20,9 +20,9 @@ package de.tobiasbielefeld.solitaire.ui;
 
 import android.content.Intent;
 import android.content.res.Configuration;
-import android.graphics.RectF;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.Debug;
 import android.util.Log;
 import android.view.KeyEvent;
 import android.view.MotionEvent;
@@ -37,6 +37,7 @@ import android.widget.TextView;
 
 import java.util.Locale;
 
+import de.tobiasbielefeld.solitaire.BuildConfig;
 import de.tobiasbielefeld.solitaire.R;
 import de.tobiasbielefeld.solitaire.classes.Card;
 import de.tobiasbielefeld.solitaire.classes.CardAndStack;
@@ -55,7 +56,9 @@ import de.tobiasbielefeld.solitaire.helper.Hint;
 import de.tobiasbielefeld.solitaire.helper.RecordList;
 import de.tobiasbielefeld.solitaire.helper.Scores;
 import de.tobiasbielefeld.solitaire.helper.Sounds;
+import de.tobiasbielefeld.solitaire.helper.StackGrid;
 import de.tobiasbielefeld.solitaire.helper.Timer;
+import de.tobiasbielefeld.solitaire.solver.Solver;
 import de.tobiasbielefeld.solitaire.ui.settings.Settings;
 import de.tobiasbielefeld.solitaire.ui.statistics.StatisticsActivity;
 
@@ -74,10 +77,13 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
     public boolean hasLoaded = false;                                                               //used to call save() in onPause() only if load() has been called before
     public Button buttonAutoComplete;                                                               //button for auto complete
     public TextView mainTextViewTime, mainTextViewScore, mainTextViewRecycles;                       //textViews for time, scores and re-deals
+    private TextView mainTextViewSolvable;
     public RelativeLayout layoutGame;                                                               //contains the game stacks and cards
     public View highlight;
     private long firstTapTime;                                                                       //stores the time of first tapping on a card
     private CardAndStack tapped = null;
+    private CardAndStack tappedStorage = new CardAndStack(0, 0);                                   //reused for "tapped", to not create objects while touching
+    private StackGrid stackGrid = new StackGrid();                                                  //finds the stack under a released card
     private RelativeLayout mainRelativeLayoutBackground;
     private boolean activityPaused;
     public ImageView hideMenu;
@@ -101,6 +107,7 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
         mainTextViewTime = (TextView) findViewById(R.id.mainTextViewTime);
         mainTextViewScore = (TextView) findViewById(R.id.mainTextViewScore);
         mainTextViewRecycles = (TextView) findViewById(R.id.textViewRecycles);
+        mainTextViewSolvable = (TextView) findViewById(R.id.mainTextViewSolvable);
         buttonAutoComplete = (Button) findViewById(R.id.buttonMainAutoComplete);
         mainRelativeLayoutBackground = (RelativeLayout) findViewById(R.id.mainRelativeLayoutBackground);
         hideMenu = (ImageView) findViewById(R.id.mainImageViewResize);
@@ -202,6 +209,7 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
         //if there are direction borders set (when cards should'nt overlap another stack)  use it.
         //else set the layout height/width as maximum
         currentGame.applyDirectionBorders(layoutGame);
+        updateStackGrid();
 
         scores.load();
 
@@ -223,6 +231,8 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
             gameLogic.save();
         }
 
+        gameLogic.stopWinnableDealSearch();
+        gameLogic.stopSolvableCheck();
         activityPaused = true;
     }
 
@@ -242,6 +252,12 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
         //    initializeLayout(true);
         //}
 
+        //the check and the deal search were stopped in onPause(), also the settings could have been changed
+        if (hasLoaded) {
+            gameLogic.checkIfSolvable();
+            gameLogic.refillWinnableDeals();
+        }
+
         activityPaused = false;
     }
 
@@ -266,6 +282,10 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
      */
     public boolean onTouch(View view, MotionEvent event) {
 
+        if (BuildConfig.DEBUG) {
+            countAllocations(event);
+        }
+
         CustomImageView v = (CustomImageView) view;
         //if something important happens don't accept input
         if (gameLogic.stopConditions()) {
@@ -321,7 +341,7 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
             //do what the game wants to be done on a main stack press
             currentGame.mainStackTouch();
             gameLogic.checkForAutoCompleteButton();
-            handlerTestAfterMove.sendEmptyMessageDelayed(0,100);
+            gamePipeline.add(handlerTestAfterMove);
             return resetTappedCard();
         }
 
@@ -368,7 +388,7 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
             }
 
             if (currentGame.addCardToMovementTest((cards[v.getId()]))) {
-                tapped = new CardAndStack(cards[v.getId()], cards[v.getId()].getStack());
+                tapped = tappedStorage.set(cards[v.getId()], cards[v.getId()].getStack());
 
                 firstTapTime = System.currentTimeMillis();
 
@@ -478,30 +498,15 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
      * @return A possible destination with the highest intersection
      */
     private Stack getIntersectingStack(Card card) {
+        return stackGrid.getIntersectingStack(card);
+    }
 
-        RectF cardRect = new RectF(card.getX(), card.getY(), card.getX() + card.view.getWidth(), card.getY() + card.view.getHeight());
-
-        Stack returnStack = null;
-        float overlapArea = 0;
-
-        for (Stack stack : stacks) {
-            if (card.getStack() == stack)
-                continue;
-
-            RectF stackRect = stack.getRect();
-
-            if (RectF.intersects(cardRect, stackRect)) {
-                float overlapX = max(0, min(cardRect.right, stackRect.right) - max(cardRect.left, stackRect.left));
-                float overlapY = max(0, min(cardRect.bottom, stackRect.bottom) - max(cardRect.top, stackRect.top));
-
-                if (overlapX * overlapY > overlapArea && card.test(stack)) {
-                    overlapArea = overlapX * overlapY;
-                    returnStack = stack;
-                }
-            }
-        }
-
-        return returnStack;
+    /**
+     * Rebuilds the grid to find the stacks under a released card. Call it after the stack positions
+     * changed.
+     */
+    public void updateStackGrid() {
+        stackGrid.rebuild(layoutGame.getWidth(), layoutGame.getHeight());
     }
 
     /**
@@ -684,6 +689,11 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
                     recordList.undo(this);
                 }
                 break;
+            case R.id.mainButtonRedo:           //redo last undone movement
+                if (!gameLogic.hasWon()) {
+                    recordList.redo(this);
+                }
+                break;
             case R.id.mainButtonHint:           //show a hint
                 showHelpDialog();
                 break;
@@ -761,6 +771,57 @@ public class GameManager extends CustomAppCompatActivity implements View.OnTouch
         }
     }
 
+    /**
+     * Debug builds only: Counts the objects created on the main thread from ACTION_DOWN until
+     * ACTION_UP (or ACTION_CANCEL) and logs them per gesture. Dragging cards shouldn't create any
+     * objects, only the movement to another stack does. BuildConfig.DEBUG is a constant, so the
+     * call is removed from release builds.
+     *
+     * @param event The current motion event
+     */
+    @SuppressWarnings("deprecation")
+    private void countAllocations(MotionEvent event) {
+        switch (event.getActionMasked()) {
+            case MotionEvent.ACTION_DOWN:
+                Debug.resetThreadAllocCount();
+                Debug.startAllocCounting();
+                break;
+            case MotionEvent.ACTION_UP:
+            case MotionEvent.ACTION_CANCEL:
+                Debug.stopAllocCounting();
+                Log.d("onTouch", "allocations during gesture: " + Debug.getThreadAllocCount());
+                break;
+        }
+    }
+
+    /**
+     * Shows the result of the check if the game can still be won.
+     *
+     * @param result The result of the solver, or null while the check is running. UNKNOWN means
+     *               the check gave up, it isn't restarted before the next move
+     * @param bestScore The most cards which can be removed, shown if the game can't be won. It is
+     *                  -1 if the search for it reached its limits
+     */
+    public void showSolvableIndicator(Solver.result result, int bestScore) {
+        if (result == Solver.result.SOLVED) {
+            mainTextViewSolvable.setText(R.string.game_solvable_yes);
+        } else if (result == Solver.result.NOT_SOLVABLE && bestScore > 0) {
+            mainTextViewSolvable.setText(getString(R.string.game_solvable_best_outcome, bestScore));
+        } else if (result == Solver.result.NOT_SOLVABLE) {
+            mainTextViewSolvable.setText(R.string.game_solvable_no);
+        } else if (result == Solver.result.UNKNOWN) {                                               //the check reached its limits
+            mainTextViewSolvable.setText(R.string.game_solvable_unknown);
+        } else {
+            mainTextViewSolvable.setText(R.string.game_solvable_checking);
+        }
+
+        mainTextViewSolvable.setVisibility(View.VISIBLE);
+    }
+
+    public void hideSolvableIndicator() {
+        mainTextViewSolvable.setVisibility(View.GONE);
+    }
+
     private boolean resetTappedCard() {
         tapped = null;
         cardHighlight.hide(this);
@@ -144,7 +144,7 @@ public class GameSelector extends CustomAppCompatActivity implements NavigationV
                     tableLayout.addView(row);
                 }
 
-                imageView.setImageBitmap(bitmaps.getMenu(index));
+                bitmaps.loadMenu(index, imageView);
                 imageView.setOnTouchListener(this);
                 indexes.add(i);
                 row.addView(imageView);
@@ -0,0 +1,205 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.engine;
+
+import org.junit.Test;
+
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Spot checks of the rules on hand made boards. The expected results are the ones of the
+ * cardTest(), addCardToMovementGameTest() and winTest() methods the games had before the rules
+ * were moved into the engine.
+ */
+
+public class RulesTest {
+
+    //families of the default card order, the first and third one have the same color
+    private static final int CLUBS = 0, HEARTS = 1, SPADES = 2, DIAMONDS = 3;
+
+    @Test
+    public void freecellTableau() {
+        FreecellRules rules = new FreecellRules();
+        Board board = rules.createBoard();
+
+        put(board, 0, card(CLUBS, 9));
+        put(board, 1, card(HEARTS, 8));
+        put(board, 2, card(SPADES, 8));
+        put(board, 3, card(HEARTS, 7));
+
+        assertTrue(rules.cardTest(board, 0, card(HEARTS, 8), 1));
+        assertFalse("same color", rules.cardTest(board, 0, card(SPADES, 8), 1));
+        assertFalse("wrong value", rules.cardTest(board, 0, card(HEARTS, 7), 1));
+        assertTrue("empty tableau stack", rules.cardTest(board, 4, card(HEARTS, 7), 1));
+    }
+
+    @Test
+    public void freecellCellsAndFoundations() {
+        FreecellRules rules = new FreecellRules();
+        Board board = rules.createBoard();
+
+        put(board, 0, card(CLUBS, 1));
+        put(board, 1, card(CLUBS, 2));
+        put(board, 2, card(HEARTS, 2));
+        put(board, 8, card(SPADES, 5));
+
+        assertTrue(rules.cardTest(board, 9, card(CLUBS, 2), 1));
+        assertFalse("occupied cell", rules.cardTest(board, 8, card(CLUBS, 2), 1));
+        assertFalse("more than one card", rules.cardTest(board, 9, card(CLUBS, 2), 2));
+
+        assertTrue(rules.cardTest(board, 12, card(CLUBS, 1), 1));
+        assertFalse("no ace", rules.cardTest(board, 12, card(CLUBS, 2), 1));
+
+        board.addCard(12, card(CLUBS, 1));
+
+        assertTrue(rules.cardTest(board, 12, card(CLUBS, 2), 1));
+        assertFalse("other family", rules.cardTest(board, 12, card(HEARTS, 2), 1));
+    }
+
+    @Test
+    public void freecellPowerMoves() {
+        FreecellRules rules = new FreecellRules();
+        Board board = rules.createBoard();
+
+        //a sequence of two cards on the first stack, every other tableau stack isn't empty
+        put(board, 0, card(CLUBS, 6));
+        put(board, 0, card(HEARTS, 5));
+        put(board, 1, card(DIAMONDS, 7));
+
+        for (int i = 2; i < 8; i++) {
+            put(board, i, card(SPADES, i));
+        }
+
+        assertTrue(rules.addCardToMovementTest(board, card(CLUBS, 6)));
+        assertTrue(rules.cardTest(board, 1, card(CLUBS, 6), 2));
+
+        //without free cells only one card can be moved at once
+        for (int i = 8; i < 12; i++) {
+            put(board, i, card(SPADES, i + 1));
+        }
+
+        assertFalse(rules.addCardToMovementTest(board, card(CLUBS, 6)));
+        assertFalse(rules.cardTest(board, 1, card(CLUBS, 6), 2));
+        assertTrue(rules.addCardToMovementTest(board, card(HEARTS, 5)));
+    }
+
+    @Test
+    public void freecellWin() {
+        FreecellRules rules = new FreecellRules();
+        Board board = rules.createBoard();
+
+        for (int family = 0; family < 4; family++) {
+            for (int value = 1; value <= 13; value++) {
+                put(board, 12 + family, card(family, value));
+            }
+        }
+
+        assertTrue(rules.winTest(board));
+
+        board.addCard(0, card(DIAMONDS, 13));
+
+        assertFalse(rules.winTest(board));
+    }
+
+    @Test
+    public void klondike() {
+        KlondikeRules rules = new KlondikeRules();
+        Board board = rules.createBoard();
+
+        put(board, 0, card(CLUBS, 13));
+        put(board, 1, card(HEARTS, 12));
+        put(board, 11, card(CLUBS, 1));
+        put(board, 12, card(HEARTS, 1));
+
+        assertTrue("king on empty stack", rules.cardTest(board, 2, card(CLUBS, 13), 1));
+        assertFalse("no king on empty stack", rules.cardTest(board, 2, card(HEARTS, 12), 1));
+        assertTrue(rules.cardTest(board, 0, card(HEARTS, 12), 1));
+        assertTrue("ace on foundation", rules.cardTest(board, 7, card(HEARTS, 1), 1));
+        assertFalse("more than one card", rules.cardTest(board, 7, card(HEARTS, 1), 2));
+
+        //only the top card of the discard stacks can be moved
+        assertTrue(rules.addCardToMovementTest(board, card(HEARTS, 1)));
+        assertFalse(rules.addCardToMovementTest(board, card(CLUBS, 1)));
+    }
+
+    @Test
+    public void golf() {
+        GolfRules rules = new GolfRules();
+        Board board = rules.createBoard();
+
+        put(board, 0, card(CLUBS, 5));
+        put(board, 0, card(HEARTS, 6));
+        put(board, 1, card(SPADES, 13));
+        put(board, 7, card(DIAMONDS, 7));
+
+        assertTrue(rules.addCardToMovementTest(board, card(HEARTS, 6)));
+        assertFalse("covered card", rules.addCardToMovementTest(board, card(CLUBS, 5)));
+        assertFalse("discard stack", rules.addCardToMovementTest(board, card(DIAMONDS, 7)));
+
+        assertTrue(rules.cardTest(board, 7, card(HEARTS, 6), 1));
+        assertFalse("only on the discard stack", rules.cardTest(board, 1, card(HEARTS, 6), 1));
+        assertFalse("difference isn't one", rules.cardTest(board, 7, card(CLUBS, 5), 1));
+
+        put(board, 7, card(CLUBS, 1));
+
+        assertFalse(rules.cardTest(board, 7, card(SPADES, 13), 1));
+        rules.setCyclic(true);
+        assertTrue("king on ace if cyclic", rules.cardTest(board, 7, card(SPADES, 13), 1));
+    }
+
+    @Test
+    public void pyramid() {
+        PyramidRules rules = new PyramidRules();
+        Board board = rules.createBoard();
+
+        //stack 0 is covered by stacks 1 and 2
+        put(board, 0, card(CLUBS, 6));
+        put(board, 1, card(HEARTS, 7));
+        put(board, 2, card(SPADES, 13));
+        put(board, 29, card(DIAMONDS, 7));
+
+        assertFalse("covered card", rules.addCardToMovementTest(board, card(CLUBS, 6)));
+        assertTrue(rules.addCardToMovementTest(board, card(DIAMONDS, 7)));
+        assertFalse("covered stack", rules.cardTest(board, 0, card(DIAMONDS, 7), 1));
+        assertFalse("sum isn't 13", rules.cardTest(board, 1, card(DIAMONDS, 7), 1));
+        assertTrue("king alone", rules.cardTest(board, 28, card(SPADES, 13), 1));
+
+        board.addCard(28, card(HEARTS, 7));
+        board.addCard(28, card(SPADES, 13));
+
+        assertTrue(rules.cardTest(board, 0, card(DIAMONDS, 7), 1));
+        assertFalse(rules.winTest(board));
+
+        board.addCard(28, card(CLUBS, 6));
+
+        assertTrue(rules.winTest(board));
+        rules.setEasyDifficulty(false);
+        assertFalse("discard stack isn't empty", rules.winTest(board));
+    }
+
+    private static int card(int family, int value) {
+        return family * 13 + value - 1;
+    }
+
+    private static void put(Board board, int stackID, int cardID) {
+        board.addCard(stackID, cardID);
+        board.setUp(cardID, true);
+    }
+}
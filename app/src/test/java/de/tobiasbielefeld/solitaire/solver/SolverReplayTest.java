@@ -0,0 +1,334 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.solver;
+
+import org.junit.Test;
+
+import java.util.Random;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.CardShuffler;
+import de.tobiasbielefeld.solitaire.engine.PyramidRules;
+import de.tobiasbielefeld.solitaire.engine.Rules;
+import de.tobiasbielefeld.solitaire.engine.TriPeaksRules;
+
+import static org.junit.Assert.assertTrue;
+
+/**
+ * Solves random deals and replays the found solutions on a copy of the dealt board. Every card
+ * move has to be allowed by the rules of the game, and the board has to be won afterwards.
+ * Automatic movements (like safe moves to the foundations or flipping cards up) are done by the
+ * solvers themselves, like the games do them after a movement.
+ */
+
+public class SolverReplayTest {
+
+    private static final int NUMBER_OF_DEALS = 20;
+    private static final int MAX_NODES = 200000;
+
+    @Test
+    public void freecellSolutionsAreLegal() {
+        testBoardSolver(new FreecellSolver());
+    }
+
+    @Test
+    public void acesUpSolutionsAreLegal() {
+        AcesUpSolver solver = new AcesUpSolver();
+        Rules rules = solver.getRules();
+        int solved = 0;
+
+        for (int seed = 0; seed < NUMBER_OF_DEALS; seed++) {
+            Board board = deal(rules, seed);
+
+            if (solve(solver, board) != Solver.result.SOLVED) {
+                continue;
+            }
+
+            for (int move : solver.getSolution()) {
+                if (move == Solver.DRAW) {
+                    assertTrue("draw from the empty stock, deal " + seed, !board.isEmpty(5));
+
+                    for (int i = 0; i < 4 && !board.isEmpty(5); i++) {
+                        board.addCard(i, board.getTopCard(5));
+                    }
+                } else {
+                    int cardID = Solver.getCardOf(move);
+
+                    assertTrue("illegal move, deal " + seed, rules.addCardToMovementTest(board, cardID)
+                            && rules.cardTest(board, Solver.getDestinationOf(move), cardID, 1));
+
+                    board.addCard(Solver.getDestinationOf(move), cardID);
+                }
+            }
+
+            assertTrue("deal " + seed + " isn't won", rules.winTest(board));
+            solved++;
+        }
+
+        assertTrue("no deal was solved", solved > 0);
+    }
+
+    @Test
+    public void spiderSolutionsAreLegal() {
+        testBoardSolver(new SpiderSolver(1));
+    }
+
+    @Test
+    public void klondikeSolutionsAreLegal() {
+        testBoardSolver(new KlondikeSolver(false));
+        testBoardSolver(new KlondikeSolver(true));
+    }
+
+    @Test
+    public void canfieldSolutionsAreLegal() {
+        testBoardSolver(new CanfieldSolver(false, 13));
+        testBoardSolver(new CanfieldSolver(true, 13));
+    }
+
+    @Test
+    public void yukonSolutionsAreLegal() {
+        testBoardSolver(new YukonSolver(false));
+        testBoardSolver(new YukonSolver(true));
+    }
+
+    @Test
+    public void pyramidSolutionsAreLegal() {
+        PyramidSolver solver = new PyramidSolver(true);
+        PyramidRules rules = (PyramidRules) solver.getRules();
+        int solved = 0;
+
+        for (int seed = 0; seed < NUMBER_OF_DEALS; seed++) {
+            Board board = deal(rules, seed);
+
+            if (solve(solver, board) != Solver.result.SOLVED) {
+                continue;
+            }
+
+            removeFreeKings(board, rules);
+
+            for (int move : solver.getSolution()) {
+                if (move == Solver.DRAW) {
+                    assertTrue("draw from the empty stock, deal " + seed, !board.isEmpty(30));
+                    board.addCard(29, board.getTopCard(30));
+                } else if (move == Solver.RECYCLE) {
+                    while (!board.isEmpty(29)) {
+                        board.addCard(30, board.getTopCard(29));
+                    }
+                } else {
+                    int cardID1 = Solver.getCardOf(move);
+                    int cardID2 = PyramidSolver.getSecondCardOf(move);
+
+                    assertTrue("card isn't free, deal " + seed, board.isTopCard(cardID1)
+                            && rules.addCardToMovementTest(board, cardID1));
+                    assertTrue("cards can't be paired, deal " + seed, board.isTopCard(cardID2)
+                            && rules.cardTest(board, board.getStackOf(cardID2), cardID1, 1));
+
+                    board.addCard(28, cardID2);
+                    board.addCard(28, cardID1);
+                }
+
+                removeFreeKings(board, rules);
+            }
+
+            assertTrue("deal " + seed + " isn't won", rules.winTest(board));
+            solved++;
+        }
+
+        assertTrue("no deal was solved", solved > 0);
+    }
+
+    @Test
+    public void triPeaksSolutionsAreLegal() {
+        TriPeaksSolver solver = new TriPeaksSolver();
+        TriPeaksRules rules = (TriPeaksRules) solver.getRules();
+        int solved = 0;
+
+        for (int seed = 0; seed < NUMBER_OF_DEALS; seed++) {
+            Board board = deal(rules, seed);
+
+            if (solve(solver, board) != Solver.result.SOLVED) {
+                continue;
+            }
+
+            for (int move : solver.getSolution()) {
+                if (move == Solver.DRAW) {
+                    assertTrue("draw from the empty stock, deal " + seed, !board.isEmpty(29));
+                    board.addCard(28, board.getTopCard(29));
+                } else {
+                    int cardID = Solver.getCardOf(move);
+
+                    assertTrue("illegal move, deal " + seed, rules.stackIsFree(board, board.getStackOf(cardID))
+                            && rules.cardTest(board, 28, cardID, 1));
+
+                    board.addCard(28, cardID);
+                }
+            }
+
+            assertTrue("deal " + seed + " isn't won", rules.winTest(board));
+            solved++;
+        }
+
+        assertTrue("no deal was solved", solved > 0);
+    }
+
+    @Test
+    public void golfSolutionsAreLegal() {
+        testGolfSolver(new GolfSolver(false));
+        testGolfSolver(new GolfSolver(true));
+    }
+
+    private void testGolfSolver(GolfSolver solver) {
+        Rules rules = solver.getRules();
+        int solved = 0;
+
+        for (int seed = 0; seed < NUMBER_OF_DEALS; seed++) {
+            Board board = deal(rules, seed);
+
+            if (solve(solver, board) != Solver.result.SOLVED) {
+                continue;
+            }
+
+            for (int move : solver.getSolution()) {
+                if (move == Solver.DRAW) {
+                    assertTrue("draw from the empty stock, deal " + seed, !board.isEmpty(8));
+                    board.addCard(7, board.getTopCard(8));
+                } else {
+                    int cardID = Solver.getCardOf(move);
+
+                    assertTrue("illegal move, deal " + seed, rules.addCardToMovementTest(board, cardID)
+                            && rules.cardTest(board, 7, cardID, 1));
+
+                    board.addCard(7, cardID);
+                }
+            }
+
+            assertTrue("deal " + seed + " isn't won", rules.winTest(board));
+            solved++;
+        }
+
+        assertTrue("no deal was solved", solved > 0);
+    }
+
+    /**
+     * Replays the solutions of a board solver. The card moves are tested with the rules, then
+     * applied by the solver, including its automatic movements.
+     */
+    private void testBoardSolver(BoardSolver solver) {
+        Rules rules = solver.getRules();
+        int solved = 0;
+
+        for (int seed = 0; seed < NUMBER_OF_DEALS; seed++) {
+            Board board = deal(rules, seed);
+
+            if (solve(solver, board) != Solver.result.SOLVED) {
+                continue;
+            }
+
+            solver.prepare(board);
+
+            for (int move : solver.getSolution()) {
+                if (Solver.isCardMove(move)) {
+                    int cardID = Solver.getCardOf(move);
+                    int stackID = board.getStackOf(cardID);
+                    int movingCount = board.getSize(stackID) - board.getIndexOnStack(cardID);
+
+                    assertTrue("card can't be moved, deal " + seed, rules.addCardToMovementTest(board, cardID));
+                    assertTrue("illegal move, deal " + seed,
+                            rules.cardTest(board, Solver.getDestinationOf(move), cardID, movingCount));
+                }
+
+                solver.applyMove(board, move);
+            }
+
+            if (solver instanceof KlondikeSolver) {
+                finishKlondike(board, rules);
+            }
+
+            assertTrue("deal " + seed + " isn't won", rules.winTest(board));
+            solved++;
+        }
+
+        assertTrue("no deal was solved", solved > 0);
+    }
+
+    /**
+     * The Klondike solver stops once every card is faced up and the main stack is empty. Then the
+     * top cards of the tableau have to be movable to the foundations until the board is won.
+     */
+    private static void finishKlondike(Board board, Rules rules) {
+        boolean moved;
+
+        do {
+            moved = false;
+
+            for (int i = 0; i < 7; i++) {
+                for (int k = 7; k <= 10 && !board.isEmpty(i); k++) {
+                    if (rules.cardTest(board, k, board.getTopCard(i), 1)) {
+                        board.addCard(k, board.getTopCard(i));
+                        moved = true;
+                    }
+                }
+            }
+        } while (moved);
+    }
+
+    /**
+     * Removes every king which isn't covered, like the solver does it after each move.
+     */
+    private static void removeFreeKings(Board board, PyramidRules rules) {
+        boolean removed;
+
+        do {
+            removed = false;
+
+            for (int i = 0; i <= 30; i++) {
+                if (i != 28 && !board.isEmpty(i) && board.getValue(board.getTopCard(i)) == 13
+                        && rules.stackIsFree(board, i)) {
+                    board.addCard(28, board.getTopCard(i));
+                    removed = true;
+                }
+            }
+        } while (removed);
+    }
+
+    /**
+     * Solves the board with a fixed number of nodes. The time limit is only there to not hang, so
+     * the found solutions don't depend on the speed of the machine.
+     */
+    private static Solver.result solve(Solver solver, Board board) {
+        solver.setMaxNodes(MAX_NODES);
+        solver.setTimeLimit(60000);
+        return solver.solve(board);
+    }
+
+    private static Board deal(Rules rules, long seed) {
+        Board board = rules.createBoard();
+        int[] order = new int[board.getNumberOfCards()];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        CardShuffler.randomize(order, board, new Random(seed), true);
+        rules.prepareDeal(board, order);
+        rules.dealCards(board);
+
+        return board;
+    }
+}
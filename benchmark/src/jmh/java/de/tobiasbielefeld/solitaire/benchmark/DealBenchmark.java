@@ -0,0 +1,51 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+
+/**
+ * Benchmarks dealing a game: putting every card on the deal stack like GameLogic.redeal() and
+ * then the dealCards() method of the game rules.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class DealBenchmark {
+
+    @Benchmark
+    public Board dealCards(GameState state) {
+        state.rules.prepareDeal(state.workBoard, state.order);
+        state.rules.dealCards(state.workBoard);
+        return state.workBoard;
+    }
+
+    @Benchmark
+    public Board copyBoard(GameState state) {
+        state.workBoard.copyFrom(state.board);
+        return state.workBoard;
+    }
+}
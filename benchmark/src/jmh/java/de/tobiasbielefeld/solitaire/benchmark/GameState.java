@@ -0,0 +1,112 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.benchmark;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+
+import de.tobiasbielefeld.solitaire.engine.*;
+
+/**
+ * Shared state of the benchmarks: the rules of one game, parameterised by the game name, and a
+ * freshly dealt board of it. Vegas isn't listed, because it uses the Klondike rules.
+ */
+
+@State(Scope.Thread)
+public class GameState {
+
+    @Param({"AcesUp", "Calculation", "Canfield", "FortyEight", "Freecell", "Golf", "GrandfathersClock",
+            "Gypsy", "Klondike", "Mod3", "Pyramid", "SimpleSimon", "Spider", "TriPeaks", "Yukon"})
+    public String game;
+
+    public Rules rules;
+    public Board board;                                                                             //the dealt board, don't change it in benchmarks
+    public Board workBoard;                                                                         //copy of the dealt board to work on
+    public int[] order;
+    public Random random;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        rules = createRules(game);
+        random = new Random(1);
+
+        board = rules.createBoard();
+        workBoard = rules.createBoard();
+        order = new int[board.getNumberOfCards()];
+
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+
+        CardShuffler.randomize(order, board, random, true);
+        rules.prepareDeal(board, order);
+        rules.dealCards(board);
+        workBoard.copyFrom(board);
+    }
+
+    /**
+     * Creates the rules of a game, the names are the same as the game class names.
+     *
+     * @param name The name of the game
+     * @return The rules of the game
+     * @throws IllegalArgumentException If there is no game with that name
+     */
+    public static Rules createRules(String name) throws IllegalArgumentException {
+        switch (name) {
+            case "AcesUp":
+                return new AcesUpRules();
+            case "Calculation":
+                return new CalculationRules();
+            case "Canfield":
+                return new CanfieldRules();
+            case "FortyEight":
+                return new FortyEightRules();
+            case "Freecell":
+                return new FreecellRules();
+            case "Golf":
+                return new GolfRules();
+            case "GrandfathersClock":
+                return new GrandfathersClockRules();
+            case "Gypsy":
+                return new GypsyRules();
+            case "Klondike":
+            case "Vegas":
+                return new KlondikeRules();
+            case "Mod3":
+                return new Mod3Rules();
+            case "Pyramid":
+                return new PyramidRules();
+            case "SimpleSimon":
+                return new SimpleSimonRules();
+            case "Spider":
+                return new SpiderRules();
+            case "TriPeaks":
+                return new TriPeaksRules();
+            case "Yukon":
+                return new YukonRules();
+            default:
+                throw new IllegalArgumentException("Unknown game: " + name);
+        }
+    }
+}
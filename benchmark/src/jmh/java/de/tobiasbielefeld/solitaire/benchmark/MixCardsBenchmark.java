@@ -0,0 +1,65 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.CardShuffler;
+
+/**
+ * Benchmarks mixing the cards on a dealt board, like Game.mixCards() does. Every card on the
+ * table is mixed, the game specific exclusions aren't part of the engine. The board is reset
+ * from the dealt board in every operation, compare with DealBenchmark.copyBoard for its costs.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@State(Scope.Thread)
+public class MixCardsBenchmark {
+
+    private int[] cardsToMix;
+    private int[] exchanges;
+
+    @Setup(Level.Trial)
+    public void setUp(GameState state) {
+        cardsToMix = new int[state.board.getNumberOfCards()];
+        exchanges = new int[2 * cardsToMix.length];
+
+        for (int i = 0; i < cardsToMix.length; i++) {
+            cardsToMix[i] = i;
+        }
+    }
+
+    @Benchmark
+    public Board mixCards(GameState state) {
+        state.workBoard.copyFrom(state.board);
+        CardShuffler.mixCards(state.workBoard, cardsToMix, cardsToMix.length, state.random, false, exchanges);
+        return state.workBoard;
+    }
+}
@@ -0,0 +1,103 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.Rules;
+
+/**
+ * Benchmarks the move validation on a dealt board. cardTest tests every card as a single moving
+ * card against every stack. movableCardSearch isn't the hintTest() of any game, it is a generic
+ * search with the same kind of work: every face up card which can be picked up is tested against
+ * every other stack, together with the cards above it.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MoveTestBenchmark {
+
+    @Benchmark
+    public int cardTest(GameState state) {
+        Rules rules = state.rules;
+        Board board = state.board;
+        int possibleMoves = 0;
+
+        for (int card = 0; card < board.getNumberOfCards(); card++) {
+            for (int stack = 0; stack < board.getNumberOfStacks(); stack++) {
+                if (rules.cardTest(board, stack, card, 1)) {
+                    possibleMoves++;
+                }
+            }
+        }
+
+        return possibleMoves;
+    }
+
+    @Benchmark
+    public int addCardToMovementTest(GameState state) {
+        Rules rules = state.rules;
+        Board board = state.board;
+        int movableCards = 0;
+
+        for (int card = 0; card < board.getNumberOfCards(); card++) {
+            if (board.isUp(card) && rules.addCardToMovementTest(board, card)) {
+                movableCards++;
+            }
+        }
+
+        return movableCards;
+    }
+
+    @Benchmark
+    public int movableCardSearch(GameState state) {
+        Rules rules = state.rules;
+        Board board = state.board;
+        int possibleMoves = 0;
+
+        for (int source = 0; source < board.getNumberOfStacks(); source++) {
+            if (board.isEmpty(source)) {
+                continue;
+            }
+
+            for (int i = board.getFirstUpCardPos(source); i >= 0 && i < board.getSize(source); i++) {
+                int card = board.getCard(source, i);
+                int movingCount = board.getSize(source) - i;
+
+                if (!rules.addCardToMovementTest(board, card)) {
+                    continue;
+                }
+
+                for (int destination = 0; destination < board.getNumberOfStacks(); destination++) {
+                    if (destination != source && rules.cardTest(board, destination, card, movingCount)) {
+                        possibleMoves++;
+                    }
+                }
+            }
+        }
+
+        return possibleMoves;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.concurrent.TimeUnit;
+
+import de.tobiasbielefeld.solitaire.helper.RecordBuffer;
+
+/**
+ * Benchmarks the RecordBuffer, which stores the undo records of RecordList: Adding an entry after
+ * a movement and undoing it again. RecordList itself needs the Android classes, so its journal
+ * and the card movements aren't part of it. The buffer is full after the first operations, so
+ * every new entry overwrites the oldest one, like in a long game.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class RecordBufferBenchmark {
+
+    @State(Scope.Thread)
+    public static class RecordState {
+
+        @Param({"1", "10", "52"})
+        public int cardsPerEntry;
+
+        public RecordBuffer buffer;
+
+        @Setup(Level.Trial)
+        public void setUp() {
+            buffer = new RecordBuffer(20);                                                          //the default of the max undo setting
+        }
+    }
+
+    @Benchmark
+    public int add(RecordState state) {
+        record(state.buffer, state.cardsPerEntry);
+        return state.buffer.getNumberOfEntries();
+    }
+
+    @Benchmark
+    public int undo(RecordState state) {
+        RecordBuffer buffer = state.buffer;
+        int sum = 0;
+
+        record(buffer, state.cardsPerEntry);
+
+        //walk the move orders like RecordList.undo() does, moving the cards back one order at a time
+        int index = buffer.getNumberOfEntries() - 1;
+        int order = buffer.getNextMoveOrder(index, -1);
+
+        while (order != -1) {
+            for (int i = 0; i < buffer.getSize(index); i++) {
+                if (buffer.getOrder(index, i) == order) {
+                    buffer.setDestination(index, i, buffer.getOrigin(index, i) + 1);
+                    sum += buffer.getCard(index, i);
+                }
+            }
+
+            order = buffer.getNextMoveOrder(index, order);
+        }
+
+        buffer.moveLastEntryToRedo();
+        return sum;
+    }
+
+    /**
+     * Records one movement of the given amount of cards, the first card gets flipped afterwards.
+     */
+    private static void record(RecordBuffer buffer, int cards) {
+        buffer.startEntry();
+
+        for (int i = 0; i < cards; i++) {
+            buffer.addSlot(i, i % 13, 0, false);
+        }
+
+        buffer.prepareAddingInFront();
+        buffer.addSlot(0, 0, 0, true);
+    }
+}
@@ -0,0 +1,50 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+
+import java.util.concurrent.TimeUnit;
+
+import de.tobiasbielefeld.solitaire.engine.CardShuffler;
+
+/**
+ * Benchmarks the shuffling of a new deal, like GameLogic.randomize() does it, with and without
+ * the true randomisation setting.
+ */
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class ShuffleBenchmark {
+
+    @Benchmark
+    public int[] randomize(GameState state) {
+        CardShuffler.randomize(state.order, state.board, state.random, false);
+        return state.order;
+    }
+
+    @Benchmark
+    public int[] randomizeTrueRandomisation(GameState state) {
+        CardShuffler.randomize(state.order, state.board, state.random, true);
+        return state.order;
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * Copyright (C) 2016  Tobias Bielefeld
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ *
+ * If you want to contact me, send me an e-mail at tobias.bielefeld@gmail.com
+ */
+
+package de.tobiasbielefeld.solitaire.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import de.tobiasbielefeld.solitaire.engine.Board;
+import de.tobiasbielefeld.solitaire.engine.CardShuffler;
+import de.tobiasbielefeld.solitaire.solver.*;
+
+/**
+ * Benchmarks the solvers used for winnable deals. Every invocation solves the next one of a
+ * fixed list of deals, with the same limits as the search in the app.
+ */
+
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@State(Scope.Thread)
+public class SolverBenchmark {
+
+    private static final int NUMBER_OF_DEALS = 16;
+
+    @Param({"AcesUp", "Canfield", "Freecell", "Golf", "Klondike", "Pyramid", "Spider", "TriPeaks", "Yukon"})
+    public String game;
+
+    private Solver solver;
+    private int[][] orders;
+    private int index;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        solver = createSolver(game);
+        solver.setMaxNodes(200000);
+        solver.setTimeLimit(1000);
+
+        Board board = solver.getRules().createBoard();
+        Random random = new Random(1);
+        orders = new int[NUMBER_OF_DEALS][board.getNumberOfCards()];
+
+        for (int[] order : orders) {
+            for (int i = 0; i < order.length; i++) {
+                order[i] = i;
+            }
+
+            CardShuffler.randomize(order, board, random, true);
+        }
+    }
+
+    @Benchmark
+    public Solver.result solveDeal() {
+        index = (index + 1) % NUMBER_OF_DEALS;
+        return solver.solveDeal(orders[index]);
+    }
+
+    /**
+     * Creates a solver with the default settings of the game.
+     */
+    private static Solver createSolver(String name) throws IllegalArgumentException {
+        switch (name) {
+            case "AcesUp":
+                return new AcesUpSolver();
+            case "Canfield":
+                return new CanfieldSolver(true, 13);
+            case "Freecell":
+                return new FreecellSolver();
+            case "Golf":
+                return new GolfSolver(true);
+            case "Klondike":
+                return new KlondikeSolver(false);
+            case "Pyramid":
+                return new PyramidSolver(true);
+            case "Spider":
+                return new SpiderSolver(1);
+            case "TriPeaks":
+                return new TriPeaksSolver();
+            case "Yukon":
+                return new YukonSolver(false);
+            default:
+                throw new IllegalArgumentException("Unknown game: " + name);
+        }
+    }
+}